@@ -0,0 +1,188 @@
+package ru.yandex.benchmarks.audit;
+
+import model.dto.in.PlayerTransferMoneyRequestDto;
+import model.dto.out.BalanceDto;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.aspectj.runtime.internal.AroundClosure;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import ru.yandex.metrics.audit.AuditPolicy;
+import ru.yandex.metrics.audit.AuditSampler;
+import ru.yandex.metrics.audit.ControllerAuditAspect;
+import ru.yandex.metrics.audit.event.AuditEndpoint;
+import ru.yandex.metrics.audit.event.AuditEvent;
+import ru.yandex.metrics.audit.event.AuditEventType;
+import ru.yandex.metrics.audit.logging.Logger;
+import ru.yandex.metrics.audit.logging.LoggingLevel;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аудит вызова перевода денег в потоке запроса: прежнее построение сообщения через String.format против создания
+ * события и его кодирования, а также весь совет {@link ControllerAuditAspect} при включенном, выключенном и
+ * выборочном аудите. Логгер только запоминает событие, как асинхронный логгер, который кодирует события в своем
+ * потоке.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuditBenchmark {
+    private static final String AUTH_TOKEN = "Bearer eyJhbGciOiJIUzI1NiJ9";
+
+    private PlayerTransferMoneyRequestDto moneyRequest;
+    private AuditEvent event;
+    private StubJoinPoint joinPoint;
+    private CapturingLogger logger;
+    private ControllerAuditAspect enabledAspect;
+    private ControllerAuditAspect disabledAspect;
+    private ControllerAuditAspect sampledAspect;
+
+    @Setup
+    public void setUp() {
+        moneyRequest = new PlayerTransferMoneyRequestDto("user", 10.0);
+        event = new AuditEvent(LoggingLevel.INFO, AuditEventType.TRANSFER_REQUESTED, AuditEndpoint.TRANSFER_MONEY,
+                moneyRequest);
+        joinPoint = new StubJoinPoint(ResponseEntity.ok(new BalanceDto(1L, "admin", BigDecimal.TEN)));
+        logger = new CapturingLogger();
+
+        AuditSampler noSampling = new AuditSampler(false, 1, Duration.ZERO);
+        enabledAspect = new ControllerAuditAspect(logger, new AuditPolicy(LoggingLevel.INFO, Map.of()), noSampling);
+        disabledAspect = new ControllerAuditAspect(logger,
+                new AuditPolicy(LoggingLevel.INFO, Map.of(AuditEndpoint.TRANSFER_MONEY, false)), noSampling);
+        sampledAspect = new ControllerAuditAspect(logger, new AuditPolicy(LoggingLevel.INFO, Map.of()),
+                new AuditSampler(true, 0, Duration.ofHours(1)));
+    }
+
+    /**
+     * Сообщение в том виде, в каком его строил аспект до перехода на события
+     */
+    @Benchmark
+    public String legacyFormat() {
+        return String.format("Инициация перевода денег к username=%s суммой=%f. authToken = %s",
+                moneyRequest.getRecipient(), moneyRequest.getAmount(), AUTH_TOKEN);
+    }
+
+    @Benchmark
+    public AuditEvent createEvent() {
+        return new AuditEvent(LoggingLevel.INFO, AuditEventType.TRANSFER_REQUESTED, AuditEndpoint.TRANSFER_MONEY,
+                moneyRequest);
+    }
+
+    /**
+     * Кодирование, которое выполняет поток записи логгера
+     */
+    @Benchmark
+    public String encodeEvent() {
+        return event.encode();
+    }
+
+    @Benchmark
+    public Object aspectEnabled() throws Throwable {
+        return enabledAspect.moneyTransferMethod(joinPoint, AUTH_TOKEN, moneyRequest);
+    }
+
+    @Benchmark
+    public Object aspectDisabled() throws Throwable {
+        return disabledAspect.moneyTransferMethod(joinPoint, AUTH_TOKEN, moneyRequest);
+    }
+
+    /**
+     * Успешный быстрый запрос баланса, который выборка не сохраняет
+     */
+    @Benchmark
+    public Object aspectSampledOut() throws Throwable {
+        return sampledAspect.balanceMethod(joinPoint, AUTH_TOKEN);
+    }
+
+    private static class CapturingLogger implements Logger {
+        private AuditEvent last;
+
+        @Override
+        public void logMessage(LoggingLevel level, String message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void log(AuditEvent event) {
+            last = event;
+        }
+    }
+
+    /**
+     * Точка соединения, которая сразу возвращает готовый ответ контроллера
+     */
+    private static class StubJoinPoint implements ProceedingJoinPoint {
+        private final Object response;
+
+        StubJoinPoint(Object response) {
+            this.response = response;
+        }
+
+        @Override
+        public void set$AroundClosure(AroundClosure arc) {
+        }
+
+        @Override
+        public Object proceed() {
+            return response;
+        }
+
+        @Override
+        public Object proceed(Object[] args) {
+            return response;
+        }
+
+        @Override
+        public String toShortString() {
+            return "stub";
+        }
+
+        @Override
+        public String toLongString() {
+            return "stub";
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public Object getTarget() {
+            return null;
+        }
+
+        @Override
+        public Object[] getArgs() {
+            return new Object[0];
+        }
+
+        @Override
+        public Signature getSignature() {
+            return null;
+        }
+
+        @Override
+        public SourceLocation getSourceLocation() {
+            return null;
+        }
+
+        @Override
+        public String getKind() {
+            return METHOD_EXECUTION;
+        }
+
+        @Override
+        public StaticPart getStaticPart() {
+            return null;
+        }
+    }
+}
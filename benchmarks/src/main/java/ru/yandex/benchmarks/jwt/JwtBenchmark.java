@@ -0,0 +1,146 @@
+package ru.yandex.benchmarks.jwt;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.yandex.wallet.in.UnpackedJwtClaims;
+import ru.yandex.wallet.in.controller.AbstractTokenConsumer;
+import ru.yandex.wallet.util.JwtUtils;
+import ru.yandex.wallet.util.JwtVerifier;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка JWT: генерация токена, разбор с проверкой подписи, проверка через кеш {@link JwtVerifier} и
+ * получение данных пользователя в контроллере из атрибута запроса либо разбором заголовка.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtBenchmark {
+    private static final String SECRET = "EPxegtlyd6Jk4EpQk5mT3DZLAyZ7BIk/oF8h75eNFvZ65/Hvsmw6nyghM04zTQC3e6CHG/S3hcWfVJfX1w1" +
+            "iooi2wbmRYhQY4chpIACSQUmVA0+FqBbeTEX5xj5x9sIKkdJ7pw/Uh/T8bIu2k0JUMDTLnsBUz6YHyETKE3Y8Ic8Kn+ILKWDV3jHDvIPQG9C6" +
+            "BtEYGujDDPnanIRfKJt5Bg7XK65JINq5Y/9b7XKyZxEkMCA69qSAzwJgogWy44NQ4C9eutklnTw1o/XDY5rvTLkWmQr/eaCXkaTfrSGCZG1NZp" +
+            "glqTU1HX5SKQW62B18dCI0/b5wfeJ+0TLtHx6MS4eJ9gBT/G8OV8YspIQWfnY=";
+
+    private Map<String, Object> claims;
+    private String token;
+    private String authHeader;
+    private JwtVerifier verifier;
+    private TokenConsumer consumer;
+    private RequestAttributes verifiedRequest;
+
+    @Setup
+    public void setUp() {
+        claims = Map.of(
+                "login", "admin",
+                "id", 1L,
+                "username", "admin",
+                "session-id", UUID.randomUUID()
+        );
+        token = JwtUtils.generateToken(SECRET, claims);
+        authHeader = "Bearer " + token;
+        verifier = new JwtVerifier(SECRET, 4096);
+        consumer = new TokenConsumer();
+
+        verifiedRequest = new MapRequestAttributes();
+        verifiedRequest.setAttribute(UnpackedJwtClaims.REQUEST_ATTRIBUTE, verifier.verify(token),
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JwtUtils.generateToken(SECRET, claims);
+    }
+
+    @Benchmark
+    public UnpackedJwtClaims unpackClaims() {
+        return JwtUtils.unpackClaims(token, SECRET);
+    }
+
+    @Benchmark
+    public UnpackedJwtClaims verifyCached() {
+        return verifier.verify(token);
+    }
+
+    /**
+     * Контроллер за фильтром: данные берутся из атрибута запроса
+     */
+    @Benchmark
+    public UnpackedJwtClaims consumerVerifiedRequest() {
+        RequestContextHolder.setRequestAttributes(verifiedRequest);
+        return consumer.unpack(authHeader);
+    }
+
+    /**
+     * Вызов вне запроса: заголовок разбирается заново
+     */
+    @Benchmark
+    public UnpackedJwtClaims consumerParsesHeader() {
+        RequestContextHolder.resetRequestAttributes();
+        return consumer.unpack(authHeader);
+    }
+
+    private static class TokenConsumer extends AbstractTokenConsumer {
+        UnpackedJwtClaims unpack(String authHeader) {
+            return unpackJwtClaims(authHeader, SECRET);
+        }
+    }
+
+    /**
+     * Атрибуты запроса без сервлетного контейнера
+     */
+    private static class MapRequestAttributes implements RequestAttributes {
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @Override
+        public Object getAttribute(String name, int scope) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value, int scope) {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name, int scope) {
+            attributes.remove(name);
+        }
+
+        @Override
+        public String[] getAttributeNames(int scope) {
+            return attributes.keySet().toArray(String[]::new);
+        }
+
+        @Override
+        public void registerDestructionCallback(String name, Runnable callback, int scope) {
+        }
+
+        @Override
+        public Object resolveReference(String key) {
+            return null;
+        }
+
+        @Override
+        public String getSessionId() {
+            return "benchmark";
+        }
+
+        @Override
+        public Object getSessionMutex() {
+            return this;
+        }
+    }
+}
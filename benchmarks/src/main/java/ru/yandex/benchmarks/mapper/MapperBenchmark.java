@@ -0,0 +1,93 @@
+package ru.yandex.benchmarks.mapper;
+
+import model.dto.in.PlayerRequestMoneyDto;
+import model.dto.in.PlayerTransferMoneyRequestDto;
+import model.dto.out.AuthenticatedPlayerDto;
+import model.dto.out.BalanceDto;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.MoneyTransferResponse;
+import ru.yandex.wallet.domain.dto.TransactionDto;
+import ru.yandex.wallet.domain.mapper.MoneyTransferMapper;
+import ru.yandex.wallet.domain.mapper.PlayerMapper;
+import ru.yandex.wallet.domain.mapper.TransactionMapper;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразования MapStruct на пути запроса: игрок в DTO ответа, транзакция в DTO истории и запрос клиента во
+ * внутренний запрос перевода.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+    private final PlayerMapper playerMapper = PlayerMapper.INSTANCE;
+    private final TransactionMapper transactionMapper = TransactionMapper.INSTANCE;
+    private final MoneyTransferMapper moneyTransferMapper = MoneyTransferMapper.INSTANCE;
+
+    private Player player;
+    private Transaction transaction;
+    private UUID transactionId;
+    private PlayerTransferMoneyRequestDto transferRequest;
+    private PlayerRequestMoneyDto moneyRequest;
+    private MoneyTransferResponse moneyTransferResponse;
+
+    @Setup
+    public void setUp() {
+        player = new Player(1L, "admin", "admin", new byte[32], new BigDecimal("1000.00"));
+        transactionId = TransactionIds.newId();
+        transaction = new Transaction(transactionId, TransferRequestStatus.PENDING, "admin", "user",
+                new BigDecimal("10.00"), LocalDateTime.now());
+        transferRequest = new PlayerTransferMoneyRequestDto("user", 10.0);
+        moneyRequest = new PlayerRequestMoneyDto("user", 10.0);
+        moneyTransferResponse = new MoneyTransferResponse(
+                new AuthenticatedPlayerDto(1L, "admin", "admin", new BigDecimal("1000.00")),
+                transactionMapper.toTransactionDto(transaction));
+    }
+
+    @Benchmark
+    public BalanceDto playerToBalanceDto() {
+        return playerMapper.toBalanceDto(player);
+    }
+
+    @Benchmark
+    public AuthenticatedPlayerDto playerToAuthenticatedPlayerDto() {
+        return playerMapper.toAuthenticatedPlayerDto(player);
+    }
+
+    @Benchmark
+    public TransactionDto transactionToTransactionDto() {
+        return transactionMapper.toTransactionDto(transaction);
+    }
+
+    @Benchmark
+    public MoneyTransferRequest transactionToMoneyTransferRequest() {
+        return transactionMapper.toMoneyTransferRequest(transaction);
+    }
+
+    @Benchmark
+    public MoneyTransferRequest transferDtoToMoneyTransferRequest() {
+        return moneyTransferMapper.toMoneyTransferRequest(transactionId, "admin", transferRequest);
+    }
+
+    @Benchmark
+    public MoneyTransferRequest requestDtoToMoneyTransferRequest() {
+        return moneyTransferMapper.toMoneyTransferRequest(transactionId, "admin", moneyRequest);
+    }
+
+    @Benchmark
+    public BalanceDto moneyTransferResponseToBalanceDto() {
+        return moneyTransferMapper.toBalanceDto(moneyTransferResponse);
+    }
+}
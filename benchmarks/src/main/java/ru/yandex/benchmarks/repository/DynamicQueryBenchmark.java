@@ -0,0 +1,39 @@
+package ru.yandex.benchmarks.repository;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.repository.jdbcimpl.TransactionQueries;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение запроса выборки транзакций по отправителю, получателю и статусу для каждого набора условий, которые
+ * используют сервис и репозиторий
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamicQueryBenchmark {
+
+    @Param({"SENDER", "RECIPIENT", "SENDER_PENDING", "ALL"})
+    public String conditions;
+
+    private String sender;
+    private String recipient;
+    private TransferRequestStatus status;
+
+    @Setup
+    public void setUp() {
+        sender = conditions.startsWith("SENDER") || conditions.equals("ALL") ? "admin" : null;
+        recipient = conditions.equals("RECIPIENT") || conditions.equals("ALL") ? "user" : null;
+        status = conditions.endsWith("PENDING") || conditions.equals("ALL") ? TransferRequestStatus.PENDING : null;
+    }
+
+    @Benchmark
+    public String buildDynamicQuery() {
+        return TransactionQueries.buildDynamicQuery(sender, recipient, status);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.benchmarks.service;
+
+import model.dto.in.PlayerRequestMoneyDto;
+import model.dto.in.PlayerTransferMoneyRequestDto;
+import model.dto.in.TransactionsListDto;
+import model.dto.out.BalanceDto;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.metrics.registry.MetricsRegistry;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.dto.MoneyTransferResponse;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.metrics.WalletMetrics;
+import ru.yandex.wallet.repository.memory.InMemoryMoneyTransferRepositoryImpl;
+import ru.yandex.wallet.repository.memory.InMemoryPlayerCrudRepositoryImpl;
+import ru.yandex.wallet.repository.memory.InMemoryTransactionCrudRepositoryImpl;
+import ru.yandex.wallet.repository.memory.PlayerTable;
+import ru.yandex.wallet.repository.memory.TransactionTable;
+import ru.yandex.wallet.service.impl.PlayerServiceImpl;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сценарии {@link PlayerServiceImpl} над репозиториями профиля in-memory: перевод денег и запрос денег с последующим
+ * подтверждением донором. Измеряются сервис, преобразования и метрики без затрат на БД. Направление переводов
+ * чередуется, чтобы балансы не истощались; хранилище пересоздается на каждой итерации.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class PlayerServiceBenchmark {
+    private PlayerServiceImpl playerService;
+    private PlayerTransferMoneyRequestDto toUser;
+    private PlayerTransferMoneyRequestDto toAdmin;
+    private PlayerRequestMoneyDto fromAdmin;
+    private boolean forward;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        PlayerTable players = new PlayerTable();
+        TransactionTable transactions = new TransactionTable(players);
+        InMemoryPlayerCrudRepositoryImpl playerRepository = new InMemoryPlayerCrudRepositoryImpl(players, transactions);
+
+        for (String login : List.of("admin", "user")) {
+            playerRepository.create(player(login));
+            playerRepository.setBalance(login, new BigDecimal("1000000"));
+        }
+
+        playerService = new PlayerServiceImpl(playerRepository,
+                new InMemoryTransactionCrudRepositoryImpl(players, transactions),
+                new InMemoryMoneyTransferRepositoryImpl(players, transactions, event -> {
+                }),
+                new WalletMetrics(new MetricsRegistry()));
+
+        toUser = new PlayerTransferMoneyRequestDto("user", 1.0);
+        toAdmin = new PlayerTransferMoneyRequestDto("admin", 1.0);
+        fromAdmin = new PlayerRequestMoneyDto("admin", 1.0);
+    }
+
+    @Benchmark
+    public BalanceDto transfer() {
+        forward = !forward;
+        return forward
+                ? playerService.transferMoneyTo("admin", toUser)
+                : playerService.transferMoneyTo("user", toAdmin);
+    }
+
+    /**
+     * Игрок user запрашивает деньги у admin, admin подтверждает запрос, после чего user возвращает сумму переводом
+     */
+    @Benchmark
+    public Collection<TransactionOutcome> requestAndApprove() {
+        MoneyTransferResponse response = playerService.requestMoneyFrom("user", fromAdmin);
+        TransactionsListDto ids = new TransactionsListDto(List.of(response.getTransactionDto().getId().toString()));
+
+        Collection<TransactionOutcome> outcomes = playerService.approvePendingMoneyRequest("admin", ids);
+        playerService.transferMoneyTo("user", toAdmin);
+        return outcomes;
+    }
+
+    private static Player player(String login) {
+        return Player.builder()
+                .login(login)
+                .username(login)
+                .password(new byte[32])
+                .build();
+    }
+}
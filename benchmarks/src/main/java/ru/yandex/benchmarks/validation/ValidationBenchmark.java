@@ -0,0 +1,94 @@
+package ru.yandex.benchmarks.validation;
+
+import model.dto.exception.ConstraintViolationException;
+import model.dto.in.PlayerTransferMoneyRequestDto;
+import model.dto.in.TransactionsListDto;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.metrics.validation.ValidationPlan;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Валидация аргументов контроллера: прежняя рефлексивная проверка против {@link ValidationPlan}. Аргументы
+ * соответствуют вызову перевода денег: DTO запроса и строка заголовка Authorization.
+ * <p>
+ * Запуск: {@code java -jar benchmarks/target/benchmarks.jar ValidationBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private PlayerTransferMoneyRequestDto transferRequest;
+    private TransactionsListDto transactionsList;
+
+    @Setup
+    public void setUp() {
+        transferRequest = new PlayerTransferMoneyRequestDto("user", 10.0);
+        transactionsList = new TransactionsListDto(List.of("8c3d5a58-6b1c-4f5e-9d1a-6e0f2b7c4a11"));
+    }
+
+    @Benchmark
+    public void reflectiveTransferRequest(Blackhole blackhole) {
+        blackhole.consume(reflectiveValidate(transferRequest));
+    }
+
+    @Benchmark
+    public void planTransferRequest() {
+        ValidationPlan.validate(transferRequest);
+    }
+
+    @Benchmark
+    public void reflectiveTransactionsList(Blackhole blackhole) {
+        blackhole.consume(reflectiveValidate(transactionsList));
+    }
+
+    @Benchmark
+    public void planTransactionsList() {
+        ValidationPlan.validate(transactionsList);
+    }
+
+    /**
+     * Строка заголовка Authorization: прежняя проверка обходит поля String, на JDK 17 и новее без --add-opens это
+     * завершается исключением, поэтому для сравнения измеряется только план
+     */
+    @Benchmark
+    public void planAuthorizationHeader() {
+        ValidationPlan.validate("Bearer eyJhbGciOiJIUzI1NiJ9");
+    }
+
+    /**
+     * Копия проверки из ValidationAspect до перехода на планы валидации
+     */
+    private static boolean reflectiveValidate(Object instance) {
+        Field[] fields = instance.getClass().getDeclaredFields();
+
+        try {
+            for (Field field : fields) {
+                field.setAccessible(true);
+
+                Object value = field.get(instance);
+
+                if (value != null) {
+                    if (value instanceof String s && (s.isEmpty() || s.isBlank())) {
+                        throw new ConstraintViolationException(field.getName() + " is either empty or blank!");
+                    } else if (value instanceof Collection<?> c && c.isEmpty()) {
+                        throw new ConstraintViolationException(field.getName() + " is empty!");
+                    }
+                } else {
+                    throw new ConstraintViolationException(field.getName() + " is null!");
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        return true;
+    }
+}
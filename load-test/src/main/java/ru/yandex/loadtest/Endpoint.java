@@ -0,0 +1,33 @@
+package ru.yandex.loadtest;
+
+/**
+ * Вызовы API кошелька, которые выполняет нагрузочный тест. Имена в настройке смеси записываются в kebab-case,
+ * например request-money=10.
+ */
+public enum Endpoint {
+    REGISTRATION,
+    TRANSFER,
+    REQUEST_MONEY,
+    /**
+     * Список ожидающих запросов денег донора
+     */
+    PENDING_REQUESTS,
+    /**
+     * Подтверждение ожидающих запросов донора; перед ним выполняется {@link #PENDING_REQUESTS}
+     */
+    APPROVE,
+    /**
+     * Отклонение ожидающих запросов донора; перед ним выполняется {@link #PENDING_REQUESTS}
+     */
+    DECLINE,
+    BALANCE,
+    HISTORY;
+
+    public String key() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+    public static Endpoint ofKey(String key) {
+        return valueOf(key.trim().toUpperCase().replace('-', '_'));
+    }
+}
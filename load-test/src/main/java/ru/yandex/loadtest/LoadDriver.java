@@ -0,0 +1,130 @@
+package ru.yandex.loadtest;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Открытая нагрузка: поток расписания отправляет операции в моменты, заданные {@link Workload}, не дожидаясь ответов.
+ * Задержка считается от запланированного момента отправки, поэтому отставание генератора или очереди на стороне
+ * клиента попадают в результат, а не скрываются. Подтверждение и отклонение запросов денег выполняются после
+ * получения списка ожидающих запросов донора, их задержка считается от отправки второго запроса.
+ */
+class LoadDriver {
+    private static final int MAX_IDS_PER_RESOLUTION = 5;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final WalletClient client;
+    private final List<PlayerSession> players;
+    private final Workload workload;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LoadDriver(WalletClient client, List<PlayerSession> players, Workload workload, int maxInFlight) {
+        this.client = client;
+        this.players = players;
+        this.workload = workload;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * @param stats результаты измерения; операции прогрева учитываются отдельно и отбрасываются
+     */
+    void run(Duration warmup, Duration duration, LoadStats stats) {
+        LoadStats warmupStats = new LoadStats();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long next = start;
+
+        while (true) {
+            next += workload.nextGapNanos();
+
+            if (next >= end) {
+                break;
+            }
+
+            Endpoint endpoint = workload.nextEndpoint();
+            int player = workload.nextPlayer();
+            int other = workload.nextPlayerExcept(player);
+            int amount = workload.nextAmount();
+            LoadStats target = next >= measureFrom ? stats : warmupStats;
+
+            parkUntil(next);
+
+            if (inFlight.get() >= maxInFlight) {
+                target.skipped();
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            execute(endpoint, players.get(player), players.get(other), amount, next, target)
+                    .whenComplete((ignored, e) -> inFlight.decrementAndGet());
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private CompletableFuture<?> execute(Endpoint endpoint, PlayerSession player, PlayerSession other, int amount,
+                                         long scheduledAt, LoadStats stats) {
+        return switch (endpoint) {
+            case TRANSFER -> observe(client.transfer(player.token(), other.login(), amount),
+                    endpoint, scheduledAt, stats);
+            case REQUEST_MONEY -> observe(client.requestMoney(player.token(), other.login(), amount),
+                    endpoint, scheduledAt, stats);
+            case PENDING_REQUESTS -> observe(client.pendingRequests(player.token()), endpoint, scheduledAt, stats);
+            case APPROVE, DECLINE -> observe(client.pendingRequests(player.token()),
+                    Endpoint.PENDING_REQUESTS, scheduledAt, stats)
+                    .thenCompose(response -> resolve(endpoint, player, response, stats));
+            case BALANCE -> observe(client.balance(player.token()), endpoint, scheduledAt, stats);
+            case HISTORY -> observe(client.historyPage(player.token()), endpoint, scheduledAt, stats);
+            case REGISTRATION -> throw new IllegalArgumentException("Регистрация не входит в смесь операций");
+        };
+    }
+
+    /**
+     * Подтвердить или отклонить несколько ожидающих запросов донора, если они есть
+     */
+    private CompletableFuture<?> resolve(Endpoint endpoint, PlayerSession donor, HttpResponse<String> pending,
+                                         LoadStats stats) {
+        if (pending == null || pending.statusCode() != 200) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<String> ids = client.pendingIds(pending, MAX_IDS_PER_RESOLUTION);
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long sentAt = System.nanoTime();
+        return observe(endpoint == Endpoint.APPROVE ? client.approve(donor.token(), ids)
+                : client.decline(donor.token(), ids), endpoint, sentAt, stats);
+    }
+
+    /**
+     * Учесть исход и задержку вызова; сбой вызова превращается в ответ null
+     */
+    private static CompletableFuture<HttpResponse<String>> observe(CompletableFuture<HttpResponse<String>> call,
+                                                                   Endpoint endpoint, long startedAt,
+                                                                   LoadStats stats) {
+        return call.handle((response, e) -> {
+            stats.record(endpoint, e == null ? response.statusCode() : 0, System.nanoTime() - startedAt);
+            return e == null ? response : null;
+        });
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
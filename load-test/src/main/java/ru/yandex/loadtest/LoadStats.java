@@ -0,0 +1,112 @@
+package ru.yandex.loadtest;
+
+import ru.yandex.metrics.performance.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результаты прогона по вызовам API: задержки и исходы. Успешный ответ - 2xx, отказ - 4xx (например, недостаток
+ * средств или чужая транзакция), ошибка - 5xx, сбой соединения или таймаут.
+ */
+class LoadStats {
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Endpoint.values().length];
+    private final LatencyHistogram overall = new LatencyHistogram();
+    private final LongAdder[] succeeded = new LongAdder[Endpoint.values().length];
+    private final LongAdder[] rejected = new LongAdder[Endpoint.values().length];
+    private final LongAdder[] failed = new LongAdder[Endpoint.values().length];
+    private final LongAdder skipped = new LongAdder();
+
+    LoadStats() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            succeeded[i] = new LongAdder();
+            rejected[i] = new LongAdder();
+            failed[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param status HTTP-статус ответа или 0, если ответ не получен
+     */
+    void record(Endpoint endpoint, int status, long latencyNanos) {
+        int index = endpoint.ordinal();
+        latencies[index].record(latencyNanos);
+        overall.record(latencyNanos);
+
+        if (status >= 200 && status < 300) {
+            succeeded[index].increment();
+        } else if (status >= 400 && status < 500) {
+            rejected[index].increment();
+        } else {
+            failed[index].increment();
+        }
+    }
+
+    /**
+     * Операция не отправлена: достигнут предел одновременно выполняемых операций
+     */
+    void skipped() {
+        skipped.increment();
+    }
+
+    long total() {
+        long total = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            total += succeeded[endpoint.ordinal()].sum() + rejected[endpoint.ordinal()].sum()
+                    + failed[endpoint.ordinal()].sum();
+        }
+        return total;
+    }
+
+    long failures() {
+        long failures = skipped.sum();
+        for (LongAdder adder : failed) {
+            failures += adder.sum();
+        }
+        return failures;
+    }
+
+    void print(PrintStream out, Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+
+        out.printf("%-17s %9s %9s %8s %8s %8s %9s %9s %9s %9s %9s%n", "endpoint", "count", "rps", "ok", "4xx",
+                "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            LatencyHistogram.Snapshot snapshot = latencies[endpoint.ordinal()].snapshot(false);
+
+            if (snapshot.count() == 0) {
+                continue;
+            }
+
+            out.printf("%-17s %9d %9.1f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", endpoint.key(),
+                    snapshot.count(), snapshot.count() / seconds,
+                    succeeded[endpoint.ordinal()].sum(), rejected[endpoint.ordinal()].sum(),
+                    failed[endpoint.ordinal()].sum(),
+                    millis(snapshot.p50Nanos()), millis(snapshot.p90Nanos()), millis(snapshot.p99Nanos()),
+                    millis(snapshot.p999Nanos()), millis(snapshot.maxNanos()));
+        }
+
+        long total = total();
+        out.printf("total %d calls, %.1f rps, %d skipped, error rate %.4f%n", total, total / seconds, skipped.sum(),
+                errorRate());
+    }
+
+    /**
+     * Задержки всех вызовов вместе
+     */
+    LatencyHistogram.Snapshot overall() {
+        return overall.snapshot(false);
+    }
+
+    double errorRate() {
+        long attempts = total() + skipped.sum();
+        return attempts == 0 ? 0 : (double) failures() / attempts;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,247 @@
+package ru.yandex.loadtest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.metrics.performance.LatencyHistogram;
+import ru.yandex.wallet.WalletApplication;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Сквозной нагрузочный прогон: регистрирует игроков через /registration, начисляет им одинаковый баланс, подает
+ * открытую нагрузку из смеси операций и печатает пропускную способность, перцентили задержки и долю ошибок по каждой
+ * операции. В конце проверяется инвариант: сумма балансов игроков прогона не изменилась и ни один баланс не
+ * отрицателен.
+ * <p>
+ * Если адрес узла не задан (--target), приложение кошелька поднимается в этом же процессе на случайном порту поверх
+ * PostgreSQL из --jdbc-url. Балансы начисляются напрямую в БД: пополнения счета в API нет. Такое приложение
+ * обрабатывает запросы в потоках платформы, в виртуальных потоках или поднимается в неблокирующем варианте на WebFlux
+ * и R2DBC (--threads=platform|virtual|reactive); при --threads=compare прогон повторяется во всех режимах на новых
+ * игроках и печатается сводка.
+ * <p>
+ * Код выхода ненулевой, если инвариант нарушен или доля ошибок превышает --max-error-rate.
+ */
+public class LoadTestApplication {
+    private static final String PASSWORD = "load-test-password";
+    private static final int REGISTRATION_CONCURRENCY = 32;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        if (config.target() != null) {
+            System.exit(run(config, config.target(), null).status());
+        }
+
+        List<RunResult> results = new ArrayList<>();
+
+        for (ThreadMode mode : config.threadModes()) {
+            System.out.printf("Режим обработки запросов: %s%n", mode.name().toLowerCase());
+
+            try (ConfigurableApplicationContext context = start(config, mode)) {
+                URI target = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+                results.add(run(config, target, mode));
+            }
+        }
+
+        if (results.size() > 1) {
+            printComparison(results, config.duration());
+        }
+        System.exit(results.stream().mapToInt(RunResult::status).max().orElse(0));
+    }
+
+    /**
+     * Итог прогона в одном режиме
+     *
+     * @param mode        режим приложения либо null, если нагрузка подавалась на внешний узел
+     * @param peakThreads пиковое число потоков платформы в процессе за время нагрузки
+     * @param status      код выхода прогона
+     */
+    private record RunResult(ThreadMode mode, LoadStats stats, int peakThreads, int status) {
+    }
+
+    /**
+     * Настройки передаются аргументами командной строки: они приоритетнее application.yml приложения. Модуль
+     * wallet-reactive в classpath прогона, поэтому сервлетному приложению автоконфигурация R2DBC отключается: второй
+     * менеджер транзакций сделал бы выбор менеджера для @Transactional неоднозначным.
+     */
+    private static ConfigurableApplicationContext start(LoadTestConfig config, ThreadMode mode) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + config.jdbcUrl(),
+                "--spring.datasource.username=" + config.jdbcUsername(),
+                "--spring.datasource.password=" + config.jdbcPassword()));
+
+        if (mode == ThreadMode.REACTIVE) {
+            args.add("--spring.r2dbc.url=" + r2dbcUrl(config.jdbcUrl()));
+            args.add("--spring.r2dbc.username=" + config.jdbcUsername());
+            args.add("--spring.r2dbc.password=" + config.jdbcPassword());
+        } else {
+            args.add("--spring.autoconfigure.exclude="
+                    + "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration,"
+                    + "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration,"
+                    + "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration,"
+                    + "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration");
+        }
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(mode.application());
+
+        if (mode.profile() != null) {
+            builder.profiles(mode.profile());
+        }
+        return builder.run(args.toArray(new String[0]));
+    }
+
+    /**
+     * Адрес R2DBC той же БД: jdbc:postgresql://host/db?currentSchema=s -> r2dbc:postgresql://host/db?schema=s
+     */
+    static String r2dbcUrl(String jdbcUrl) {
+        return jdbcUrl.replaceFirst("^jdbc:", "r2dbc:").replace("currentSchema=", "schema=");
+    }
+
+    private static RunResult run(LoadTestConfig config, URI target, ThreadMode mode) throws Exception {
+        WalletClient client = new WalletClient(target);
+        String prefix = "lt" + config.seed() + "-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+
+        System.out.printf("Регистрация %d игроков на %s%n", config.players(), target);
+        List<PlayerSession> players = register(client, prefix, config.players());
+
+        try (Connection connection = connect(config)) {
+            seedBalances(connection, prefix, config.initialBalance());
+        }
+        Thread.sleep(config.settle().toMillis());
+
+        System.out.printf("Нагрузка %.0f оп/с: прогрев %s, измерение %s%n",
+                config.rate(), config.warmup(), config.duration());
+        LoadStats stats = new LoadStats();
+        Workload workload = new Workload(config.seed(), config.rate(), config.mix(), config.players());
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        new LoadDriver(client, players, workload, config.maxInFlight())
+                .run(config.warmup(), config.duration(), stats);
+        int peakThreads = threads.getPeakThreadCount();
+        stats.print(System.out, config.duration());
+
+        int status = 0;
+
+        if (stats.errorRate() > config.maxErrorRate()) {
+            System.out.printf("Доля ошибок %.4f превышает допустимую %.4f%n", stats.errorRate(), config.maxErrorRate());
+            status = 1;
+        }
+
+        try (Connection connection = connect(config)) {
+            if (!checkInvariant(connection, prefix, config.players(), config.initialBalance())) {
+                status = 2;
+            }
+        }
+        return new RunResult(mode, stats, peakThreads, status);
+    }
+
+    /**
+     * Сводка по режимам при одинаковой нагрузке. Потоки платформы считаются по всему процессу, включая потоки
+     * генератора нагрузки, одинаковые во всех режимах.
+     */
+    private static void printComparison(List<RunResult> results, Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+
+        System.out.printf("%n%-9s %9s %9s %10s %9s %9s %9s %9s %8s%n", "mode", "calls", "rps", "error rate",
+                "p50 ms", "p99 ms", "p99.9 ms", "max ms", "threads");
+
+        for (RunResult result : results) {
+            LatencyHistogram.Snapshot overall = result.stats().overall();
+
+            System.out.printf("%-9s %9d %9.1f %10.4f %9.2f %9.2f %9.2f %9.2f %8d%n",
+                    result.mode().name().toLowerCase(), result.stats().total(), result.stats().total() / seconds,
+                    result.stats().errorRate(), overall.p50Nanos() / 1e6, overall.p99Nanos() / 1e6,
+                    overall.p999Nanos() / 1e6, overall.maxNanos() / 1e6, result.peakThreads());
+        }
+    }
+
+    /**
+     * Зарегистрировать игроков с ограниченным числом одновременных запросов
+     *
+     * @throws IllegalStateException если хотя бы одна регистрация не удалась
+     */
+    private static List<PlayerSession> register(WalletClient client, String prefix, int count) {
+        PlayerSession[] sessions = new PlayerSession[count];
+        CompletableFuture<?>[] registrations = new CompletableFuture<?>[count];
+        Semaphore permits = new Semaphore(REGISTRATION_CONCURRENCY);
+
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            String login = prefix + i;
+
+            permits.acquireUninterruptibly();
+            registrations[i] = client.register(login, PASSWORD)
+                    .whenComplete((response, e) -> permits.release())
+                    .thenAccept(response -> sessions[index] = session(login, response));
+        }
+
+        CompletableFuture.allOf(registrations).join();
+        return Arrays.asList(sessions);
+    }
+
+    private static PlayerSession session(String login, HttpResponse<String> response) {
+        String token = response.headers().firstValue("Authorization").orElse(null);
+
+        if (response.statusCode() != 200 || token == null) {
+            throw new IllegalStateException("Не удалось зарегистрировать " + login + ": " + response.statusCode()
+                    + " " + response.body());
+        }
+        return new PlayerSession(login, token);
+    }
+
+    private static Connection connect(LoadTestConfig config) throws SQLException {
+        return DriverManager.getConnection(config.jdbcUrl(), config.jdbcUsername(), config.jdbcPassword());
+    }
+
+    private static void seedBalances(Connection connection, String prefix, BigDecimal balance) throws SQLException {
+        try (PreparedStatement statement =
+                     connection.prepareStatement("UPDATE players SET balance = ? WHERE login LIKE ?")) {
+            statement.setBigDecimal(1, balance);
+            statement.setString(2, prefix + "%");
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Переводы и подтверждения запросов только перемещают деньги между игроками прогона, поэтому их суммарный баланс
+     * должен совпасть с начисленным
+     */
+    private static boolean checkInvariant(Connection connection, String prefix, int players, BigDecimal initialBalance)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT count(*), coalesce(sum(balance), 0), min(balance) FROM players WHERE login LIKE ?")) {
+            statement.setString(1, prefix + "%");
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                long count = resultSet.getLong(1);
+                BigDecimal sum = resultSet.getBigDecimal(2);
+                BigDecimal min = resultSet.getBigDecimal(3);
+                BigDecimal expected = initialBalance.multiply(BigDecimal.valueOf(players));
+
+                boolean holds = count == players && sum.compareTo(expected) == 0
+                        && min != null && min.signum() >= 0;
+                System.out.printf("Инвариант баланса: игроков %d, сумма %s (ожидалось %s), минимум %s — %s%n",
+                        count, sum.toPlainString(), expected.toPlainString(), min, holds ? "выполнен" : "НАРУШЕН");
+                return holds;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.yandex.loadtest;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Параметры прогона. Задаются аргументами вида --name=value, отсутствующие берутся по умолчанию.
+ *
+ * @param target         адрес работающего узла; если null, приложение поднимается в этом процессе
+ * @param players        число регистрируемых игроков
+ * @param rate           средняя интенсивность поступления операций в секунду
+ * @param warmup         длительность прогрева, операции прогрева не попадают в отчет
+ * @param duration       длительность измерения
+ * @param mix            веса операций
+ * @param initialBalance баланс каждого игрока перед началом нагрузки
+ * @param seed           зерно генератора: при одинаковом зерне последовательность операций и игроков повторяется
+ * @param maxInFlight    предел одновременно выполняемых операций; операции сверх него пропускаются и учитываются
+ * @param settle         пауза после начисления балансов, чтобы истекли закешированные приложением балансы
+ * @param maxErrorRate   допустимая доля ошибок, при превышении прогон завершается неудачей
+ * @param threadModes    режимы приложения в процессе прогона; при нескольких режимах прогон повторяется для каждого
+ */
+public record LoadTestConfig(URI target,
+                             int players,
+                             double rate,
+                             Duration warmup,
+                             Duration duration,
+                             Map<Endpoint, Integer> mix,
+                             BigDecimal initialBalance,
+                             long seed,
+                             int maxInFlight,
+                             Duration settle,
+                             double maxErrorRate,
+                             List<ThreadMode> threadModes,
+                             String jdbcUrl,
+                             String jdbcUsername,
+                             String jdbcPassword) {
+
+    private static final String DEFAULT_MIX =
+            "transfer=40,request-money=10,approve=5,decline=5,balance=25,history=15";
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидался аргумент вида --name=value: " + arg);
+            }
+
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String target = values.get("target");
+        List<ThreadMode> threadModes = ThreadMode.parse(values.getOrDefault("threads", "platform"));
+
+        if (target != null && values.containsKey("threads")) {
+            throw new IllegalArgumentException("Режим потоков задается только приложению, поднятому без --target");
+        }
+
+        return new LoadTestConfig(
+                target == null ? null : URI.create(target),
+                Integer.parseInt(values.getOrDefault("players", "100")),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                Duration.parse("PT" + values.getOrDefault("warmup", "10s")),
+                Duration.parse("PT" + values.getOrDefault("duration", "60s")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                new BigDecimal(values.getOrDefault("initial-balance", "1000")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                Duration.parse("PT" + values.getOrDefault("settle", "5s")),
+                Double.parseDouble(values.getOrDefault("max-error-rate", "0.01")),
+                threadModes,
+                values.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5433/wallet?currentSchema=wallet"),
+                values.getOrDefault("jdbc-username", "walletserviceroot"),
+                values.getOrDefault("jdbc-password", "walletservicerootpassword"));
+    }
+
+    /**
+     * @param mix веса через запятую, например transfer=40,balance=60
+     */
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            Endpoint endpoint = Endpoint.ofKey(parts[0]);
+
+            if (endpoint == Endpoint.REGISTRATION) {
+                throw new IllegalArgumentException("Регистрация выполняется только при подготовке прогона");
+            }
+
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(endpoint, weight);
+            }
+        }
+
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Смесь операций пуста");
+        }
+        return weights;
+    }
+}
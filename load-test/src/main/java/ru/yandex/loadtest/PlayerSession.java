@@ -0,0 +1,7 @@
+package ru.yandex.loadtest;
+
+/**
+ * Зарегистрированный игрок и его токен авторизации с префиксом "Bearer "
+ */
+record PlayerSession(String login, String token) {
+}
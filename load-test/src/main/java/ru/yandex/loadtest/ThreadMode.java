@@ -0,0 +1,56 @@
+package ru.yandex.loadtest;
+
+import ru.yandex.reactive.WalletReactiveApplication;
+import ru.yandex.wallet.WalletApplication;
+
+import java.util.List;
+
+/**
+ * Режим обработки запросов приложением, поднятым в процессе прогона
+ */
+public enum ThreadMode {
+    /**
+     * Пул потоков платформы Tomcat, настройки приложения по умолчанию
+     */
+    PLATFORM(WalletApplication.class, null),
+    /**
+     * Виртуальные потоки и ограничитель соединений с БД, профиль virtual-threads
+     */
+    VIRTUAL(WalletApplication.class, "virtual-threads"),
+    /**
+     * Неблокирующий вариант на WebFlux и R2DBC: небольшое фиксированное число потоков цикла событий
+     */
+    REACTIVE(WalletReactiveApplication.class, WalletReactiveApplication.PROFILE);
+
+    private final Class<?> application;
+    private final String profile;
+
+    ThreadMode(Class<?> application, String profile) {
+        this.application = application;
+        this.profile = profile;
+    }
+
+    /**
+     * @return главный класс приложения
+     */
+    public Class<?> application() {
+        return application;
+    }
+
+    /**
+     * @return профиль Spring, включающий режим, либо null
+     */
+    public String profile() {
+        return profile;
+    }
+
+    /**
+     * @param value platform, virtual, reactive или compare - все режимы по очереди
+     */
+    public static List<ThreadMode> parse(String value) {
+        if (value.trim().equalsIgnoreCase("compare")) {
+            return List.of(values());
+        }
+        return List.of(valueOf(value.trim().toUpperCase()));
+    }
+}
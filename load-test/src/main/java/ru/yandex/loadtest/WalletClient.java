@@ -0,0 +1,108 @@
+package ru.yandex.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Асинхронный HTTP-клиент API кошелька
+ */
+class WalletClient {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    WalletClient(URI baseUri) {
+        this.baseUri = baseUri;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+    }
+
+    CompletableFuture<HttpResponse<String>> register(String login, String password) {
+        return send("POST", "/registration", null,
+                Map.of("login", login, "password", password, "username", login));
+    }
+
+    CompletableFuture<HttpResponse<String>> transfer(String token, String recipient, int amount) {
+        return send("POST", "/player-management/money-transfer", token,
+                Map.of("recipient", recipient, "amount", amount));
+    }
+
+    CompletableFuture<HttpResponse<String>> requestMoney(String token, String donor, int amount) {
+        return send("POST", "/player-management/money-request", token, Map.of("donor", donor, "amount", amount));
+    }
+
+    CompletableFuture<HttpResponse<String>> pendingRequests(String token) {
+        return send("GET", "/player-management/money-request", token, null);
+    }
+
+    CompletableFuture<HttpResponse<String>> approve(String token, Collection<String> ids) {
+        return send("POST", "/player-management/money-request/approve", token, Map.of("ids", ids));
+    }
+
+    CompletableFuture<HttpResponse<String>> decline(String token, Collection<String> ids) {
+        return send("POST", "/player-management/money-request/decline", token, Map.of("ids", ids));
+    }
+
+    CompletableFuture<HttpResponse<String>> balance(String token) {
+        return send("GET", "/player-management/wallet/balance", token, null);
+    }
+
+    CompletableFuture<HttpResponse<String>> historyPage(String token) {
+        return send("GET", "/player-management/wallet/history/page?limit=20", token, null);
+    }
+
+    /**
+     * id транзакций из ответа на запрос списка ожидающих запросов денег, не больше limit
+     */
+    List<String> pendingIds(HttpResponse<String> response, int limit) {
+        List<String> ids = new ArrayList<>();
+
+        try {
+            for (JsonNode request : objectMapper.readTree(response.body())) {
+                if (ids.size() == limit) {
+                    break;
+                }
+                ids.add(request.get("id").asText());
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ids;
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String method, String path, String token, Object body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+
+        if (token != null) {
+            builder.header("Authorization", token);
+        }
+
+        try {
+            builder.method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
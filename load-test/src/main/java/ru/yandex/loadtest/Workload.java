@@ -0,0 +1,70 @@
+package ru.yandex.loadtest;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Модель поступления операций при открытой нагрузке: интервалы между операциями распределены экспоненциально
+ * (пуассоновский поток с заданной интенсивностью) и не зависят от того, как быстро отвечает сервис. Тип операции и
+ * игроки выбираются случайно по весам смеси. Генератор не потокобезопасен и используется одним потоком расписания.
+ */
+class Workload {
+    private final SplittableRandom random;
+    private final double meanGapNanos;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final int players;
+
+    Workload(long seed, double rate, Map<Endpoint, Integer> mix, int players) {
+        this.random = new SplittableRandom(seed);
+        this.meanGapNanos = 1_000_000_000d / rate;
+        this.endpoints = mix.keySet().toArray(Endpoint[]::new);
+        this.cumulativeWeights = new int[endpoints.length];
+        this.players = players;
+
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += mix.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Интервал до следующей операции в наносекундах
+     */
+    long nextGapNanos() {
+        return (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+    }
+
+    Endpoint nextEndpoint() {
+        int value = random.nextInt(totalWeight);
+
+        for (int i = 0; i < endpoints.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    int nextPlayer() {
+        return random.nextInt(players);
+    }
+
+    /**
+     * Игрок, отличный от данного
+     */
+    int nextPlayerExcept(int player) {
+        int other = random.nextInt(players - 1);
+        return other >= player ? other + 1 : other;
+    }
+
+    /**
+     * Сумма операции в целых единицах от 1 до 10
+     */
+    int nextAmount() {
+        return 1 + random.nextInt(10);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("Load test workload test")
+class WorkloadTest {
+
+    @DisplayName("Should parse operation mix and reject registration and empty mix")
+    @Test
+    void shouldParseMix() {
+        assertThat(LoadTestConfig.parseMix("transfer=3, balance=1,history=0"))
+                .isEqualTo(Map.of(Endpoint.TRANSFER, 3, Endpoint.BALANCE, 1));
+
+        assertThatThrownBy(() -> LoadTestConfig.parseMix("registration=1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadTestConfig.parseMix("transfer=0"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("Should parse thread modes and reject thread mode for external target")
+    @Test
+    void shouldParseThreadModes() {
+        assertThat(ThreadMode.parse("compare"))
+                .containsExactly(ThreadMode.PLATFORM, ThreadMode.VIRTUAL, ThreadMode.REACTIVE);
+        assertThat(LoadTestConfig.parse(new String[]{"--threads=virtual"}).threadModes())
+                .isEqualTo(List.of(ThreadMode.VIRTUAL));
+        assertThat(ThreadMode.parse("reactive")).containsExactly(ThreadMode.REACTIVE);
+
+        assertThatThrownBy(() -> LoadTestConfig.parse(new String[]{"--target=http://localhost:8080", "--threads=compare"}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("Should generate arrivals at configured rate and endpoints by weight")
+    @Test
+    void shouldFollowRateAndMix() {
+        Workload workload = new Workload(7, 1_000, Map.of(Endpoint.TRANSFER, 3, Endpoint.BALANCE, 1), 10);
+        int operations = 100_000;
+        long totalGap = 0;
+        Map<Endpoint, Integer> counts = new EnumMap<>(Endpoint.class);
+
+        for (int i = 0; i < operations; i++) {
+            totalGap += workload.nextGapNanos();
+            counts.merge(workload.nextEndpoint(), 1, Integer::sum);
+
+            int player = workload.nextPlayer();
+            assertThat(workload.nextPlayerExcept(player)).isBetween(0, 9).isNotEqualTo(player);
+        }
+
+        assertThat(totalGap / (double) operations).isCloseTo(1_000_000, within(20_000d));
+        assertThat(counts.get(Endpoint.TRANSFER) / (double) operations).isCloseTo(0.75, within(0.01));
+    }
+
+    @DisplayName("Should derive R2DBC url from JDBC url")
+    @Test
+    void shouldDeriveR2dbcUrl() {
+        assertThat(LoadTestApplication.r2dbcUrl("jdbc:postgresql://localhost:5433/wallet?currentSchema=wallet"))
+                .isEqualTo("r2dbc:postgresql://localhost:5433/wallet?schema=wallet");
+    }
+}
@@ -2,25 +2,87 @@ package ru.yandex.metrics.audit;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.metrics.audit.logging.AsyncBatchLogger;
+import ru.yandex.metrics.audit.logging.AuditRecordWriter;
+import ru.yandex.metrics.audit.logging.JdbcBatchAuditRecordWriter;
+import ru.yandex.metrics.audit.logging.Logger;
+import ru.yandex.metrics.audit.logging.PGCopyAuditRecordWriter;
 import ru.yandex.metrics.audit.logging.PGSQLLoggerImpl;
+import ru.yandex.metrics.audit.logging.file.SegmentedAuditFileStore;
 
 @Configuration
 @EnableAspectJAutoProxy
 @ConditionalOnBean(JdbcTemplate.class)
+@EnableConfigurationProperties(AuditProperties.class)
 public class AuditConfig {
     private JdbcTemplate jdbcTemplate;
+    private AuditProperties properties;
 
     @Autowired
-    public AuditConfig(JdbcTemplate jdbcTemplate) {
+    public AuditConfig(JdbcTemplate jdbcTemplate, AuditProperties properties) {
         this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
     }
 
+    /**
+     * Способ записи нужен только асинхронному логгеру, поэтому при синхронном аудите файловое хранилище не
+     * открывается
+     */
     @Bean
-    public ControllerAuditAspect controllerAuditAspect() {
-        return new ControllerAuditAspect(new PGSQLLoggerImpl(jdbcTemplate));
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "metrics.audit", name = "async", havingValue = "true", matchIfMissing = true)
+    public AuditRecordWriter auditRecordWriter() {
+        return switch (properties.getWriter()) {
+            case JDBC_BATCH -> new JdbcBatchAuditRecordWriter(jdbcTemplate);
+            case COPY_CSV -> new PGCopyAuditRecordWriter(jdbcTemplate, PGCopyAuditRecordWriter.Format.CSV);
+            case COPY_BINARY -> new PGCopyAuditRecordWriter(jdbcTemplate, PGCopyAuditRecordWriter.Format.BINARY);
+            case FILE -> new SegmentedAuditFileStore(properties.getFile().getDirectory(),
+                    Math.toIntExact(properties.getFile().getSegmentSize().toBytes()),
+                    properties.getFile().isCompress());
+        };
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "metrics.audit", name = "async", havingValue = "true", matchIfMissing = true)
+    public AsyncBatchLogger asyncAuditLogger(AuditRecordWriter auditRecordWriter, Environment environment) {
+        return new AsyncBatchLogger(auditRecordWriter,
+                properties.getBufferCapacity(),
+                properties.getBatchSize(),
+                properties.getFlushInterval(),
+                properties.getOverflowPolicy(),
+                properties.getShutdownTimeout(),
+                Threading.VIRTUAL.isActive(environment) ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "metrics.audit", name = "async", havingValue = "false")
+    public PGSQLLoggerImpl synchronousAuditLogger() {
+        return new PGSQLLoggerImpl(jdbcTemplate);
+    }
+
+    @Bean
+    public AuditPolicy auditPolicy() {
+        return new AuditPolicy(properties.getLevel(), properties.getEndpoints());
+    }
+
+    @Bean
+    public AuditSampler auditSampler() {
+        AuditProperties.Sampling sampling = properties.getSampling();
+        return new AuditSampler(sampling.isEnabled(), sampling.getRate(), sampling.getSlowThreshold());
+    }
+
+    @Bean
+    public ControllerAuditAspect controllerAuditAspect(Logger auditLogger, AuditPolicy auditPolicy,
+                                                       AuditSampler auditSampler) {
+        return new ControllerAuditAspect(auditLogger, auditPolicy, auditSampler);
     }
 }
@@ -0,0 +1,39 @@
+package ru.yandex.metrics.audit;
+
+import ru.yandex.metrics.audit.event.AuditEndpoint;
+import ru.yandex.metrics.audit.logging.LoggingLevel;
+
+import java.util.Map;
+
+/**
+ * Какие события аудита записывать: минимальный уровень и включенные методы контроллеров. Проверка не выделяет
+ * память и выполняется до построения события.
+ */
+public class AuditPolicy {
+    private final LoggingLevel minimumLevel;
+    private final boolean[] enabledEndpoints;
+
+    /**
+     * @param minimumLevel события ниже этого уровня не записываются
+     * @param endpoints    включение аудита по методам, отсутствующие методы включены
+     */
+    public AuditPolicy(LoggingLevel minimumLevel, Map<AuditEndpoint, Boolean> endpoints) {
+        this.minimumLevel = minimumLevel;
+        this.enabledEndpoints = new boolean[AuditEndpoint.values().length];
+
+        for (AuditEndpoint endpoint : AuditEndpoint.values()) {
+            enabledEndpoints[endpoint.ordinal()] = endpoints.getOrDefault(endpoint, true);
+        }
+    }
+
+    /**
+     * Записывается ли для метода хоть одно событие. Все события метода не ниже уровня INFO, ошибки - WARN.
+     */
+    public boolean isEnabled(AuditEndpoint endpoint) {
+        return enabledEndpoints[endpoint.ordinal()] && minimumLevel.compareTo(LoggingLevel.WARN) <= 0;
+    }
+
+    public boolean isEnabled(AuditEndpoint endpoint, LoggingLevel level) {
+        return enabledEndpoints[endpoint.ordinal()] && level.compareTo(minimumLevel) >= 0;
+    }
+}
@@ -0,0 +1,121 @@
+package ru.yandex.metrics.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.metrics.audit.event.AuditEndpoint;
+import ru.yandex.metrics.audit.logging.LoggingLevel;
+import ru.yandex.metrics.audit.logging.OverflowPolicy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Настройки логгера аудита
+ */
+@Data
+@ConfigurationProperties("metrics.audit")
+public class AuditProperties {
+    /**
+     * Минимальный уровень записываемых событий аудита контроллеров
+     */
+    private LoggingLevel level = LoggingLevel.INFO;
+
+    /**
+     * Включение аудита по методам контроллеров, по умолчанию включены все
+     */
+    private Map<AuditEndpoint, Boolean> endpoints = new EnumMap<>(AuditEndpoint.class);
+
+    /**
+     * Выборочный аудит методов, только читающих данные, см. {@link AuditSampler}
+     */
+    private Sampling sampling = new Sampling();
+
+    /**
+     * Писать аудит в фоновом потоке пакетами. При false каждая запись выполняется синхронно в потоке запроса.
+     */
+    private boolean async = true;
+
+    /**
+     * Способ записи пакетов асинхронного логгера в таблицу logs
+     */
+    private Writer writer = Writer.JDBC_BATCH;
+
+    /**
+     * Емкость буфера записей, округляется вверх до степени двойки
+     */
+    private int bufferCapacity = 8192;
+
+    /**
+     * Число записей, при наборе которого пакет сбрасывается немедленно
+     */
+    private int batchSize = 256;
+
+    /**
+     * Максимальное время ожидания записи в буфере до сброса неполного пакета
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * Сколько ждать сброса буфера при остановке приложения
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Настройки локального файлового хранилища аудита, см. {@link Writer#FILE}
+     */
+    private FileStore file = new FileStore();
+
+    public enum Writer {
+        /**
+         * Пакетный INSERT через JDBC, подходит для любой БД
+         */
+        JDBC_BATCH,
+        /**
+         * COPY в формате CSV, только PostgreSQL
+         */
+        COPY_CSV,
+        /**
+         * COPY в бинарном формате, только PostgreSQL
+         */
+        COPY_BINARY,
+        /**
+         * Локальные сегментированные файлы, БД не используется
+         */
+        FILE
+    }
+
+    @Data
+    public static class Sampling {
+        private boolean enabled = false;
+
+        /**
+         * Доля записываемых вызовов, от 0 до 1
+         */
+        private double rate = 0.1;
+
+        /**
+         * Вызовы не короче этого порога записываются всегда
+         */
+        private Duration slowThreshold = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class FileStore {
+        private Path directory = Path.of("audit");
+
+        /**
+         * Размер сегмента, при превышении которого начинается новый
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Сжимать закрытые сегменты gzip
+         */
+        private boolean compress = true;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.metrics.audit;
+
+import ru.yandex.metrics.audit.event.AuditEndpoint;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Выборочный аудит методов, только читающих данные. Решение принимается после завершения вызова: ошибки и вызовы
+ * дольше порога записываются всегда, остальные - с заданной вероятностью. Методы, изменяющие данные, в выборку не
+ * попадают и записываются всегда.
+ */
+public class AuditSampler {
+    private final boolean enabled;
+    private final double rate;
+    private final long slowThresholdNanos;
+
+    private final LongAdder[] sampled = new LongAdder[AuditEndpoint.values().length];
+    private final LongAdder[] dropped = new LongAdder[AuditEndpoint.values().length];
+
+    /**
+     * Счетчики выборки метода
+     *
+     * @param sampled записано вызовов, включая ошибки и медленные вызовы
+     * @param dropped пропущено вызовов
+     */
+    public record Stats(long sampled, long dropped) {
+    }
+
+    /**
+     * @param enabled       включить выборку; если false, записываются все вызовы
+     * @param rate          доля записываемых вызовов, от 0 до 1
+     * @param slowThreshold вызовы не короче этого порога записываются всегда
+     */
+    public AuditSampler(boolean enabled, double rate, Duration slowThreshold) {
+        this.enabled = enabled;
+        this.rate = Math.max(0, Math.min(1, rate));
+        this.slowThresholdNanos = slowThreshold.toNanos();
+
+        for (int i = 0; i < sampled.length; i++) {
+            sampled[i] = new LongAdder();
+            dropped[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Откладывается ли решение о записи вызова метода до его завершения
+     */
+    public boolean isSampled(AuditEndpoint endpoint) {
+        return enabled && endpoint.isReadOnly();
+    }
+
+    /**
+     * Решение о записи завершившегося вызова
+     *
+     * @param elapsedNanos длительность вызова
+     * @param failed       вызов завершился исключением
+     * @return true, если события вызова нужно записать
+     */
+    public boolean keep(AuditEndpoint endpoint, long elapsedNanos, boolean failed) {
+        boolean keep = failed || elapsedNanos >= slowThresholdNanos || ThreadLocalRandom.current().nextDouble() < rate;
+        (keep ? sampled : dropped)[endpoint.ordinal()].increment();
+        return keep;
+    }
+
+    /**
+     * Счетчики методов, которые попадают в выборку
+     */
+    public Map<AuditEndpoint, Stats> stats() {
+        Map<AuditEndpoint, Stats> stats = new EnumMap<>(AuditEndpoint.class);
+
+        for (AuditEndpoint endpoint : AuditEndpoint.values()) {
+            if (endpoint.isReadOnly()) {
+                stats.put(endpoint, new Stats(sampled[endpoint.ordinal()].sum(), dropped[endpoint.ordinal()].sum()));
+            }
+        }
+
+        return stats;
+    }
+}
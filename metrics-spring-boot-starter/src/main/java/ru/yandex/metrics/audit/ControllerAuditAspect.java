@@ -2,24 +2,35 @@ package ru.yandex.metrics.audit;
 
 import lombok.RequiredArgsConstructor;
 import model.dto.in.*;
-import model.dto.out.AuthenticatedPlayerDto;
-import model.dto.out.BalanceDto;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import ru.yandex.metrics.audit.event.AuditEndpoint;
+import ru.yandex.metrics.audit.event.AuditEvent;
+import ru.yandex.metrics.audit.event.AuditEventType;
 import ru.yandex.metrics.audit.logging.Logger;
+import ru.yandex.metrics.audit.logging.LoggingLevel;
 
 /**
- * Аспект, ответственный за логгирование всех методово контроллера
+ * Аспект, ответственный за логгирование всех методово контроллера. Для каждого метода записывается событие запроса,
+ * событие результата и событие ошибки, если их пропускает {@link AuditPolicy}. Текст событий строится не в потоке
+ * запроса, а логгером при записи, см. {@link AuditEvent}. Для методов, попадающих в выборку {@link AuditSampler},
+ * события записываются после завершения вызова и только если выборка решила его сохранить.
  */
 @Aspect
 @Component
 @RequiredArgsConstructor
 public class ControllerAuditAspect {
+    private static final boolean REACTOR_PRESENT =
+            ClassUtils.isPresent("reactor.core.publisher.Mono", ControllerAuditAspect.class.getClassLoader());
+
     private final Logger logger;
+    private final AuditPolicy policy;
+    private final AuditSampler sampler;
 
     @Pointcut("@within(org.springframework.web.bind.annotation.RestController)")
     public void restController() {
@@ -35,20 +46,8 @@ public class ControllerAuditAspect {
             "&& args(request)")
     public Object registerUserMethod(ProceedingJoinPoint pjp, UnsecuredPlayerCreationRequestDto request)
             throws Throwable {
-        try {
-            logger.info(String.format("Регистрация пользователя с данными: login=%s username=%s password=%s",
-                    request.getLogin(), request.getUsername(), request.getPassword()));
-            Object response = pjp.proceed();
-
-            ResponseEntity responseEntity = (ResponseEntity) response;
-            AuthenticatedPlayerDto dto = (AuthenticatedPlayerDto) responseEntity.getBody();
-            logger.info(String.format("Пользователь зарегистрирован: id=%s, login=%s, username=%s " +
-                    "balance=%s", dto.getId(), dto.getLogin(), dto.getUsername(), dto.getBalance()));
-            return response;
-        } catch (Throwable e) {
-            logger.warn(e.getMessage());
-            throw e;
-        }
+        return audit(pjp, AuditEndpoint.REGISTER_PLAYER, AuditEventType.REGISTRATION_REQUESTED, request,
+                AuditEventType.PLAYER_REGISTERED);
     }
 
     @Around("restController() " +
@@ -57,20 +56,8 @@ public class ControllerAuditAspect {
             "&& args(authenticationRequest)")
     public Object authenticateUserMethod(ProceedingJoinPoint pjp, UnsecuredAuthenticationRequestDto authenticationRequest)
             throws Throwable {
-        try {
-            logger.info(String.format("Авторизация пользователя с данными: login=%s password=%s",
-                    authenticationRequest.getLogin(), authenticationRequest.getPassword()));
-            Object response = pjp.proceed();
-
-            ResponseEntity responseEntity = (ResponseEntity) response;
-            AuthenticatedPlayerDto dto = (AuthenticatedPlayerDto) responseEntity.getBody();
-            logger.info(String.format("Пользователь авторизован: id=%s, login=%s, username=%s " +
-                    "balance=%s", dto.getId(), dto.getLogin(), dto.getUsername(), dto.getBalance()));
-            return response;
-        } catch (Throwable e) {
-            logger.warn(e.getMessage());
-            throw e;
-        }
+        return audit(pjp, AuditEndpoint.AUTHENTICATE, AuditEventType.AUTHENTICATION_REQUESTED, authenticationRequest,
+                AuditEventType.PLAYER_AUTHENTICATED);
     }
 
     @Around("restController() " +
@@ -78,19 +65,8 @@ public class ControllerAuditAspect {
             "&& execution(* getBalance(*)) " +
             "&& args(authToken)")
     public Object balanceMethod(ProceedingJoinPoint pjp, String authToken) throws Throwable {
-        try {
-            logger.info(String.format("Запрос баланса authToken = %s", authToken));
-            Object response = pjp.proceed();
-
-            ResponseEntity responseEntity = (ResponseEntity) response;
-            BalanceDto dto = (BalanceDto) responseEntity.getBody();
-            logger.info(String.format("Запрос баланса обработан: id=%s, username=%s, balance=%s",
-                    dto.getId(), dto.getUsername(), dto.getBalance()));
-            return response;
-        } catch (Throwable e) {
-            logger.warn(e.getMessage());
-            throw e;
-        }
+        return audit(pjp, AuditEndpoint.GET_BALANCE, AuditEventType.BALANCE_REQUESTED, null,
+                AuditEventType.BALANCE_SERVED);
     }
 
     @Around("restController()" +
@@ -99,21 +75,8 @@ public class ControllerAuditAspect {
             "&& args(authToken,moneyRequest)")
     public Object moneyTransferMethod(ProceedingJoinPoint pjp, String authToken, PlayerTransferMoneyRequestDto moneyRequest)
             throws Throwable {
-        try {
-            logger.info(String.format("Инициация перевода денег к username=%s суммой=%f. " +
-                            "authToken = %s",
-                    moneyRequest.getRecipient(), moneyRequest.getAmount(), authToken));
-            Object response = pjp.proceed();
-
-            ResponseEntity responseEntity = (ResponseEntity) response;
-            BalanceDto dto = (BalanceDto) responseEntity.getBody();
-            logger.info(String.format("Запрос баланса обработан: id=%s, username=%s, balance=%s",
-                    dto.getId(), dto.getUsername(), dto.getBalance()));
-            return response;
-        } catch (Throwable e) {
-            logger.warn(e.getMessage());
-            throw e;
-        }
+        return audit(pjp, AuditEndpoint.TRANSFER_MONEY, AuditEventType.TRANSFER_REQUESTED, moneyRequest,
+                AuditEventType.TRANSFER_COMPLETED);
     }
 
     @Around("restController() " +
@@ -122,14 +85,7 @@ public class ControllerAuditAspect {
             "&& args(authToken,playerRequestMoneyDto)")
     public Object requestMoneyMethod(ProceedingJoinPoint pjp, String authToken, PlayerRequestMoneyDto playerRequestMoneyDto)
             throws Throwable {
-        try {
-            logger.info(String.format("Запрос денег к username=%s суммой=%s. authToken=%s",
-                    playerRequestMoneyDto.getDonor(), playerRequestMoneyDto.getAmount(), authToken));
-            return pjp.proceed();
-        } catch (Throwable e) {
-            logger.warn(e.getMessage());
-            throw e;
-        }
+        return audit(pjp, AuditEndpoint.REQUEST_MONEY, AuditEventType.MONEY_REQUESTED, playerRequestMoneyDto, null);
     }
 
     @Around("restController() " +
@@ -137,14 +93,8 @@ public class ControllerAuditAspect {
             "&& execution(* getPendingMoneyRequests(*)) " +
             "&& args(authToken)")
     public Object pendingRequestsMethod(ProceedingJoinPoint pjp, String authToken) throws Throwable {
-        try {
-            logger.info(String.format("Пользователь запросил список транзакций, ожидающих подтверждения. " +
-                    "authToken=%s", authToken));
-            return pjp.proceed();
-        } catch (Throwable e) {
-            logger.warn(e.getMessage());
-            throw e;
-        }
+        return audit(pjp, AuditEndpoint.GET_PENDING_MONEY_REQUESTS, AuditEventType.PENDING_REQUESTS_REQUESTED, null,
+                null);
     }
 
     @Around("restController() " +
@@ -152,18 +102,23 @@ public class ControllerAuditAspect {
             "&& execution(* getHistory(*,*))")
     public Object historyMethod(ProceedingJoinPoint pjp)
             throws Throwable {
-        try {
-            Object[] args = pjp.getArgs();
-            String authToken = args[0].toString();
-            String playerAction = args[1].toString();
+        if (!policy.isEnabled(AuditEndpoint.GET_HISTORY)) {
+            return pjp.proceed();
+        }
 
-            logger.info(String.format("Пользователь запросил историю транзакций типа player_action=%s. " +
-                    "authToken=%s", playerAction, authToken));
+        return audit(pjp, AuditEndpoint.GET_HISTORY, AuditEventType.HISTORY_REQUESTED, pjp.getArgs(), null);
+    }
+
+    @Around("restController() " +
+            "&& annotatedByAuditOnClassLevel() " +
+            "&& execution(* getHistoryPage(*,*,*,*))")
+    public Object historyPageMethod(ProceedingJoinPoint pjp)
+            throws Throwable {
+        if (!policy.isEnabled(AuditEndpoint.GET_HISTORY_PAGE)) {
             return pjp.proceed();
-        } catch (Throwable e) {
-            logger.warn(e.getMessage());
-            throw e;
         }
+
+        return audit(pjp, AuditEndpoint.GET_HISTORY_PAGE, AuditEventType.HISTORY_PAGE_REQUESTED, pjp.getArgs(), null);
     }
 
     @Around("restController() " +
@@ -173,14 +128,8 @@ public class ControllerAuditAspect {
     public Object approveMoneyRequestMethod(ProceedingJoinPoint pjp, String authToken,
                                             TransactionsListDto transactionsListDto)
             throws Throwable {
-        try {
-            logger.info(String.format("Пользователь пытается подтвердить транзакции transactionList=%s. " +
-                    "authToken=%s", transactionsListDto, authToken));
-            return pjp.proceed();
-        } catch (Throwable e) {
-            logger.warn(e.getMessage());
-            throw e;
-        }
+        return audit(pjp, AuditEndpoint.APPROVE_PENDING_MONEY_REQUESTS, AuditEventType.APPROVAL_REQUESTED,
+                transactionsListDto, null);
     }
 
     @Around("restController() " +
@@ -189,14 +138,8 @@ public class ControllerAuditAspect {
             "&& args(authToken,transactionsListDto)")
     public Object declineMoneyRequestMethod(ProceedingJoinPoint pjp, String authToken,
                                             TransactionsListDto transactionsListDto) throws Throwable {
-        try {
-            logger.info(String.format("Пользователь пытается отклонить транзакции transactionList=%s. " +
-                    "authToken=%s", transactionsListDto, authToken));
-            return pjp.proceed();
-        } catch (Throwable e) {
-            logger.warn(e.getMessage());
-            throw e;
-        }
+        return audit(pjp, AuditEndpoint.DECLINE_PENDING_MONEY_REQUESTS, AuditEventType.DECLINE_REQUESTED,
+                transactionsListDto, null);
     }
 
     @Around("restController() " +
@@ -204,14 +147,110 @@ public class ControllerAuditAspect {
             "&& execution(* logout(*)) " +
             "&& args(authToken)")
     public Object signOutMethod(ProceedingJoinPoint pjp, String authToken) throws Throwable {
+        return audit(pjp, AuditEndpoint.LOGOUT, null, null, AuditEventType.SESSION_CLOSED);
+    }
+
+    /**
+     * Выполнить метод контроллера, записав событие запроса до вызова, событие результата с телом ответа после
+     * и событие ошибки, если метод завершился исключением. Если метод реактивный и вернул Mono, события результата
+     * и ошибки записываются по завершении Mono.
+     *
+     * @param requested      тип события запроса или null
+     * @param requestPayload данные события запроса
+     * @param completed      тип события результата или null
+     */
+    private Object audit(ProceedingJoinPoint pjp, AuditEndpoint endpoint, AuditEventType requested,
+                         Object requestPayload, AuditEventType completed) throws Throwable {
+        if (!policy.isEnabled(endpoint)) {
+            return pjp.proceed();
+        } else if (sampler.isSampled(endpoint)) {
+            return auditSampled(pjp, endpoint, requested, requestPayload, completed);
+        }
+
         try {
-            Object object = pjp.proceed();
-            logger.info(String.format("Пользователь закрывает сессию authToken=%s",
-                    authToken));
-            return object;
+            if (requested != null) {
+                log(endpoint, LoggingLevel.INFO, requested, requestPayload);
+            }
+            Object response = pjp.proceed();
+
+            if (REACTOR_PRESENT && ReactiveResponses.isMono(response)) {
+                return ReactiveResponses.onTermination(response,
+                        value -> completed(endpoint, completed, value),
+                        e -> log(endpoint, LoggingLevel.WARN, AuditEventType.FAILURE, e));
+            }
+
+            completed(endpoint, completed, response);
+            return response;
         } catch (Throwable e) {
-            logger.warn(e.getMessage());
+            log(endpoint, LoggingLevel.WARN, AuditEventType.FAILURE, e);
             throw e;
         }
     }
+
+    /**
+     * То же, что {@link #audit}, но событие запроса создается только после завершения вызова, со временем его
+     * начала, когда выборка решила сохранить вызов
+     */
+    private Object auditSampled(ProceedingJoinPoint pjp, AuditEndpoint endpoint, AuditEventType requested,
+                                Object requestPayload, AuditEventType completed) throws Throwable {
+        long startedAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Object response;
+
+        try {
+            response = pjp.proceed();
+        } catch (Throwable e) {
+            failedSampled(endpoint, startedAt, start, requested, requestPayload, e);
+            throw e;
+        }
+
+        if (REACTOR_PRESENT && ReactiveResponses.isMono(response)) {
+            return ReactiveResponses.onTermination(response,
+                    value -> completedSampled(endpoint, startedAt, start, requested, requestPayload, completed, value),
+                    e -> failedSampled(endpoint, startedAt, start, requested, requestPayload, e));
+        }
+
+        completedSampled(endpoint, startedAt, start, requested, requestPayload, completed, response);
+        return response;
+    }
+
+    private void completedSampled(AuditEndpoint endpoint, long startedAt, long start, AuditEventType requested,
+                                  Object requestPayload, AuditEventType completed, Object response) {
+        if (sampler.keep(endpoint, System.nanoTime() - start, false)) {
+            if (requested != null) {
+                log(startedAt, endpoint, LoggingLevel.INFO, requested, requestPayload);
+            }
+            completed(endpoint, completed, response);
+        }
+    }
+
+    private void failedSampled(AuditEndpoint endpoint, long startedAt, long start, AuditEventType requested,
+                               Object requestPayload, Throwable e) {
+        sampler.keep(endpoint, System.nanoTime() - start, true);
+
+        if (requested != null) {
+            log(startedAt, endpoint, LoggingLevel.INFO, requested, requestPayload);
+        }
+        log(endpoint, LoggingLevel.WARN, AuditEventType.FAILURE, e);
+    }
+
+    private void completed(AuditEndpoint endpoint, AuditEventType completed, Object response) {
+        if (completed != null) {
+            log(endpoint, LoggingLevel.INFO, completed,
+                    response instanceof ResponseEntity<?> responseEntity ? responseEntity.getBody() : response);
+        }
+    }
+
+    private void log(AuditEndpoint endpoint, LoggingLevel level, AuditEventType type, Object payload) {
+        if (policy.isEnabled(endpoint, level)) {
+            logger.log(new AuditEvent(level, type, endpoint, payload));
+        }
+    }
+
+    private void log(long timestamp, AuditEndpoint endpoint, LoggingLevel level, AuditEventType type,
+                     Object payload) {
+        if (policy.isEnabled(endpoint, level)) {
+            logger.log(new AuditEvent(timestamp, level, type, endpoint, payload));
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package ru.yandex.metrics.audit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.function.Consumer;
+
+/**
+ * Ответы реактивных контроллеров. Вынесены в отдельный класс, чтобы аспект аудита загружался и без Reactor в classpath.
+ */
+final class ReactiveResponses {
+
+    private ReactiveResponses() {
+    }
+
+    static boolean isMono(Object response) {
+        return response instanceof Mono<?>;
+    }
+
+    /**
+     * Mono, вызывающий onSuccess со значением (null для пустого Mono) или onError при завершении
+     */
+    static Object onTermination(Object response, Consumer<Object> onSuccess, Consumer<Throwable> onError) {
+        return ((Mono<?>) response)
+                .doOnSuccess(onSuccess)
+                .doOnError(onError);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.metrics.audit.event;
+
+/**
+ * Методы контроллеров, которые аудирует {@link ru.yandex.metrics.audit.ControllerAuditAspect}. Ключи в настройке
+ * metrics.audit.endpoints записываются в kebab-case, например get-balance.
+ */
+public enum AuditEndpoint {
+    REGISTER_PLAYER(false),
+    AUTHENTICATE(false),
+    GET_BALANCE(true),
+    TRANSFER_MONEY(false),
+    REQUEST_MONEY(false),
+    GET_PENDING_MONEY_REQUESTS(true),
+    GET_HISTORY(true),
+    GET_HISTORY_PAGE(true),
+    APPROVE_PENDING_MONEY_REQUESTS(false),
+    DECLINE_PENDING_MONEY_REQUESTS(false),
+    LOGOUT(false);
+
+    private final boolean readOnly;
+
+    AuditEndpoint(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Метод только читает данные, и его аудит может быть выборочным, см.
+     * {@link ru.yandex.metrics.audit.AuditSampler}
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+}
@@ -0,0 +1,142 @@
+package ru.yandex.metrics.audit.event;
+
+import ru.yandex.metrics.audit.logging.AuditRecord;
+import ru.yandex.metrics.audit.logging.LoggingLevel;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Событие аудита: тип, уровень, время и ссылка на данные, из которых поля события извлекаются только при
+ * кодировании. Создание события - единственное выделение памяти на стороне вызывающего потока, текст сообщения
+ * строит поток записи логгера.
+ * <p>
+ * Событие кодируется в строку вида {@code type=TRANSFER_REQUESTED endpoint=TRANSFER_MONEY recipient=user amount=10.0},
+ * значения с пробелами, кавычками или знаком равенства заключаются в кавычки.
+ */
+public final class AuditEvent {
+    private final long timestamp;
+    private final LoggingLevel level;
+    private final AuditEventType type;
+    private final AuditEndpoint endpoint;
+    private final Object payload;
+
+    /**
+     * @param level    уровень события
+     * @param type     тип события
+     * @param endpoint метод контроллера, при обработке которого возникло событие, может быть null
+     * @param payload  данные, из которых извлекаются поля типа события; данные не должны изменяться после
+     *                 создания события
+     */
+    public AuditEvent(LoggingLevel level, AuditEventType type, AuditEndpoint endpoint, Object payload) {
+        this(System.currentTimeMillis(), level, type, endpoint, payload);
+    }
+
+    /**
+     * @param timestamp время события в миллисекундах от начала эпохи, если событие создается позже, чем произошло
+     */
+    public AuditEvent(long timestamp, LoggingLevel level, AuditEventType type, AuditEndpoint endpoint,
+                      Object payload) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.type = type;
+        this.endpoint = endpoint;
+        this.payload = payload;
+    }
+
+    /**
+     * Событие с произвольным текстовым сообщением
+     */
+    public static AuditEvent message(LoggingLevel level, String message) {
+        return new AuditEvent(level, AuditEventType.MESSAGE, null, message);
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public LoggingLevel level() {
+        return level;
+    }
+
+    public AuditEventType type() {
+        return type;
+    }
+
+    public AuditEndpoint endpoint() {
+        return endpoint;
+    }
+
+    public String encode() {
+        if (type == AuditEventType.MESSAGE) {
+            return String.valueOf(payload);
+        }
+
+        StringBuilder builder = new StringBuilder(64);
+        builder.append("type=").append(type.name());
+
+        if (endpoint != null) {
+            builder.append(" endpoint=").append(endpoint.name());
+        }
+
+        if (payload != null) {
+            List<AuditField> fields = type.fields();
+
+            for (int i = 0; i < fields.size(); i++) {
+                AuditField field = fields.get(i);
+                builder.append(' ').append(field.name()).append('=');
+
+                try {
+                    appendValue(builder, field.getter().apply(payload));
+                } catch (RuntimeException e) {
+                    builder.append('?');
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    public AuditRecord toRecord() {
+        return new AuditRecord(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()),
+                level, encode());
+    }
+
+    private static void appendValue(StringBuilder builder, Object value) {
+        String text = String.valueOf(value);
+
+        if (!needsQuotes(text)) {
+            builder.append(text);
+            return;
+        }
+
+        builder.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        builder.append('"');
+    }
+
+    private static boolean needsQuotes(String text) {
+        if (text.isEmpty()) {
+            return true;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (Character.isWhitespace(c) || c == '"' || c == '=' || c == '\\') {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.metrics.audit.event;
+
+import model.dto.in.PlayerRequestMoneyDto;
+import model.dto.in.PlayerTransferMoneyRequestDto;
+import model.dto.in.TransactionsListDto;
+import model.dto.in.UnsecuredAuthenticationRequestDto;
+import model.dto.in.UnsecuredPlayerCreationRequestDto;
+import model.dto.out.AuthenticatedPlayerDto;
+import model.dto.out.BalanceDto;
+
+import java.util.List;
+
+/**
+ * Тип события аудита и состав его полей. Пароли и токены авторизации в поля не входят и в аудит не попадают.
+ */
+public enum AuditEventType {
+    /**
+     * Произвольное текстовое сообщение, данные события - сама строка
+     */
+    MESSAGE,
+
+    REGISTRATION_REQUESTED(
+            AuditField.of(UnsecuredPlayerCreationRequestDto.class, "login", UnsecuredPlayerCreationRequestDto::getLogin),
+            AuditField.of(UnsecuredPlayerCreationRequestDto.class, "username",
+                    UnsecuredPlayerCreationRequestDto::getUsername)),
+    PLAYER_REGISTERED(authenticatedPlayerFields()),
+
+    AUTHENTICATION_REQUESTED(
+            AuditField.of(UnsecuredAuthenticationRequestDto.class, "login", UnsecuredAuthenticationRequestDto::getLogin)),
+    PLAYER_AUTHENTICATED(authenticatedPlayerFields()),
+
+    BALANCE_REQUESTED,
+    BALANCE_SERVED(balanceFields()),
+
+    TRANSFER_REQUESTED(
+            AuditField.of(PlayerTransferMoneyRequestDto.class, "recipient", PlayerTransferMoneyRequestDto::getRecipient),
+            AuditField.of(PlayerTransferMoneyRequestDto.class, "amount", PlayerTransferMoneyRequestDto::getAmount)),
+    TRANSFER_COMPLETED(balanceFields()),
+
+    MONEY_REQUESTED(
+            AuditField.of(PlayerRequestMoneyDto.class, "donor", PlayerRequestMoneyDto::getDonor),
+            AuditField.of(PlayerRequestMoneyDto.class, "amount", PlayerRequestMoneyDto::getAmount)),
+
+    PENDING_REQUESTS_REQUESTED,
+
+    /**
+     * Данные события - аргументы метода getHistory
+     */
+    HISTORY_REQUESTED(AuditField.argument("player_action", 1)),
+
+    /**
+     * Данные события - аргументы метода getHistoryPage
+     */
+    HISTORY_PAGE_REQUESTED(
+            AuditField.argument("player_action", 1),
+            AuditField.argument("cursor", 2),
+            AuditField.argument("limit", 3)),
+
+    APPROVAL_REQUESTED(AuditField.of(TransactionsListDto.class, "ids", TransactionsListDto::getIds)),
+    DECLINE_REQUESTED(AuditField.of(TransactionsListDto.class, "ids", TransactionsListDto::getIds)),
+
+    SESSION_CLOSED,
+
+    /**
+     * Ошибка при обработке запроса, данные события - исключение
+     */
+    FAILURE(AuditField.of(Throwable.class, "error", Throwable::getMessage));
+
+    private final List<AuditField> fields;
+
+    AuditEventType(AuditField... fields) {
+        this.fields = List.of(fields);
+    }
+
+    public List<AuditField> fields() {
+        return fields;
+    }
+
+    private static AuditField[] authenticatedPlayerFields() {
+        return new AuditField[]{
+                AuditField.of(AuthenticatedPlayerDto.class, "id", AuthenticatedPlayerDto::getId),
+                AuditField.of(AuthenticatedPlayerDto.class, "login", AuthenticatedPlayerDto::getLogin),
+                AuditField.of(AuthenticatedPlayerDto.class, "username", AuthenticatedPlayerDto::getUsername),
+                AuditField.of(AuthenticatedPlayerDto.class, "balance", AuthenticatedPlayerDto::getBalance)
+        };
+    }
+
+    private static AuditField[] balanceFields() {
+        return new AuditField[]{
+                AuditField.of(BalanceDto.class, "id", BalanceDto::getId),
+                AuditField.of(BalanceDto.class, "username", BalanceDto::getUsername),
+                AuditField.of(BalanceDto.class, "balance", BalanceDto::getBalance)
+        };
+    }
+}
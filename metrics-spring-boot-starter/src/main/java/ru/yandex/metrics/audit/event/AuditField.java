@@ -0,0 +1,26 @@
+package ru.yandex.metrics.audit.event;
+
+import java.util.function.Function;
+
+/**
+ * Поле события аудита: имя и способ извлечь значение из данных события. Значение извлекается только при кодировании
+ * события.
+ */
+public record AuditField(String name, Function<Object, Object> getter) {
+
+    /**
+     * @param type   тип данных события, к которому приводятся данные перед извлечением
+     * @param name   имя поля в закодированном событии
+     * @param getter извлечение значения поля
+     */
+    public static <T> AuditField of(Class<T> type, String name, Function<? super T, ?> getter) {
+        return new AuditField(name, payload -> getter.apply(type.cast(payload)));
+    }
+
+    /**
+     * Поле, значение которого - элемент массива аргументов метода
+     */
+    public static AuditField argument(String name, int index) {
+        return new AuditField(name, payload -> ((Object[]) payload)[index]);
+    }
+}
@@ -0,0 +1,225 @@
+package ru.yandex.metrics.audit.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.metrics.audit.event.AuditEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронный логгер аудита. Вызывающий поток только кладет запись в ограниченный кольцевой буфер, единственный
+ * фоновый поток забирает записи и сбрасывает их в {@link AuditRecordWriter} пакетами: при наборе batchSize записей
+ * или по истечении flushInterval с момента поступления первой записи пакета. События аудита кодируются в текст
+ * сообщения фоновым потоком при формировании пакета.
+ * <p>
+ * Поток записи создается переданным {@link Thread.Builder}: при обработке запросов в виртуальных потоках он тоже
+ * виртуальный и не занимает поток платформы, пока ждет записей или ответа хранилища.
+ * <p>
+ * Поведение при заполненном буфере задается {@link OverflowPolicy}. При закрытии логгер перестает принимать записи
+ * и дописывает все, что осталось в буфере.
+ */
+@Slf4j
+public class AsyncBatchLogger implements Logger, AutoCloseable {
+    private static final long BLOCKED_PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final RingBuffer<AuditEvent> buffer;
+    private final AuditRecordWriter writer;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration shutdownTimeout;
+    private final Thread writerThread;
+
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Счетчики логгера
+     *
+     * @param enqueued принято в буфер
+     * @param dropped  отброшено из-за переполнения буфера или после закрытия
+     * @param flushed  записано в хранилище
+     * @param flushes  число сброшенных пакетов
+     * @param failed   потеряно из-за ошибок хранилища
+     * @param queued   ожидает записи в буфере
+     * @param capacity емкость буфера
+     */
+    public record Stats(long enqueued, long dropped, long flushed, long flushes, long failed, int queued,
+                        int capacity) {
+    }
+
+    public AsyncBatchLogger(AuditRecordWriter writer, int capacity, int batchSize, Duration flushInterval,
+                            OverflowPolicy overflowPolicy, Duration shutdownTimeout) {
+        this(writer, capacity, batchSize, flushInterval, overflowPolicy, shutdownTimeout,
+                Thread.ofPlatform().daemon(true));
+    }
+
+    public AsyncBatchLogger(AuditRecordWriter writer, int capacity, int batchSize, Duration flushInterval,
+                            OverflowPolicy overflowPolicy, Duration shutdownTimeout, Thread.Builder threadBuilder) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.writer = writer;
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+
+        this.writerThread = threadBuilder.name("audit-writer").unstarted(this::runWriter);
+    }
+
+    public void start() {
+        writerThread.start();
+    }
+
+    @Override
+    public void logMessage(LoggingLevel level, String message) {
+        log(AuditEvent.message(level, message));
+    }
+
+    @Override
+    public void log(AuditEvent event) {
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+
+        if (buffer.offer(event)) {
+            accepted();
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> dropped.increment();
+            case DROP_OLDEST -> {
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                accepted();
+            }
+            case BLOCK -> {
+                while (!buffer.offer(event)) {
+                    if (!running) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.unpark(writerThread);
+                    LockSupport.parkNanos(this, BLOCKED_PRODUCER_PARK_NANOS);
+                }
+                accepted();
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(enqueued.sum(), dropped.sum(), flushed.sum(), flushes.sum(), failed.sum(), buffer.size(),
+                buffer.capacity());
+    }
+
+    /**
+     * Прекращает прием записей и ждет, пока поток записи сбросит буфер, не дольше shutdownTimeout
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(Math.max(1, shutdownTimeout.toMillis()));
+
+        if (writerThread.isAlive()) {
+            log.warn("Поток записи аудита не завершился за {}, в буфере осталось {} записей",
+                    shutdownTimeout, buffer.size());
+        } else {
+            // Запись, принятая одновременно с закрытием, могла попасть в буфер после его последнего сброса
+            drain(new ArrayList<>(batchSize));
+        }
+    }
+
+    /**
+     * Будит поток записи, только если он спит и в буфере уже набрался пакет: остальное он заберет по таймауту
+     */
+    private void accepted() {
+        enqueued.increment();
+
+        if (writerParked && buffer.size() >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void runWriter() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        long batchStartedAt = 0;
+
+        while (running) {
+            AuditEvent event = buffer.poll();
+
+            if (event != null) {
+                if (batch.isEmpty()) {
+                    batchStartedAt = System.nanoTime();
+                }
+                batch.add(event.toRecord());
+
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                }
+                continue;
+            }
+
+            long waitNanos = flushIntervalNanos;
+            if (!batch.isEmpty()) {
+                waitNanos -= System.nanoTime() - batchStartedAt;
+
+                if (waitNanos <= 0) {
+                    flush(batch);
+                    continue;
+                }
+            }
+
+            writerParked = true;
+            if (running && buffer.size() == 0) {
+                LockSupport.parkNanos(this, waitNanos);
+            }
+            writerParked = false;
+        }
+
+        drain(batch);
+    }
+
+    private void drain(List<AuditRecord> batch) {
+        AuditEvent event;
+
+        while ((event = buffer.poll()) != null) {
+            batch.add(event.toRecord());
+
+            if (batch.size() >= batchSize) {
+                flush(batch);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<AuditRecord> batch) {
+        try {
+            writer.write(batch);
+            flushed.add(batch.size());
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            log.warn("Не удалось записать пакет аудита из {} записей: {}", batch.size(), e.getMessage());
+        }
+
+        flushes.increment();
+        batch.clear();
+    }
+}
@@ -0,0 +1,9 @@
+package ru.yandex.metrics.audit.logging;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись аудита. Время фиксируется в момент вызова логгера, а не в момент записи в хранилище.
+ */
+public record AuditRecord(LocalDateTime datetime, LoggingLevel level, String message) {
+}
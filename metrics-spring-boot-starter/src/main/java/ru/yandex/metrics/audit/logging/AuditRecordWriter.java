@@ -0,0 +1,15 @@
+package ru.yandex.metrics.audit.logging;
+
+import java.util.List;
+
+/**
+ * Хранилище записей аудита, в которое асинхронный логгер сбрасывает накопленные пакеты
+ */
+public interface AuditRecordWriter {
+    /**
+     * Записать пакет записей. Вызывается только из потока записи логгера.
+     *
+     * @param records непустой пакет записей в порядке поступления
+     */
+    void write(List<AuditRecord> records);
+}
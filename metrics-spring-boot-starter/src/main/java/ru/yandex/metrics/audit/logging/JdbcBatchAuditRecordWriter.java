@@ -0,0 +1,28 @@
+package ru.yandex.metrics.audit.logging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Запись пакета аудита в таблицу logs одним пакетным INSERT
+ */
+@RequiredArgsConstructor
+public class JdbcBatchAuditRecordWriter implements AuditRecordWriter {
+    private static final String INSERT_LOG_QUERY = """
+            INSERT INTO logs(datetime, level, message) VALUES (?,?,?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void write(List<AuditRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT_LOG_QUERY, records, records.size(), (ps, record) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(record.datetime()));
+            ps.setString(2, record.level().name());
+            ps.setString(3, record.message());
+        });
+    }
+}
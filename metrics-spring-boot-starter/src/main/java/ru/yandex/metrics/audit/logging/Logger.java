@@ -1,5 +1,7 @@
 package ru.yandex.metrics.audit.logging;
 
+import ru.yandex.metrics.audit.event.AuditEvent;
+
 /**
  * Простой логгер, поддерживающий различный уровень логгирования
  */
@@ -27,4 +29,11 @@ public interface Logger {
     }
 
     void logMessage(LoggingLevel level, String message);
+
+    /**
+     * Записать событие аудита. По умолчанию событие кодируется в потоке вызова.
+     */
+    default void log(AuditEvent event) {
+        logMessage(event.level(), event.encode());
+    }
 }
@@ -0,0 +1,19 @@
+package ru.yandex.metrics.audit.logging;
+
+/**
+ * Поведение асинхронного логгера при заполненном буфере
+ */
+public enum OverflowPolicy {
+    /**
+     * Вызывающий поток ждет освобождения места в буфере
+     */
+    BLOCK,
+    /**
+     * Из буфера вытесняется самая старая запись
+     */
+    DROP_OLDEST,
+    /**
+     * Новая запись отбрасывается
+     */
+    DROP_NEWEST
+}
@@ -0,0 +1,134 @@
+package ru.yandex.metrics.audit.logging;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Запись пакета аудита в таблицу logs через протокол COPY: весь пакет уходит на сервер одним потоком данных, без
+ * разбора и планирования INSERT на каждую строку. Пакет кодируется в CSV или в бинарный формат COPY, буфер
+ * кодирования переиспользуется между пакетами (запись выполняется только из потока записи логгера).
+ */
+public class PGCopyAuditRecordWriter implements AuditRecordWriter {
+    /**
+     * Формат данных COPY
+     */
+    public enum Format {
+        /**
+         * Текстовый CSV: время и уровень разбираются сервером из строк
+         */
+        CSV,
+        /**
+         * Бинарный формат: время передается готовым числом микросекунд, сервер не разбирает текст
+         */
+        BINARY
+    }
+
+    private static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final short FIELD_COUNT = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Format format;
+    private final String copyQuery;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+    public PGCopyAuditRecordWriter(JdbcTemplate jdbcTemplate, Format format) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.format = format;
+        this.copyQuery = "COPY logs(datetime, level, message) FROM STDIN WITH (FORMAT " + format.name() + ")";
+    }
+
+    @Override
+    public void write(List<AuditRecord> records) {
+        buffer.reset();
+
+        try {
+            if (format == Format.BINARY) {
+                encodeBinary(records, new DataOutputStream(buffer));
+            } else {
+                encodeCsv(records, buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copyQuery);
+
+            try {
+                copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                return copyIn.endCopy();
+            } catch (SQLException e) {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Строка CSV на запись: время в формате ISO, уровень и сообщение в кавычках с удвоением кавычек внутри
+     */
+    static void encodeCsv(List<AuditRecord> records, ByteArrayOutputStream out) {
+        StringBuilder line = new StringBuilder(256);
+
+        for (AuditRecord record : records) {
+            line.setLength(0);
+            line.append(record.datetime()).append(',')
+                    .append(record.level().name()).append(',');
+
+            if (record.message() != null) {
+                line.append('"').append(record.message().replace("\"", "\"\"")).append('"');
+            }
+            line.append('\n');
+
+            out.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Бинарный формат COPY: заголовок, для каждой строки число полей и поля с длиной впереди, завершающий маркер -1.
+     * timestamp передается как число микросекунд от 2000-01-01, текст - в UTF-8.
+     */
+    static void encodeBinary(List<AuditRecord> records, DataOutputStream out) throws IOException {
+        out.write(BINARY_SIGNATURE);
+        out.writeInt(0);
+        out.writeInt(0);
+
+        for (AuditRecord record : records) {
+            out.writeShort(FIELD_COUNT);
+
+            out.writeInt(Long.BYTES);
+            out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, record.datetime()));
+
+            writeText(out, record.level().name());
+            writeText(out, record.message());
+        }
+
+        out.writeShort(-1);
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.metrics.audit.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченная неблокирующая очередь для нескольких производителей и потребителей (схема Вьюкова). У каждой ячейки
+ * есть номер последовательности: производитель занимает ячейку, когда ее номер равен позиции записи, потребитель -
+ * когда номер на единицу больше позиции чтения. Позиции продвигаются через CAS, блокировок нет.
+ * <p>
+ * Потребителей несколько, потому что при политике {@link OverflowPolicy#DROP_OLDEST} старые записи вытесняют
+ * вызывающие потоки.
+ */
+class RingBuffer<E> {
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong readPosition = new AtomicLong();
+
+    /**
+     * @param capacity емкость, округляется вверх до степени двойки
+     */
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false, если очередь заполнена
+     */
+    boolean offer(E element) {
+        long position = writePosition.get();
+
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (writePosition.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = writePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = writePosition.get();
+            }
+        }
+    }
+
+    /**
+     * @return null, если очередь пуста
+     */
+    E poll() {
+        long position = readPosition.get();
+
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+
+            if (difference == 0) {
+                if (readPosition.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = readPosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = readPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Приблизительное число элементов: позиции читаются не атомарно
+     */
+    int size() {
+        long size = writePosition.get() - readPosition.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
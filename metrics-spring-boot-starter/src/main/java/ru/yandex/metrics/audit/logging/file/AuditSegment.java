@@ -0,0 +1,22 @@
+package ru.yandex.metrics.audit.logging.file;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись индекса закрытого сегмента аудита: номер сегмента, диапазон времени его записей и их количество.
+ * Время хранится в микросекундах от эпохи, см. {@link SegmentedAuditFileStore}.
+ */
+public record AuditSegment(long sequence, long firstMicros, long lastMicros, int records) {
+
+    public LocalDateTime first() {
+        return SegmentedAuditFileStore.fromMicros(firstMicros);
+    }
+
+    public LocalDateTime last() {
+        return SegmentedAuditFileStore.fromMicros(lastMicros);
+    }
+
+    boolean overlaps(long fromMicros, long toMicros) {
+        return firstMicros < toMicros && lastMicros >= fromMicros;
+    }
+}
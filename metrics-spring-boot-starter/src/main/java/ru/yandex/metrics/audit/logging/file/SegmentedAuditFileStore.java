@@ -0,0 +1,431 @@
+package ru.yandex.metrics.audit.logging.file;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.metrics.audit.logging.AuditRecord;
+import ru.yandex.metrics.audit.logging.AuditRecordWriter;
+import ru.yandex.metrics.audit.logging.LoggingLevel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Хранилище аудита в локальных файлах. Записи дописываются в отображенный в память активный сегмент фиксированного
+ * размера; когда следующая запись не помещается, сегмент закрывается, сжимается в gzip и попадает в индекс с
+ * диапазоном времени своих записей. Поиск по окну времени читает только сегменты, пересекающиеся с окном.
+ * <p>
+ * Формат записи: длина остатка записи (int), время в микросекундах от эпохи UTC (long), уровень (byte), длина
+ * сообщения в байтах UTF-8 (int, -1 для null) и само сообщение. Длина записывается последней, поэтому запись,
+ * прерванная падением процесса, выглядит как конец сегмента. Отображенные страницы сбрасываются на диск при
+ * закрытии сегмента и хранилища: падение процесса их не теряет, падение ОС может потерять хвост активного сегмента.
+ * <p>
+ * Индекс - файл audit.index из записей фиксированной длины: номер сегмента, время первой и последней записи,
+ * число записей. При открытии хранилище дозакрывает сегменты, закрытие которых было прервано, и продолжает
+ * последний незакрытый сегмент.
+ */
+@Slf4j
+public class SegmentedAuditFileStore implements AuditRecordWriter, AutoCloseable {
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String RAW_SUFFIX = ".log";
+    private static final String COMPRESSED_SUFFIX = ".log.gz";
+    private static final String INDEX_FILE = "audit.index";
+
+    private static final int RECORD_HEADER = Integer.BYTES + Long.BYTES + Byte.BYTES + Integer.BYTES;
+    private static final int INDEX_ENTRY = 3 * Long.BYTES + Integer.BYTES;
+    private static final LoggingLevel[] LEVELS = LoggingLevel.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean compress;
+    private final FileChannel index;
+    private final List<AuditSegment> sealed = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long activeSequence;
+    private long activeFirst;
+    private long activeLast;
+    private int activeRecords;
+
+    /**
+     * Открывает хранилище в каталоге, восстанавливая индекс и активный сегмент
+     *
+     * @param segmentSize размер сегмента в байтах
+     * @param compress    сжимать закрытые сегменты
+     */
+    public SegmentedAuditFileStore(Path directory, int segmentSize, boolean compress) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compress = compress;
+
+        try {
+            Files.createDirectories(directory);
+            this.index = FileChannel.open(directory.resolve(INDEX_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(List<AuditRecord> records) {
+        lock.lock();
+        try {
+            for (AuditRecord record : records) {
+                append(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Передает consumer все записи с временем в полуинтервале [from, to) в порядке записи
+     */
+    public void scan(LocalDateTime from, LocalDateTime to, Consumer<AuditRecord> consumer) {
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        List<AuditSegment> candidates;
+        ByteBuffer activeCopy = null;
+
+        // Под блокировкой только выбираются сегменты и копируется активный: закрытые сегменты неизменяемы
+        lock.lock();
+        try {
+            candidates = sealed.stream()
+                    .filter(segment -> segment.overlaps(fromMicros, toMicros))
+                    .toList();
+
+            if (activeRecords > 0 && activeFirst < toMicros && activeLast >= fromMicros) {
+                ByteBuffer written = active.duplicate().flip();
+                activeCopy = ByteBuffer.allocate(written.remaining()).put(written).flip();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            for (AuditSegment segment : candidates) {
+                decode(ByteBuffer.wrap(readSealed(segment.sequence())), fromMicros, toMicros, consumer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (activeCopy != null) {
+            decode(activeCopy, fromMicros, toMicros, consumer);
+        }
+    }
+
+    /**
+     * Индекс закрытых сегментов в порядке номеров
+     */
+    public List<AuditSegment> segments() {
+        lock.lock();
+        try {
+            return List.copyOf(sealed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            active.force();
+            activeChannel.close();
+            index.force(true);
+            index.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Обрезать сообщение в UTF-8 до maxBytes байт по границе символа: байты продолжения (10xxxxxx) в начале
+     * отбрасываемой части означают, что последний символ не помещается целиком
+     */
+    static byte[] truncateUtf8(byte[] message, int maxBytes) {
+        int end = maxBytes;
+
+        while (end > 0 && (message[end] & 0xC0) == 0x80) {
+            end--;
+        }
+
+        return Arrays.copyOf(message, end);
+    }
+
+    private void append(AuditRecord record) throws IOException {
+        byte[] message = record.message() == null ? null : record.message().getBytes(StandardCharsets.UTF_8);
+
+        if (message != null && RECORD_HEADER + message.length > segmentSize) {
+            message = truncateUtf8(message, segmentSize - RECORD_HEADER);
+        }
+
+        int length = RECORD_HEADER + (message == null ? 0 : message.length);
+        if (active.position() + length > segmentSize) {
+            roll();
+        }
+
+        long micros = toMicros(record.datetime());
+        int start = active.position();
+
+        active.position(start + Integer.BYTES);
+        active.putLong(micros);
+        active.put((byte) record.level().ordinal());
+
+        if (message == null) {
+            active.putInt(-1);
+        } else {
+            active.putInt(message.length);
+            active.put(message);
+        }
+        active.putInt(start, length - Integer.BYTES);
+
+        if (activeRecords == 0) {
+            activeFirst = micros;
+            activeLast = micros;
+        } else {
+            activeFirst = Math.min(activeFirst, micros);
+            activeLast = Math.max(activeLast, micros);
+        }
+        activeRecords++;
+    }
+
+    private void roll() throws IOException {
+        active.force();
+
+        if (compress) {
+            compress(activeSequence, active.duplicate().flip());
+        }
+        activeChannel.close();
+
+        seal(new AuditSegment(activeSequence, activeFirst, activeLast, activeRecords));
+        openActive(activeSequence + 1);
+    }
+
+    private void recover() throws IOException {
+        ByteBuffer entries = ByteBuffer.allocate((int) (index.size() / INDEX_ENTRY * INDEX_ENTRY));
+        index.read(entries, 0);
+        entries.flip();
+
+        while (entries.hasRemaining()) {
+            sealed.add(new AuditSegment(entries.getLong(), entries.getLong(), entries.getLong(), entries.getInt()));
+        }
+        // Запись индекса, прерванная падением, отбрасывается
+        index.truncate(entries.limit());
+        index.position(entries.limit());
+
+        long lastSealed = sealed.isEmpty() ? -1 : sealed.get(sealed.size() - 1).sequence();
+        TreeSet<Long> unsealed = new TreeSet<>();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX))
+                    .map(name -> name.substring(SEGMENT_PREFIX.length(), name.indexOf('.')))
+                    .map(Long::parseLong)
+                    .filter(sequence -> sequence > lastSealed)
+                    .forEach(unsealed::add);
+        }
+
+        Long last = unsealed.pollLast();
+        for (long sequence : unsealed) {
+            log.warn("Сегмент аудита {} не был закрыт, закрывается при открытии хранилища", sequence);
+            sealAfterCrash(sequence);
+        }
+
+        if (last != null && Files.exists(compressedPath(last))) {
+            sealAfterCrash(last);
+            openActive(last + 1);
+        } else if (last != null) {
+            openActive(last);
+        } else {
+            openActive(lastSealed + 1);
+        }
+    }
+
+    /**
+     * Закрывает сегмент, оставшийся незакрытым после падения: сжатый файл появляется атомарным переименованием,
+     * поэтому если он есть, он полный
+     */
+    private void sealAfterCrash(long sequence) throws IOException {
+        Path raw = rawPath(sequence);
+        Path compressed = compressedPath(sequence);
+        byte[] content = Files.exists(compressed) ? readCompressed(compressed) : Files.readAllBytes(raw);
+
+        long[] range = {Long.MAX_VALUE, Long.MIN_VALUE, 0};
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        decode(buffer, Long.MIN_VALUE, Long.MAX_VALUE, record -> {
+            long micros = toMicros(record.datetime());
+            range[0] = Math.min(range[0], micros);
+            range[1] = Math.max(range[1], micros);
+            range[2]++;
+        });
+
+        if (compress && !Files.exists(compressed)) {
+            compress(sequence, ByteBuffer.wrap(content, 0, endOf(content)));
+        } else if (Files.exists(compressed)) {
+            Files.deleteIfExists(raw);
+        }
+
+        seal(new AuditSegment(sequence, range[0], range[1], (int) range[2]));
+    }
+
+    private void seal(AuditSegment segment) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY)
+                .putLong(segment.sequence())
+                .putLong(segment.firstMicros())
+                .putLong(segment.lastMicros())
+                .putInt(segment.records())
+                .flip();
+
+        while (entry.hasRemaining()) {
+            index.write(entry);
+        }
+        index.force(false);
+        sealed.add(segment);
+    }
+
+    private void openActive(long sequence) throws IOException {
+        activeChannel = FileChannel.open(rawPath(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        activeSequence = sequence;
+        activeRecords = 0;
+
+        // Продолжение сегмента после перезапуска: позиция - конец последней полной записи
+        int position = 0;
+        while (position + Integer.BYTES <= segmentSize) {
+            int length = active.getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > segmentSize) {
+                break;
+            }
+
+            long micros = active.getLong(position + Integer.BYTES);
+            activeFirst = activeRecords == 0 ? micros : Math.min(activeFirst, micros);
+            activeLast = activeRecords == 0 ? micros : Math.max(activeLast, micros);
+            activeRecords++;
+            position += Integer.BYTES + length;
+        }
+        active.position(position);
+    }
+
+    /**
+     * Сжимает содержимое сегмента во временный файл и атомарно переименовывает его, затем удаляет несжатый файл
+     */
+    private void compress(long sequence, ByteBuffer content) throws IOException {
+        Path compressed = compressedPath(sequence);
+        Path temporary = compressed.resolveSibling(compressed.getFileName() + ".tmp");
+
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), 64 * 1024)) {
+            byte[] chunk = new byte[64 * 1024];
+            while (content.hasRemaining()) {
+                int size = Math.min(chunk.length, content.remaining());
+                content.get(chunk, 0, size);
+                out.write(chunk, 0, size);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, compressed, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(rawPath(sequence));
+    }
+
+    private byte[] readSealed(long sequence) throws IOException {
+        Path compressed = compressedPath(sequence);
+        return Files.exists(compressed) ? readCompressed(compressed) : Files.readAllBytes(rawPath(sequence));
+    }
+
+    private static byte[] readCompressed(Path path) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path), 64 * 1024)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Позиция конца последней полной записи
+     */
+    private static int endOf(byte[] content) {
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        int position = 0;
+
+        while (position + Integer.BYTES <= content.length) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > content.length) {
+                break;
+            }
+            position += Integer.BYTES + length;
+        }
+
+        return position;
+    }
+
+    private static void decode(ByteBuffer buffer, long fromMicros, long toMicros, Consumer<AuditRecord> consumer) {
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                return;
+            }
+
+            int next = buffer.position() + length;
+            long micros = buffer.getLong();
+
+            if (micros >= fromMicros && micros < toMicros) {
+                LoggingLevel level = LEVELS[buffer.get()];
+                int messageLength = buffer.getInt();
+                String message = null;
+
+                if (messageLength >= 0) {
+                    message = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), messageLength,
+                            StandardCharsets.UTF_8);
+                }
+                consumer.accept(new AuditRecord(fromMicros(micros), level, message));
+            }
+
+            buffer.position(next);
+        }
+    }
+
+    private Path rawPath(long sequence) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, sequence, RAW_SUFFIX));
+    }
+
+    private Path compressedPath(long sequence) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, sequence, COMPRESSED_SUFFIX));
+    }
+}
@@ -0,0 +1,138 @@
+package ru.yandex.metrics.performance;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма задержек с логарифмическими корзинами в духе HdrHistogram: каждая степень двойки делится на
+ * {@value #SUB_BUCKETS} равных корзин, поэтому относительная погрешность квантилей не превышает 1/{@value #SUB_BUCKETS}.
+ * Значения до 2^{@value #MAX_EXPONENT} нс (около 68 секунд), большие попадают в последнюю корзину; максимум
+ * хранится точно.
+ * <p>
+ * Запись не блокирует и не выделяет память: каждый поток пишет в свою полосу счетчиков, выбранную по id потока,
+ * полосы складываются только при снятии снимка.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + SUB_BUCKETS;
+    private static final long MAX_TRACKABLE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final int COUNT = BUCKETS;
+    private static final int SUM = BUCKETS + 1;
+    private static final int MAX = BUCKETS + 2;
+    private static final int SLOTS = BUCKETS + 3;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    /**
+     * Снимок гистограммы, значения в наносекундах
+     */
+    public record Snapshot(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos,
+                           long maxNanos) {
+    }
+
+    public LatencyHistogram() {
+        int stripeCount = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+        this.stripes = new AtomicLongArray[stripeCount];
+        this.stripeMask = stripeCount - 1;
+
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(SLOTS);
+        }
+    }
+
+    /**
+     * Записать длительность в наносекундах
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().threadId() & stripeMask];
+
+        stripe.getAndIncrement(bucketOf(value));
+        stripe.getAndIncrement(COUNT);
+        stripe.getAndAdd(SUM, value);
+
+        long max = stripe.get(MAX);
+        while (value > max && !stripe.compareAndSet(MAX, max, value)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    /**
+     * Снять снимок
+     *
+     * @param reset обнулить счетчики: каждое значение попадает либо в этот снимок, либо в следующий
+     */
+    public Snapshot snapshot(boolean reset) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += reset ? stripe.getAndSet(i, 0) : stripe.get(i);
+            }
+            count += reset ? stripe.getAndSet(COUNT, 0) : stripe.get(COUNT);
+            sum += reset ? stripe.getAndSet(SUM, 0) : stripe.get(SUM);
+            max = Math.max(max, reset ? stripe.getAndSet(MAX, 0) : stripe.get(MAX));
+        }
+
+        if (count == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0, 0);
+        }
+
+        return new Snapshot(count, sum / count,
+                percentile(counts, 0.5, max), percentile(counts, 0.9, max),
+                percentile(counts, 0.99, max), percentile(counts, 0.999, max), max);
+    }
+
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        long clamped = Math.min(value, MAX_TRACKABLE);
+        int shift = 63 - Long.numberOfLeadingZeros(clamped) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (clamped >>> shift);
+    }
+
+    /**
+     * Наибольшее значение, попадающее в корзину
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket - (long) shift * SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Квантиль по суммарным счетчикам корзин. Сумма корзин может немного отличаться от count, снятого не атомарно с
+     * ними, поэтому ранг считается от суммы корзин.
+     */
+    private static long percentile(long[] counts, double quantile, long max) {
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+
+        return max;
+    }
+}
@@ -1,17 +1,23 @@
 package ru.yandex.metrics.performance;
 
+import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 
 /**
- * Аспект, ответственный за замер времени исполнения методов контроллера. Вывод - в консоль.
+ * Аспект, ответственный за замер времени исполнения методов бинов, аннотированных @Performance. Длительность каждого
+ * вызова, в том числе завершившегося исключением, записывается в гистограмму метода в {@link PerformanceRegistry}.
  */
 @Aspect
 @Component
+@RequiredArgsConstructor
 public class PerformanceAspect {
+    private final PerformanceRegistry registry;
+
     @Pointcut("@within(ru.yandex.metrics.performance.Performance)")
     public void annotatedByPerformanceOnClassLevel() {
     }
@@ -22,19 +28,13 @@ public class PerformanceAspect {
 
     @Around("annotatedByPerformanceOnClassLevel() && anyPublicMethod()")
     public Object measurePerformanceTime(ProceedingJoinPoint pjp) throws Throwable {
-        try {
-            long millisBefore = System.currentTimeMillis();
-            System.out.println("Entering method: " + pjp.getSignature().getName());
+        long startedAt = System.nanoTime();
 
-            Object result = pjp.proceed();
-            long millisAfter = System.currentTimeMillis();
-
-            System.out.println("Execution of method: " + pjp.getSignature().getName() + " has finished. " +
-                    "Execution time is " + (millisAfter - millisBefore) + " ms.");
-            return result;
-        } catch (Throwable t) {
-            System.out.println("Failed to execute method " + pjp.getSignature().getName());
-            throw t;
+        try {
+            return pjp.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - startedAt;
+            registry.histogram(((MethodSignature) pjp.getSignature()).getMethod()).record(elapsed);
         }
     }
 }
@@ -1,5 +1,6 @@
 package ru.yandex.metrics.performance;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
@@ -7,8 +8,25 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
 @Configuration
 @EnableAspectJAutoProxy
 public class PerformanceConfig {
+    @Bean
+    public PerformanceRegistry performanceRegistry() {
+        return new PerformanceRegistry();
+    }
+
     @Bean("PerformanceAspect")
     public PerformanceAspect performanceAspect() {
-        return new PerformanceAspect();
+        return new PerformanceAspect(performanceRegistry());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "metrics.performance.endpoint", name = "enabled", matchIfMissing = true)
+    public PerformanceEndpoint performanceEndpoint() {
+        return new PerformanceEndpoint(performanceRegistry());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "metrics.performance.endpoint", name = "reset-enabled", havingValue = "true")
+    public PerformanceResetEndpoint performanceResetEndpoint() {
+        return new PerformanceResetEndpoint(performanceRegistry());
     }
 }
@@ -0,0 +1,23 @@
+package ru.yandex.metrics.performance;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Чтение гистограмм задержек методов, аннотированных @Performance. Значения в наносекундах.
+ */
+@RestController
+@RequestMapping("/metrics/performance")
+@RequiredArgsConstructor
+public class PerformanceEndpoint {
+    private final PerformanceRegistry registry;
+
+    @GetMapping
+    public Map<String, LatencyHistogram.Snapshot> snapshots() {
+        return registry.snapshots(false);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.metrics.performance;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Гистограммы задержек методов бинов, аннотированных @Performance. Гистограмма создается при первом вызове метода,
+ * дальше поиск по методу не выделяет память.
+ */
+public class PerformanceRegistry {
+    private final Map<Method, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+    public LatencyHistogram histogram(Method method) {
+        LatencyHistogram histogram = histograms.get(method);
+
+        if (histogram == null) {
+            names.putIfAbsent(method, name(method));
+            histogram = histograms.computeIfAbsent(method, key -> new LatencyHistogram());
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Снимки всех гистограмм по имени метода вида package.Class.method(ParameterType, ...)
+     *
+     * @param reset обнулить гистограммы после снятия снимков
+     */
+    public Map<String, LatencyHistogram.Snapshot> snapshots(boolean reset) {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((method, histogram) -> snapshots.put(names.get(method), histogram.snapshot(reset)));
+        return snapshots;
+    }
+
+    /**
+     * Полное имя класса и типы параметров различают одноименные классы разных пакетов и перегруженные методы
+     */
+    static String name(Method method) {
+        return method.getDeclaringClass().getName() + "." + method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.metrics.performance;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Сброс гистограмм задержек методов, аннотированных @Performance. Сбрасывает статистику всего приложения и не
+ * требует аутентификации, поэтому включается явно свойством metrics.performance.endpoint.reset-enabled.
+ */
+@RestController
+@RequestMapping("/metrics/performance")
+@RequiredArgsConstructor
+public class PerformanceResetEndpoint {
+    private final PerformanceRegistry registry;
+
+    /**
+     * Возвращает снимки на момент сброса
+     */
+    @DeleteMapping
+    public Map<String, LatencyHistogram.Snapshot> reset() {
+        return registry.snapshots(true);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.yandex.metrics.registry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Монотонный счетчик
+ */
+public class Counter {
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void increment(long amount) {
+        value.add(amount);
+    }
+
+    public long value() {
+        return value.sum();
+    }
+}
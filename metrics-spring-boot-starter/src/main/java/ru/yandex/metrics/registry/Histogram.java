@@ -0,0 +1,61 @@
+package ru.yandex.metrics.registry;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма с фиксированными границами корзин в модели Prometheus: счетчики корзин отдаются нарастающим итогом
+ * вместе с суммой и числом наблюдений
+ */
+public class Histogram {
+    private final double[] upperBounds;
+    private final LongAdder[] buckets;
+    private final DoubleAdder sum = new DoubleAdder();
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * @param upperBounds возрастающие верхние границы корзин, корзина +Inf добавляется автоматически
+     */
+    Histogram(double[] upperBounds) {
+        this.upperBounds = upperBounds.clone();
+        this.buckets = new LongAdder[upperBounds.length + 1];
+
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void observe(double value) {
+        int bucket = 0;
+        while (bucket < upperBounds.length && value > upperBounds[bucket]) {
+            bucket++;
+        }
+
+        buckets[bucket].increment();
+        sum.add(value);
+        count.increment();
+    }
+
+    double[] upperBounds() {
+        return upperBounds;
+    }
+
+    /**
+     * Счетчики корзин нарастающим итогом, последний - для +Inf
+     */
+    long[] cumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            counts[i] = total;
+        }
+
+        return counts;
+    }
+
+    double sum() {
+        return sum.sum();
+    }
+}
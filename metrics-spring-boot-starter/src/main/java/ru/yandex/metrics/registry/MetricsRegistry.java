@@ -0,0 +1,151 @@
+package ru.yandex.metrics.registry;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * Реестр метрик приложения с выводом в текстовом формате Prometheus 0.0.4. Метрика с одним именем образует
+ * семейство, члены которого различаются значениями меток. Метки задаются парами имя-значение:
+ * {@code registry.counter("wallet_transfers_total", "Переводы", "outcome", "APPROVED")}.
+ * <p>
+ * Повторная регистрация возвращает существующий счетчик или гистограмму, поэтому их можно получать по месту
+ * использования. Значения gauge вычисляются при каждом чтении реестра.
+ */
+public class MetricsRegistry {
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    private enum Type {
+        COUNTER, GAUGE, HISTOGRAM;
+
+        String prometheusName() {
+            return name().toLowerCase();
+        }
+    }
+
+    private record Family(String name, String help, Type type, Map<String, Object> members) {
+    }
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) member(name, help, Type.COUNTER, labels, key -> new Counter());
+    }
+
+    /**
+     * Счетчик, значение которого ведется вне реестра, например статистика кеша
+     */
+    public void counter(String name, String help, DoubleSupplier value, String... labels) {
+        member(name, help, Type.COUNTER, labels, key -> value);
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        member(name, help, Type.GAUGE, labels, key -> value);
+    }
+
+    /**
+     * @param upperBounds возрастающие верхние границы корзин; используются при первой регистрации метки
+     */
+    public Histogram histogram(String name, String help, double[] upperBounds, String... labels) {
+        return (Histogram) member(name, help, Type.HISTOGRAM, labels, key -> new Histogram(upperBounds));
+    }
+
+    /**
+     * Все метрики в текстовом формате Prometheus, семейства и члены упорядочены по имени и меткам
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+
+        for (Family family : new TreeMap<>(families).values()) {
+            out.append("# HELP ").append(family.name()).append(' ').append(escapeHelp(family.help())).append('\n');
+            out.append("# TYPE ").append(family.name()).append(' ').append(family.type().prometheusName()).append('\n');
+
+            new TreeMap<>(family.members()).forEach((labels, member) -> write(out, family.name(), labels, member));
+        }
+
+        return out.toString();
+    }
+
+    private Object member(String name, String help, Type type, String[] labels, Function<String, Object> factory) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type, new ConcurrentHashMap<>()));
+
+        if (family.type() != type) {
+            throw new IllegalArgumentException(
+                    String.format("Метрика %s уже зарегистрирована с типом %s", name, family.type()));
+        }
+
+        return family.members().computeIfAbsent(labels(labels), factory);
+    }
+
+    private static void write(StringBuilder out, String name, String labels, Object member) {
+        if (member instanceof Counter counter) {
+            sample(out, name, labels, counter.value());
+        } else if (member instanceof DoubleSupplier supplier) {
+            double value;
+            try {
+                value = supplier.getAsDouble();
+            } catch (RuntimeException e) {
+                // Недоступный источник не должен ломать чтение остальных метрик
+                return;
+            }
+            sample(out, name, labels, value);
+        } else if (member instanceof Histogram histogram) {
+            double[] upperBounds = histogram.upperBounds();
+            long[] counts = histogram.cumulativeCounts();
+
+            for (int i = 0; i < counts.length; i++) {
+                String bound = i < upperBounds.length ? format(upperBounds[i]) : "+Inf";
+                String bucketLabels = labels.isEmpty()
+                        ? "{le=\"" + bound + "\"}"
+                        : labels.substring(0, labels.length() - 1) + ",le=\"" + bound + "\"}";
+                sample(out, name + "_bucket", bucketLabels, counts[i]);
+            }
+            sample(out, name + "_sum", labels, histogram.sum());
+            sample(out, name + "_count", labels, counts[counts.length - 1]);
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(format(value)).append('\n');
+    }
+
+    private static String labels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Метки задаются парами имя-значение");
+        }
+
+        if (labels.length == 0) {
+            return "";
+        }
+
+        StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"").append(escapeLabelValue(labels[i + 1])).append('"');
+        }
+
+        return out.append('}').toString();
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+
+        return Double.toString(value);
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.metrics.registry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsRegistryConfig {
+    @Bean
+    @ConditionalOnMissingBean
+    public MetricsRegistry metricsRegistry() {
+        return new MetricsRegistry();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "metrics.prometheus.endpoint", name = "enabled", matchIfMissing = true)
+    public PrometheusEndpoint prometheusEndpoint(MetricsRegistry metricsRegistry) {
+        return new PrometheusEndpoint(metricsRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.yandex.metrics.registry;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Метрики реестра в текстовом формате Prometheus
+ */
+@RestController
+@RequestMapping("/metrics/prometheus")
+@RequiredArgsConstructor
+public class PrometheusEndpoint {
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+
+    @GetMapping(produces = CONTENT_TYPE)
+    public String scrape() {
+        return registry.scrape();
+    }
+}
@@ -0,0 +1,174 @@
+package ru.yandex.metrics.validation;
+
+import model.dto.exception.ConstraintViolationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * План валидации класса: список ссылочных полей экземпляра с готовыми MethodHandle для чтения и видом проверки,
+ * выбранным по объявленному типу поля. План строится один раз на класс и хранится в {@link ClassValue}, поэтому
+ * проверка объекта не обращается к рефлексии и не выделяет память. Вид проверки известен заранее, и для полей,
+ * которые не могут быть ни строкой, ни коллекцией, не выполняются instanceof по интерфейсам: неудачная проверка
+ * instanceof по интерфейсу не кешируется JVM и каждый раз обходит список интерфейсов класса значения.
+ * <p>
+ * Правила те же, что и раньше: поле не должно быть null, строка - пустой или из пробелов, коллекция - пустой.
+ * Классы JDK, перечисления, массивы и примитивы не проверяются: это не DTO клиента. Статические поля и поля
+ * примитивных типов пропускаются - первые не относятся к экземпляру, вторые не бывают null.
+ */
+public final class ValidationPlan {
+    private static final byte NOT_NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte COLLECTION = 2;
+    private static final byte ANY = 3;
+
+    private static final ValidationPlan EMPTY = new ValidationPlan(new String[0], new MethodHandle[0], new byte[0]);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<ValidationPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected ValidationPlan computeValue(Class<?> type) {
+            return build(type);
+        }
+    };
+
+    private final String[] names;
+    private final MethodHandle[] getters;
+    private final byte[] kinds;
+
+    private ValidationPlan(String[] names, MethodHandle[] getters, byte[] kinds) {
+        this.names = names;
+        this.getters = getters;
+        this.kinds = kinds;
+    }
+
+    /**
+     * Проверить объект по плану его класса. null не проверяется: необязательные параметры запроса могут
+     * отсутствовать.
+     *
+     * @throws ConstraintViolationException если поле нарушает правила
+     */
+    public static void validate(Object instance) {
+        if (instance != null) {
+            PLANS.get(instance.getClass()).check(instance);
+        }
+    }
+
+    /**
+     * Число проверяемых полей класса
+     */
+    public static int fieldCount(Class<?> type) {
+        return PLANS.get(type).getters.length;
+    }
+
+    private void check(Object instance) {
+        for (int i = 0; i < getters.length; i++) {
+            Object value;
+
+            try {
+                value = (Object) getters[i].invokeExact(instance);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+
+            if (value == null) {
+                throw new ConstraintViolationException(names[i] + " is null!");
+            }
+
+            switch (kinds[i]) {
+                case STRING -> checkString(names[i], (String) value);
+                case COLLECTION -> checkCollection(names[i], (Collection<?>) value);
+                case ANY -> {
+                    if (value instanceof String s) {
+                        checkString(names[i], s);
+                    } else if (value instanceof Collection<?> c) {
+                        checkCollection(names[i], c);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static void checkString(String name, String value) {
+        if (value.isBlank()) {
+            throw new ConstraintViolationException(name + " is either empty or blank!");
+        }
+    }
+
+    private static void checkCollection(String name, Collection<?> value) {
+        if (value.isEmpty()) {
+            throw new ConstraintViolationException(name + " is empty!");
+        }
+    }
+
+    private static ValidationPlan build(Class<?> type) {
+        if (isSkipped(type)) {
+            return EMPTY;
+        }
+
+        List<String> names = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        List<Byte> kinds = new ArrayList<>();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive() || field.isSynthetic()) {
+                    continue;
+                }
+
+                names.add(field.getName());
+                getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                kinds.add(kindOf(field.getType()));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Нет доступа к полям класса " + type.getName(), e);
+        }
+
+        if (getters.isEmpty()) {
+            return EMPTY;
+        }
+
+        byte[] kindArray = new byte[kinds.size()];
+        for (int i = 0; i < kindArray.length; i++) {
+            kindArray[i] = kinds.get(i);
+        }
+
+        return new ValidationPlan(names.toArray(String[]::new), getters.toArray(MethodHandle[]::new), kindArray);
+    }
+
+    /**
+     * Вид проверки по объявленному типу поля: поле типа Object, CharSequence, Iterable и т.п. может содержать и
+     * строку, и коллекцию, и проверяется по фактическому значению
+     */
+    private static byte kindOf(Class<?> fieldType) {
+        if (fieldType == String.class) {
+            return STRING;
+        } else if (Collection.class.isAssignableFrom(fieldType)) {
+            return COLLECTION;
+        } else if (fieldType.isAssignableFrom(String.class) || fieldType.isAssignableFrom(Collection.class)) {
+            return ANY;
+        }
+
+        return NOT_NULL;
+    }
+
+    private static boolean isSkipped(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isEnum() || Enum.class.isAssignableFrom(type)) {
+            return true;
+        }
+
+        String name = type.getName();
+        return type.getClassLoader() == null || name.startsWith("java.") || name.startsWith("javax.")
+                || name.startsWith("jdk.") || name.startsWith("sun.");
+    }
+}
@@ -0,0 +1,149 @@
+package ru.yandex.metrics.audit;
+
+import model.dto.in.PlayerTransferMoneyRequestDto;
+import model.dto.in.UnsecuredPlayerCreationRequestDto;
+import model.dto.out.AuthenticatedPlayerDto;
+import model.dto.out.BalanceDto;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import ru.yandex.metrics.audit.event.AuditEndpoint;
+import ru.yandex.metrics.audit.event.AuditEvent;
+import ru.yandex.metrics.audit.logging.Logger;
+import ru.yandex.metrics.audit.logging.LoggingLevel;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Controller audit aspect test")
+class ControllerAuditAspectTest {
+    private final List<AuditEvent> events = new ArrayList<>();
+
+    private final Logger logger = new Logger() {
+        @Override
+        public void logMessage(LoggingLevel level, String message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void log(AuditEvent event) {
+            events.add(event);
+        }
+    };
+
+    @DisplayName("Should encode request and response events without password")
+    @Test
+    void shouldEncodeEventsWithoutSensitiveFields() throws Throwable {
+        ControllerAuditAspect aspect = aspect(LoggingLevel.INFO, Map.of());
+        ProceedingJoinPoint registration = mock(ProceedingJoinPoint.class);
+        when(registration.proceed()).thenReturn(
+                ResponseEntity.ok(new AuthenticatedPlayerDto(1L, "admin", "admin user", BigDecimal.ZERO)));
+        ProceedingJoinPoint balance = mock(ProceedingJoinPoint.class);
+        when(balance.proceed()).thenReturn(ResponseEntity.ok(new BalanceDto(1L, "admin user", BigDecimal.TEN)));
+
+        aspect.registerUserMethod(registration,
+                new UnsecuredPlayerCreationRequestDto("admin", "secret", "admin user"));
+
+        assertThat(events).extracting(AuditEvent::encode).containsExactly(
+                "type=REGISTRATION_REQUESTED endpoint=REGISTER_PLAYER login=admin username=\"admin user\"",
+                "type=PLAYER_REGISTERED endpoint=REGISTER_PLAYER id=1 login=admin username=\"admin user\" balance=0");
+        assertThat(events).allSatisfy(event -> assertThat(event.encode()).doesNotContain("secret"));
+
+        events.clear();
+        aspect.balanceMethod(balance, "Bearer token");
+        assertThat(events).extracting(AuditEvent::encode).containsExactly(
+                "type=BALANCE_REQUESTED endpoint=GET_BALANCE",
+                "type=BALANCE_SERVED endpoint=GET_BALANCE id=1 username=\"admin user\" balance=10");
+    }
+
+    @DisplayName("Should skip disabled endpoints and events below minimum level")
+    @Test
+    void shouldFilterByEndpointAndLevel() throws Throwable {
+        ProceedingJoinPoint pjp = mock(ProceedingJoinPoint.class);
+        when(pjp.proceed()).thenThrow(new IllegalStateException("session expired"));
+
+        ControllerAuditAspect disabled = aspect(LoggingLevel.INFO, Map.of(AuditEndpoint.GET_BALANCE, false));
+        assertThatThrownBy(() -> disabled.balanceMethod(pjp, "Bearer token"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(events).isEmpty();
+
+        ControllerAuditAspect warnOnly = aspect(LoggingLevel.WARN, Map.of());
+        assertThatThrownBy(() -> warnOnly.balanceMethod(pjp, "Bearer token"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(events).extracting(AuditEvent::encode)
+                .containsExactly("type=FAILURE endpoint=GET_BALANCE error=\"session expired\"");
+        assertThat(events.get(0).level()).isEqualTo(LoggingLevel.WARN);
+    }
+
+    @DisplayName("Should drop successful fast read-only calls but keep failures, slow calls and transfers")
+    @Test
+    void shouldSampleReadOnlyCalls() throws Throwable {
+        AuditSampler sampler = new AuditSampler(true, 0, Duration.ofHours(1));
+        ControllerAuditAspect aspect = new ControllerAuditAspect(logger,
+                new AuditPolicy(LoggingLevel.INFO, Map.of()), sampler);
+        ProceedingJoinPoint success = mock(ProceedingJoinPoint.class);
+        when(success.proceed()).thenReturn(ResponseEntity.ok(new BalanceDto(1L, "admin", BigDecimal.ONE)));
+        ProceedingJoinPoint failure = mock(ProceedingJoinPoint.class);
+        when(failure.proceed()).thenThrow(new IllegalStateException("session expired"));
+
+        aspect.balanceMethod(success, "Bearer token");
+        assertThat(events).isEmpty();
+
+        assertThatThrownBy(() -> aspect.balanceMethod(failure, "Bearer token"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(events).extracting(AuditEvent::type).map(Enum::name)
+                .containsExactly("BALANCE_REQUESTED", "FAILURE");
+
+        aspect.moneyTransferMethod(success, "Bearer token", new PlayerTransferMoneyRequestDto("user", 1.0));
+        assertThat(events).hasSize(4);
+
+        assertThat(sampler.stats().get(AuditEndpoint.GET_BALANCE)).isEqualTo(new AuditSampler.Stats(1, 1));
+        assertThat(sampler.stats()).doesNotContainKey(AuditEndpoint.TRANSFER_MONEY);
+
+        AuditSampler slowOnly = new AuditSampler(true, 0, Duration.ZERO);
+        events.clear();
+        new ControllerAuditAspect(logger, new AuditPolicy(LoggingLevel.INFO, Map.of()), slowOnly)
+                .balanceMethod(success, "Bearer token");
+        assertThat(events).hasSize(2);
+    }
+
+    @DisplayName("Should record reactive call result and failure when Mono completes")
+    @Test
+    void shouldAuditMonoOnCompletion() throws Throwable {
+        ControllerAuditAspect aspect = aspect(LoggingLevel.INFO, Map.of());
+        ProceedingJoinPoint success = mock(ProceedingJoinPoint.class);
+        when(success.proceed()).thenReturn(Mono.fromSupplier(
+                () -> ResponseEntity.ok(new BalanceDto(1L, "admin", BigDecimal.ONE))));
+        ProceedingJoinPoint failure = mock(ProceedingJoinPoint.class);
+        when(failure.proceed()).thenReturn(Mono.error(new IllegalStateException("session expired")));
+
+        Mono<?> balance = (Mono<?>) aspect.balanceMethod(success, "Bearer token");
+        assertThat(events).extracting(AuditEvent::type).map(Enum::name).containsExactly("BALANCE_REQUESTED");
+
+        balance.block();
+        assertThat(events).extracting(AuditEvent::encode).last()
+                .isEqualTo("type=BALANCE_SERVED endpoint=GET_BALANCE id=1 username=admin balance=1");
+
+        events.clear();
+        Mono<?> failed = (Mono<?>) aspect.moneyTransferMethod(failure, "Bearer token",
+                new PlayerTransferMoneyRequestDto("user", 1.0));
+        assertThatThrownBy(failed::block).isInstanceOf(IllegalStateException.class);
+        assertThat(events).extracting(AuditEvent::type).map(Enum::name)
+                .containsExactly("TRANSFER_REQUESTED", "FAILURE");
+    }
+
+    private ControllerAuditAspect aspect(LoggingLevel level, Map<AuditEndpoint, Boolean> endpoints) {
+        return new ControllerAuditAspect(logger, new AuditPolicy(level, endpoints),
+                new AuditSampler(false, 1, Duration.ZERO));
+    }
+}
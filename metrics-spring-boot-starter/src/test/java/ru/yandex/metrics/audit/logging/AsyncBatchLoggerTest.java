@@ -0,0 +1,116 @@
+package ru.yandex.metrics.audit.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Async batch logger test")
+class AsyncBatchLoggerTest {
+    private final List<List<AuditRecord>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @DisplayName("Should write records in full batches and flush the rest on close")
+    @Test
+    void shouldFlushBySizeAndDrainOnClose() throws Exception {
+        AsyncBatchLogger logger = logger(batch -> batches.add(List.copyOf(batch)), 1024, OverflowPolicy.BLOCK);
+        logger.start();
+
+        for (int i = 0; i < 250; i++) {
+            logger.info("message " + i);
+        }
+        logger.close();
+
+        List<String> messages = batches.stream().flatMap(List::stream).map(AuditRecord::message).toList();
+        assertThat(messages).hasSize(250).startsWith("message 0").endsWith("message 249");
+        assertThat(batches).allSatisfy(batch -> assertThat(batch.size()).isLessThanOrEqualTo(100));
+
+        AsyncBatchLogger.Stats stats = logger.stats();
+        assertThat(stats.enqueued()).isEqualTo(250);
+        assertThat(stats.flushed()).isEqualTo(250);
+        assertThat(stats.dropped()).isZero();
+        assertThat(stats.queued()).isZero();
+    }
+
+    @DisplayName("Should flush incomplete batch after flush interval")
+    @Test
+    void shouldFlushByTime() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        AsyncBatchLogger logger = logger(batch -> written.countDown(), 1024, OverflowPolicy.BLOCK);
+        logger.start();
+
+        logger.warn("single");
+
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+        logger.close();
+    }
+
+    @DisplayName("Should drop newest or oldest records when buffer is full")
+    @Test
+    void shouldApplyOverflowPolicy() throws Exception {
+        AsyncBatchLogger dropNewest = logger(batch -> batches.add(List.copyOf(batch)), 4, OverflowPolicy.DROP_NEWEST);
+        AsyncBatchLogger dropOldest = logger(batch -> batches.add(List.copyOf(batch)), 4, OverflowPolicy.DROP_OLDEST);
+
+        for (int i = 0; i < 10; i++) {
+            dropNewest.info("message " + i);
+            dropOldest.info("message " + i);
+        }
+
+        assertThat(dropNewest.stats().dropped()).isEqualTo(6);
+        assertThat(dropOldest.stats().dropped()).isEqualTo(6);
+
+        dropOldest.start();
+        dropOldest.close();
+        assertThat(batches.stream().flatMap(List::stream).map(AuditRecord::message))
+                .containsExactly("message 6", "message 7", "message 8", "message 9");
+    }
+
+    @DisplayName("Should block producers until writer frees space and lose nothing")
+    @Test
+    void shouldBlockProducersWhenFull() throws Exception {
+        AsyncBatchLogger logger = logger(batch -> batches.add(List.copyOf(batch)), 8, OverflowPolicy.BLOCK);
+        logger.start();
+
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        for (int p = 0; p < 4; p++) {
+            producers.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    logger.debug("message");
+                }
+            });
+        }
+        producers.shutdown();
+        assertThat(producers.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        logger.close();
+
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(8_000);
+        assertThat(logger.stats().dropped()).isZero();
+    }
+
+    @DisplayName("Should count records lost on writer failure and keep writing")
+    @Test
+    void shouldSurviveWriterFailure() throws Exception {
+        AsyncBatchLogger logger = logger(batch -> {
+            throw new IllegalStateException("db is down");
+        }, 1024, OverflowPolicy.BLOCK);
+        logger.start();
+
+        logger.error("lost");
+        logger.close();
+
+        assertThat(logger.stats().failed()).isEqualTo(1);
+        assertThat(logger.stats().flushed()).isZero();
+    }
+
+    private static AsyncBatchLogger logger(AuditRecordWriter writer, int capacity, OverflowPolicy policy) {
+        return new AsyncBatchLogger(writer, capacity, 100, Duration.ofMillis(20), policy, Duration.ofSeconds(5));
+    }
+}
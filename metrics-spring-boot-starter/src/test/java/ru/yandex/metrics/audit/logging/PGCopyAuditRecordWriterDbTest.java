@@ -0,0 +1,85 @@
+package ru.yandex.metrics.audit.logging;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("COPY audit writer database test")
+@Testcontainers
+class PGCopyAuditRecordWriterDbTest {
+
+    @Container
+    protected static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.0");
+
+    private static final List<AuditRecord> RECORDS = List.of(
+            new AuditRecord(LocalDateTime.of(2000, 1, 1, 0, 0, 1, 500_000), LoggingLevel.INFO,
+                    "Пользователь \"admin\""),
+            new AuditRecord(LocalDateTime.of(1999, 12, 31, 23, 59, 59), LoggingLevel.WARN, null),
+            new AuditRecord(LocalDateTime.of(2024, 2, 29, 12, 30, 15, 123_456_000), LoggingLevel.ERROR,
+                    "строка, с запятой\nи переводом строки")
+    );
+
+    private static JdbcTemplate jdbcTemplate;
+
+    /**
+     * Таблица logs в той же схеме, что создает миграция кошелька
+     */
+    @BeforeAll
+    static void createTable() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword()));
+        jdbcTemplate.execute("CREATE TABLE logs (datetime timestamp, level varchar(20), message text)");
+    }
+
+    @BeforeEach
+    void truncateTable() {
+        jdbcTemplate.execute("TRUNCATE logs");
+    }
+
+    @DisplayName("Should store records sent with COPY CSV unchanged")
+    @Test
+    void shouldRoundTripCsv() {
+        new PGCopyAuditRecordWriter(jdbcTemplate, PGCopyAuditRecordWriter.Format.CSV).write(RECORDS);
+
+        assertThat(readRecords()).containsExactlyInAnyOrderElementsOf(RECORDS);
+    }
+
+    @DisplayName("Should store records sent with COPY BINARY unchanged")
+    @Test
+    void shouldRoundTripBinary() {
+        new PGCopyAuditRecordWriter(jdbcTemplate, PGCopyAuditRecordWriter.Format.BINARY).write(RECORDS);
+
+        assertThat(readRecords()).containsExactlyInAnyOrderElementsOf(RECORDS);
+    }
+
+    @DisplayName("Should reuse encoding buffer between batches")
+    @Test
+    void shouldWriteConsecutiveBatches() {
+        PGCopyAuditRecordWriter writer = new PGCopyAuditRecordWriter(jdbcTemplate,
+                PGCopyAuditRecordWriter.Format.BINARY);
+
+        writer.write(RECORDS);
+        writer.write(RECORDS.subList(0, 1));
+
+        assertThat(readRecords()).hasSize(RECORDS.size() + 1)
+                .filteredOn(record -> record.equals(RECORDS.get(0))).hasSize(2);
+    }
+
+    private List<AuditRecord> readRecords() {
+        return jdbcTemplate.query("SELECT datetime, level, message FROM logs", (rs, rowNum) -> new AuditRecord(
+                rs.getObject("datetime", LocalDateTime.class),
+                LoggingLevel.valueOf(rs.getString("level")),
+                rs.getString("message")));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.metrics.audit.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("COPY audit writer encoding test")
+class PGCopyAuditRecordWriterTest {
+    private static final List<AuditRecord> RECORDS = List.of(
+            new AuditRecord(LocalDateTime.of(2000, 1, 1, 0, 0, 1, 500_000), LoggingLevel.INFO, "Пользователь \"admin\""),
+            new AuditRecord(LocalDateTime.of(1999, 12, 31, 23, 59, 59), LoggingLevel.WARN, null)
+    );
+
+    @DisplayName("Should quote messages and keep null message empty in CSV")
+    @Test
+    void shouldEncodeCsv() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        PGCopyAuditRecordWriter.encodeCsv(RECORDS, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                2000-01-01T00:00:01.000500,INFO,"Пользователь ""admin\"\"\"
+                1999-12-31T23:59:59,WARN,
+                """);
+    }
+
+    @DisplayName("Should encode binary COPY header, tuples and trailer")
+    @Test
+    void shouldEncodeBinary() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        PGCopyAuditRecordWriter.encodeBinary(RECORDS, new DataOutputStream(out));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(in.readNBytes(11)).isEqualTo(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+        assertThat(in.readInt()).isZero();
+        assertThat(in.readInt()).isZero();
+
+        assertThat(in.readShort()).isEqualTo((short) 3);
+        assertThat(in.readInt()).isEqualTo(8);
+        assertThat(in.readLong()).isEqualTo(1_000_500L);
+        assertThat(in.readInt()).isEqualTo(4);
+        assertThat(new String(in.readNBytes(4), StandardCharsets.UTF_8)).isEqualTo("INFO");
+        byte[] message = "Пользователь \"admin\"".getBytes(StandardCharsets.UTF_8);
+        assertThat(in.readInt()).isEqualTo(message.length);
+        assertThat(in.readNBytes(message.length)).isEqualTo(message);
+
+        assertThat(in.readShort()).isEqualTo((short) 3);
+        assertThat(in.readInt()).isEqualTo(8);
+        assertThat(in.readLong()).isEqualTo(-1_000_000L);
+        in.readNBytes(in.readInt());
+        assertThat(in.readInt()).isEqualTo(-1);
+
+        assertThat(in.readShort()).isEqualTo((short) -1);
+        assertThat(in.available()).isZero();
+    }
+}
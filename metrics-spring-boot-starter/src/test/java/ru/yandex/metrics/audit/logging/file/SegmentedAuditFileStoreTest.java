@@ -0,0 +1,102 @@
+package ru.yandex.metrics.audit.logging.file;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.metrics.audit.logging.AuditRecord;
+import ru.yandex.metrics.audit.logging.LoggingLevel;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Segmented audit file store test")
+class SegmentedAuditFileStoreTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @TempDir
+    private Path directory;
+
+    @DisplayName("Should roll and compress segments and scan only requested time window")
+    @Test
+    void shouldRollSegmentsAndScanWindow() throws Exception {
+        try (SegmentedAuditFileStore store = new SegmentedAuditFileStore(directory, 512, true)) {
+            store.write(records(0, 100));
+
+            List<AuditSegment> segments = store.segments();
+            assertThat(segments).hasSizeGreaterThan(3);
+            assertThat(segments.get(0).first()).isEqualTo(START);
+            assertThat(segments).allSatisfy(segment ->
+                    assertThat(directory.resolve(String.format("audit-%016d.log.gz", segment.sequence()))).exists());
+
+            assertThat(scan(store, START.plusSeconds(10), START.plusSeconds(20)))
+                    .extracting(AuditRecord::message)
+                    .containsExactlyElementsOf(IntStream.range(10, 20).mapToObj(i -> "запись " + i).toList());
+        }
+    }
+
+    @DisplayName("Should continue active segment and keep index after reopening")
+    @Test
+    void shouldRecoverAfterReopen() throws Exception {
+        try (SegmentedAuditFileStore store = new SegmentedAuditFileStore(directory, 512, true)) {
+            store.write(records(0, 30));
+        }
+
+        try (SegmentedAuditFileStore store = new SegmentedAuditFileStore(directory, 512, true)) {
+            store.write(records(30, 60));
+            List<AuditRecord> all = scan(store, START, START.plusHours(1));
+
+            assertThat(all).extracting(AuditRecord::message)
+                    .containsExactlyElementsOf(IntStream.range(0, 60).mapToObj(i -> "запись " + i).toList());
+            assertThat(all.get(0).level()).isEqualTo(LoggingLevel.INFO);
+            assertThat(store.segments().stream().mapToInt(AuditSegment::records).sum())
+                    .isLessThan(60)
+                    .isGreaterThan(0);
+        }
+    }
+
+    @DisplayName("Should seal segment whose compression was interrupted")
+    @Test
+    void shouldSealUnfinishedSegmentOnOpen() throws Exception {
+        try (SegmentedAuditFileStore store = new SegmentedAuditFileStore(directory, 4096, false)) {
+            store.write(records(0, 5));
+        }
+        Files.copy(directory.resolve("audit-0000000000000000.log"), directory.resolve("audit-0000000000000001.log"));
+
+        try (SegmentedAuditFileStore store = new SegmentedAuditFileStore(directory, 4096, false)) {
+            assertThat(store.segments()).extracting(AuditSegment::sequence).containsExactly(0L);
+            assertThat(scan(store, START, START.plusHours(1))).hasSize(10);
+        }
+    }
+
+    @DisplayName("Should truncate oversized message on a character boundary")
+    @Test
+    void shouldTruncateOversizedMessageOnCharacterBoundary() throws Exception {
+        try (SegmentedAuditFileStore store = new SegmentedAuditFileStore(directory, 64, false)) {
+            store.write(List.of(new AuditRecord(START, LoggingLevel.INFO, "я".repeat(40))));
+
+            assertThat(scan(store, START, START.plusHours(1))).extracting(AuditRecord::message)
+                    .containsExactly("я".repeat(23));
+        }
+        assertThat(SegmentedAuditFileStore.truncateUtf8("ая".getBytes(StandardCharsets.UTF_8), 3))
+                .isEqualTo("а".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<AuditRecord> records(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> new AuditRecord(START.plusSeconds(i), LoggingLevel.INFO, "запись " + i))
+                .toList();
+    }
+
+    private static List<AuditRecord> scan(SegmentedAuditFileStore store, LocalDateTime from, LocalDateTime to) {
+        List<AuditRecord> result = new ArrayList<>();
+        store.scan(from, to, result::add);
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.metrics.performance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("Latency histogram test")
+class LatencyHistogramTest {
+
+    @DisplayName("Should map every value into a bucket whose upper bound is within relative error")
+    @Test
+    void shouldBucketWithBoundedError() {
+        for (long value = 0; value < 1L << 37; value = value * 17 / 16 + 1) {
+            long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+
+            assertThat(upperBound).isGreaterThanOrEqualTo(value);
+            assertThat((double) (upperBound - value)).isLessThanOrEqualTo(value / 32.0);
+        }
+    }
+
+    @DisplayName("Should report percentiles of uniform distribution")
+    @Test
+    void shouldReportPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(false);
+        assertThat(snapshot.count()).isEqualTo(10_000);
+        assertThat(snapshot.maxNanos()).isEqualTo(10_000_000);
+        assertThat((double) snapshot.meanNanos()).isCloseTo(5_000_500, within(1.0));
+        assertThat((double) snapshot.p50Nanos()).isCloseTo(5_000_000, within(5_000_000 / 32.0));
+        assertThat((double) snapshot.p99Nanos()).isCloseTo(9_900_000, within(9_900_000 / 32.0));
+        assertThat((double) snapshot.p999Nanos()).isCloseTo(9_990_000, within(9_990_000 / 32.0));
+    }
+
+    @DisplayName("Should count concurrent records exactly and reset without losing them")
+    @Test
+    void shouldRecordConcurrentlyAndReset() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int thread = 0; thread < 8; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+
+        long counted = 0;
+        while (!executor.isTerminated()) {
+            executor.shutdown();
+            counted += histogram.snapshot(true).count();
+            executor.awaitTermination(1, TimeUnit.MILLISECONDS);
+        }
+        counted += histogram.snapshot(true).count();
+
+        assertThat(counted).isEqualTo(800_000);
+        assertThat(histogram.snapshot(false).count()).isZero();
+    }
+}
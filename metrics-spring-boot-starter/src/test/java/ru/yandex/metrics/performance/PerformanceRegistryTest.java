@@ -0,0 +1,22 @@
+package ru.yandex.metrics.performance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Performance registry test")
+class PerformanceRegistryTest {
+
+    @DisplayName("Should keep separate histograms for overloaded methods under qualified names")
+    @Test
+    void shouldNameOverloadsSeparately() throws Exception {
+        PerformanceRegistry registry = new PerformanceRegistry();
+
+        registry.histogram(String.class.getMethod("indexOf", int.class)).record(10);
+        registry.histogram(String.class.getMethod("indexOf", String.class, int.class)).record(20);
+
+        assertThat(registry.snapshots(false))
+                .containsOnlyKeys("java.lang.String.indexOf(int)", "java.lang.String.indexOf(String, int)");
+    }
+}
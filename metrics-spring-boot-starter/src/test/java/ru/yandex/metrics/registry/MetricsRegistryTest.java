@@ -0,0 +1,66 @@
+package ru.yandex.metrics.registry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Metrics registry test")
+class MetricsRegistryTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @DisplayName("Should render counters, gauges and cumulative histogram buckets in Prometheus text format")
+    @Test
+    void shouldScrapePrometheusFormat() {
+        registry.counter("transfers_total", "Transfers", "outcome", "FAILED").increment();
+        registry.counter("transfers_total", "Transfers", "outcome", "APPROVED").increment(2);
+        registry.gauge("queue_depth", "Queue \"depth\"", () -> 1.5);
+
+        Histogram histogram = registry.histogram("batch_size", "Batch size", new double[]{1, 10}, "action", "approve");
+        histogram.observe(1);
+        histogram.observe(7);
+        histogram.observe(70);
+
+        assertThat(registry.scrape()).isEqualTo("""
+                # HELP batch_size Batch size
+                # TYPE batch_size histogram
+                batch_size_bucket{action="approve",le="1"} 1
+                batch_size_bucket{action="approve",le="10"} 2
+                batch_size_bucket{action="approve",le="+Inf"} 3
+                batch_size_sum{action="approve"} 78
+                batch_size_count{action="approve"} 3
+                # HELP queue_depth Queue "depth"
+                # TYPE queue_depth gauge
+                queue_depth 1.5
+                # HELP transfers_total Transfers
+                # TYPE transfers_total counter
+                transfers_total{outcome="APPROVED"} 2
+                transfers_total{outcome="FAILED"} 1
+                """);
+    }
+
+    @DisplayName("Should return the same counter on repeated registration and reject type conflicts")
+    @Test
+    void shouldReuseRegisteredMetrics() {
+        registry.counter("requests_total", "Requests").increment();
+        registry.counter("requests_total", "Requests").increment();
+
+        assertThat(registry.counter("requests_total", "Requests").value()).isEqualTo(2);
+        assertThatThrownBy(() -> registry.gauge("requests_total", "Requests", () -> 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("Should skip gauge whose source fails and escape label values")
+    @Test
+    void shouldSkipFailingGauge() {
+        registry.gauge("broken", "Broken", () -> {
+            throw new IllegalStateException();
+        });
+        registry.counter("labels_total", "Labels", "value", "a\"b\\c").increment();
+
+        assertThat(registry.scrape())
+                .doesNotContain("broken 0")
+                .contains("labels_total{value=\"a\\\"b\\\\c\"} 1");
+    }
+}
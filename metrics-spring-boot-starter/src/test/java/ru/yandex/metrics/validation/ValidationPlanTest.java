@@ -0,0 +1,60 @@
+package ru.yandex.metrics.validation;
+
+import model.dto.exception.ConstraintViolationException;
+import model.dto.in.PlayerTransferMoneyRequestDto;
+import model.dto.in.TransactionsListDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Validation plan test")
+class ValidationPlanTest {
+
+    @DisplayName("Should reject null fields, blank strings and empty collections")
+    @Test
+    void shouldRejectInvalidDto() {
+        assertThatThrownBy(() -> ValidationPlan.validate(new PlayerTransferMoneyRequestDto("user", null)))
+                .isInstanceOf(ConstraintViolationException.class)
+                .hasMessage("amount is null!");
+        assertThatThrownBy(() -> ValidationPlan.validate(new PlayerTransferMoneyRequestDto("  ", 1.0)))
+                .isInstanceOf(ConstraintViolationException.class)
+                .hasMessage("recipient is either empty or blank!");
+        assertThatThrownBy(() -> ValidationPlan.validate(new TransactionsListDto(List.of())))
+                .isInstanceOf(ConstraintViolationException.class)
+                .hasMessage("ids is empty!");
+    }
+
+    @DisplayName("Should accept valid DTO and skip JDK types, enums and null arguments")
+    @Test
+    void shouldSkipNonDtoArguments() {
+        assertThatCode(() -> {
+            ValidationPlan.validate(new PlayerTransferMoneyRequestDto("user", 1.0));
+            ValidationPlan.validate("Bearer token");
+            ValidationPlan.validate(Thread.State.NEW);
+            ValidationPlan.validate(null);
+        }).doesNotThrowAnyException();
+
+        assertThat(ValidationPlan.fieldCount(String.class)).isZero();
+        assertThat(ValidationPlan.fieldCount(PlayerTransferMoneyRequestDto.class)).isEqualTo(2);
+    }
+
+    @DisplayName("Should check actual value of fields declared as Object")
+    @Test
+    void shouldCheckUntypedFields() {
+        assertThatThrownBy(() -> ValidationPlan.validate(new UntypedDto(" ")))
+                .isInstanceOf(ConstraintViolationException.class)
+                .hasMessage("payload is either empty or blank!");
+        assertThatThrownBy(() -> ValidationPlan.validate(new UntypedDto(List.of())))
+                .isInstanceOf(ConstraintViolationException.class)
+                .hasMessage("payload is empty!");
+        assertThatCode(() -> ValidationPlan.validate(new UntypedDto(1L))).doesNotThrowAnyException();
+    }
+
+    private record UntypedDto(Object payload) {
+    }
+}
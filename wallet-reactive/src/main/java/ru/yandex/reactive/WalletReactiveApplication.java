@@ -0,0 +1,21 @@
+package ru.yandex.reactive;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Неблокирующий вариант API кошелька на WebFlux и R2DBC. Конфигурация общая с сервлетным приложением и дополняется
+ * профилем reactive, который включается всегда.
+ */
+@SpringBootApplication
+@EnableScheduling
+public class WalletReactiveApplication {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(WalletReactiveApplication.class)
+                .profiles(PROFILE)
+                .run(args);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.yandex.reactive.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import ru.yandex.wallet.exception.ApiException;
+import ru.yandex.wallet.exception.exceptions.InvalidTokenException;
+import ru.yandex.wallet.in.UnpackedJwtClaims;
+import ru.yandex.wallet.util.JwtVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Реактивный аналог {@link ru.yandex.wallet.config.JwtTokenFilter}. Запросы по путям из pathPatterns пропускаются
+ * дальше только с валидным JWT в заголовке Authorization, иначе отвечают 403. Данные проверенного токена сохраняются
+ * в атрибуте обмена и в контексте Reactor под ключом {@link UnpackedJwtClaims#REQUEST_ATTRIBUTE}.
+ */
+public class JwtWebFilter implements WebFilter {
+
+    private final ObjectMapper mapper;
+    private final JwtVerifier jwtVerifier;
+    private final List<PathPattern> pathPatterns;
+
+    public JwtWebFilter(ObjectMapper mapper, JwtVerifier jwtVerifier, String... pathPatterns) {
+        this.mapper = mapper;
+        this.jwtVerifier = jwtVerifier;
+        this.pathPatterns = Arrays.stream(pathPatterns)
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        PathContainer path = request.getPath().pathWithinApplication();
+
+        if (pathPatterns.stream().noneMatch(pattern -> pattern.matches(path))) {
+            return chain.filter(exchange);
+        }
+
+        UnpackedJwtClaims claims;
+
+        try {
+            claims = validateJwtToken(request);
+        } catch (Exception e) {
+            return forbidden(exchange.getResponse(), e);
+        }
+
+        exchange.getAttributes().put(UnpackedJwtClaims.REQUEST_ATTRIBUTE, claims);
+        return chain.filter(exchange)
+                .contextWrite(Context.of(UnpackedJwtClaims.REQUEST_ATTRIBUTE, claims));
+    }
+
+    /**
+     * Метод проверяет наличие JWT в заголовке и валидирует его
+     */
+    private UnpackedJwtClaims validateJwtToken(ServerHttpRequest request) throws Exception {
+        String authHeader = request.getHeaders().getFirst("Authorization");
+
+        if (authHeader != null) {
+            return jwtVerifier.verify(authHeader.substring(7));
+        } else {
+            throw new InvalidTokenException("Отсутствует JWT");
+        }
+    }
+
+    private Mono<Void> forbidden(ServerHttpResponse response, Exception cause) {
+        byte[] body;
+
+        try {
+            body = mapper.writeValueAsBytes(new ApiException(cause.getMessage()));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+
+        response.setStatusCode(HttpStatus.FORBIDDEN);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
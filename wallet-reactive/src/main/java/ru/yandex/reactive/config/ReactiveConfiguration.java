@@ -0,0 +1,38 @@
+package ru.yandex.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import ru.yandex.wallet.config.BeanConfiguration;
+import ru.yandex.wallet.exception.GlobalExceptionHandler;
+import ru.yandex.wallet.metrics.WalletMetrics;
+import ru.yandex.wallet.service.impl.PlayerSessionServiceImpl;
+import ru.yandex.wallet.util.JwtVerifier;
+
+/**
+ * Компоненты сервлетного приложения, не зависящие от модели ввода-вывода: сессии, хеширование паролей, бизнес-метрики
+ * и обработка ошибок. Хранилище сессий в памяти и проверка JWT не блокируют поток, поэтому используются как есть.
+ */
+@Configuration
+@Import({BeanConfiguration.class, PlayerSessionServiceImpl.class, WalletMetrics.class,
+        GlobalExceptionHandler.class})
+public class ReactiveConfiguration {
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.verified-cache-size:4096}")
+    private int verifiedCacheSize;
+
+    @Bean
+    public JwtVerifier jwtVerifier() {
+        return new JwtVerifier(secret, verifiedCacheSize);
+    }
+
+    @Bean
+    public JwtWebFilter jwtWebFilter(ObjectMapper objectMapper) {
+        return new JwtWebFilter(objectMapper, jwtVerifier(), "/logout", "/player-management/**");
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.reactive.in.controller;
+
+import reactor.core.publisher.Mono;
+import ru.yandex.wallet.exception.exceptions.UnauthorizedOperationException;
+import ru.yandex.wallet.in.UnpackedJwtClaims;
+import ru.yandex.wallet.service.PlayerSessionService;
+import ru.yandex.wallet.util.JwtUtils;
+
+public abstract class AbstractTokenConsumer {
+    /**
+     * Данные пользователя из JWT с проверкой открытой сессии. Токен уже проверен фильтром, и результат берется из
+     * контекста Reactor; разбор заголовка выполняется, только если запрос прошел мимо фильтра.
+     */
+    protected Mono<UnpackedJwtClaims> authorize(String authHeader, String secret,
+                                                PlayerSessionService playerSessionService) {
+        return Mono.deferContextual(context -> {
+            UnpackedJwtClaims claims = context.<UnpackedJwtClaims>getOrEmpty(UnpackedJwtClaims.REQUEST_ATTRIBUTE)
+                    .orElseGet(() -> JwtUtils.unpackClaims(authHeader.substring(7), secret));
+
+            try {
+                playerSessionService.exists(claims.getSessionId());
+            } catch (UnauthorizedOperationException e) {
+                return Mono.error(e);
+            }
+            return Mono.just(claims);
+        });
+    }
+
+    /**
+     * То же, что {@link #authorize}, без проверки сессии
+     */
+    protected Mono<UnpackedJwtClaims> unpackJwtClaims(String authHeader, String secret) {
+        return Mono.deferContextual(context -> Mono.just(
+                context.<UnpackedJwtClaims>getOrEmpty(UnpackedJwtClaims.REQUEST_ATTRIBUTE)
+                        .orElseGet(() -> JwtUtils.unpackClaims(authHeader.substring(7), secret))));
+    }
+}
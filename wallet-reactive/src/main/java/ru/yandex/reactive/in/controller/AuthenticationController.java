@@ -0,0 +1,41 @@
+package ru.yandex.reactive.in.controller;
+
+import lombok.RequiredArgsConstructor;
+import model.dto.in.UnsecuredAuthenticationRequestDto;
+import model.dto.out.AuthenticatedPlayerDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.yandex.metrics.audit.Audit;
+import ru.yandex.reactive.service.ReactivePlayerService;
+import ru.yandex.wallet.in.controller.AbstractTokenProducer;
+import ru.yandex.wallet.service.PlayerSessionService;
+
+@RestController
+@RequestMapping(value = "/login", produces = MediaType.APPLICATION_JSON_VALUE,
+        consumes = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+@Audit
+public class AuthenticationController extends AbstractTokenProducer {
+
+    private final ReactivePlayerService playerService;
+    private final PlayerSessionService playerSessionService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @PostMapping
+    public Mono<ResponseEntity<AuthenticatedPlayerDto>> authenticate(
+            @RequestBody UnsecuredAuthenticationRequestDto requestDto) {
+        return playerService.authenticate(requestDto)
+                .map(authenticationDto -> ResponseEntity.ok()
+                        .header("Authorization",
+                                generateJwt(authenticationDto, playerSessionService.open(authenticationDto), secret))
+                        .body(authenticationDto));
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.reactive.in.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.yandex.metrics.audit.Audit;
+import ru.yandex.wallet.service.PlayerSessionService;
+
+@RestController
+@RequestMapping(value = "/logout", produces = MediaType.APPLICATION_JSON_VALUE,
+        consumes = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+@Audit
+public class LogoutController extends AbstractTokenConsumer {
+    private final PlayerSessionService playerSessionService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @DeleteMapping
+    public Mono<ResponseEntity<?>> logout(@RequestHeader("Authorization") String authToken) {
+        return unpackJwtClaims(authToken, secret)
+                .map(claims -> {
+                    playerSessionService.close(claims.getSessionId());
+                    return ResponseEntity.noContent().build();
+                });
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.reactive.in.controller;
+
+import lombok.RequiredArgsConstructor;
+import model.dto.in.PlayerRequestMoneyDto;
+import model.dto.in.TransactionsListDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.yandex.metrics.audit.Audit;
+import ru.yandex.reactive.service.ReactivePlayerService;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.service.PlayerSessionService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/player-management/money-request", produces = MediaType.APPLICATION_JSON_VALUE,
+        consumes = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+@Audit
+public class MoneyRequestController extends AbstractTokenConsumer {
+
+    private final ReactivePlayerService playerService;
+    private final PlayerSessionService playerSessionService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<MoneyTransferRequest>>> getPendingMoneyRequests(
+            @RequestHeader("Authorization") String authToken) {
+        return authorize(authToken, secret, playerSessionService)
+                .flatMap(claims -> playerService.getPendingMoneyRequests(claims.getLogin()))
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> requestMoney(@RequestHeader("Authorization") String authToken,
+                                                @RequestBody PlayerRequestMoneyDto moneyRequestDto) {
+        return authorize(authToken, secret, playerSessionService)
+                .flatMap(claims -> playerService.requestMoneyFrom(claims.getUsername(), moneyRequestDto))
+                .map(response -> ResponseEntity.ok().build());
+    }
+
+    @PostMapping("/approve")
+    public Mono<ResponseEntity<List<TransactionOutcome>>> approvePendingMoneyRequests(
+            @RequestHeader("Authorization") String authToken, @RequestBody TransactionsListDto transactions) {
+        return authorize(authToken, secret, playerSessionService)
+                .flatMap(claims -> playerService.approvePendingMoneyRequest(claims.getLogin(), transactions))
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/decline")
+    public Mono<ResponseEntity<List<TransactionOutcome>>> declinePendingMoneyRequests(
+            @RequestHeader("Authorization") String authToken, @RequestBody TransactionsListDto transactions) {
+        return authorize(authToken, secret, playerSessionService)
+                .flatMap(claims -> playerService.declinePendingRequest(claims.getLogin(), transactions))
+                .map(ResponseEntity::ok);
+    }
+}
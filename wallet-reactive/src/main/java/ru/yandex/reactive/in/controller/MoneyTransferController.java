@@ -0,0 +1,33 @@
+package ru.yandex.reactive.in.controller;
+
+import lombok.RequiredArgsConstructor;
+import model.dto.in.PlayerTransferMoneyRequestDto;
+import model.dto.out.BalanceDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.yandex.metrics.audit.Audit;
+import ru.yandex.reactive.service.ReactivePlayerService;
+import ru.yandex.wallet.service.PlayerSessionService;
+
+@RestController
+@RequestMapping(value = "/player-management/money-transfer")
+@RequiredArgsConstructor
+@Audit
+public class MoneyTransferController extends AbstractTokenConsumer {
+
+    private final ReactivePlayerService playerService;
+    private final PlayerSessionService playerSessionService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @PostMapping
+    public Mono<ResponseEntity<BalanceDto>> transferMoney(@RequestHeader("Authorization") String authToken,
+                                                          @RequestBody PlayerTransferMoneyRequestDto moneyRequest) {
+        return authorize(authToken, secret, playerSessionService)
+                .flatMap(claims -> playerService.transferMoneyTo(claims.getLogin(), moneyRequest))
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.reactive.in.controller;
+
+import lombok.RequiredArgsConstructor;
+import model.dto.in.UnsecuredPlayerCreationRequestDto;
+import model.dto.out.AuthenticatedPlayerDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.yandex.metrics.audit.Audit;
+import ru.yandex.reactive.service.ReactivePlayerService;
+import ru.yandex.wallet.in.controller.AbstractTokenProducer;
+import ru.yandex.wallet.service.PlayerSessionService;
+
+@RestController
+@RequestMapping(value = "/registration")
+@RequiredArgsConstructor
+@Audit
+public class RegistrationController extends AbstractTokenProducer {
+
+    private final ReactivePlayerService playerService;
+    private final PlayerSessionService playerSessionService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @PostMapping
+    public Mono<ResponseEntity<AuthenticatedPlayerDto>> registerPlayer(@RequestBody UnsecuredPlayerCreationRequestDto
+                                                                               unsecuredPlayerCreationRequestDto) {
+        return playerService.register(unsecuredPlayerCreationRequestDto)
+                .map(authentication -> ResponseEntity.ok()
+                        .header("Authorization",
+                                generateJwt(authentication, playerSessionService.open(authentication), secret))
+                        .body(authentication));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.yandex.reactive.in.controller;
+
+import lombok.RequiredArgsConstructor;
+import model.dto.out.BalanceDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.yandex.metrics.audit.Audit;
+import ru.yandex.reactive.service.ReactivePlayerService;
+import ru.yandex.wallet.domain.dto.TransactionDto;
+import ru.yandex.wallet.domain.dto.TransactionPageDto;
+import ru.yandex.wallet.service.PlayerAction;
+import ru.yandex.wallet.service.PlayerSessionService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/player-management/wallet", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+@Audit
+public class WalletController extends AbstractTokenConsumer {
+
+    private final ReactivePlayerService playerService;
+    private final PlayerSessionService playerSessionService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @GetMapping("/balance")
+    public Mono<ResponseEntity<BalanceDto>> getBalance(@RequestHeader("Authorization") String authToken) {
+        return authorize(authToken, secret, playerSessionService)
+                .flatMap(claims -> playerService.getBalance(claims.getUserId()))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/history")
+    public Mono<ResponseEntity<List<TransactionDto>>> getHistory(@RequestHeader("Authorization") String authToken,
+                                                                 @RequestParam(value = "action", required = false) PlayerAction action) {
+        return authorize(authToken, secret, playerSessionService)
+                .flatMap(claims -> playerService.getHistory(claims.getLogin(), action))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/history/page")
+    public Mono<ResponseEntity<TransactionPageDto>> getHistoryPage(@RequestHeader("Authorization") String authToken,
+                                                                   @RequestParam(value = "action", required = false) PlayerAction action,
+                                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                                   @RequestParam(value = "limit", required = false) Integer limit) {
+        return authorize(authToken, secret, playerSessionService)
+                .flatMap(claims -> playerService.getHistoryPage(claims.getLogin(), action, cursor, limit))
+                .map(ResponseEntity::ok);
+    }
+}
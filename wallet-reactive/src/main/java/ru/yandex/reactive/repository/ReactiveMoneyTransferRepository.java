@@ -0,0 +1,31 @@
+package ru.yandex.reactive.repository;
+
+import reactor.core.publisher.Mono;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Неблокирующий аналог {@link ru.yandex.wallet.repository.MoneyTransferRepository}. Кеша игроков в реактивном
+ * варианте нет, поэтому события изменения баланса не публикуются.
+ */
+public interface ReactiveMoneyTransferRepository {
+    /**
+     * Атомарный перевод денег, см. {@link ru.yandex.wallet.repository.MoneyTransferRepository#transfer}
+     *
+     * @return отправитель с балансом после перевода
+     */
+    Mono<Player> transfer(MoneyTransferRequest request);
+
+    /**
+     * Подтверждение пакета ожидающих транзакций донора в одной транзакции БД, см.
+     * {@link ru.yandex.wallet.repository.MoneyTransferRepository#approvePendingTransactions}
+     *
+     * @return результат по каждому идентификатору в порядке запроса
+     */
+    Mono<List<TransactionOutcome>> approvePendingTransactions(String donorLogin, Collection<UUID> ids);
+}
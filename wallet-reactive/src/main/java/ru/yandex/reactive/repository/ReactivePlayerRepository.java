@@ -0,0 +1,26 @@
+package ru.yandex.reactive.repository;
+
+import reactor.core.publisher.Mono;
+import ru.yandex.wallet.domain.Player;
+
+/**
+ * Неблокирующий аналог {@link ru.yandex.wallet.repository.PlayerCrudRepository}: те же операции и ошибки, которые
+ * передаются сигналом onError.
+ */
+public interface ReactivePlayerRepository {
+    /**
+     * @return игрок с присвоенным id и нулевым балансом
+     * @throws ru.yandex.wallet.exception.exceptions.PlayerAlreadyExistsException если логин или ник заняты
+     */
+    Mono<Player> create(Player player);
+
+    /**
+     * @throws ru.yandex.wallet.exception.exceptions.NoSuchPlayerException если игрока нет
+     */
+    Mono<Player> getById(Long id);
+
+    /**
+     * @throws ru.yandex.wallet.exception.exceptions.NoSuchPlayerException если игрока нет
+     */
+    Mono<Player> getByLogin(String login);
+}
@@ -0,0 +1,52 @@
+package ru.yandex.reactive.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Неблокирующий аналог {@link ru.yandex.wallet.repository.TransactionCrudRepository} с операциями, нужными API
+ */
+public interface ReactiveTransactionRepository {
+    /**
+     * Сохранить запрос денег в статусе PENDING
+     */
+    Mono<Transaction> create(MoneyTransferRequest request);
+
+    /**
+     * @param sender    отправитель денег (если null - то логин отправителя игнорируется)
+     * @param recipient получатель денег (если null - то логин получателя игнорируется)
+     * @param status    статус транзакции (если null - то статус любой)
+     */
+    Flux<Transaction> getTransactionsBySenderAndRecipientAndStatus(String sender, String recipient,
+                                                                   TransferRequestStatus status);
+
+    /**
+     * Страница дебитовых транзакций пользователя, от новых к старым
+     */
+    Flux<Transaction> getDebitingTransactionsPage(String login, TransactionCursor cursor, int limit);
+
+    /**
+     * Страница кредитовых транзакций пользователя, от новых к старым
+     */
+    Flux<Transaction> getCreditingTransactionsPage(String login, TransactionCursor cursor, int limit);
+
+    /**
+     * Страница всех транзакций пользователя, от новых к старым
+     */
+    Flux<Transaction> getTransactionsPage(String login, TransactionCursor cursor, int limit);
+
+    /**
+     * Отклонить пакет ожидающих транзакций донора одним запросом
+     *
+     * @return результат по каждому идентификатору в порядке запроса
+     */
+    Flux<TransactionOutcome> declineTransactions(String donorLogin, Collection<UUID> ids);
+}
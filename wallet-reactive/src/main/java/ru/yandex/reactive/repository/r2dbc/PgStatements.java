@@ -0,0 +1,78 @@
+package ru.yandex.reactive.repository.r2dbc;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.util.TransactionIds.CreationRange;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Выполнение SQL сервлетных репозиториев через R2DBC. Драйвер PostgreSQL принимает только маркеры $1, $2, ..., поэтому
+ * маркеры ? заменяются по порядку; преобразованный текст кешируется, вариантов запросов немного.
+ */
+final class PgStatements {
+    private static final Map<String, String> INDEXED_SQL = new ConcurrentHashMap<>();
+
+    private PgStatements() {
+    }
+
+    /**
+     * Запрос с аргументами, привязанными к маркерам ? в порядке их следования
+     */
+    static DatabaseClient.GenericExecuteSpec prepare(DatabaseClient client, String sql, Object... args) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql(INDEXED_SQL.computeIfAbsent(sql, PgStatements::toIndexed));
+
+        for (int i = 0; i < args.length; i++) {
+            spec = spec.bind(i, args[i]);
+        }
+        return spec;
+    }
+
+    static String toIndexed(String sql) {
+        StringBuilder indexed = new StringBuilder(sql.length() + 16);
+        int marker = 0;
+
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+
+            if (c == '?') {
+                indexed.append('$').append(++marker);
+            } else {
+                indexed.append(c);
+            }
+        }
+        return indexed.toString();
+    }
+
+    /**
+     * Аргументы с добавленными границами диапазона времени создания, если диапазон известен
+     */
+    static Object[] withCreationRange(CreationRange range, Object... args) {
+        if (range == null) {
+            return args;
+        }
+
+        Object[] result = Arrays.copyOf(args, args.length + 2);
+        result[args.length] = range.from();
+        result[args.length + 1] = range.to();
+        return result;
+    }
+
+    static Transaction toTransaction(Readable row) {
+        return Transaction.builder()
+                .id(row.get("id", UUID.class))
+                .status(TransferRequestStatus.valueOf(row.get("status", String.class)))
+                .sender(row.get("sender", String.class))
+                .recipient(row.get("recipient", String.class))
+                .amount(row.get("amount", BigDecimal.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .build();
+    }
+}
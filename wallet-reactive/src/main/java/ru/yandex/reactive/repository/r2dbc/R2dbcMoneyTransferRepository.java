@@ -0,0 +1,201 @@
+package ru.yandex.reactive.repository.r2dbc;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.reactive.repository.ReactiveMoneyTransferRepository;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.util.TransactionIds;
+import ru.yandex.wallet.util.TransactionIds.CreationRange;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static ru.yandex.wallet.repository.jdbcimpl.PGJDBCMoneyTransferRepositoryImpl.APPROVE_QUERY;
+import static ru.yandex.wallet.repository.jdbcimpl.PGJDBCMoneyTransferRepositoryImpl.CREDIT_QUERY;
+import static ru.yandex.wallet.repository.jdbcimpl.PGJDBCMoneyTransferRepositoryImpl.DEBIT_QUERY;
+import static ru.yandex.wallet.repository.jdbcimpl.PGJDBCMoneyTransferRepositoryImpl.LOCK_DONOR_TRANSACTIONS_QUERY;
+import static ru.yandex.wallet.repository.jdbcimpl.PGJDBCMoneyTransferRepositoryImpl.LOCK_PLAYERS_QUERY;
+import static ru.yandex.wallet.repository.jdbcimpl.PGJDBCMoneyTransferRepositoryImpl.TRANSFER_QUERY;
+import static ru.yandex.wallet.repository.jdbcimpl.PGJDBCTransactionCrudRepositoryImpl.CREATION_RANGE_CONDITION;
+
+/**
+ * Запросы те же, что в {@link ru.yandex.wallet.repository.jdbcimpl.PGJDBCMoneyTransferRepositoryImpl}. Перевод
+ * выполняется одним запросом, пакетное подтверждение - в транзакции R2DBC: соединение занято только на время
+ * запросов, поток при ожидании БД не блокируется.
+ */
+@Repository
+@RequiredArgsConstructor
+public class R2dbcMoneyTransferRepository implements ReactiveMoneyTransferRepository {
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Player> transfer(MoneyTransferRequest request) {
+        String sender = request.getMoneyFrom();
+        String recipient = request.getMoneyTo();
+
+        return PgStatements.prepare(databaseClient, TRANSFER_QUERY,
+                        sender, recipient,
+                        request.getAmount(), sender, request.getAmount(),
+                        request.getAmount(), recipient,
+                        request.getId(), sender, recipient, request.getAmount(),
+                        TransactionIds.creationTimeOrNow(request.getId()),
+                        sender)
+                .map(row -> new TransferResult(
+                        Player.builder()
+                                .id(row.get("id", Long.class))
+                                .username(row.get("username", String.class))
+                                .login(row.get("login", String.class))
+                                .balance(row.get("balance", BigDecimal.class))
+                                .build(),
+                        row.get("status", String.class)))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new NoSuchPlayerException(
+                        String.format("Пользователь с логином login=%s не существует", sender))))
+                .flatMap(result -> {
+                    if (result.status() == null) {
+                        return Mono.<Player>error(new NoSuchPlayerException(
+                                String.format("Пользователь с логином login=%s не существует", recipient)));
+                    }
+
+                    if (TransferRequestStatus.valueOf(result.status()) == TransferRequestStatus.FAILED) {
+                        return Mono.<Player>error(new DeficientBalanceException(
+                                String.format("Не хватает деньги на балансе игрока с id=%d", result.sender().getId())));
+                    }
+
+                    return Mono.just(result.sender());
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<List<TransactionOutcome>> approvePendingTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        CreationRange range = TransactionIds.creationRange(ids);
+        Mono<List<TransactionOutcome>> approval = PgStatements.prepare(databaseClient,
+                        String.format(LOCK_DONOR_TRANSACTIONS_QUERY, creationRangeCondition(range)),
+                        PgStatements.withCreationRange(range, ids.toArray(new UUID[0]), donorLogin))
+                .map(row -> Transaction.builder()
+                        .id(row.get("id", UUID.class))
+                        .status(TransferRequestStatus.valueOf(row.get("status", String.class)))
+                        .sender(row.get("sender", String.class))
+                        .recipient(row.get("recipient", String.class))
+                        .amount(row.get("amount", BigDecimal.class))
+                        .build())
+                .all()
+                .collectMap(Transaction::getId)
+                .flatMap(donorTransactions -> {
+                    // Зачисления суммируются по получателю, TreeMap задает порядок обновления строк игроков
+                    Map<String, BigDecimal> credits = new TreeMap<>();
+                    Set<UUID> approvedIds = new LinkedHashSet<>();
+                    BigDecimal total = BigDecimal.ZERO;
+
+                    for (Transaction transaction : donorTransactions.values()) {
+                        if (transaction.getStatus() == TransferRequestStatus.PENDING) {
+                            credits.merge(transaction.getRecipient(), transaction.getAmount(), BigDecimal::add);
+                            total = total.add(transaction.getAmount());
+                            approvedIds.add(transaction.getId());
+                        }
+                    }
+
+                    Mono<Void> applied = approvedIds.isEmpty()
+                            ? Mono.empty()
+                            : applyApproval(donorLogin, credits, total, approvedIds, range);
+
+                    return applied.then(Mono.fromSupplier(() -> outcomes(ids, donorTransactions, approvedIds)));
+                });
+
+        return transactionalOperator.transactional(approval);
+    }
+
+    /**
+     * Блокирует строки всех участников в порядке логинов, однократно списывает общую сумму с баланса донора и
+     * зачисляет деньги получателям
+     */
+    private Mono<Void> applyApproval(String donorLogin, Map<String, BigDecimal> credits, BigDecimal total,
+                                     Set<UUID> approvedIds, CreationRange range) {
+        Set<String> participants = new TreeSet<>(credits.keySet());
+        participants.add(donorLogin);
+
+        Mono<Void> lockPlayers = PgStatements.prepare(databaseClient, LOCK_PLAYERS_QUERY,
+                        (Object) participants.toArray(new String[0]))
+                .map(row -> row.get("login", String.class))
+                .all()
+                .then();
+
+        Mono<Void> debit = PgStatements.prepare(databaseClient, DEBIT_QUERY, total, donorLogin, total)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(debited -> debited == 0
+                        ? Mono.<Void>error(new DeficientBalanceException(
+                        String.format("Не хватает деньги на балансе игрока с login=%s", donorLogin)))
+                        : Mono.<Void>empty());
+
+        Mono<Void> credit = Flux.fromIterable(credits.entrySet())
+                .concatMap(entry -> PgStatements.prepare(databaseClient, CREDIT_QUERY,
+                                entry.getValue(), entry.getKey())
+                        .then())
+                .then();
+
+        Mono<Void> approve = PgStatements.prepare(databaseClient,
+                        String.format(APPROVE_QUERY, creationRangeCondition(range)),
+                        PgStatements.withCreationRange(range, TransferRequestStatus.APPROVED.name(),
+                                approvedIds.toArray(new UUID[0])))
+                .then();
+
+        return lockPlayers.then(debit).then(credit).then(approve);
+    }
+
+    private static List<TransactionOutcome> outcomes(Collection<UUID> ids, Map<UUID, Transaction> donorTransactions,
+                                                     Set<UUID> approvedIds) {
+        List<TransactionOutcome> outcomes = new ArrayList<>(ids.size());
+
+        for (UUID id : ids) {
+            Transaction transaction = donorTransactions.get(id);
+
+            if (transaction == null) {
+                outcomes.add(new TransactionOutcome(id, null, false));
+            } else if (approvedIds.contains(id)) {
+                outcomes.add(new TransactionOutcome(id, TransferRequestStatus.APPROVED, true));
+            } else {
+                outcomes.add(new TransactionOutcome(id, transaction.getStatus(), false));
+            }
+        }
+
+        return outcomes;
+    }
+
+    private static String creationRangeCondition(CreationRange range) {
+        return range == null ? "" : CREATION_RANGE_CONDITION;
+    }
+
+    private record TransferResult(Player sender, String status) {
+    }
+}
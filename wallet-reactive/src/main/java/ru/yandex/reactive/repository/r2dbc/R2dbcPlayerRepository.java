@@ -0,0 +1,80 @@
+package ru.yandex.reactive.repository.r2dbc;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import ru.yandex.reactive.repository.ReactivePlayerRepository;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.exception.exceptions.PlayerAlreadyExistsException;
+
+import java.math.BigDecimal;
+
+@Repository
+@RequiredArgsConstructor
+public class R2dbcPlayerRepository implements ReactivePlayerRepository {
+
+    /**
+     * Занятые логин и ник проверяются одним запросом, а не двумя, как в сервлетном репозитории
+     */
+    private static final String TAKEN_QUERY =
+            "SELECT login, username FROM players WHERE login = ? OR username = ? ORDER BY login = ? DESC LIMIT 1";
+
+    private static final String CREATION_QUERY = "INSERT INTO players (id, username, login, password, balance) " +
+            "VALUES (nextval('player_id_sequence'), ?, ?, ?, ?) RETURNING id";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Player> create(Player player) {
+        Mono<Player> insert = PgStatements.prepare(databaseClient, CREATION_QUERY,
+                        player.getUsername(), player.getLogin(), player.getPassword(), BigDecimal.ZERO)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    player.setId(id);
+                    player.setBalance(BigDecimal.ZERO);
+                    return player;
+                });
+
+        return PgStatements.prepare(databaseClient, TAKEN_QUERY,
+                        player.getLogin(), player.getUsername(), player.getLogin())
+                .map(row -> row.get("login", String.class))
+                .one()
+                .flatMap(login -> Mono.<Player>error(new PlayerAlreadyExistsException(login.equals(player.getLogin())
+                        ? String.format("Пользователь с таким логином login=%s уже существует", player.getLogin())
+                        : String.format("Пользователь с таким именем username=%s уже существует",
+                        player.getUsername()))))
+                .switchIfEmpty(insert);
+    }
+
+    @Override
+    public Mono<Player> getById(Long id) {
+        return PgStatements.prepare(databaseClient, "SELECT * FROM players WHERE id = ?", id)
+                .map(R2dbcPlayerRepository::toPlayer)
+                .one()
+                .switchIfEmpty(Mono.error(() -> new NoSuchPlayerException(
+                        String.format("Пользователь с id=%d не существует", id))));
+    }
+
+    @Override
+    public Mono<Player> getByLogin(String login) {
+        return PgStatements.prepare(databaseClient, "SELECT * FROM players WHERE login = ?", login)
+                .map(R2dbcPlayerRepository::toPlayer)
+                .one()
+                .switchIfEmpty(Mono.error(() -> new NoSuchPlayerException(
+                        String.format("Пользователь с логином login=%s не существует", login))));
+    }
+
+    private static Player toPlayer(Readable row) {
+        return Player.builder()
+                .id(row.get("id", Long.class))
+                .login(row.get("login", String.class))
+                .password(row.get("password", byte[].class))
+                .username(row.get("username", String.class))
+                .balance(row.get("balance", BigDecimal.class))
+                .build();
+    }
+}
@@ -0,0 +1,188 @@
+package ru.yandex.reactive.repository.r2dbc;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.reactive.repository.ReactiveTransactionRepository;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.exception.exceptions.TransactionAlreadyExistsException;
+import ru.yandex.wallet.util.TransactionIds;
+import ru.yandex.wallet.util.TransactionIds.CreationRange;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static ru.yandex.wallet.repository.jdbcimpl.PGJDBCTransactionCrudRepositoryImpl.CREATION_RANGE_CONDITION;
+import static ru.yandex.wallet.repository.jdbcimpl.PGJDBCTransactionCrudRepositoryImpl.DECLINE_QUERY;
+import static ru.yandex.wallet.repository.jdbcimpl.TransactionQueries.buildCombinedPageQuery;
+import static ru.yandex.wallet.repository.jdbcimpl.TransactionQueries.buildDynamicQuery;
+import static ru.yandex.wallet.repository.jdbcimpl.TransactionQueries.buildPageQuery;
+
+/**
+ * Запросы те же, что в {@link ru.yandex.wallet.repository.jdbcimpl.PGJDBCTransactionCrudRepositoryImpl}, включая
+ * условия для отсечения секций по времени создания
+ */
+@Repository
+@RequiredArgsConstructor
+public class R2dbcTransactionRepository implements ReactiveTransactionRepository {
+
+    private static final String CREATION_QUERY = "INSERT INTO transactions " +
+            "(id, status, sender, recipient, amount, created_at) VALUES (?,?,?,?,?,?)";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Transaction> create(MoneyTransferRequest request) {
+        CreationRange range = TransactionIds.creationRange(List.of(request.getId()));
+        LocalDateTime createdAt = TransactionIds.creationTimeOrNow(request.getId());
+        Transaction transaction = Transaction.builder()
+                .id(request.getId())
+                .status(TransferRequestStatus.PENDING)
+                .sender(request.getMoneyFrom())
+                .recipient(request.getMoneyTo())
+                .amount(request.getAmount())
+                .createdAt(createdAt)
+                .build();
+
+        Mono<Transaction> insert = PgStatements.prepare(databaseClient, CREATION_QUERY,
+                        request.getId(), TransferRequestStatus.PENDING.name(), request.getMoneyFrom(),
+                        request.getMoneyTo(), request.getAmount(), createdAt)
+                .then()
+                .thenReturn(transaction);
+
+        return PgStatements.prepare(databaseClient,
+                        "SELECT id FROM transactions WHERE id = ?" + creationRangeCondition(range),
+                        PgStatements.withCreationRange(range, request.getId()))
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .flatMap(id -> Mono.<Transaction>error(new TransactionAlreadyExistsException(
+                        String.format("Транзакция с id=%s уже существует", id))))
+                .switchIfEmpty(insert);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<Transaction> getTransactionsBySenderAndRecipientAndStatus(String sender, String recipient,
+                                                                          TransferRequestStatus status) {
+        List<Object> args = new ArrayList<>(2);
+
+        if (sender != null) {
+            args.add(sender);
+        }
+
+        if (recipient != null) {
+            args.add(recipient);
+        }
+
+        return PgStatements.prepare(databaseClient, buildDynamicQuery(sender, recipient, status), args.toArray())
+                .map(PgStatements::toTransaction)
+                .all();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<Transaction> getDebitingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        return getPageByColumn("sender", login, cursor, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<Transaction> getCreditingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        return getPageByColumn("recipient", login, cursor, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<Transaction> getTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(login);
+        addKeysetArgs(args, cursor);
+        args.add(limit);
+        args.add(login);
+        args.add(login);
+        addKeysetArgs(args, cursor);
+        args.add(limit);
+        args.add(limit);
+
+        return PgStatements.prepare(databaseClient, buildCombinedPageQuery(cursor != null), args.toArray())
+                .map(PgStatements::toTransaction)
+                .all();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<TransactionOutcome> declineTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+
+        CreationRange range = TransactionIds.creationRange(ids);
+        UUID[] idArray = ids.toArray(new UUID[0]);
+        List<Object> args = new ArrayList<>(8);
+        args.add(idArray);
+        args.add(donorLogin);
+        addCreationRangeArgs(args, range);
+        args.add(idArray);
+        args.add(donorLogin);
+        addCreationRangeArgs(args, range);
+
+        return PgStatements.prepare(databaseClient, String.format(DECLINE_QUERY, creationRangeCondition(range)),
+                        args.toArray())
+                .map(row -> {
+                    String status = row.get("status", String.class);
+                    return new TransactionOutcome(row.get("id", UUID.class),
+                            status == null ? null : TransferRequestStatus.valueOf(status),
+                            Boolean.TRUE.equals(row.get("applied", Boolean.class)));
+                })
+                .all();
+    }
+
+    private Flux<Transaction> getPageByColumn(String column, String login, TransactionCursor cursor, int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(login);
+        addKeysetArgs(args, cursor);
+        args.add(limit);
+
+        return PgStatements.prepare(databaseClient, buildPageQuery(column, cursor != null), args.toArray())
+                .map(PgStatements::toTransaction)
+                .all();
+    }
+
+    private static void addKeysetArgs(List<Object> args, TransactionCursor cursor) {
+        if (cursor != null) {
+            args.add(cursor.getCreatedAt());
+            args.add(cursor.getCreatedAt());
+            args.add(cursor.getId());
+        }
+    }
+
+    private static void addCreationRangeArgs(List<Object> args, CreationRange range) {
+        if (range != null) {
+            args.add(range.from());
+            args.add(range.to());
+        }
+    }
+
+    private static String creationRangeCondition(CreationRange range) {
+        return range == null ? "" : CREATION_RANGE_CONDITION;
+    }
+}
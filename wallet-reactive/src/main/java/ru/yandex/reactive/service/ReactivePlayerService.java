@@ -0,0 +1,72 @@
+package ru.yandex.reactive.service;
+
+import model.dto.in.*;
+import model.dto.out.AuthenticatedPlayerDto;
+import model.dto.out.BalanceDto;
+import reactor.core.publisher.Mono;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.MoneyTransferResponse;
+import ru.yandex.wallet.domain.dto.TransactionDto;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.domain.dto.TransactionPageDto;
+import ru.yandex.wallet.service.PlayerAction;
+
+import java.util.List;
+
+/**
+ * Неблокирующий аналог {@link ru.yandex.wallet.service.PlayerService}: те же операции, проверки и исключения, которые
+ * передаются сигналом onError
+ */
+public interface ReactivePlayerService {
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#authenticate
+     */
+    Mono<AuthenticatedPlayerDto> authenticate(UnsecuredAuthenticationRequestDto unsecuredAuthenticationRequest);
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#register
+     */
+    Mono<AuthenticatedPlayerDto> register(UnsecuredPlayerCreationRequestDto playerCreationRequest);
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#getBalance
+     */
+    Mono<BalanceDto> getBalance(Long id);
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#transferMoneyTo
+     */
+    Mono<BalanceDto> transferMoneyTo(String sender, PlayerTransferMoneyRequestDto moneyRequest);
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#requestMoneyFrom
+     */
+    Mono<MoneyTransferResponse> requestMoneyFrom(String requester, PlayerRequestMoneyDto requestMoneyDto);
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#getPendingMoneyRequests
+     */
+    Mono<List<MoneyTransferRequest>> getPendingMoneyRequests(String login);
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#approvePendingMoneyRequest
+     */
+    Mono<List<TransactionOutcome>> approvePendingMoneyRequest(String donorLogin,
+                                                              TransactionsListDto transactionsList);
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#declinePendingRequest
+     */
+    Mono<List<TransactionOutcome>> declinePendingRequest(String donorLogin, TransactionsListDto transactionsList);
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#getHistory
+     */
+    Mono<List<TransactionDto>> getHistory(String login, PlayerAction action);
+
+    /**
+     * @see ru.yandex.wallet.service.PlayerService#getHistoryPage
+     */
+    Mono<TransactionPageDto> getHistoryPage(String login, PlayerAction action, String cursor, Integer limit);
+}
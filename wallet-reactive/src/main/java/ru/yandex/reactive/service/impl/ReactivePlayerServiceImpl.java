@@ -0,0 +1,260 @@
+package ru.yandex.reactive.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import model.dto.in.*;
+import model.dto.out.AuthenticatedPlayerDto;
+import model.dto.out.BalanceDto;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.reactive.repository.ReactiveMoneyTransferRepository;
+import ru.yandex.reactive.repository.ReactivePlayerRepository;
+import ru.yandex.reactive.repository.ReactiveTransactionRepository;
+import ru.yandex.reactive.service.ReactivePlayerService;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.*;
+import ru.yandex.wallet.domain.mapper.MoneyTransferMapper;
+import ru.yandex.wallet.domain.mapper.PlayerMapper;
+import ru.yandex.wallet.domain.mapper.TransactionMapper;
+import ru.yandex.wallet.exception.exceptions.BadCredentialsException;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.exception.exceptions.PlayerAlreadyExistsException;
+import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
+import ru.yandex.wallet.metrics.WalletMetrics;
+import ru.yandex.wallet.service.PlayerAction;
+import ru.yandex.wallet.util.PasswordHashes;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.util.*;
+
+/**
+ * Логика совпадает с {@link ru.yandex.wallet.service.impl.PlayerServiceImpl}; запросы к БД не блокируют поток
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactivePlayerServiceImpl implements ReactivePlayerService {
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    private final ReactivePlayerRepository playerRepository;
+    private final ReactiveTransactionRepository transactionRepository;
+    private final ReactiveMoneyTransferRepository moneyTransferRepository;
+    private final WalletMetrics walletMetrics;
+
+    private PlayerMapper playerMapper = PlayerMapper.INSTANCE;
+    private TransactionMapper transactionMapper = TransactionMapper.INSTANCE;
+    private MoneyTransferMapper moneyTransferMapper = MoneyTransferMapper.INSTANCE;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<AuthenticatedPlayerDto> authenticate(UnsecuredAuthenticationRequestDto unsecuredAuthenticationRequest) {
+        return playerRepository.getByLogin(unsecuredAuthenticationRequest.getLogin())
+                .flatMap(player -> {
+                    byte[] hashedPassword = PasswordHashes.hash(unsecuredAuthenticationRequest.getPassword());
+
+                    if (!Arrays.equals(player.getPassword(), hashedPassword)) {
+                        return Mono.<AuthenticatedPlayerDto>error(new BadCredentialsException("Некорректный пароль"));
+                    }
+
+                    return Mono.just(playerMapper.toAuthenticatedPlayerDto(player));
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<AuthenticatedPlayerDto> register(UnsecuredPlayerCreationRequestDto playerCreationRequest) {
+        return Mono.defer(() -> {
+                    Player newPlayer = Player.builder()
+                            .username(playerCreationRequest.getUsername())
+                            .login(playerCreationRequest.getLogin())
+                            .password(PasswordHashes.hash(playerCreationRequest.getPassword()))
+                            .build();
+
+                    return playerRepository.create(newPlayer);
+                })
+                .map(playerMapper::toAuthenticatedPlayerDto)
+                .onErrorMap(PlayerAlreadyExistsException.class, e -> new BadCredentialsException(e.getMessage()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<BalanceDto> getBalance(Long id) {
+        return playerRepository.getById(id)
+                .map(playerMapper::toBalanceDto);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<BalanceDto> transferMoneyTo(String sender, PlayerTransferMoneyRequestDto moneyRequest) {
+        if (sender.equals(moneyRequest.getRecipient())) {
+            return Mono.error(new TransactionStatusException("Нельзя перевести деньги самому себе"));
+        }
+
+        if (moneyRequest.getAmount() <= 0) {
+            return Mono.error(new TransactionStatusException("Сумма перевода должна быть положительной"));
+        }
+
+        UUID transactionId = TransactionIds.newId();
+        MoneyTransferRequest moneyTransferRequest =
+                moneyTransferMapper.toMoneyTransferRequest(transactionId, sender, moneyRequest);
+
+        return moneyTransferRepository.transfer(moneyTransferRequest)
+                .doOnError(DeficientBalanceException.class, e -> walletMetrics.transferFailed())
+                .doOnSuccess(player -> walletMetrics.transferApproved())
+                .map(playerMapper::toBalanceDto);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<MoneyTransferResponse> requestMoneyFrom(String requesterLogin, PlayerRequestMoneyDto requestMoneyDto) {
+        UUID transactionId = TransactionIds.newId();
+        MoneyTransferRequest moneyTransferRequest =
+                moneyTransferMapper.toMoneyTransferRequest(transactionId, requesterLogin, requestMoneyDto);
+
+        return playerRepository.getByLogin(requesterLogin)
+                .zipWith(playerRepository.getByLogin(requestMoneyDto.getDonor()), (requester, donor) -> requester)
+                .flatMap(requester -> transactionRepository.create(moneyTransferRequest)
+                        .doOnSuccess(transaction -> walletMetrics.moneyRequested())
+                        .map(transaction -> new MoneyTransferResponse(
+                                playerMapper.toAuthenticatedPlayerDto(requester),
+                                transactionMapper.toTransactionDto(transaction))));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<List<MoneyTransferRequest>> getPendingMoneyRequests(String login) {
+        return transactionRepository
+                .getTransactionsBySenderAndRecipientAndStatus(login, null, TransferRequestStatus.PENDING)
+                .map(transactionMapper::toMoneyTransferRequest)
+                .collectList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<List<TransactionOutcome>> approvePendingMoneyRequest(String donorLogin,
+                                                                     TransactionsListDto transactionsList) {
+        List<UUID> validIds = extractValidUUIDs(transactionsList.getIds());
+
+        if (validIds.isEmpty()) {
+            return Mono.just(Collections.emptyList());
+        }
+
+        return moneyTransferRepository.approvePendingTransactions(donorLogin, validIds)
+                .doOnSuccess(outcomes -> walletMetrics.approveBatch(validIds.size(), outcomes));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<List<TransactionOutcome>> declinePendingRequest(String donorLogin,
+                                                                TransactionsListDto transactionsList) {
+        List<UUID> validIds = extractValidUUIDs(transactionsList.getIds());
+
+        if (validIds.isEmpty()) {
+            return Mono.just(Collections.emptyList());
+        }
+
+        return transactionRepository.declineTransactions(donorLogin, validIds)
+                .collectList()
+                .doOnSuccess(outcomes -> walletMetrics.declineBatch(validIds.size(), outcomes));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<List<TransactionDto>> getHistory(String login, PlayerAction action) {
+        Flux<Transaction> transactionsByUser;
+
+        if (action == null) {
+            transactionsByUser = transactionRepository.getTransactionsBySenderAndRecipientAndStatus(login, null, null)
+                    .concatWith(transactionRepository.getTransactionsBySenderAndRecipientAndStatus(null, login, null));
+        } else {
+            transactionsByUser = switch (action) {
+                case DEBIT -> transactionRepository.getTransactionsBySenderAndRecipientAndStatus(login, null, null);
+                case CREDIT -> transactionRepository.getTransactionsBySenderAndRecipientAndStatus(null, login, null);
+            };
+        }
+
+        return transactionsByUser
+                .map(transactionMapper::toTransactionDto)
+                .collectList();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Из БД запрашивается на одну транзакцию больше размера страницы: по ее наличию определяется, есть ли следующая
+     * страница.
+     */
+    @Override
+    public Mono<TransactionPageDto> getHistoryPage(String login, PlayerAction action, String cursor, Integer limit) {
+        int pageSize = limit == null
+                ? DEFAULT_HISTORY_PAGE_SIZE
+                : Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+
+        return Mono.defer(() -> {
+            TransactionCursor after = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+
+            Flux<Transaction> transactions;
+
+            if (action == null) {
+                transactions = transactionRepository.getTransactionsPage(login, after, pageSize + 1);
+            } else {
+                transactions = switch (action) {
+                    case DEBIT -> transactionRepository.getDebitingTransactionsPage(login, after, pageSize + 1);
+                    case CREDIT -> transactionRepository.getCreditingTransactionsPage(login, after, pageSize + 1);
+                };
+            }
+
+            return transactions.collectList();
+        }).map(transactions -> {
+            String nextCursor = null;
+
+            if (transactions.size() > pageSize) {
+                transactions = transactions.subList(0, pageSize);
+                nextCursor = TransactionCursor.of(transactions.get(pageSize - 1)).encode();
+            }
+
+            List<TransactionDto> items = transactions.stream()
+                    .map(transactionMapper::toTransactionDto)
+                    .toList();
+
+            return new TransactionPageDto(items, nextCursor);
+        });
+    }
+
+    /**
+     * Метод читает коллекцию UUID в строковом представлении, и возвращает список UUID, игнорируя невалидные строковые
+     * представления UUID
+     */
+    private List<UUID> extractValidUUIDs(Collection<String> ids) {
+        List<UUID> result = new ArrayList<>(ids.size());
+
+        for (String id : ids) {
+            try {
+                result.add(UUID.fromString(id));
+            } catch (IllegalArgumentException e) {
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.yandex.wallet.in.UnpackedJwtClaims;
+import ru.yandex.wallet.util.JwtUtils;
+import ru.yandex.wallet.util.JwtVerifier;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Jwt web filter test")
+class JwtWebFilterTest {
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private final JwtWebFilter filter = new JwtWebFilter(new ObjectMapper(), new JwtVerifier(SECRET, 16),
+            "/logout", "/player-management/**");
+    private final AtomicReference<UnpackedJwtClaims> passedClaims = new AtomicReference<>();
+
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        passedClaims.set(context.get(UnpackedJwtClaims.REQUEST_ATTRIBUTE));
+        return Mono.empty();
+    });
+
+    @DisplayName("Should pass verified claims to handler through Reactor context")
+    @Test
+    void shouldPassClaimsInContext() {
+        UUID sessionId = UUID.randomUUID();
+        String token = JwtUtils.generateToken(SECRET,
+                Map.of("id", 1L, "login", "admin", "username", "admin", "session-id", sessionId.toString()));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/player-management/wallet/balance")
+                .header("Authorization", "Bearer " + token));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertThat(passedClaims.get()).isEqualTo(new UnpackedJwtClaims(1L, "admin", "admin", sessionId));
+        assertThat(exchange.getAttributes().get(UnpackedJwtClaims.REQUEST_ATTRIBUTE)).isEqualTo(passedClaims.get());
+    }
+
+    @DisplayName("Should answer 403 without token on protected path and skip open paths")
+    @Test
+    void shouldRejectMissingToken() {
+        MockServerWebExchange rejected = MockServerWebExchange.from(MockServerHttpRequest.delete("/logout"));
+        StepVerifier.create(filter.filter(rejected, chain)).verifyComplete();
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        StepVerifier.create(rejected.getResponse().getBodyAsString())
+                .expectNext("{\"error\":\"Отсутствует JWT\"}")
+                .verifyComplete();
+        assertThat(passedClaims.get()).isNull();
+
+        WebFilterChain open = exchange -> Mono.empty();
+        MockServerWebExchange registration = MockServerWebExchange.from(MockServerHttpRequest.post("/registration"));
+        StepVerifier.create(filter.filter(registration, open)).verifyComplete();
+        assertThat(registration.getResponse().getStatusCode()).isNull();
+    }
+}
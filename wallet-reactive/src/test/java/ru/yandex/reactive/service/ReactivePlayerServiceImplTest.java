@@ -0,0 +1,167 @@
+package ru.yandex.reactive.service;
+
+import lombok.SneakyThrows;
+import model.dto.in.PlayerTransferMoneyRequestDto;
+import model.dto.in.TransactionsListDto;
+import model.dto.in.UnsecuredAuthenticationRequestDto;
+import model.dto.in.UnsecuredPlayerCreationRequestDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.yandex.metrics.registry.MetricsRegistry;
+import ru.yandex.reactive.repository.ReactiveMoneyTransferRepository;
+import ru.yandex.reactive.repository.ReactivePlayerRepository;
+import ru.yandex.reactive.repository.ReactiveTransactionRepository;
+import ru.yandex.reactive.service.impl.ReactivePlayerServiceImpl;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.exception.exceptions.BadCredentialsException;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.exception.exceptions.InvalidCursorException;
+import ru.yandex.wallet.exception.exceptions.PlayerAlreadyExistsException;
+import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
+import ru.yandex.wallet.metrics.WalletMetrics;
+import ru.yandex.wallet.service.PlayerAction;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Reactive player service test")
+class ReactivePlayerServiceImplTest {
+
+    private ReactivePlayerService playerService;
+    private ReactivePlayerRepository mockPlayerRepository;
+    private ReactiveTransactionRepository mockTransactionRepository;
+    private ReactiveMoneyTransferRepository mockMoneyTransferRepository;
+    private MessageDigest messageDigest;
+    private MetricsRegistry metricsRegistry;
+
+    @SneakyThrows
+    @BeforeEach
+    public void init() {
+        mockPlayerRepository = Mockito.mock(ReactivePlayerRepository.class);
+        mockTransactionRepository = Mockito.mock(ReactiveTransactionRepository.class);
+        mockMoneyTransferRepository = Mockito.mock(ReactiveMoneyTransferRepository.class);
+        messageDigest = MessageDigest.getInstance("MD5");
+        metricsRegistry = new MetricsRegistry();
+        playerService = new ReactivePlayerServiceImpl(mockPlayerRepository, mockTransactionRepository,
+                mockMoneyTransferRepository, new WalletMetrics(metricsRegistry));
+    }
+
+    @DisplayName("Signals bad credentials when password does not match")
+    @Test
+    void shouldRejectWrongPassword() {
+        Player admin = Player.builder()
+                .id(1L)
+                .login("admin")
+                .username("admin")
+                .password(messageDigest.digest("password".getBytes()))
+                .build();
+        when(mockPlayerRepository.getByLogin("admin")).thenReturn(Mono.just(admin));
+
+        StepVerifier.create(playerService.authenticate(new UnsecuredAuthenticationRequestDto("admin", "wrong")))
+                .expectError(BadCredentialsException.class)
+                .verify();
+        StepVerifier.create(playerService.authenticate(new UnsecuredAuthenticationRequestDto("admin", "password")))
+                .assertNext(authentication -> assertThat(authentication.getId()).isEqualTo(1L))
+                .verifyComplete();
+    }
+
+    @DisplayName("Maps taken login on registration to bad credentials")
+    @Test
+    void shouldMapExistingPlayerToBadCredentials() {
+        when(mockPlayerRepository.create(any()))
+                .thenReturn(Mono.error(new PlayerAlreadyExistsException("login taken")));
+
+        StepVerifier.create(playerService.register(new UnsecuredPlayerCreationRequestDto("admin", "password", "admin")))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOf(BadCredentialsException.class)
+                        .hasMessage("login taken"))
+                .verify();
+    }
+
+    @DisplayName("Rejects transfer to self without touching repository and counts failed transfers")
+    @Test
+    void shouldValidateTransferAndCountOutcome() {
+        StepVerifier.create(playerService.transferMoneyTo("admin", new PlayerTransferMoneyRequestDto("admin", 1.0)))
+                .expectError(TransactionStatusException.class)
+                .verify();
+        verifyNoInteractions(mockMoneyTransferRepository);
+
+        when(mockMoneyTransferRepository.transfer(any()))
+                .thenReturn(Mono.error(new DeficientBalanceException("no money")));
+        StepVerifier.create(playerService.transferMoneyTo("admin", new PlayerTransferMoneyRequestDto("user", 1.0)))
+                .expectError(DeficientBalanceException.class)
+                .verify();
+
+        assertThat(metricsRegistry.scrape()).contains("wallet_transfers_total{outcome=\"FAILED\"} 1");
+    }
+
+    @DisplayName("Skips repository when no transaction id is valid")
+    @Test
+    void shouldIgnoreInvalidIds() {
+        StepVerifier.create(playerService.approvePendingMoneyRequest("admin",
+                        new TransactionsListDto(List.of("not-a-uuid"))))
+                .expectNext(List.of())
+                .verifyComplete();
+        verifyNoInteractions(mockMoneyTransferRepository);
+
+        UUID id = UUID.randomUUID();
+        when(mockTransactionRepository.declineTransactions(eq("admin"), eq(List.of(id))))
+                .thenReturn(Flux.just(new TransactionOutcome(id, TransferRequestStatus.DECLINED, true)));
+        StepVerifier.create(playerService.declinePendingRequest("admin",
+                        new TransactionsListDto(List.of(id.toString(), "not-a-uuid"))))
+                .expectNext(List.of(new TransactionOutcome(id, TransferRequestStatus.DECLINED, true)))
+                .verifyComplete();
+    }
+
+    @DisplayName("Requests one extra transaction and returns cursor of the last one on the page")
+    @Test
+    void shouldTrimPageAndReturnCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        Transaction newest = transaction(now);
+        Transaction middle = transaction(now.minusSeconds(1));
+        Transaction oldest = transaction(now.minusSeconds(2));
+        when(mockTransactionRepository.getDebitingTransactionsPage("admin", null, 3))
+                .thenReturn(Flux.just(newest, middle, oldest));
+
+        StepVerifier.create(playerService.getHistoryPage("admin", PlayerAction.DEBIT, null, 2))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).hasSize(2);
+                    assertThat(page.getNextCursor()).isEqualTo(TransactionCursor.of(middle).encode());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(playerService.getHistoryPage("admin", null, "garbage", null))
+                .expectError(InvalidCursorException.class)
+                .verify();
+        verify(mockTransactionRepository, never()).getTransactionsPage(any(), any(), anyInt());
+    }
+
+    private static Transaction transaction(LocalDateTime createdAt) {
+        return Transaction.builder()
+                .id(UUID.randomUUID())
+                .status(TransferRequestStatus.APPROVED)
+                .sender("admin")
+                .recipient("user")
+                .amount(BigDecimal.ONE)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import ru.yandex.metrics.performance.EnablePerformance;
+import ru.yandex.wallet.util.JwtVerifier;
 
 @Configuration
 @EnablePerformance
@@ -16,17 +17,25 @@ public class ApplicationConfiguration {
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.verified-cache-size:4096}")
+    private int verifiedCacheSize;
+
     @Bean
     public ObjectMapper objectMapper() {
         return new ObjectMapper();
     }
 
+    @Bean
+    public JwtVerifier jwtVerifier() {
+        return new JwtVerifier(secret, verifiedCacheSize);
+    }
+
     @Bean
     public FilterRegistrationBean<JwtTokenFilter> loggingFilter() {
         FilterRegistrationBean<JwtTokenFilter> registrationBean
                 = new FilterRegistrationBean<>();
 
-        registrationBean.setFilter(new JwtTokenFilter(objectMapper(), secret));
+        registrationBean.setFilter(new JwtTokenFilter(objectMapper(), jwtVerifier()));
         registrationBean.addUrlPatterns("/logout", "/player-management/*");
 
         return registrationBean;
@@ -1,24 +1,20 @@
 package ru.yandex.wallet.config;
 
-import model.dto.out.AuthenticatedPlayerDto;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import ru.yandex.wallet.service.session.SessionStore;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.time.Duration;
 
 @Configuration
 public class BeanConfiguration {
     @Bean
-    public MessageDigest messageDigest() throws NoSuchAlgorithmException {
-        return MessageDigest.getInstance("MD5");
-    }
-
-    @Bean
-    public Map<UUID, AuthenticatedPlayerDto> authentications() {
-        return new HashMap<>();
+    public SessionStore sessionStore(@Value("${wallet.sessions.maximum-size:100000}") int maximumSize,
+                                     @Value("${wallet.sessions.idle-timeout:30m}") Duration idleTimeout,
+                                     @Value("${wallet.sessions.absolute-timeout:12h}") Duration absoluteTimeout,
+                                     @Value("${wallet.sessions.tick-millis:1000}") long tickMillis) {
+        return new SessionStore(maximumSize, idleTimeout, absoluteTimeout, Duration.ofMillis(tickMillis),
+                System::currentTimeMillis);
     }
 }
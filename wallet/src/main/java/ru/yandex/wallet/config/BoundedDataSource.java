@@ -0,0 +1,153 @@
+package ru.yandex.wallet.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Источник соединений с ограниченным числом одновременно выданных соединений. Нужен при обработке запросов в
+ * виртуальных потоках: их число не ограничено пулом потоков Tomcat, и без ограничителя тысячи запросов одновременно
+ * ждали бы соединения внутри пула JDBC. Здесь они ждут в очереди семафора в порядке поступления, а пул видит не больше
+ * maxConcurrency заемщиков.
+ * <p>
+ * Разрешение берется при получении соединения и возвращается при его закрытии. Если разрешение не получено за
+ * acquireTimeout, выбрасывается {@link SQLTransientConnectionException}.
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * Счетчики ограничителя
+     *
+     * @param maxConcurrency предел одновременно выданных соединений
+     * @param inUse          выдано сейчас
+     * @param waiting        ожидают разрешения сейчас
+     * @param waited         получили соединение не сразу, а после ожидания
+     * @param timedOut       не дождались разрешения
+     */
+    public record Stats(int maxConcurrency, int inUse, int waiting, long waited, long timedOut) {
+    }
+
+    public BoundedDataSource(DataSource target, int maxConcurrency, Duration acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return bounded(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return bounded(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(maxConcurrency, maxConcurrency - permits.availablePermits(), permits.getQueueLength(),
+                waited.sum(), timedOut.sum());
+    }
+
+    /**
+     * Быстрая попытка тоже с нулевым таймаутом: tryAcquire() без таймаута обходит очередь, и при постоянном потоке
+     * новых запросов ждущие могли бы не дождаться разрешения
+     */
+    private void acquire() throws SQLException {
+        try {
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+
+            waited.increment();
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                timedOut.increment();
+                throw new SQLTransientConnectionException(String.format(
+                        "Нет свободного соединения с БД: все %d заняты дольше %d мс", maxConcurrency,
+                        TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Ожидание соединения с БД прервано", e);
+        }
+    }
+
+    private Connection bounded(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new PermitReleasingHandler(target));
+    }
+
+    /**
+     * Возвращает разрешение при первом закрытии соединения, остальные вызовы передает соединению пула
+     */
+    private class PermitReleasingHandler implements InvocationHandler {
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getTargetConnection" -> {
+                    return target;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "close" -> {
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                }
+            }
+
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.yandex.wallet.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import ru.yandex.wallet.repository.journal.TransactionJournal;
+
+import java.nio.file.Path;
+
+/**
+ * Конфигурация хранения транзакций в журнале на диске (профиль journal). Игроки и балансы остаются в БД.
+ */
+@Configuration
+@Profile("journal")
+public class JournalConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public TransactionJournal transactionJournal(
+            @Value("${wallet.journal.directory:./journal}") String directory,
+            @Value("${wallet.journal.segment-capacity:1048576}") int segmentCapacity,
+            @Value("${wallet.journal.replay-threads:4}") int replayThreads) {
+        return new TransactionJournal(Path.of(directory), segmentCapacity, replayThreads);
+    }
+}
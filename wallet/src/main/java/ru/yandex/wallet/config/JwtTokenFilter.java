@@ -7,19 +7,21 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import ru.yandex.wallet.exception.ApiException;
 import ru.yandex.wallet.exception.exceptions.InvalidTokenException;
-import ru.yandex.wallet.util.JwtUtils;
+import ru.yandex.wallet.in.UnpackedJwtClaims;
+import ru.yandex.wallet.util.JwtVerifier;
 
 import java.io.IOException;
 
 /**
  * Фильтр, ответственный за валидацию JWT в запросе. Пути запросов, указанные в множестве jwtIndependentRequestMappings,
  * игнорируются. Остальные - фильтруются с проверкой наличия заголовка Authorization в запросе и валидности токена.
+ * Токен разбирается один раз, извлеченные данные сохраняются в атрибуте запроса {@link UnpackedJwtClaims#REQUEST_ATTRIBUTE}.
  */
 @RequiredArgsConstructor
 public class JwtTokenFilter implements Filter {
 
     private final ObjectMapper mapper;
-    private final String secret;
+    private final JwtVerifier jwtVerifier;
 
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
@@ -40,14 +42,14 @@ public class JwtTokenFilter implements Filter {
     }
 
     /**
-     * Метод проверяет наличие JWT в заголовке и валидирует его
+     * Метод проверяет наличие JWT в заголовке, валидирует его и сохраняет данные пользователя в атрибуте запроса
      */
     private void validateJwtToken(HttpServletRequest request) throws Exception {
         String authHeader = request.getHeader("Authorization");
 
         if (authHeader != null) {
             String token = authHeader.substring(7);
-            JwtUtils.isTokenValid(token, secret);
+            request.setAttribute(UnpackedJwtClaims.REQUEST_ATTRIBUTE, jwtVerifier.verify(token));
         } else {
             throw new InvalidTokenException("Отсутствует JWT");
         }
@@ -0,0 +1,143 @@
+package ru.yandex.wallet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.metrics.audit.AuditSampler;
+import ru.yandex.metrics.audit.logging.AsyncBatchLogger;
+import ru.yandex.metrics.registry.MetricsRegistry;
+import ru.yandex.wallet.repository.TransactionCrudRepository;
+import ru.yandex.wallet.repository.cache.CachingPlayerCrudRepository;
+import ru.yandex.wallet.repository.sharded.InDoubtTransferRecovery;
+import ru.yandex.wallet.service.PlayerSessionService;
+import ru.yandex.wallet.util.JwtVerifier;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.ToLongFunction;
+
+/**
+ * Регистрация метрик состояния приложения: очереди ожидающих запросов денег, сессий, кешей, очереди и выборки
+ * аудита, пула соединений JDBC, ограничителя соединений, чтения с реплик и восстановления межшардовых переводов.
+ * Значения вычисляются при чтении реестра.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    public MetricsConfiguration(MetricsRegistry registry,
+                                TransactionCrudRepository transactionRepository,
+                                PlayerSessionService playerSessionService,
+                                ObjectProvider<JwtVerifier> jwtVerifier,
+                                ObjectProvider<CachingPlayerCrudRepository> playerCache,
+                                ObjectProvider<AsyncBatchLogger> auditLogger,
+                                ObjectProvider<AuditSampler> auditSampler,
+                                ObjectProvider<DataSource> dataSource,
+                                ObjectProvider<PrimaryPins> primaryPins,
+                                ObjectProvider<InDoubtTransferRecovery> transferRecovery) {
+        registry.gauge("wallet_pending_requests", "Запросы денег, ожидающие подтверждения",
+                transactionRepository::countPending);
+        registry.gauge("wallet_sessions_active", "Открытые сессии игроков", playerSessionService::count);
+
+        jwtVerifier.ifAvailable(verifier -> {
+            String name = "wallet_jwt_verified_cache_total";
+            String help = "Обращения к кешу проверенных JWT";
+            registry.counter(name, help, () -> verifier.stats().hits(), "result", "hit");
+            registry.counter(name, help, () -> verifier.stats().misses(), "result", "miss");
+        });
+
+        playerCache.ifAvailable(cache -> cache.stats().keySet().forEach(cacheName -> {
+            registry.counter("wallet_player_cache_total", "Обращения к кешу игроков",
+                    () -> cache.stats().get(cacheName).hits(), "cache", cacheName, "result", "hit");
+            registry.counter("wallet_player_cache_total", "Обращения к кешу игроков",
+                    () -> cache.stats().get(cacheName).misses(), "cache", cacheName, "result", "miss");
+            registry.gauge("wallet_player_cache_size", "Записи в кеше игроков",
+                    () -> cache.stats().get(cacheName).size(), "cache", cacheName);
+        }));
+
+        auditLogger.ifAvailable(logger -> {
+            registry.gauge("audit_queue_depth", "Записи аудита, ожидающие записи", () -> logger.stats().queued());
+            registry.gauge("audit_queue_capacity", "Емкость буфера аудита", () -> logger.stats().capacity());
+            registry.counter("audit_records_total", "Записи аудита по исходу",
+                    () -> logger.stats().flushed(), "outcome", "flushed");
+            registry.counter("audit_records_total", "Записи аудита по исходу",
+                    () -> logger.stats().dropped(), "outcome", "dropped");
+            registry.counter("audit_records_total", "Записи аудита по исходу",
+                    () -> logger.stats().failed(), "outcome", "failed");
+            registry.counter("audit_flushes_total", "Сброшенные пакеты аудита", () -> logger.stats().flushes());
+        });
+
+        auditSampler.ifAvailable(sampler -> sampler.stats().keySet().forEach(endpoint -> {
+            String name = "audit_sampling_total";
+            String help = "Вызовы методов с выборочным аудитом по решению выборки";
+            String label = endpoint.name().toLowerCase();
+            registry.counter(name, help, () -> sampler.stats().get(endpoint).sampled(),
+                    "endpoint", label, "decision", "sampled");
+            registry.counter(name, help, () -> sampler.stats().get(endpoint).dropped(),
+                    "endpoint", label, "decision", "dropped");
+        }));
+
+        dataSource.ifAvailable(source -> {
+            HikariDataSource hikari = unwrap(source, HikariDataSource.class);
+
+            if (hikari != null) {
+                registerPool(registry, hikari, "active", HikariPoolMXBean::getActiveConnections);
+                registerPool(registry, hikari, "idle", HikariPoolMXBean::getIdleConnections);
+                registerPool(registry, hikari, "total", HikariPoolMXBean::getTotalConnections);
+                registerPool(registry, hikari, "pending", HikariPoolMXBean::getThreadsAwaitingConnection);
+                registry.gauge("jdbc_connections_max", "Максимальный размер пула соединений",
+                        hikari::getMaximumPoolSize);
+            }
+
+            if (source instanceof BoundedDataSource bounded) {
+                registry.gauge("jdbc_limiter_in_use", "Соединения, выданные через ограничитель",
+                        () -> bounded.stats().inUse());
+                registry.gauge("jdbc_limiter_waiting", "Потоки в очереди ограничителя соединений",
+                        () -> bounded.stats().waiting());
+                registry.counter("jdbc_limiter_waits_total", "Получения соединения по исходу ожидания",
+                        () -> bounded.stats().waited(), "outcome", "waited");
+                registry.counter("jdbc_limiter_waits_total", "Получения соединения по исходу ожидания",
+                        () -> bounded.stats().timedOut(), "outcome", "timed_out");
+            }
+
+            ReplicaRoutingDataSource routing = unwrap(source, ReplicaRoutingDataSource.class);
+
+            if (routing != null) {
+                registry.gauge("jdbc_replicas_healthy", "Исправные реплики", () -> routing.stats().healthy());
+                registry.counter("jdbc_reads_total", "Соединения для чтения по серверу",
+                        () -> routing.stats().replicaReads(), "target", "replica");
+                registry.counter("jdbc_reads_total", "Соединения для чтения по серверу",
+                        () -> routing.stats().primaryReads(), "target", "primary");
+                registry.counter("jdbc_replica_failovers_total", "Реплики, исключенные при получении соединения",
+                        () -> routing.stats().failovers());
+            }
+        });
+
+        primaryPins.ifAvailable(pins -> registry.gauge("wallet_primary_pins",
+                "Игроки, закрепленные за основным сервером", pins::size));
+
+        transferRecovery.ifAvailable(recovery -> {
+            String name = "wallet_in_doubt_transfers_total";
+            String help = "Ветки межшардовых переводов, завершенные восстановлением";
+            registry.counter(name, help, () -> recovery.stats().committed(), "decision", "commit");
+            registry.counter(name, help, () -> recovery.stats().rolledBack(), "decision", "abort");
+        });
+    }
+
+    /**
+     * Пул еще не создан до первого соединения: тогда MXBean равен null, и чтение метрики пропускается
+     */
+    private static void registerPool(MetricsRegistry registry, HikariDataSource hikari, String state,
+                                     ToLongFunction<HikariPoolMXBean> value) {
+        registry.gauge("jdbc_connections", "Соединения пула JDBC по состоянию",
+                () -> value.applyAsLong(hikari.getHikariPoolMXBean()), "state", state);
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
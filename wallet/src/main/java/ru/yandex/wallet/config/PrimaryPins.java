@@ -0,0 +1,83 @@
+package ru.yandex.wallet.config;
+
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Игроки, чтения которых выполняются на основном сервере (read-your-writes). После того как игрок изменил свои
+ * данные или его баланс изменился, реплики могут еще не получить изменение, поэтому в течение окна его чтения не
+ * уходят на реплики. Нулевое окно отключает закрепление.
+ * <p>
+ * Закрепление никогда не снимается раньше конца окна, поэтому размер не ограничен: он равен числу игроков, менявших
+ * данные за последнее окно. Истекшие закрепления удаляются при обращении к ним, а когда их больше sweepThreshold -
+ * не чаще раза за окно при очередном закреплении. Закрепления хранятся в памяти экземпляра и действуют только для
+ * запросов, пришедших на тот же экземпляр, что и изменение.
+ */
+public class PrimaryPins {
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+    private final int sweepThreshold;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong nextSweep;
+
+    public PrimaryPins(int sweepThreshold, Duration window, LongSupplier nanoClock) {
+        this.sweepThreshold = sweepThreshold;
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        this.nextSweep = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Закрепить игрока за основным сервером, повторное закрепление продлевает окно
+     */
+    public void pin(String login) {
+        if (windowNanos <= 0) {
+            return;
+        }
+
+        long now = nanoClock.getAsLong();
+        deadlines.put(login, now + windowNanos);
+
+        long sweepAt = nextSweep.get();
+        if (deadlines.size() > sweepThreshold && now - sweepAt >= 0
+                && nextSweep.compareAndSet(sweepAt, now + windowNanos)) {
+            deadlines.values().removeIf(deadline -> now - deadline >= 0);
+        }
+    }
+
+    public boolean isPinned(String login) {
+        Long deadline = deadlines.get(login);
+
+        if (deadline == null) {
+            return false;
+        }
+
+        if (nanoClock.getAsLong() - deadline >= 0) {
+            deadlines.remove(login, deadline);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Закрепить всех участников перевода после фиксации транзакции БД, в которой изменились их балансы
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        event.getLogins().forEach(this::pin);
+    }
+
+    /**
+     * Число хранимых закреплений, включая истекшие и еще не удаленные
+     */
+    public int size() {
+        return deadlines.size();
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.wallet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import ru.yandex.wallet.repository.PlayerCrudRepository;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик (профиль replicas, репозитории JDBC): источник соединений оборачивается в
+ * {@link ReplicaRoutingDataSource}, реплики перечисляются в wallet.datasource.replicas. Пулы реплик открывают
+ * соединения только для чтения; по умолчанию их размер равен размеру пула основного сервера.
+ */
+@Configuration
+@Profile("replicas")
+public class ReplicaConfiguration {
+    private final ObjectProvider<DataSource> dataSource;
+    private final Duration healthCheckTimeout;
+
+    /**
+     * Адрес реплики, пустые имя пользователя и пароль берутся у основного сервера
+     */
+    public record ReplicaProperties(String url, String username, String password) {
+    }
+
+    public ReplicaConfiguration(ObjectProvider<DataSource> dataSource,
+                                @Value("${wallet.datasource.health-check-timeout:1s}") Duration healthCheckTimeout) {
+        this.dataSource = dataSource;
+        this.healthCheckTimeout = healthCheckTimeout;
+    }
+
+    @Bean
+    public static BeanPostProcessor replicaRoutingPostProcessor(Environment environment) {
+        return new ReplicaRoutingPostProcessor(environment);
+    }
+
+    @Bean
+    public PrimaryPins primaryPins(
+            @Value("${wallet.datasource.read-your-writes.sweep-threshold:100000}") int sweepThreshold,
+            @Value("${wallet.datasource.read-your-writes.window:5s}") Duration window) {
+        return new PrimaryPins(sweepThreshold, window, System::nanoTime);
+    }
+
+    @Bean
+    public ReplicaRoutingAspect replicaRoutingAspect(PrimaryPins primaryPins,
+                                                     PlayerCrudRepository playerRepository) {
+        return new ReplicaRoutingAspect(primaryPins, playerRepository);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.datasource.health-check-millis:5000}")
+    public void checkReplicas() throws SQLException {
+        DataSource source = dataSource.getIfAvailable();
+
+        if (source != null && source.isWrapperFor(ReplicaRoutingDataSource.class)) {
+            source.unwrap(ReplicaRoutingDataSource.class).checkHealth(healthCheckTimeout);
+        }
+    }
+
+    /**
+     * Выполняется раньше обертки {@link VirtualThreadsConfiguration}, чтобы ограничитель соединений охватывал и
+     * реплики
+     */
+    private static final class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+        private final Environment environment;
+
+        ReplicaRoutingPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource primary) || bean instanceof ReplicaRoutingDataSource) {
+                return bean;
+            }
+
+            List<ReplicaProperties> replicas = Binder.get(environment)
+                    .bind("wallet.datasource.replicas", Bindable.listOf(ReplicaProperties.class))
+                    .orElse(List.of());
+
+            if (replicas.isEmpty()) {
+                return bean;
+            }
+
+            HikariDataSource hikari = bean instanceof HikariDataSource h ? h : null;
+            int poolSize = environment.getProperty("wallet.datasource.replica-pool-size", Integer.class,
+                    hikari == null ? 10 : hikari.getMaximumPoolSize());
+            Duration connectionTimeout = environment.getProperty("wallet.datasource.replica-connection-timeout",
+                    Duration.class, Duration.ofSeconds(2));
+
+            List<DataSource> pools = new ArrayList<>(replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                ReplicaProperties replica = replicas.get(i);
+                HikariDataSource pool = new HikariDataSource();
+
+                pool.setPoolName("replica-" + (i + 1));
+                pool.setJdbcUrl(replica.url());
+                pool.setUsername(replica.username() != null || hikari == null
+                        ? replica.username() : hikari.getUsername());
+                pool.setPassword(replica.password() != null || hikari == null
+                        ? replica.password() : hikari.getPassword());
+                pool.setMaximumPoolSize(poolSize);
+                pool.setConnectionTimeout(connectionTimeout.toMillis());
+                pool.setReadOnly(true);
+                // Недоступная при старте реплика не мешает запуску: ее исключит проверка
+                pool.setInitializationFailTimeout(-1);
+
+                pools.add(pool);
+            }
+
+            return new ReplicaRoutingDataSource(primary, pools);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.wallet.config;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import ru.yandex.wallet.repository.PlayerCrudRepository;
+
+/**
+ * Аспект, направляющий читающие операции {@link ru.yandex.wallet.service.PlayerService} на реплики через
+ * {@link ReplicaRoutingDataSource}. Игроки, закрепленные в {@link PrimaryPins}, читают с основного сервера; после
+ * успешной операции, изменившей данные игрока, игрок закрепляется.
+ */
+@Aspect
+@RequiredArgsConstructor
+public class ReplicaRoutingAspect {
+    private final PrimaryPins pins;
+    private final PlayerCrudRepository playerRepository;
+
+    @Pointcut("execution(* ru.yandex.wallet.service.PlayerService.getHistory(String,*)) " +
+            "|| execution(* ru.yandex.wallet.service.PlayerService.getHistoryPage(String,*,*,*)) " +
+            "|| execution(* ru.yandex.wallet.service.PlayerService.getPendingMoneyRequests(String))")
+    public void readByLogin() {
+    }
+
+    @Pointcut("execution(* ru.yandex.wallet.service.PlayerService.transferMoneyTo(String,*)) " +
+            "|| execution(* ru.yandex.wallet.service.PlayerService.requestMoneyFrom(String,*)) " +
+            "|| execution(* ru.yandex.wallet.service.PlayerService.approvePendingMoneyRequest(String,*)) " +
+            "|| execution(* ru.yandex.wallet.service.PlayerService.declinePendingRequest(String,*))")
+    public void writeByLogin() {
+    }
+
+    @Around("readByLogin() && args(login,..)")
+    public Object readMethod(ProceedingJoinPoint pjp, String login) throws Throwable {
+        return read(pjp, login);
+    }
+
+    /**
+     * Логин игрока берется из кеша учетных данных; при промахе игрок читается с основного сервера, и его свежий
+     * баланс попадает в кеш
+     */
+    @Around("execution(* ru.yandex.wallet.service.PlayerService.getBalance(Long)) && args(id)")
+    public Object balanceMethod(ProceedingJoinPoint pjp, Long id) throws Throwable {
+        return read(pjp, playerRepository.getById(id).getLogin());
+    }
+
+    @AfterReturning("writeByLogin() && args(login,..)")
+    public void writeMethod(String login) {
+        pins.pin(login);
+    }
+
+    private Object read(ProceedingJoinPoint pjp, String login) throws Throwable {
+        boolean previous = ReplicaRoutingDataSource.route(!pins.isPinned(login));
+
+        try {
+            return pjp.proceed();
+        } finally {
+            ReplicaRoutingDataSource.route(previous);
+        }
+    }
+}
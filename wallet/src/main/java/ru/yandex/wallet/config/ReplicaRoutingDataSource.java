@@ -0,0 +1,182 @@
+package ru.yandex.wallet.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Источник соединений, разделяющий чтение и запись. Соединения, запрошенные в потоке, помеченном
+ * {@link #route(boolean)} как читающий, выдаются репликами по кругу, все остальные - основным сервером.
+ * <p>
+ * Реплика, не выдавшая соединение, исключается из круга до следующей проверки {@link #checkHealth(Duration)}; если
+ * исправных реплик нет, чтение выполняется на основном сервере.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder failovers = new LongAdder();
+
+    /**
+     * Счетчики маршрутизации
+     *
+     * @param replicas     число реплик
+     * @param healthy      исправных реплик сейчас
+     * @param replicaReads соединения для чтения, выданные репликами
+     * @param primaryReads соединения для чтения, выданные основным сервером за отсутствием исправных реплик
+     * @param failovers    реплики, исключенные из круга при получении соединения
+     */
+    public record Stats(int replicas, int healthy, long replicaReads, long primaryReads, long failovers) {
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+    }
+
+    /**
+     * Пометить текущий поток как читающий с реплик или пишущий
+     *
+     * @return предыдущая пометка, восстанавливается тем же методом после операции
+     */
+    public static boolean route(boolean readOnly) {
+        boolean previous = Boolean.TRUE.equals(READ_ONLY.get());
+
+        if (readOnly) {
+            READ_ONLY.set(Boolean.TRUE);
+        } else {
+            READ_ONLY.remove();
+        }
+        return previous;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Проверить реплики: исправной считается реплика, выдавшая соединение, которое прошло проверку за timeout
+     */
+    public void checkHealth(Duration timeout) {
+        int seconds = (int) Math.max(1, timeout.toSeconds());
+
+        for (Replica replica : replicas) {
+            boolean healthy;
+
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(seconds);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy) {
+                log.info("Реплика {} {}", replica.name, healthy ? "снова доступна" : "недоступна");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public Stats stats() {
+        int healthy = (int) replicas.stream().filter(replica -> replica.healthy).count();
+        return new Stats(replicas.size(), healthy, replicaReads.sum(), primaryReads.sum(), failovers.sum());
+    }
+
+    /**
+     * Пулы реплик создаются вместе с этим источником, поэтому и закрываются им вместе с основным
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Метрики и обертки ищут пул основного сервера через unwrap
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    private Connection connection(ConnectionSource source) throws SQLException {
+        if (!Boolean.TRUE.equals(READ_ONLY.get())) {
+            return source.get(primary);
+        }
+
+        int size = replicas.size();
+        int start = next.getAndIncrement();
+
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+
+            if (!replica.healthy) {
+                continue;
+            }
+
+            try {
+                Connection connection = source.get(replica.dataSource);
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.healthy = false;
+                failovers.increment();
+                log.warn("Реплика {} не выдала соединение и исключена до проверки: {}", replica.name, e.getMessage());
+            }
+        }
+
+        primaryReads.increment();
+        return source.get(primary);
+    }
+}
@@ -0,0 +1,133 @@
+package ru.yandex.wallet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import ru.yandex.wallet.repository.jdbcimpl.TransactionPartitionManager;
+import ru.yandex.wallet.repository.sharded.InDoubtTransferRecovery;
+import ru.yandex.wallet.repository.sharded.ShardRouter;
+import ru.yandex.wallet.repository.sharded.ShardRouter.Shard;
+import ru.yandex.wallet.repository.sharded.ShardTransactionCoordinator;
+import ru.yandex.wallet.repository.sharded.TransferDecisionLog;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Хранение игроков и транзакций на шардах (профиль sharded). Шарды перечисляются в wallet.sharding.shards, их
+ * порядок задает номера шардов и не меняется после первого запуска. Основной источник соединений приложения служит
+ * координатором: на нем хранятся журнал решений двухфазной фиксации и журнал аудита. Миграции шардов применяются при
+ * создании маршрутизатора, секции транзакций каждого шарда обслуживаются по расписанию
+ * wallet.transactions.partitions.
+ */
+@Configuration
+@Profile("sharded")
+public class ShardingConfiguration {
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final ObjectProvider<InDoubtTransferRecovery> recovery;
+
+    @Value("${wallet.transactions.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${wallet.transactions.partitions.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${wallet.transactions.partitions.archive-schema:archive}")
+    private String archiveSchema;
+
+    /**
+     * Адрес шарда, пустые имя пользователя и пароль берутся у основного сервера
+     */
+    public record ShardProperties(String url, String username, String password) {
+    }
+
+    public ShardingConfiguration(ObjectProvider<ShardRouter> shardRouter,
+                                 ObjectProvider<InDoubtTransferRecovery> recovery) {
+        this.shardRouter = shardRouter;
+        this.recovery = recovery;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ShardRouter shardRouter(Environment environment, DataSourceProperties dataSourceProperties,
+                                   ResourceLoader resourceLoader,
+                                   @Value("${spring.liquibase.default-schema:wallet}") String defaultSchema,
+                                   @Value("${spring.liquibase.liquibase-schema:migration}") String liquibaseSchema,
+                                   @Value("${wallet.sharding.pool-size:10}") int poolSize) {
+        List<ShardProperties> shards = Binder.get(environment)
+                .bind("wallet.sharding.shards", Bindable.listOf(ShardProperties.class))
+                .orElse(List.of());
+
+        List<DataSource> pools = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            ShardProperties shard = shards.get(i);
+            HikariDataSource pool = new HikariDataSource();
+
+            pool.setPoolName("shard-" + i);
+            pool.setJdbcUrl(shard.url());
+            pool.setUsername(shard.username() != null ? shard.username() : dataSourceProperties.getUsername());
+            pool.setPassword(shard.password() != null ? shard.password() : dataSourceProperties.getPassword());
+            pool.setMaximumPoolSize(poolSize);
+
+            pools.add(pool);
+        }
+
+        ShardRouter router = new ShardRouter(pools);
+        router.migrate(resourceLoader, defaultSchema, liquibaseSchema);
+        return router;
+    }
+
+    @Bean
+    public TransferDecisionLog transferDecisionLog(JdbcTemplate jdbcTemplate) {
+        return new TransferDecisionLog(jdbcTemplate);
+    }
+
+    @Bean
+    public ShardTransactionCoordinator shardTransactionCoordinator(TransferDecisionLog transferDecisionLog) {
+        return new ShardTransactionCoordinator(transferDecisionLog);
+    }
+
+    @Bean
+    public InDoubtTransferRecovery inDoubtTransferRecovery(
+            ShardRouter shardRouter, TransferDecisionLog transferDecisionLog,
+            @Value("${wallet.sharding.recovery.in-doubt-after:30s}") Duration inDoubtAfter,
+            @Value("${wallet.sharding.recovery.decision-retention:1h}") Duration decisionRetention) {
+        return new InDoubtTransferRecovery(shardRouter, transferDecisionLog, inDoubtAfter, decisionRetention);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.sharding.recovery.interval-millis:10000}")
+    public void recoverInDoubtTransfers() {
+        recovery.ifAvailable(InDoubtTransferRecovery::recover);
+    }
+
+    /**
+     * Плановое обслуживание секций транзакций на каждом шарде, выполняется также при старте приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${wallet.transactions.partitions.maintenance-cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+
+        for (Shard shard : shardRouter.getObject().shards()) {
+            TransactionPartitionManager partitionManager = new TransactionPartitionManager(shard.jdbcTemplate());
+
+            partitionManager.ensurePartitions(currentMonth, monthsAhead);
+            partitionManager.archivePartitionsBefore(currentMonth.minusMonths(retentionMonths), archiveSchema);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.wallet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Обработка запросов в виртуальных потоках (spring.threads.virtual.enabled=true, профиль virtual-threads): источник
+ * соединений оборачивается в {@link BoundedDataSource}. По умолчанию предел равен размеру пула Hikari, а время
+ * ожидания - его connectionTimeout.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfiguration {
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BoundedDataSource) {
+                    return bean;
+                }
+
+                HikariDataSource hikari = unwrapHikari(dataSource);
+                int maxConcurrency = environment.getProperty("wallet.datasource.max-concurrency", Integer.class,
+                        hikari == null ? 10 : hikari.getMaximumPoolSize());
+                Duration acquireTimeout = environment.getProperty("wallet.datasource.acquire-timeout",
+                        Duration.class,
+                        Duration.ofMillis(hikari == null ? 30_000 : hikari.getConnectionTimeout()));
+
+                return new BoundedDataSource(dataSource, maxConcurrency, acquireTimeout);
+            }
+        };
+    }
+
+    /**
+     * Пул может быть обернут, например в {@link ReplicaRoutingDataSource}
+     */
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
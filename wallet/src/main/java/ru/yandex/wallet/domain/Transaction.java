@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -21,4 +22,12 @@ public class Transaction {
     private final String sender;
     private final String recipient;
     private final BigDecimal amount;
+    /**
+     * Время создания транзакции (null, если транзакция еще не сохранена либо не была прочитана из БД)
+     */
+    private final LocalDateTime createdAt;
+
+    public Transaction(UUID id, TransferRequestStatus status, String sender, String recipient, BigDecimal amount) {
+        this(id, status, sender, recipient, amount, null);
+    }
 }
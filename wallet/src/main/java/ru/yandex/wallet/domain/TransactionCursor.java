@@ -0,0 +1,54 @@
+package ru.yandex.wallet.domain;
+
+import lombok.Value;
+import ru.yandex.wallet.exception.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция в истории транзакций для постраничной выдачи по ключу (created_at, id). Клиенту передается в виде
+ * непрозрачной строки.
+ */
+@Value
+public class TransactionCursor {
+    LocalDateTime createdAt;
+    UUID id;
+
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getCreatedAt(), transaction.getId());
+    }
+
+    /**
+     * Закодировать курсор в строку, безопасную для передачи в query-параметре
+     */
+    public String encode() {
+        long epochMicros = ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), createdAt);
+        String raw = epochMicros + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Раскодировать курсор, полученный от клиента
+     *
+     * @throws InvalidCursorException если строка не является курсором
+     */
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            long epochMicros = Long.parseLong(raw.substring(0, separator));
+            UUID id = UUID.fromString(raw.substring(separator + 1));
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC)
+                    .plus(epochMicros, ChronoUnit.MICROS);
+
+            return new TransactionCursor(createdAt, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException(String.format("Некорректный курсор cursor=%s", cursor));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.yandex.wallet.domain.dto;
+
+import lombok.Value;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+
+import java.util.UUID;
+
+/**
+ * Результат обработки одной транзакции в пакетной операции. Если транзакция не найдена или принадлежит другому
+ * игроку, статус равен null.
+ */
+@Value
+public class TransactionOutcome {
+    UUID id;
+    TransferRequestStatus status;
+    boolean applied;
+}
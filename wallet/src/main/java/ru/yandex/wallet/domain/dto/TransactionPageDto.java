@@ -0,0 +1,14 @@
+package ru.yandex.wallet.domain.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Страница истории транзакций. Если nextCursor равен null, страница последняя.
+ */
+@Value
+public class TransactionPageDto {
+    List<TransactionDto> items;
+    String nextCursor;
+}
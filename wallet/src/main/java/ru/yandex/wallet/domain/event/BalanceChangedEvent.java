@@ -0,0 +1,14 @@
+package ru.yandex.wallet.domain.event;
+
+import lombok.Value;
+
+import java.util.Collection;
+
+/**
+ * Событие изменения балансов игроков в обход репозитория игроков (переводы и подтверждения запросов денежных
+ * средств). Публикуется репозиториями движения денежных средств.
+ */
+@Value
+public class BalanceChangedEvent {
+    Collection<String> logins;
+}
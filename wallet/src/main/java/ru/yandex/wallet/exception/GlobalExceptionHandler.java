@@ -25,7 +25,8 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(value = {BadCredentialsException.class, DeficientBalanceException.class,
-            ConstraintViolationException.class})
+            ConstraintViolationException.class, TransactionStatusException.class,
+            InvalidCursorException.class})
     public ResponseEntity<ApiException> handleInvalidUserRequests(Exception exception) {
         return new ResponseEntity<>(new ApiException(exception.getMessage()), HttpStatus.BAD_REQUEST);
     }
@@ -0,0 +1,10 @@
+package ru.yandex.wallet.exception.exceptions;
+
+/**
+ * Ошибка, возникающая при передаче некорректного курсора постраничной выдачи
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
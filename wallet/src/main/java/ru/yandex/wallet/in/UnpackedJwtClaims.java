@@ -9,6 +9,11 @@ import java.util.UUID;
  */
 @Value
 public class UnpackedJwtClaims {
+    /**
+     * Атрибут запроса, в котором фильтр JWT сохраняет данные проверенного токена
+     */
+    public static final String REQUEST_ATTRIBUTE = UnpackedJwtClaims.class.getName();
+
     Long userId;
     String login;
     String username;
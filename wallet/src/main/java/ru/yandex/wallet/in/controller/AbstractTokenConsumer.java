@@ -1,19 +1,27 @@
 package ru.yandex.wallet.in.controller;
 
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import ru.yandex.wallet.in.UnpackedJwtClaims;
 import ru.yandex.wallet.util.JwtUtils;
 
-import java.util.UUID;
-
 public abstract class AbstractTokenConsumer {
+    /**
+     * Данные пользователя из JWT. Токен уже проверен фильтром, и результат берется из атрибута запроса; разбор
+     * заголовка выполняется, только если запрос прошел мимо фильтра.
+     */
     protected UnpackedJwtClaims unpackJwtClaims(String authHeader, String secret) {
-        String jwt = authHeader.substring(7);
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (attributes != null) {
+            Object claims = attributes.getAttribute(UnpackedJwtClaims.REQUEST_ATTRIBUTE,
+                    RequestAttributes.SCOPE_REQUEST);
 
-        Long id = Long.valueOf((Integer) JwtUtils.extractClaim(jwt, claims -> claims.get("id"), secret));
-        String login = (String) JwtUtils.extractClaim(jwt, claims -> claims.get("login"), secret);
-        String username = (String) JwtUtils.extractClaim(jwt, claims -> claims.get("username"), secret);
-        UUID sessionId = UUID.fromString((String) JwtUtils.extractClaim(jwt, claims -> claims.get("session-id"), secret));
+            if (claims instanceof UnpackedJwtClaims unpackedJwtClaims) {
+                return unpackedJwtClaims;
+            }
+        }
 
-        return new UnpackedJwtClaims(id, login, username, sessionId);
+        return JwtUtils.unpackClaims(authHeader.substring(7), secret);
     }
 }
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.yandex.metrics.audit.Audit;
 import ru.yandex.metrics.performance.Performance;
 import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
 import ru.yandex.wallet.exception.exceptions.UnauthorizedOperationException;
 import ru.yandex.wallet.in.UnpackedJwtClaims;
 import ru.yandex.wallet.service.PlayerService;
@@ -72,6 +73,7 @@ public class MoneyRequestController extends AbstractTokenConsumer {
     @Operation(summary = "Подтверждение входящих запросов на отправку денежных средств")
     @ApiResponses(
             {@ApiResponse(responseCode = "200", description = "OK", content = @Content),
+                    @ApiResponse(responseCode = "400", description = "Недостаточно средств для подтверждения всех запросов", content = @Content),
                     @ApiResponse(responseCode = "403", description = "Отсутствует токен авторизации либо пользовательская сессия отсутвует/закрыта на сервере", content = @Content)}
     )
     @PostMapping("/approve")
@@ -81,9 +83,10 @@ public class MoneyRequestController extends AbstractTokenConsumer {
         UnpackedJwtClaims claims = unpackJwtClaims(authToken, secret);
 
         playerSessionService.exists(claims.getSessionId());
-        playerService.approvePendingMoneyRequest(claims.getUsername(), transactions);
+        Collection<TransactionOutcome> outcomes =
+                playerService.approvePendingMoneyRequest(claims.getLogin(), transactions);
 
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(outcomes);
     }
 
     @Operation(summary = "Отклонение входящих запросов на отправку денежных средств")
@@ -98,8 +101,9 @@ public class MoneyRequestController extends AbstractTokenConsumer {
         UnpackedJwtClaims claims = unpackJwtClaims(authToken, secret);
 
         playerSessionService.exists(claims.getSessionId());
-        playerService.declinePendingRequest(claims.getUsername(), transactions);
+        Collection<TransactionOutcome> outcomes =
+                playerService.declinePendingRequest(claims.getLogin(), transactions);
 
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(outcomes);
     }
 }
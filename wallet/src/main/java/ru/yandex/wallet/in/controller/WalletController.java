@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.yandex.metrics.audit.Audit;
 import ru.yandex.metrics.performance.Performance;
 import ru.yandex.wallet.domain.dto.TransactionDto;
+import ru.yandex.wallet.domain.dto.TransactionPageDto;
 import ru.yandex.wallet.exception.exceptions.UnauthorizedOperationException;
 import ru.yandex.wallet.in.UnpackedJwtClaims;
 import ru.yandex.wallet.service.PlayerAction;
@@ -67,4 +68,24 @@ public class WalletController extends AbstractTokenConsumer {
 
         return ResponseEntity.ok(transactionDtos);
     }
+
+    @Operation(summary = "Постраничное получение истории движения денежных средств")
+    @ApiResponses(
+            {@ApiResponse(responseCode = "200", description = "OK", content = @Content),
+                    @ApiResponse(responseCode = "400", description = "Некорректный курсор", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Отсутствует токен авторизации либо пользовательская сессия отсутвует/закрыта на сервере", content = @Content)}
+    )
+    @GetMapping("/history/page")
+    public ResponseEntity<TransactionPageDto> getHistoryPage(@RequestHeader("Authorization") String authToken,
+                                                             @RequestParam(value = "action", required = false) PlayerAction action,
+                                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                                             @RequestParam(value = "limit", required = false) Integer limit)
+            throws UnauthorizedOperationException {
+        UnpackedJwtClaims claims = unpackJwtClaims(authToken, secret);
+
+        playerSessionService.exists(claims.getSessionId());
+        TransactionPageDto page = playerService.getHistoryPage(claims.getLogin(), action, cursor, limit);
+
+        return ResponseEntity.ok(page);
+    }
 }
@@ -0,0 +1,74 @@
+package ru.yandex.wallet.metrics;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.metrics.registry.Counter;
+import ru.yandex.metrics.registry.Histogram;
+import ru.yandex.metrics.registry.MetricsRegistry;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+
+import java.util.Collection;
+
+/**
+ * Бизнес-метрики кошелька: исходы переводов, размеры пакетов подтверждения и отклонения запросов денег и число
+ * запросов, действительно изменивших статус
+ */
+@Component
+public class WalletMetrics {
+    private static final double[] BATCH_SIZE_BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+
+    private final Counter transfersApproved;
+    private final Counter transfersFailed;
+    private final Counter moneyRequests;
+    private final Histogram approveBatchSize;
+    private final Histogram declineBatchSize;
+    private final Counter approved;
+    private final Counter declined;
+
+    public WalletMetrics(MetricsRegistry registry) {
+        String transfers = "wallet_transfers_total";
+        String transfersHelp = "Переводы денег по исходу";
+        this.transfersApproved = registry.counter(transfers, transfersHelp,
+                "outcome", TransferRequestStatus.APPROVED.name());
+        this.transfersFailed = registry.counter(transfers, transfersHelp,
+                "outcome", TransferRequestStatus.FAILED.name());
+
+        this.moneyRequests = registry.counter("wallet_money_requests_total", "Созданные запросы денег");
+
+        String batchSize = "wallet_pending_batch_size";
+        String batchSizeHelp = "Число транзакций в запросе подтверждения или отклонения";
+        this.approveBatchSize = registry.histogram(batchSize, batchSizeHelp, BATCH_SIZE_BUCKETS, "action", "approve");
+        this.declineBatchSize = registry.histogram(batchSize, batchSizeHelp, BATCH_SIZE_BUCKETS, "action", "decline");
+
+        String resolved = "wallet_pending_resolved_total";
+        String resolvedHelp = "Запросы денег, подтвержденные или отклоненные донором";
+        this.approved = registry.counter(resolved, resolvedHelp, "action", "approve");
+        this.declined = registry.counter(resolved, resolvedHelp, "action", "decline");
+    }
+
+    public void transferApproved() {
+        transfersApproved.increment();
+    }
+
+    public void transferFailed() {
+        transfersFailed.increment();
+    }
+
+    public void moneyRequested() {
+        moneyRequests.increment();
+    }
+
+    public void approveBatch(int size, Collection<TransactionOutcome> outcomes) {
+        approveBatchSize.observe(size);
+        approved.increment(changed(outcomes));
+    }
+
+    public void declineBatch(int size, Collection<TransactionOutcome> outcomes) {
+        declineBatchSize.observe(size);
+        declined.increment(changed(outcomes));
+    }
+
+    private static long changed(Collection<TransactionOutcome> outcomes) {
+        return outcomes.stream().filter(TransactionOutcome::isApplied).count();
+    }
+}
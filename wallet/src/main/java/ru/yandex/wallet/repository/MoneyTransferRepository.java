@@ -0,0 +1,38 @@
+package ru.yandex.wallet.repository;
+
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Интерфейс атомарных операций по движению денежных средств между игроками. После изменения балансов реализации
+ * публикуют {@link ru.yandex.wallet.domain.event.BalanceChangedEvent}.
+ */
+public interface MoneyTransferRepository {
+
+    /**
+     * Атомарно переводит деньги от отправителя к получателю: списание (только при достаточном балансе), зачисление
+     * и запись транзакции выполняются одной операцией. При недостатке средств транзакция сохраняется в статусе FAILED.
+     *
+     * @param request запрос на перевод денежных средств
+     * @return отправитель с балансом после перевода
+     * @throws ru.yandex.wallet.exception.exceptions.NoSuchPlayerException      если отправитель или получатель не существует
+     * @throws ru.yandex.wallet.exception.exceptions.DeficientBalanceException если на балансе отправителя недостаточно средств
+     */
+    Player transfer(MoneyTransferRequest request);
+
+    /**
+     * Подтверждает пакет ожидающих транзакций донора в рамках одной транзакции БД: баланс донора проверяется один раз
+     * по общей сумме, зачисления получателям суммируются. Если средств не хватает, не подтверждается ни одна
+     * транзакция.
+     *
+     * @param donorLogin логин отправителя денежных средств
+     * @param ids        идентификаторы транзакций
+     * @return результат по каждому идентификатору в порядке запроса
+     * @throws ru.yandex.wallet.exception.exceptions.DeficientBalanceException если на балансе донора недостаточно средств
+     */
+    Collection<TransactionOutcome> approvePendingTransactions(String donorLogin, Collection<UUID> ids);
+}
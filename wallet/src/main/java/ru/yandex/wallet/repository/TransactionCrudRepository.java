@@ -1,10 +1,13 @@
 package ru.yandex.wallet.repository;
 
 import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
 import ru.yandex.wallet.domain.TransferRequestStatus;
 import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -36,6 +39,30 @@ public interface TransactionCrudRepository {
      */
     Collection<Transaction> getCreditingTransactions(String login);
 
+    /**
+     * Получить страницу дебитовых транзакций пользователя, от новых к старым
+     * @param login логин пользователя
+     * @param cursor позиция последней транзакции предыдущей страницы (если null - то с начала истории)
+     * @param limit максимальный размер страницы
+     */
+    List<Transaction> getDebitingTransactionsPage(String login, TransactionCursor cursor, int limit);
+
+    /**
+     * Получить страницу кредитовых транзакций пользователя, от новых к старым
+     * @param login логин пользователя
+     * @param cursor позиция последней транзакции предыдущей страницы (если null - то с начала истории)
+     * @param limit максимальный размер страницы
+     */
+    List<Transaction> getCreditingTransactionsPage(String login, TransactionCursor cursor, int limit);
+
+    /**
+     * Получить страницу всех (дебитовых и кредитовых) транзакций пользователя, от новых к старым
+     * @param login логин пользователя
+     * @param cursor позиция последней транзакции предыдущей страницы (если null - то с начала истории)
+     * @param limit максимальный размер страницы
+     */
+    List<Transaction> getTransactionsPage(String login, TransactionCursor cursor, int limit);
+
     /**
      * Подтвердить транзакцию (перевод денег)
      * @param donorUsername логин отправителя
@@ -50,10 +77,24 @@ public interface TransactionCrudRepository {
      */
     Transaction declineTransaction(String donorUsername, UUID id);
 
+    /**
+     * Отклонить пакет транзакций одним запросом. Отклоняются только ожидающие подтверждения транзакции донора,
+     * остальные идентификаторы возвращаются как неизмененные
+     * @param donorLogin логин отправителя
+     * @param ids идентификаторы транзакций
+     * @return результат по каждому идентификатору в порядке запроса
+     */
+    Collection<TransactionOutcome> declineTransactions(String donorLogin, Collection<UUID> ids);
+
     /**
      * Установить статус транзакции в состояние FAILED
      * @param id идентификатор транзакции
      * @return
      */
     Transaction setFailed(UUID id);
+
+    /**
+     * Число транзакций, ожидающих подтверждения
+     */
+    long countPending();
 }
@@ -0,0 +1,182 @@
+package ru.yandex.wallet.repository.cache;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.repository.PlayerCrudRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Кеширующий декоратор репозитория игроков. Учетные данные (id, имя, логин, хеш пароля) и балансы кешируются
+ * независимо: учетные данные меняются только при создании и удалении игрока и живут долго, балансы меняются при
+ * каждом переводе и живут недолго. Изменения через этот репозиторий и {@link BalanceChangedEvent} инвалидируют
+ * кеш; изменения балансов другими экземплярами приложения видны не позже, чем через время жизни баланса.
+ * Поиск по логину при аутентификации берет учетные данные из кеша и читает из хранилища только истекший или
+ * сброшенный переводом баланс.
+ * В профиле in-memory не используется: игроки и так хранятся в памяти.
+ */
+@Primary
+@Repository
+@Profile("!in-memory")
+public class CachingPlayerCrudRepository implements PlayerCrudRepository {
+    private final PlayerCrudRepository delegate;
+
+    private final ExpiringCache<Long, Identity> identitiesById;
+    private final ExpiringCache<String, Identity> identitiesByLogin;
+    private final ExpiringCache<String, BigDecimal> balancesByLogin;
+
+    /**
+     * Учетные данные игрока без баланса
+     */
+    private record Identity(Long id, String username, String login, byte[] password) {
+        static Identity of(Player player) {
+            return new Identity(player.getId(), player.getUsername(), player.getLogin(), player.getPassword());
+        }
+
+        Player toPlayer(BigDecimal balance) {
+            return new Player(id, username, login, password, balance);
+        }
+    }
+
+    public CachingPlayerCrudRepository(@Qualifier("playerStorage") PlayerCrudRepository delegate,
+                                       @Value("${wallet.players.cache.maximum-size:10000}") int maximumSize,
+                                       @Value("${wallet.players.cache.identity-ttl:10m}") Duration identityTtl,
+                                       @Value("${wallet.players.cache.balance-ttl:2s}") Duration balanceTtl) {
+        this(delegate, maximumSize, identityTtl, balanceTtl, System::nanoTime);
+    }
+
+    CachingPlayerCrudRepository(PlayerCrudRepository delegate, int maximumSize, Duration identityTtl,
+                                Duration balanceTtl, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.identitiesById = new ExpiringCache<>(maximumSize, identityTtl, nanoClock);
+        this.identitiesByLogin = new ExpiringCache<>(maximumSize, identityTtl, nanoClock);
+        this.balancesByLogin = new ExpiringCache<>(maximumSize, balanceTtl, nanoClock);
+    }
+
+    @Override
+    public Player create(Player player) {
+        long balanceVersion = balancesByLogin.version(player.getLogin());
+        Player created = delegate.create(player);
+        remember(created, balanceVersion);
+        return created;
+    }
+
+    @Override
+    public void delete(Long id) {
+        Identity identity = identitiesById.get(id);
+
+        if (identity == null) {
+            try {
+                identity = Identity.of(delegate.getById(id));
+            } catch (NoSuchPlayerException e) {
+                identity = null;
+            }
+        }
+
+        delegate.delete(id);
+
+        identitiesById.invalidate(id);
+        if (identity != null) {
+            identitiesByLogin.invalidate(identity.login());
+            balancesByLogin.invalidate(identity.login());
+        }
+    }
+
+    @Override
+    public Player getById(Long id) {
+        Identity identity = identitiesById.get(id);
+
+        if (identity == null) {
+            return rememberIdentity(delegate.getById(id));
+        }
+
+        return withBalance(identity);
+    }
+
+    @Override
+    public Player getByLogin(String login) {
+        Identity identity = identitiesByLogin.get(login);
+
+        if (identity == null) {
+            long balanceVersion = balancesByLogin.version(login);
+            return remember(delegate.getByLogin(login), balanceVersion);
+        }
+
+        return withBalance(identity);
+    }
+
+    @Override
+    public Player getByUsername(String username) {
+        return rememberIdentity(delegate.getByUsername(username));
+    }
+
+    @Override
+    public Player setBalance(String login, BigDecimal newBalance) {
+        balancesByLogin.invalidate(login);
+        long balanceVersion = balancesByLogin.version(login);
+        return remember(delegate.setBalance(login, newBalance), balanceVersion);
+    }
+
+    /**
+     * Сбросить балансы игроков после фиксации транзакции БД, в которой они изменились
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        event.getLogins().forEach(balancesByLogin::invalidate);
+    }
+
+    /**
+     * Статистика кешей: попадания, промахи, вытеснения и размер
+     */
+    public Map<String, ExpiringCache.Stats> stats() {
+        return Map.of(
+                "identity-by-id", identitiesById.stats(),
+                "identity-by-login", identitiesByLogin.stats(),
+                "balance-by-login", balancesByLogin.stats()
+        );
+    }
+
+    private Player withBalance(Identity identity) {
+        BigDecimal balance = balancesByLogin.get(identity.login());
+
+        if (balance == null) {
+            long balanceVersion = balancesByLogin.version(identity.login());
+            return remember(delegate.getByLogin(identity.login()), balanceVersion);
+        }
+
+        return identity.toPlayer(balance);
+    }
+
+    /**
+     * Закешировать игрока, прочитанного из хранилища. Баланс кешируется, только если с начала чтения баланс игрока
+     * не инвалидировался.
+     */
+    private Player remember(Player player, long balanceVersion) {
+        rememberIdentity(player);
+        balancesByLogin.put(player.getLogin(), player.getBalance(), balanceVersion);
+        return player;
+    }
+
+    /**
+     * Закешировать только учетные данные игрока: игрок прочитан не по логину, и версию баланса до чтения получить
+     * было нельзя
+     */
+    private Player rememberIdentity(Player player) {
+        Identity identity = Identity.of(player);
+
+        identitiesById.put(player.getId(), identity, identitiesById.version(player.getId()));
+        identitiesByLogin.put(player.getLogin(), identity, identitiesByLogin.version(player.getLogin()));
+
+        return player;
+    }
+}
@@ -0,0 +1,208 @@
+package ru.yandex.wallet.repository.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Кеш с ограничением размера и временем жизни записей. Разбит на сегменты, каждый из которых вытесняет давно не
+ * использованные записи (LRU) под собственной блокировкой.
+ * <p>
+ * Чтобы значение, прочитанное из БД до инвалидации, не попало в кеш после нее, загрузка запоминает
+ * {@link #version(Object)} ключа до чтения и кладет значение через {@link #put(Object, Object, long)}: если за это
+ * время ключ был инвалидирован, значение не кешируется. Инвалидация оставляет на время жизни записи метку с новой
+ * версией ключа, загрузки других ключей она не затрагивает. Версии растут внутри сегмента; при удалении записи или
+ * метки ее версия поднимает нижнюю границу версий сегмента, поэтому устаревшая загрузка не проходит и после
+ * вытеснения метки, а загрузки отсутствующих ключей того же сегмента в этот момент лишь не кешируются.
+ */
+public class ExpiringCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Статистика кеша с момента создания
+     */
+    public record Stats(long hits, long misses, long evictions, long size) {
+    }
+
+    /**
+     * @param maximumSize максимальное число записей
+     * @param ttl         время жизни записи, нулевое время отключает кеширование
+     * @param nanoClock   источник монотонного времени в наносекундах
+     */
+    @SuppressWarnings("unchecked")
+    public ExpiringCache(int maximumSize, Duration ttl, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.segments = new Segment[SEGMENTS];
+
+        int segmentSize = Math.max(1, (maximumSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(segmentSize, evictions);
+        }
+    }
+
+    public V get(K key) {
+        if (ttlNanos <= 0) {
+            misses.increment();
+            return null;
+        }
+
+        Segment<K, V> segment = segmentFor(key);
+        Entry<V> entry;
+
+        segment.lock.lock();
+        try {
+            entry = segment.get(key);
+
+            if (entry != null && nanoClock.getAsLong() - entry.expiresAt() >= 0) {
+                segment.drop(key);
+                entry = null;
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (entry == null || entry.value() == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.value();
+    }
+
+    /**
+     * Текущая версия ключа, запоминается перед загрузкой значения из источника
+     */
+    public long version(K key) {
+        Segment<K, V> segment = segmentFor(key);
+
+        segment.lock.lock();
+        try {
+            return segment.version(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Положить значение, если с момента чтения версии expectedVersion ключ не инвалидировался
+     */
+    public void put(K key, V value, long expectedVersion) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+
+        Segment<K, V> segment = segmentFor(key);
+
+        segment.lock.lock();
+        try {
+            if (segment.version(key) == expectedVersion) {
+                segment.put(key, new Entry<>(value, nanoClock.getAsLong() + ttlNanos, expectedVersion));
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Удалить значение и сменить версию ключа, начатые до этого загрузки ключа не будут закешированы
+     */
+    public void invalidate(K key) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+
+        Segment<K, V> segment = segmentFor(key);
+
+        segment.lock.lock();
+        try {
+            segment.put(key, new Entry<>(null, nanoClock.getAsLong() + ttlNanos, ++segment.lastVersion));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        long size = 0;
+
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.values().stream().filter(entry -> entry.value() != null).count();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Значение с версией ключа, при которой оно загружено; метка инвалидации хранит пустое значение
+     */
+    private record Entry<V>(V value, long expiresAt, long version) {
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int maximumSize;
+        private final LongAdder evictions;
+
+        /**
+         * Последняя выданная инвалидацией версия
+         */
+        private long lastVersion;
+
+        /**
+         * Версия ключей без записи: не меньше версии любой удаленной записи
+         */
+        private long floorVersion;
+
+        Segment(int maximumSize, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+            this.evictions = evictions;
+        }
+
+        long version(K key) {
+            Entry<V> entry = get(key);
+            return entry != null ? entry.version() : floorVersion;
+        }
+
+        void drop(K key) {
+            Entry<V> entry = remove(key);
+
+            if (entry != null) {
+                floorVersion = Math.max(floorVersion, entry.version());
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > maximumSize) {
+                floorVersion = Math.max(floorVersion, eldest.getValue().version());
+                evictions.increment();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
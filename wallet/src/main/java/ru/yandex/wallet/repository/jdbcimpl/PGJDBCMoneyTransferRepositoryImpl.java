@@ -0,0 +1,240 @@
+package ru.yandex.wallet.repository.jdbcimpl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.repository.MoneyTransferRepository;
+import ru.yandex.wallet.util.TransactionIds;
+import ru.yandex.wallet.util.TransactionIds.CreationRange;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+@Repository
+@Profile("!journal & !in-memory & !sharded")
+@RequiredArgsConstructor
+public class PGJDBCMoneyTransferRepositoryImpl implements MoneyTransferRepository {
+
+    /**
+     * Перевод за один запрос к БД. Строки обоих игроков блокируются в порядке логинов (защита от взаимных
+     * блокировок при встречных переводах), списание выполняется только при достаточном балансе, зачисление - только
+     * после успешного списания. Транзакция записывается сразу в итоговом статусе APPROVED или FAILED.
+     */
+    public static final String TRANSFER_QUERY = """
+            WITH locked AS (
+                SELECT login FROM players WHERE login IN (?, ?) ORDER BY login FOR UPDATE
+            ), debit AS (
+                UPDATE players SET balance = balance - ?
+                WHERE login = ? AND balance >= ? AND (SELECT count(*) FROM locked) = 2
+                RETURNING id, balance
+            ), credit AS (
+                UPDATE players SET balance = balance + ?
+                WHERE login = ? AND EXISTS (SELECT 1 FROM debit)
+                RETURNING login
+            ), journal AS (
+                INSERT INTO transactions (id, status, sender, recipient, amount, created_at)
+                SELECT ?, CASE WHEN EXISTS (SELECT 1 FROM credit) THEN 'APPROVED' ELSE 'FAILED' END, ?, ?, ?, ?
+                WHERE (SELECT count(*) FROM locked) = 2
+                RETURNING status
+            )
+            SELECT p.id, p.username, p.login, COALESCE(d.balance, p.balance) AS balance, j.status
+            FROM players p
+                LEFT JOIN debit d ON true
+                LEFT JOIN journal j ON true
+            WHERE p.login = ?
+            """;
+
+    /**
+     * Выборка транзакций донора из пакета с блокировкой строк до конца транзакции БД. Вместо %s подставляется
+     * условие по времени создания для отсечения секций.
+     */
+    public static final String LOCK_DONOR_TRANSACTIONS_QUERY =
+            "SELECT id, status, sender, recipient, amount FROM transactions WHERE id = ANY(?) AND sender = ?%s " +
+                    "FOR UPDATE";
+
+    public static final String LOCK_PLAYERS_QUERY =
+            "SELECT login FROM players WHERE login = ANY(?) ORDER BY login FOR UPDATE";
+
+    public static final String DEBIT_QUERY =
+            "UPDATE players SET balance = balance - ? WHERE login = ? AND balance >= ?";
+
+    public static final String CREDIT_QUERY = "UPDATE players SET balance = balance + ? WHERE login = ?";
+
+    public static final String APPROVE_QUERY = "UPDATE transactions SET status = ? WHERE id = ANY(?)%s";
+
+    private static final String CREATION_RANGE_CONDITION = " AND created_at >= ? AND created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Player transfer(MoneyTransferRequest request) {
+        String sender = request.getMoneyFrom();
+        String recipient = request.getMoneyTo();
+
+        List<TransferResult> results = jdbcTemplate.query(TRANSFER_QUERY,
+                (rs, rowNum) -> new TransferResult(
+                        Player.builder()
+                                .id(rs.getLong("id"))
+                                .username(rs.getString("username"))
+                                .login(rs.getString("login"))
+                                .balance(rs.getBigDecimal("balance"))
+                                .build(),
+                        rs.getString("status")),
+                sender, recipient,
+                request.getAmount(), sender, request.getAmount(),
+                request.getAmount(), recipient,
+                request.getId(), sender, recipient, request.getAmount(),
+                TransactionIds.creationTimeOrNow(request.getId()),
+                sender);
+
+        if (results.isEmpty()) {
+            throw new NoSuchPlayerException(String.format("Пользователь с логином login=%s не существует", sender));
+        }
+
+        TransferResult result = results.get(0);
+
+        if (result.status() == null) {
+            throw new NoSuchPlayerException(String.format("Пользователь с логином login=%s не существует", recipient));
+        }
+
+        if (TransferRequestStatus.valueOf(result.status()) == TransferRequestStatus.FAILED) {
+            throw new DeficientBalanceException(
+                    String.format("Не хватает деньги на балансе игрока с id=%d", result.sender().getId())
+            );
+        }
+
+        eventPublisher.publishEvent(new BalanceChangedEvent(List.of(sender, recipient)));
+        return result.sender();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Collection<TransactionOutcome> approvePendingTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        CreationRange range = TransactionIds.creationRange(ids);
+        Map<UUID, Transaction> donorTransactions = new HashMap<>();
+        PreparedStatementCreator lockTransactions = con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(
+                    String.format(LOCK_DONOR_TRANSACTIONS_QUERY, range == null ? "" : CREATION_RANGE_CONDITION));
+            preparedStatement.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            preparedStatement.setString(2, donorLogin);
+            setCreationRange(preparedStatement, 3, range);
+            return preparedStatement;
+        };
+        jdbcTemplate.query(lockTransactions, (rs, rowNum) -> Transaction.builder()
+                        .id(rs.getObject("id", UUID.class))
+                        .status(TransferRequestStatus.valueOf(rs.getString("status")))
+                        .sender(rs.getString("sender"))
+                        .recipient(rs.getString("recipient"))
+                        .amount(rs.getBigDecimal("amount"))
+                        .build())
+                .forEach(transaction -> donorTransactions.put(transaction.getId(), transaction));
+
+        // Зачисления суммируются по получателю, TreeMap задает порядок обновления строк игроков
+        Map<String, BigDecimal> credits = new TreeMap<>();
+        Set<UUID> approvedIds = new LinkedHashSet<>();
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (Transaction transaction : donorTransactions.values()) {
+            if (transaction.getStatus() == TransferRequestStatus.PENDING) {
+                credits.merge(transaction.getRecipient(), transaction.getAmount(), BigDecimal::add);
+                total = total.add(transaction.getAmount());
+                approvedIds.add(transaction.getId());
+            }
+        }
+
+        if (!approvedIds.isEmpty()) {
+            applyApproval(donorLogin, credits, total, approvedIds, range);
+        }
+
+        List<TransactionOutcome> outcomes = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Transaction transaction = donorTransactions.get(id);
+
+            if (transaction == null) {
+                outcomes.add(new TransactionOutcome(id, null, false));
+            } else if (approvedIds.contains(id)) {
+                outcomes.add(new TransactionOutcome(id, TransferRequestStatus.APPROVED, true));
+            } else {
+                outcomes.add(new TransactionOutcome(id, transaction.getStatus(), false));
+            }
+        }
+
+        return outcomes;
+    }
+
+    /**
+     * Блокирует строки всех участников в порядке логинов, однократно списывает общую сумму с баланса донора и
+     * пакетно зачисляет деньги получателям.
+     */
+    private void applyApproval(String donorLogin, Map<String, BigDecimal> credits, BigDecimal total,
+                               Set<UUID> approvedIds, CreationRange range) {
+        Set<String> participants = new TreeSet<>(credits.keySet());
+        participants.add(donorLogin);
+
+        PreparedStatementCreator lockPlayers = con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(LOCK_PLAYERS_QUERY);
+            preparedStatement.setArray(1, con.createArrayOf("varchar", participants.toArray()));
+            return preparedStatement;
+        };
+        jdbcTemplate.query(lockPlayers, (rs, rowNum) -> rs.getString("login"));
+
+        int debited = jdbcTemplate.update(DEBIT_QUERY, total, donorLogin, total);
+
+        if (debited == 0) {
+            throw new DeficientBalanceException(
+                    String.format("Не хватает деньги на балансе игрока с login=%s", donorLogin)
+            );
+        }
+
+        List<Object[]> creditArgs = new ArrayList<>(credits.size());
+        credits.forEach((recipient, amount) -> creditArgs.add(new Object[]{amount, recipient}));
+        jdbcTemplate.batchUpdate(CREDIT_QUERY, creditArgs);
+        eventPublisher.publishEvent(new BalanceChangedEvent(participants));
+
+        PreparedStatementCreator approve = con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(
+                    String.format(APPROVE_QUERY, range == null ? "" : CREATION_RANGE_CONDITION));
+            preparedStatement.setString(1, TransferRequestStatus.APPROVED.name());
+            preparedStatement.setArray(2, con.createArrayOf("uuid", approvedIds.toArray()));
+            setCreationRange(preparedStatement, 3, range);
+            return preparedStatement;
+        };
+        jdbcTemplate.update(approve);
+    }
+
+    private static void setCreationRange(PreparedStatement preparedStatement, int columnIndex, CreationRange range)
+            throws SQLException {
+        if (range != null) {
+            preparedStatement.setObject(columnIndex, range.from());
+            preparedStatement.setObject(columnIndex + 1, range.to());
+        }
+    }
+
+    private record TransferResult(Player sender, String status) {
+    }
+}
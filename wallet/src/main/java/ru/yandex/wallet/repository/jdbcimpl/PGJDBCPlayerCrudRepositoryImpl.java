@@ -1,6 +1,8 @@
 package ru.yandex.wallet.repository.jdbcimpl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -14,6 +16,8 @@ import ru.yandex.wallet.repository.PlayerCrudRepository;
 import java.math.BigDecimal;
 
 @Repository
+@Profile("!in-memory & !sharded")
+@Qualifier("playerStorage")
 @RequiredArgsConstructor
 public class PGJDBCPlayerCrudRepositoryImpl implements PlayerCrudRepository {
 
@@ -1,6 +1,7 @@
 package ru.yandex.wallet.repository.jdbcimpl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
@@ -8,23 +9,60 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Repository;
 import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
 import ru.yandex.wallet.domain.TransferRequestStatus;
 import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
 import ru.yandex.wallet.exception.exceptions.NoSuchTransactionException;
 import ru.yandex.wallet.exception.exceptions.TransactionAlreadyExistsException;
 import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
 import ru.yandex.wallet.repository.TransactionCrudRepository;
+import ru.yandex.wallet.util.TransactionIds;
+import ru.yandex.wallet.util.TransactionIds.CreationRange;
 
+import java.sql.Array;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Repository
+@Profile("!journal & !in-memory & !sharded")
 @RequiredArgsConstructor
 public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepository {
 
+    /**
+     * Условное отклонение пакета транзакций (compare-and-set по статусу PENDING и отправителю). Внешний SELECT
+     * сопоставляет результат с каждым запрошенным id, сохраняя порядок запроса, и видит статус до обновления,
+     * поэтому для отклоненных строк статус подставляется явно. Вместо %1$s подставляется условие по времени
+     * создания для отсечения секций.
+     */
+    public static final String DECLINE_QUERY = """
+            WITH declined AS (
+                UPDATE transactions SET status = 'DECLINED'
+                WHERE id = ANY(?) AND sender = ? AND status = 'PENDING'%1$s
+                RETURNING id
+            )
+            SELECT r.id,
+                   CASE WHEN d.id IS NOT NULL THEN 'DECLINED' ELSE t.status END AS status,
+                   d.id IS NOT NULL AS applied
+            FROM unnest(?::uuid[]) WITH ORDINALITY AS r(id, position)
+                LEFT JOIN transactions t ON t.id = r.id AND t.sender = ?%1$s
+                LEFT JOIN declined d ON d.id = r.id
+            ORDER BY r.position
+            """;
+
+    private static final String TRANSACTION_COLUMNS = "id, status, sender, recipient, amount, created_at";
+
+    public static final String CREATION_RANGE_CONDITION = " AND created_at >= ? AND created_at < ?";
+
     private final JdbcTemplate jdbcTemplate;
 
     private RowMapper<Transaction> transactionRowMapper = (rs, rowNum) -> {
@@ -34,6 +72,7 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
                 .sender(rs.getString("sender"))
                 .recipient(rs.getString("recipient"))
                 .amount(rs.getBigDecimal("amount"))
+                .createdAt(rs.getObject("created_at", LocalDateTime.class))
                 .build();
         return transaction;
     };
@@ -42,10 +81,12 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
     public Transaction create(MoneyTransferRequest request) {
         checkTransactionExists(request);
 
-        String creationQuery = "INSERT INTO transactions (id, status, sender, recipient, amount) VALUES (?,?,?,?,?)";
+        String creationQuery = "INSERT INTO transactions (id, status, sender, recipient, amount, created_at) " +
+                "VALUES (?,?,?,?,?,?)";
+        LocalDateTime createdAt = TransactionIds.creationTimeOrNow(request.getId());
 
-        jdbcTemplate.update(creationQuery, request.getId(), TransferRequestStatus.PENDING, request.getMoneyFrom(),
-                request.getMoneyTo(), request.getAmount());
+        jdbcTemplate.update(creationQuery, request.getId(), TransferRequestStatus.PENDING.name(),
+                request.getMoneyFrom(), request.getMoneyTo(), request.getAmount(), createdAt);
 
         Transaction transaction = Transaction.builder()
                 .id(request.getId())
@@ -53,6 +94,7 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
                 .sender(request.getMoneyFrom())
                 .recipient(request.getMoneyTo())
                 .amount(request.getAmount())
+                .createdAt(createdAt)
                 .build();
 
         return transaction;
@@ -60,9 +102,11 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
 
     @Override
     public Transaction getById(UUID id) {
-        String selectQuery = "SELECT * FROM transactions WHERE id = ?";
+        CreationRange range = TransactionIds.creationRange(List.of(id));
+        String selectQuery = "SELECT * FROM transactions WHERE id = ?" + creationRangeCondition(range);
         try {
-            Transaction transaction = jdbcTemplate.queryForObject(selectQuery, transactionRowMapper, id);
+            Transaction transaction = jdbcTemplate.queryForObject(selectQuery, transactionRowMapper,
+                    withCreationRange(range, id));
             return transaction;
         } catch (EmptyResultDataAccessException e) {
             throw new NoSuchTransactionException(
@@ -78,7 +122,7 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
     public Collection<Transaction> getTransactionsBySenderAndRecipientAndStatus(String sender,
                                                                                 String recipient,
                                                                                 TransferRequestStatus status) {
-        String selectQuery = buildDynamicQuery(sender, recipient, status);
+        String selectQuery = TransactionQueries.buildDynamicQuery(sender, recipient, status);
 
         PreparedStatementCreator psc = con -> {
             PreparedStatement preparedStatement = con.prepareStatement(selectQuery);
@@ -92,11 +136,6 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
 
             if (recipient != null) {
                 preparedStatement.setString(columnIndex, recipient);
-                columnIndex++;
-            }
-
-            if (status != null) {
-                preparedStatement.setString(columnIndex, status.name());
             }
 
             return preparedStatement;
@@ -122,6 +161,45 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
         return getTransactionsBySenderAndRecipientAndStatus(null, login, null);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> getDebitingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        return getPageByColumn("sender", login, cursor, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> getCreditingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        return getPageByColumn("recipient", login, cursor, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Каждая ветка UNION ALL читает не более limit строк по своему индексу, переводы самому себе попадают только в
+     * дебитовую ветку.
+     */
+    @Override
+    public List<Transaction> getTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        String selectQuery = TransactionQueries.buildCombinedPageQuery(cursor != null);
+
+        List<Object> args = new ArrayList<>();
+        args.add(login);
+        addKeysetArgs(args, cursor);
+        args.add(limit);
+        args.add(login);
+        args.add(login);
+        addKeysetArgs(args, cursor);
+        args.add(limit);
+        args.add(limit);
+
+        return jdbcTemplate.query(selectQuery, transactionRowMapper, args.toArray());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -135,9 +213,10 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
         if (!transaction.getStatus().equals(TransferRequestStatus.PENDING))
             throw new TransactionStatusException("Только транзакции в режиме подтверждения могут быть одобрены");
 
-        String updateQuery = "UPDATE transactions SET status = ? WHERE id = ?";
+        CreationRange range = TransactionIds.creationRange(List.of(id));
+        String updateQuery = "UPDATE transactions SET status = ? WHERE id = ?" + creationRangeCondition(range);
 
-        jdbcTemplate.update(updateQuery, TransferRequestStatus.APPROVED.name(), id);
+        jdbcTemplate.update(updateQuery, withCreationRange(range, TransferRequestStatus.APPROVED.name(), id));
         transaction.setStatus(TransferRequestStatus.APPROVED);
 
         return transaction;
@@ -156,26 +235,75 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
         if (!transaction.getStatus().equals(TransferRequestStatus.PENDING))
             throw new TransactionStatusException("Только транзакции в режиме подтверждения могут быть отклонены");
 
-        String updateQuery = "UPDATE transactions SET status = ? WHERE id = ?";
+        CreationRange range = TransactionIds.creationRange(List.of(id));
+        String updateQuery = "UPDATE transactions SET status = ? WHERE id = ?" + creationRangeCondition(range);
 
-        jdbcTemplate.update(updateQuery, TransferRequestStatus.DECLINED.name(), id);
+        jdbcTemplate.update(updateQuery, withCreationRange(range, TransferRequestStatus.DECLINED.name(), id));
         transaction.setStatus(TransferRequestStatus.DECLINED);
         return transaction;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<TransactionOutcome> declineTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        CreationRange range = TransactionIds.creationRange(ids);
+        String declineQuery = String.format(DECLINE_QUERY, creationRangeCondition(range));
+
+        PreparedStatementCreator psc = con -> {
+            Array idArray = con.createArrayOf("uuid", ids.toArray());
+            PreparedStatement preparedStatement = con.prepareStatement(declineQuery);
+            int columnIndex = 1;
+
+            preparedStatement.setArray(columnIndex++, idArray);
+            preparedStatement.setString(columnIndex++, donorLogin);
+            columnIndex = setCreationRange(preparedStatement, columnIndex, range);
+            preparedStatement.setArray(columnIndex++, idArray);
+            preparedStatement.setString(columnIndex++, donorLogin);
+            setCreationRange(preparedStatement, columnIndex, range);
+
+            return preparedStatement;
+        };
+
+        return jdbcTemplate.query(psc, (rs, rowNum) -> {
+            String status = rs.getString("status");
+            return new TransactionOutcome(rs.getObject("id", UUID.class),
+                    status == null ? null : TransferRequestStatus.valueOf(status),
+                    rs.getBoolean("applied"));
+        });
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Transaction setFailed(UUID id) {
         Transaction transaction = getById(id);
-        String updateQuery = "UPDATE transactions SET status = ? WHERE id = ?";
+        CreationRange range = TransactionIds.creationRange(List.of(id));
+        String updateQuery = "UPDATE transactions SET status = ? WHERE id = ?" + creationRangeCondition(range);
 
-        jdbcTemplate.update(updateQuery, TransferRequestStatus.FAILED.name(), id);
+        jdbcTemplate.update(updateQuery, withCreationRange(range, TransferRequestStatus.FAILED.name(), id));
         transaction.setStatus(TransferRequestStatus.FAILED);
         return transaction;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Запрос обслуживается частичным индексом ожидающих транзакций.
+     */
+    @Override
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE status = 'PENDING'",
+                Long.class);
+        return count == null ? 0 : count;
+    }
+
     /**
      * Метод проверяет, существует ли транзакция с id, указанным в запросе. Если такая транзакция существует,
      * метод завершает работу с ошибкой.
@@ -184,9 +312,11 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
      * @throws TransactionAlreadyExistsException
      */
     private void checkTransactionExists(MoneyTransferRequest request) {
-        String checkTransactionExistsQuery = "SELECT * FROM transactions WHERE id = ?";
+        CreationRange range = TransactionIds.creationRange(List.of(request.getId()));
+        String checkTransactionExistsQuery = "SELECT id FROM transactions WHERE id = ?" + creationRangeCondition(range);
 
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(checkTransactionExistsQuery, request.getId());
+        SqlRowSet rowSet = jdbcTemplate.queryForRowSet(checkTransactionExistsQuery,
+                withCreationRange(range, request.getId()));
 
         if (rowSet.next()) {
             throw new TransactionAlreadyExistsException(
@@ -196,38 +326,56 @@ public class PGJDBCTransactionCrudRepositoryImpl implements TransactionCrudRepos
     }
 
     /**
-     * Вспомогательнй метод для формирования динамического sql запроса для извлечения списка транзакций
+     * Страница транзакций по одному столбцу (отправитель или получатель) в порядке убывания (created_at, id)
      *
-     * @param sender    отправитель денежных средств
-     * @param recipient получатель денежных средств
-     * @param status    статус транзакции
+     * @param column столбец фильтрации, только из фиксированного набора значений
      */
-    private String buildDynamicQuery(String sender, String recipient, TransferRequestStatus status) {
-        String baseSelectQuery = "SELECT * FROM transactions";
-        boolean noQueryConditionsAdded = true;
+    private List<Transaction> getPageByColumn(String column, String login, TransactionCursor cursor, int limit) {
+        String selectQuery = TransactionQueries.buildPageQuery(column, cursor != null);
 
-        if (sender != null) {
-            baseSelectQuery += " WHERE sender = ?";
-            noQueryConditionsAdded = false;
+        List<Object> args = new ArrayList<>();
+        args.add(login);
+        addKeysetArgs(args, cursor);
+        args.add(limit);
+
+        return jdbcTemplate.query(selectQuery, transactionRowMapper, args.toArray());
+    }
+
+    private void addKeysetArgs(List<Object> args, TransactionCursor cursor) {
+        if (cursor != null) {
+            args.add(cursor.getCreatedAt());
+            args.add(cursor.getCreatedAt());
+            args.add(cursor.getId());
         }
+    }
 
-        if (recipient != null) {
-            if (noQueryConditionsAdded) {
-                baseSelectQuery += " WHERE recipient = ?";
-                noQueryConditionsAdded = false;
-            } else {
-                baseSelectQuery += " AND recipient = ?";
-            }
+    /**
+     * Условие по диапазону времени создания для поиска по идентификаторам. Если диапазон неизвестен (идентификатор
+     * не UUIDv7), условие не добавляется и поиск идет по всем секциям.
+     */
+    private static String creationRangeCondition(CreationRange range) {
+        return range == null ? "" : CREATION_RANGE_CONDITION;
+    }
+
+    private static Object[] withCreationRange(CreationRange range, Object... args) {
+        if (range == null) {
+            return args;
         }
 
-        if (status != null) {
-            if (noQueryConditionsAdded) {
-                baseSelectQuery += " WHERE status = ?";
-            } else {
-                baseSelectQuery += " AND status = ?";
-            }
+        Object[] result = Arrays.copyOf(args, args.length + 2);
+        result[args.length] = range.from();
+        result[args.length + 1] = range.to();
+        return result;
+    }
+
+    private static int setCreationRange(PreparedStatement preparedStatement, int columnIndex, CreationRange range)
+            throws SQLException {
+        if (range == null) {
+            return columnIndex;
         }
 
-        return baseSelectQuery;
+        preparedStatement.setObject(columnIndex++, range.from());
+        preparedStatement.setObject(columnIndex++, range.to());
+        return columnIndex;
     }
 }
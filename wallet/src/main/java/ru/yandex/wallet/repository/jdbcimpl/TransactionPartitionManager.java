@@ -0,0 +1,148 @@
+package ru.yandex.wallet.repository.jdbcimpl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживание помесячных секций таблицы транзакций: заблаговременное создание будущих секций и отсоединение секций
+ * старше срока хранения с переносом их в архивную схему. В профиле journal транзакции хранятся вне БД, и обслуживание
+ * секций не выполняется. В профиле sharded секции каждого шарда обслуживает
+ * {@link ru.yandex.wallet.config.ShardingConfiguration}.
+ */
+@Slf4j
+@Component
+@Profile("!journal & !in-memory & !sharded")
+@RequiredArgsConstructor
+public class TransactionPartitionManager {
+    private static final Pattern PARTITION_NAME = Pattern.compile("transactions_p(\\d{6})");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String PARTITIONS_QUERY = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'transactions'::regclass";
+    private static final String DEFAULT_PARTITION_ROWS_QUERY = "SELECT EXISTS (SELECT 1 FROM transactions_default " +
+            "WHERE created_at >= ? AND created_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${wallet.transactions.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${wallet.transactions.partitions.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${wallet.transactions.partitions.archive-schema:archive}")
+    private String archiveSchema;
+
+    /**
+     * Плановое обслуживание секций, выполняется также при старте приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${wallet.transactions.partitions.maintenance-cron:0 0 3 * * *}")
+    public void maintain() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+
+        ensurePartitions(currentMonth, monthsAhead);
+        archivePartitionsBefore(currentMonth.minusMonths(retentionMonths), archiveSchema);
+    }
+
+    /**
+     * Создать недостающие секции с месяца from на monthsAhead месяцев вперед. Секция не создается, если в секции по
+     * умолчанию уже есть строки за этот месяц: такая ситуация требует ручного переноса данных.
+     *
+     * @return имена созданных секций
+     */
+    public List<String> ensurePartitions(YearMonth from, int monthsAhead) {
+        List<String> created = new ArrayList<>();
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = from.plusMonths(i);
+            String partition = partitionName(month);
+
+            if (partitionExists(partition)) {
+                continue;
+            }
+
+            if (defaultPartitionHasRows(month)) {
+                log.warn("Секция транзакций {} не создана: в секции по умолчанию есть строки за {}, " +
+                        "их нужно перенести вручную", partition, month);
+                continue;
+            }
+
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE %s PARTITION OF transactions FOR VALUES FROM ('%s') TO ('%s')",
+                        partition, month.atDay(1), month.plusMonths(1).atDay(1)));
+                created.add(partition);
+                log.info("Создана секция транзакций {}", partition);
+            } catch (DataAccessException e) {
+                log.warn("Не удалось создать секцию транзакций {}: {}", partition, e.getMessage());
+            }
+        }
+
+        return created;
+    }
+
+    /**
+     * Отсоединить секции за месяцы раньше cutoff и перенести их в архивную схему
+     *
+     * @return имена перенесенных секций
+     */
+    public List<String> archivePartitionsBefore(YearMonth cutoff, String schema) {
+        if (!IDENTIFIER.matcher(schema).matches()) {
+            throw new IllegalArgumentException(String.format("Некорректное имя схемы архива schema=%s", schema));
+        }
+
+        List<String> archived = new ArrayList<>();
+
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS_QUERY, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+
+            if (!matcher.matches() || !YearMonth.parse(matcher.group(1), PARTITION_SUFFIX).isBefore(cutoff)) {
+                continue;
+            }
+
+            try {
+                jdbcTemplate.execute(String.format("CREATE SCHEMA IF NOT EXISTS %s", schema));
+                jdbcTemplate.execute(String.format("ALTER TABLE transactions DETACH PARTITION %s", partition));
+                jdbcTemplate.execute(String.format("ALTER TABLE %s SET SCHEMA %s", partition, schema));
+                archived.add(partition);
+                log.info("Секция транзакций {} перенесена в схему {}", partition, schema);
+            } catch (DataAccessException e) {
+                log.warn("Не удалось архивировать секцию транзакций {}: {}", partition, e.getMessage());
+            }
+        }
+
+        return archived;
+    }
+
+    private boolean partitionExists(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                partition));
+    }
+
+    private boolean defaultPartitionHasRows(YearMonth month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(DEFAULT_PARTITION_ROWS_QUERY, Boolean.class,
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay()));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "transactions_p" + month.format(PARTITION_SUFFIX);
+    }
+}
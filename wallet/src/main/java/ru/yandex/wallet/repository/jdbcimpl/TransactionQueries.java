@@ -0,0 +1,86 @@
+package ru.yandex.wallet.repository.jdbcimpl;
+
+import ru.yandex.wallet.domain.TransferRequestStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запросы выборки транзакций, общие для репозиториев, работающих с таблицей transactions: JDBC-репозитория,
+ * репозитория шардов и R2DBC-репозитория реактивного варианта. Формы запросов подобраны под индексы таблицы,
+ * их планы проверяет PGJDBCTransactionQueryPlanTest.
+ */
+public final class TransactionQueries {
+    private static final String TRANSACTION_COLUMNS = "id, status, sender, recipient, amount, created_at";
+
+    private static final String PAGE_ORDER = " ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    /**
+     * Условие по ключу курсора. Избыточное сравнение created_at нужно для отсечения секций: по сравнению строк
+     * (created_at, id) планировщик секции не отсекает.
+     */
+    private static final String KEYSET_CONDITION = " AND created_at <= ? AND (created_at, id) < (?, ?)";
+
+    private TransactionQueries() {
+    }
+
+    /**
+     * Запрос страницы транзакций по одному столбцу (отправитель или получатель) в порядке убывания (created_at, id).
+     * Обслуживается индексом (column, created_at, id) без сортировки.
+     *
+     * @param column      столбец фильтрации, только из фиксированного набора значений
+     * @param afterCursor добавлять ли условие по ключу курсора
+     */
+    public static String buildPageQuery(String column, boolean afterCursor) {
+        return "SELECT " + TRANSACTION_COLUMNS + " FROM transactions WHERE " + column + " = ?"
+                + (afterCursor ? KEYSET_CONDITION : "") + PAGE_ORDER;
+    }
+
+    /**
+     * Запрос страницы всех транзакций пользователя: объединение двух ограниченных выборок по индексам отправителя и
+     * получателя.
+     *
+     * @param afterCursor добавлять ли условие по ключу курсора
+     */
+    public static String buildCombinedPageQuery(boolean afterCursor) {
+        String keysetCondition = afterCursor ? KEYSET_CONDITION : "";
+
+        return "SELECT " + TRANSACTION_COLUMNS + " FROM ("
+                + "(SELECT " + TRANSACTION_COLUMNS + " FROM transactions WHERE sender = ?" + keysetCondition
+                + PAGE_ORDER + ")"
+                + " UNION ALL "
+                + "(SELECT " + TRANSACTION_COLUMNS + " FROM transactions WHERE recipient = ? AND sender <> ?"
+                + keysetCondition + PAGE_ORDER + ")"
+                + ") page" + PAGE_ORDER;
+    }
+
+    /**
+     * Вспомогательнй метод для формирования динамического sql запроса для извлечения списка транзакций. Статус
+     * подставляется литералом из перечисления, а не параметром: так планировщик может использовать частичный индекс
+     * по PENDING и в обобщенном плане подготовленного запроса. Параметрами остаются только отправитель и получатель
+     * (именно в этом порядке).
+     *
+     * @param sender    отправитель денежных средств
+     * @param recipient получатель денежных средств
+     * @param status    статус транзакции
+     */
+    public static String buildDynamicQuery(String sender, String recipient, TransferRequestStatus status) {
+        List<String> conditions = new ArrayList<>(3);
+
+        if (sender != null) {
+            conditions.add("sender = ?");
+        }
+
+        if (recipient != null) {
+            conditions.add("recipient = ?");
+        }
+
+        if (status != null) {
+            conditions.add("status = '" + status.name() + "'");
+        }
+
+        String whereClause = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+
+        return "SELECT " + TRANSACTION_COLUMNS + " FROM transactions" + whereClause + " ORDER BY created_at, id";
+    }
+}
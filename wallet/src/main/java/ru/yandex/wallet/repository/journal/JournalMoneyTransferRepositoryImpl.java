@@ -0,0 +1,199 @@
+package ru.yandex.wallet.repository.journal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.repository.MoneyTransferRepository;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Движение денежных средств в профиле journal: балансы игроков изменяются в БД, транзакции записываются в журнал.
+ * Запись в журнал становится долговечной до фиксации транзакции БД, поэтому при сбое между ними журнал может
+ * содержать перевод, которого нет в балансах, но не наоборот.
+ */
+@Repository
+@Profile("journal")
+@RequiredArgsConstructor
+public class JournalMoneyTransferRepositoryImpl implements MoneyTransferRepository {
+
+    /**
+     * Строки обоих игроков блокируются в порядке логинов, списание выполняется только при достаточном балансе,
+     * зачисление - только после успешного списания. Пустой результат означает недостаток средств.
+     */
+    private static final String TRANSFER_QUERY = """
+            WITH locked AS (
+                SELECT login FROM players WHERE login IN (?, ?) ORDER BY login FOR UPDATE
+            ), debit AS (
+                UPDATE players SET balance = balance - ?
+                WHERE login = ? AND balance >= ? AND (SELECT count(*) FROM locked) = 2
+                RETURNING id, username, login, balance
+            ), credit AS (
+                UPDATE players SET balance = balance + ?
+                WHERE login = ? AND EXISTS (SELECT 1 FROM debit)
+                RETURNING login
+            )
+            SELECT d.id, d.username, d.login, d.balance, (SELECT count(*) FROM credit) AS credited
+            FROM debit d
+            """;
+
+    private static final String LOCK_PLAYERS_QUERY =
+            "SELECT login FROM players WHERE login = ANY(?) ORDER BY login FOR UPDATE";
+
+    private static final String DEBIT_QUERY =
+            "UPDATE players SET balance = balance - ? WHERE login = ? AND balance >= ?";
+
+    private static final String CREDIT_QUERY = "UPDATE players SET balance = balance + ? WHERE login = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionJournal journal;
+    private final JournalPlayerDirectory playerDirectory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Player transfer(MoneyTransferRequest request) {
+        String sender = request.getMoneyFrom();
+        String recipient = request.getMoneyTo();
+        long senderId = playerDirectory.idOf(sender);
+        long recipientId = playerDirectory.idOf(recipient);
+
+        List<Player> debited = jdbcTemplate.query(TRANSFER_QUERY,
+                (rs, rowNum) -> Player.builder()
+                        .id(rs.getLong("id"))
+                        .username(rs.getString("username"))
+                        .login(rs.getString("login"))
+                        .balance(rs.getBigDecimal("balance"))
+                        .build(),
+                sender, recipient,
+                request.getAmount(), sender, request.getAmount(),
+                request.getAmount(), recipient);
+
+        TransferRequestStatus status = debited.isEmpty() ? TransferRequestStatus.FAILED
+                : TransferRequestStatus.APPROVED;
+        journal.appendNew(JournalRecord.of(request.getId(), status, senderId, recipientId, request.getAmount(),
+                TransactionIds.creationTimeOrNow(request.getId())));
+
+        if (status == TransferRequestStatus.FAILED) {
+            throw new DeficientBalanceException(
+                    String.format("Не хватает деньги на балансе игрока с id=%d", senderId)
+            );
+        }
+
+        eventPublisher.publishEvent(new BalanceChangedEvent(List.of(sender, recipient)));
+        return debited.get(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Статусы проверяются и изменяются в журнале под блокировкой донора, которую берут и отклонения его
+     * транзакций, поэтому транзакция не может быть отклонена между проверкой статуса и списанием денег.
+     */
+    @Override
+    @Transactional
+    public Collection<TransactionOutcome> approvePendingTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        long donorId = playerDirectory.idOf(donorLogin);
+        Lock donorLock = journal.playerLock(donorId);
+        Map<UUID, JournalRecord> donorTransactions = new HashMap<>();
+        Set<UUID> approvedIds;
+
+        donorLock.lock();
+        try {
+            for (UUID id : ids) {
+                JournalRecord record = journal.get(id);
+
+                if (record != null && record.senderId() == donorId) {
+                    donorTransactions.put(id, record);
+                }
+            }
+
+            // Зачисления суммируются по получателю, TreeMap задает порядок обновления строк игроков
+            Map<String, BigDecimal> credits = new TreeMap<>();
+            Set<UUID> pendingIds = new LinkedHashSet<>();
+            BigDecimal total = BigDecimal.ZERO;
+
+            for (JournalRecord record : donorTransactions.values()) {
+                if (record.status() == TransferRequestStatus.PENDING) {
+                    credits.merge(playerDirectory.loginOf(record.recipientId()), record.amount(), BigDecimal::add);
+                    total = total.add(record.amount());
+                    pendingIds.add(record.id());
+                }
+            }
+
+            if (!pendingIds.isEmpty()) {
+                applyApproval(donorLogin, credits, total);
+            }
+
+            approvedIds = journal.compareAndSetStatus(pendingIds,
+                    record -> record.status() == TransferRequestStatus.PENDING, TransferRequestStatus.APPROVED);
+        } finally {
+            donorLock.unlock();
+        }
+
+        List<TransactionOutcome> outcomes = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            JournalRecord record = donorTransactions.get(id);
+
+            if (record == null) {
+                outcomes.add(new TransactionOutcome(id, null, false));
+            } else if (approvedIds.contains(id)) {
+                outcomes.add(new TransactionOutcome(id, TransferRequestStatus.APPROVED, true));
+            } else {
+                outcomes.add(new TransactionOutcome(id, record.status(), false));
+            }
+        }
+
+        return outcomes;
+    }
+
+    /**
+     * Блокирует строки всех участников в порядке логинов, однократно списывает общую сумму с баланса донора и
+     * пакетно зачисляет деньги получателям.
+     */
+    private void applyApproval(String donorLogin, Map<String, BigDecimal> credits, BigDecimal total) {
+        Set<String> participants = new TreeSet<>(credits.keySet());
+        participants.add(donorLogin);
+
+        PreparedStatementCreator lockPlayers = con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(LOCK_PLAYERS_QUERY);
+            preparedStatement.setArray(1, con.createArrayOf("varchar", participants.toArray()));
+            return preparedStatement;
+        };
+        jdbcTemplate.query(lockPlayers, (rs, rowNum) -> rs.getString("login"));
+
+        int debited = jdbcTemplate.update(DEBIT_QUERY, total, donorLogin, total);
+
+        if (debited == 0) {
+            throw new DeficientBalanceException(
+                    String.format("Не хватает деньги на балансе игрока с login=%s", donorLogin)
+            );
+        }
+
+        List<Object[]> creditArgs = new ArrayList<>(credits.size());
+        credits.forEach((recipient, amount) -> creditArgs.add(new Object[]{amount, recipient}));
+        jdbcTemplate.batchUpdate(CREDIT_QUERY, creditArgs);
+        eventPublisher.publishEvent(new BalanceChangedEvent(participants));
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.wallet.repository.journal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.repository.PlayerCrudRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Соответствие логинов игроков их идентификаторам. Журнал хранит идентификаторы игроков, а интерфейс репозитория
+ * оперирует логинами; идентификатор игрока не меняется, поэтому соответствие кешируется без ограничения срока.
+ */
+@Component
+@Profile("journal")
+@RequiredArgsConstructor
+public class JournalPlayerDirectory {
+    private final PlayerCrudRepository playerRepository;
+
+    private final Map<String, Long> idsByLogin = new ConcurrentHashMap<>();
+    private final Map<Long, String> loginsById = new ConcurrentHashMap<>();
+
+    /**
+     * @throws NoSuchPlayerException если игрока с таким логином не существует
+     */
+    public long idOf(String login) {
+        Long id = idsByLogin.get(login);
+
+        if (id == null) {
+            id = playerRepository.getByLogin(login).getId();
+            remember(login, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * @return идентификатор игрока либо null, если игрока с таким логином не существует
+     */
+    public Long findIdOf(String login) {
+        try {
+            return idOf(login);
+        } catch (NoSuchPlayerException e) {
+            return null;
+        }
+    }
+
+    public String loginOf(long id) {
+        String login = loginsById.get(id);
+
+        if (login == null) {
+            login = playerRepository.getById(id).getLogin();
+            remember(login, id);
+        }
+
+        return login;
+    }
+
+    private void remember(String login, long id) {
+        idsByLogin.put(login, id);
+        loginsById.put(id, login);
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.wallet.repository.journal;
+
+import ru.yandex.wallet.domain.TransferRequestStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Запись журнала транзакций фиксированного размера. Изменение статуса записывается в журнал новой записью с тем же
+ * идентификатором, при восстановлении действует последняя запись.
+ * <pre>
+ *  0  id (старшие 64 бита)       8  id (младшие 64 бита)
+ * 16  код статуса                24  id отправителя
+ * 32  id получателя             40  сумма в тысячных долях
+ * 48  время создания, мкс UTC   56  маркер записи (4 байта)   60  CRC32 байтов 0..59 (4 байта)
+ * </pre>
+ */
+public record JournalRecord(UUID id, TransferRequestStatus status, long senderId, long recipientId,
+                            long amountThousandths, long createdAtMicros) {
+    public static final int SIZE = 64;
+
+    private static final int MAGIC = 0x574A524E;
+    private static final int CRC_OFFSET = 60;
+    private static final LocalDateTime EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    /**
+     * Коды статусов в журнале: не зависят от порядка констант перечисления
+     */
+    private static final TransferRequestStatus[] STATUS_BY_CODE = {null, TransferRequestStatus.FAILED,
+            TransferRequestStatus.PENDING, TransferRequestStatus.APPROVED, TransferRequestStatus.DECLINED};
+
+    public static JournalRecord of(UUID id, TransferRequestStatus status, long senderId, long recipientId,
+                                   BigDecimal amount, LocalDateTime createdAt) {
+        return new JournalRecord(id, status, senderId, recipientId,
+                amount.setScale(3, RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                toMicros(createdAt));
+    }
+
+    /**
+     * Время в микросекундах от начала эпохи, в том же представлении, что и время создания в записи
+     */
+    public static long toMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(EPOCH, time);
+    }
+
+    public JournalRecord withStatus(TransferRequestStatus newStatus) {
+        return new JournalRecord(id, newStatus, senderId, recipientId, amountThousandths, createdAtMicros);
+    }
+
+    public BigDecimal amount() {
+        return BigDecimal.valueOf(amountThousandths, 3);
+    }
+
+    public LocalDateTime createdAt() {
+        return EPOCH.plus(createdAtMicros, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Записать запись в буфер по абсолютному смещению, позиция буфера не меняется
+     */
+    void writeTo(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, id.getMostSignificantBits());
+        buffer.putLong(offset + 8, id.getLeastSignificantBits());
+        buffer.putLong(offset + 16, statusCode(status));
+        buffer.putLong(offset + 24, senderId);
+        buffer.putLong(offset + 32, recipientId);
+        buffer.putLong(offset + 40, amountThousandths);
+        buffer.putLong(offset + 48, createdAtMicros);
+        buffer.putInt(offset + 56, MAGIC);
+        buffer.putInt(offset + CRC_OFFSET, crc(buffer, offset));
+    }
+
+    /**
+     * Прочитать запись из буфера по абсолютному смещению
+     *
+     * @return запись либо null, если по смещению нет целой записи (конец журнала или недописанная запись)
+     */
+    static JournalRecord readFrom(ByteBuffer buffer, int offset) {
+        if (buffer.getInt(offset + 56) != MAGIC || buffer.getInt(offset + CRC_OFFSET) != crc(buffer, offset)) {
+            return null;
+        }
+
+        int code = (int) buffer.getLong(offset + 16);
+
+        if (code <= 0 || code >= STATUS_BY_CODE.length) {
+            return null;
+        }
+
+        return new JournalRecord(new UUID(buffer.getLong(offset), buffer.getLong(offset + 8)),
+                STATUS_BY_CODE[code],
+                buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32),
+                buffer.getLong(offset + 40),
+                buffer.getLong(offset + 48));
+    }
+
+    private static int crc(ByteBuffer buffer, int offset) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(buffer.slice(offset, CRC_OFFSET));
+        return (int) crc32.getValue();
+    }
+
+    private static long statusCode(TransferRequestStatus status) {
+        for (int code = 1; code < STATUS_BY_CODE.length; code++) {
+            if (STATUS_BY_CODE[code] == status) {
+                return code;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Неизвестный статус транзакции status=%s", status));
+    }
+}
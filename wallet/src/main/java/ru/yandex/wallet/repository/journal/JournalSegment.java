@@ -0,0 +1,103 @@
+package ru.yandex.wallet.repository.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сегмент журнала: файл фиксированной емкости, целиком отображенный в память. Запись и чтение выполняются по
+ * абсолютным смещениям, синхронизация обеспечивается журналом.
+ */
+class JournalSegment implements AutoCloseable {
+    private final Path path;
+    private final long baseSequence;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(Path path, long baseSequence, int capacity) {
+        this.path = path;
+        this.baseSequence = baseSequence;
+        this.capacity = capacity;
+
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * JournalRecord.SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static JournalSegment open(Path directory, long baseSequence, int capacity) {
+        return new JournalSegment(directory.resolve(fileName(baseSequence)), baseSequence, capacity);
+    }
+
+    static String fileName(long baseSequence) {
+        return String.format("segment-%020d.journal", baseSequence);
+    }
+
+    static long parseBaseSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".journal".length()));
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    void write(int slot, JournalRecord record) {
+        record.writeTo(buffer, slot * JournalRecord.SIZE);
+    }
+
+    /**
+     * Прочитать записи сегмента по порядку до первой отсутствующей либо поврежденной
+     */
+    List<JournalRecord> readAll() {
+        List<JournalRecord> records = new ArrayList<>();
+
+        for (int slot = 0; slot < capacity; slot++) {
+            JournalRecord record = JournalRecord.readFrom(buffer, slot * JournalRecord.SIZE);
+
+            if (record == null) {
+                break;
+            }
+
+            records.add(record);
+        }
+
+        return records;
+    }
+
+    /**
+     * Затереть маркеры записей начиная со slot: после сбоя за последней целой записью могут остаться частично
+     * записанные данные, которые нельзя принять за записи при следующем восстановлении
+     */
+    void clearFrom(int slot) {
+        for (int i = slot; i < capacity; i++) {
+            buffer.putLong(i * JournalRecord.SIZE + 56, 0L);
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
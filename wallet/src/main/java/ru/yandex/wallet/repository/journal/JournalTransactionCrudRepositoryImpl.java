@@ -0,0 +1,334 @@
+package ru.yandex.wallet.repository.journal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.exception.exceptions.NoSuchTransactionException;
+import ru.yandex.wallet.exception.exceptions.TransactionAlreadyExistsException;
+import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
+import ru.yandex.wallet.repository.TransactionCrudRepository;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Репозиторий транзакций поверх журнала на диске (профиль journal). Порядок выдачи совпадает с реализацией на БД:
+ * списки - по возрастанию (created_at, id), страницы истории - по убыванию.
+ */
+@Repository
+@Profile("journal")
+@RequiredArgsConstructor
+public class JournalTransactionCrudRepositoryImpl implements TransactionCrudRepository {
+
+    /**
+     * Порядок (created_at, id); идентификаторы сравниваются как беззнаковые, как uuid в PostgreSQL
+     */
+    static final Comparator<JournalRecord> CREATION_ORDER = Comparator
+            .comparingLong(JournalRecord::createdAtMicros)
+            .thenComparing(JournalRecord::id, JournalTransactionCrudRepositoryImpl::compareIds);
+
+    private final TransactionJournal journal;
+    private final JournalPlayerDirectory playerDirectory;
+
+    @Override
+    public Transaction create(MoneyTransferRequest request) {
+        JournalRecord record = JournalRecord.of(request.getId(), TransferRequestStatus.PENDING,
+                playerDirectory.idOf(request.getMoneyFrom()), playerDirectory.idOf(request.getMoneyTo()),
+                request.getAmount(), TransactionIds.creationTimeOrNow(request.getId()));
+
+        if (!journal.appendNew(record)) {
+            throw new TransactionAlreadyExistsException(
+                    String.format("Транзакция с id=%s уже существует", request.getId())
+            );
+        }
+
+        return toTransaction(record);
+    }
+
+    @Override
+    public Transaction getById(UUID id) {
+        return toTransaction(getRecord(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Transaction> getTransactionsBySenderAndRecipientAndStatus(String sender,
+                                                                                String recipient,
+                                                                                TransferRequestStatus status) {
+        Stream<JournalRecord> records;
+
+        if (sender != null) {
+            Long senderId = playerDirectory.findIdOf(sender);
+            records = senderId == null ? Stream.empty() : journal.bySender(senderId).stream();
+        } else if (recipient != null) {
+            Long recipientId = playerDirectory.findIdOf(recipient);
+            records = recipientId == null ? Stream.empty() : journal.byRecipient(recipientId).stream();
+        } else {
+            records = journal.records();
+        }
+
+        if (sender != null && recipient != null) {
+            Long recipientId = playerDirectory.findIdOf(recipient);
+            records = records.filter(record -> recipientId != null && record.recipientId() == recipientId);
+        }
+
+        if (status != null) {
+            records = records.filter(record -> record.status() == status);
+        }
+
+        return records.sorted(CREATION_ORDER)
+                .map(this::toTransaction)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Transaction> getDebitingTransactions(String login) {
+        return getTransactionsBySenderAndRecipientAndStatus(login, null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Transaction> getCreditingTransactions(String login) {
+        return getTransactionsBySenderAndRecipientAndStatus(null, login, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> getDebitingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        Long playerId = playerDirectory.findIdOf(login);
+
+        if (playerId == null) {
+            return Collections.emptyList();
+        }
+
+        return page(journal.bySender(playerId), cursor, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> getCreditingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        Long playerId = playerDirectory.findIdOf(login);
+
+        if (playerId == null) {
+            return Collections.emptyList();
+        }
+
+        return page(journal.byRecipient(playerId), cursor, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Переводы самому себе попадают в страницу один раз, из списка отправителя.
+     */
+    @Override
+    public List<Transaction> getTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        Long playerId = playerDirectory.findIdOf(login);
+
+        if (playerId == null) {
+            return Collections.emptyList();
+        }
+
+        List<JournalRecord> records = new ArrayList<>(journal.bySender(playerId));
+        journal.byRecipient(playerId).stream()
+                .filter(record -> record.senderId() != playerId)
+                .forEach(records::add);
+
+        return page(records, cursor, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction approveTransaction(String donorUsername, UUID id) {
+        return changeStatus(donorUsername, id, TransferRequestStatus.APPROVED,
+                "Вы не можете подтвердить чужую транзакцию!",
+                "Только транзакции в режиме подтверждения могут быть одобрены");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction declineTransaction(String donorUsername, UUID id) {
+        return changeStatus(donorUsername, id, TransferRequestStatus.DECLINED,
+                "Вы не можете отклонить чужую транзакцию!",
+                "Только транзакции в режиме подтверждения могут быть отклонены");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<TransactionOutcome> declineTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Long donorId = playerDirectory.findIdOf(donorLogin);
+
+        if (donorId == null) {
+            return ids.stream()
+                    .map(id -> new TransactionOutcome(id, null, false))
+                    .collect(Collectors.toList());
+        }
+
+        Set<UUID> declined;
+        Lock donorLock = journal.playerLock(donorId);
+
+        donorLock.lock();
+        try {
+            declined = journal.compareAndSetStatus(ids,
+                    record -> record.senderId() == donorId && record.status() == TransferRequestStatus.PENDING,
+                    TransferRequestStatus.DECLINED);
+        } finally {
+            donorLock.unlock();
+        }
+
+        List<TransactionOutcome> outcomes = new ArrayList<>(ids.size());
+
+        for (UUID id : ids) {
+            JournalRecord record = journal.get(id);
+
+            if (record == null || record.senderId() != donorId) {
+                outcomes.add(new TransactionOutcome(id, null, false));
+            } else if (declined.contains(id)) {
+                outcomes.add(new TransactionOutcome(id, TransferRequestStatus.DECLINED, true));
+            } else {
+                outcomes.add(new TransactionOutcome(id, record.status(), false));
+            }
+        }
+
+        return outcomes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction setFailed(UUID id) {
+        getRecord(id);
+        journal.compareAndSetStatus(List.of(id), record -> true, TransferRequestStatus.FAILED);
+        return toTransaction(journal.get(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long countPending() {
+        return journal.records()
+                .filter(record -> record.status() == TransferRequestStatus.PENDING)
+                .count();
+    }
+
+    /**
+     * Изменить статус ожидающей транзакции донора. Проверка и изменение выполняются под блокировкой донора, поэтому
+     * не пересекаются с пакетным подтверждением его транзакций.
+     */
+    private Transaction changeStatus(String donorLogin, UUID id, TransferRequestStatus newStatus,
+                                     String foreignMessage, String statusMessage) {
+        JournalRecord record = getRecord(id);
+
+        if (!toTransaction(record).getSender().equals(donorLogin))
+            throw new TransactionStatusException(foreignMessage);
+
+        Lock donorLock = journal.playerLock(record.senderId());
+
+        donorLock.lock();
+        try {
+            Set<UUID> updated = journal.compareAndSetStatus(List.of(id),
+                    current -> current.status() == TransferRequestStatus.PENDING, newStatus);
+
+            if (updated.isEmpty())
+                throw new TransactionStatusException(statusMessage);
+        } finally {
+            donorLock.unlock();
+        }
+
+        return toTransaction(journal.get(id));
+    }
+
+    private JournalRecord getRecord(UUID id) {
+        JournalRecord record = journal.get(id);
+
+        if (record == null) {
+            throw new NoSuchTransactionException(
+                    String.format("Не существует транзакции с id=%s", id)
+            );
+        }
+
+        return record;
+    }
+
+    /**
+     * Страница по убыванию (created_at, id) после курсора. Списки журнала упорядочены по дозаписи, что лишь
+     * приблизительно совпадает с порядком времени создания, поэтому отбираются limit наибольших записей за один
+     * проход с кучей ограниченного размера.
+     */
+    private List<Transaction> page(List<JournalRecord> records, TransactionCursor cursor, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        JournalRecord bound = cursor == null ? null : new JournalRecord(cursor.getId(), null, 0, 0, 0,
+                JournalRecord.toMicros(cursor.getCreatedAt()));
+        PriorityQueue<JournalRecord> top = new PriorityQueue<>(limit + 1, CREATION_ORDER);
+
+        for (JournalRecord record : records) {
+            if (bound != null && CREATION_ORDER.compare(record, bound) >= 0) {
+                continue;
+            }
+
+            top.add(record);
+
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<JournalRecord> page = new ArrayList<>(top);
+        page.sort(CREATION_ORDER.reversed());
+
+        return page.stream()
+                .map(this::toTransaction)
+                .collect(Collectors.toList());
+    }
+
+    private Transaction toTransaction(JournalRecord record) {
+        return Transaction.builder()
+                .id(record.id())
+                .status(record.status())
+                .sender(playerDirectory.loginOf(record.senderId()))
+                .recipient(playerDirectory.loginOf(record.recipientId()))
+                .amount(record.amount())
+                .createdAt(record.createdAt())
+                .build();
+    }
+
+    private static int compareIds(UUID left, UUID right) {
+        int result = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return result != 0 ? result
+                : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,401 @@
+package ru.yandex.wallet.repository.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Журнал транзакций только на дозапись: сегменты фиксированной емкости, отображенные в память, и индексы в памяти
+ * (последняя запись по идентификатору, идентификаторы по отправителю и получателю в порядке дозаписи).
+ * <p>
+ * Записи сериализуются одной блокировкой, сброс на диск выполняет отдельный поток: все записи, накопившиеся за время
+ * очередного fsync, сбрасываются следующим (групповая фиксация). Методы изменения возвращают управление только после
+ * того, как запись стала долговечной. Индексы обновляются сразу при дозаписи, поэтому читатели могут увидеть
+ * изменение до завершения fsync. Для ожидания используются ReentrantLock и Condition, а не synchronized, чтобы не
+ * блокировать несущие потоки виртуальных потоков.
+ */
+@Slf4j
+public class TransactionJournal implements AutoCloseable {
+    private static final int PLAYER_LOCK_STRIPES = 64;
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final int replayThreads;
+
+    private final Map<UUID, JournalRecord> latest = new ConcurrentHashMap<>();
+    private final Map<Long, IdLog> bySender = new ConcurrentHashMap<>();
+    private final Map<Long, IdLog> byRecipient = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition writesPending = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final Lock[] playerLocks = new Lock[PLAYER_LOCK_STRIPES];
+
+    private final List<JournalSegment> segments = new ArrayList<>();
+    private final Set<JournalSegment> dirtySegments = new LinkedHashSet<>();
+    private JournalSegment currentSegment;
+    private int nextSlot;
+    private long appendedSequence;
+    private long durableSequence;
+    private RuntimeException flushFailure;
+    private boolean running;
+    private Thread flusher;
+
+    public TransactionJournal(Path directory, int segmentCapacity, int replayThreads) {
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        this.replayThreads = replayThreads;
+
+        for (int i = 0; i < PLAYER_LOCK_STRIPES; i++) {
+            playerLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Восстановить индексы из сегментов журнала и запустить поток сброса на диск
+     */
+    public void start() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        replay();
+
+        lock.lock();
+        try {
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+
+        flusher = new Thread(this::flushLoop, "transaction-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public JournalRecord get(UUID id) {
+        return latest.get(id);
+    }
+
+    /**
+     * Последние записи транзакций игрока-отправителя в порядке дозаписи
+     */
+    public List<JournalRecord> bySender(long playerId) {
+        return resolve(bySender.get(playerId));
+    }
+
+    /**
+     * Последние записи транзакций игрока-получателя в порядке дозаписи
+     */
+    public List<JournalRecord> byRecipient(long playerId) {
+        return resolve(byRecipient.get(playerId));
+    }
+
+    public Stream<JournalRecord> records() {
+        return latest.values().stream();
+    }
+
+    /**
+     * Блокировка операций над транзакциями игрока (по полосам). Нужна, когда проверка статуса в журнале и изменение
+     * баланса в БД должны выполняться без вмешательства конкурирующих подтверждений и отклонений.
+     */
+    public Lock playerLock(long playerId) {
+        return playerLocks[Math.floorMod(Long.hashCode(playerId), PLAYER_LOCK_STRIPES)];
+    }
+
+    /**
+     * Дозаписать новую транзакцию
+     *
+     * @return false, если транзакция с таким идентификатором уже есть в журнале
+     */
+    public boolean appendNew(JournalRecord record) {
+        long sequence;
+
+        lock.lock();
+        try {
+            if (latest.containsKey(record.id())) {
+                return false;
+            }
+
+            sequence = appendLocked(record);
+        } finally {
+            lock.unlock();
+        }
+
+        awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * Атомарно изменить статус транзакций, для которых выполняется условие
+     *
+     * @param ids       идентификаторы транзакций
+     * @param condition условие на текущую запись транзакции
+     * @param newStatus новый статус
+     * @return идентификаторы транзакций, статус которых изменен
+     */
+    public Set<UUID> compareAndSetStatus(Collection<UUID> ids, Predicate<JournalRecord> condition,
+                                         TransferRequestStatus newStatus) {
+        Set<UUID> updated = new LinkedHashSet<>();
+        long sequence = -1;
+
+        lock.lock();
+        try {
+            for (UUID id : ids) {
+                JournalRecord current = latest.get(id);
+
+                if (current != null && !updated.contains(id) && condition.test(current)) {
+                    sequence = appendLocked(current.withStatus(newStatus));
+                    updated.add(id);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (sequence >= 0) {
+            awaitDurable(sequence);
+        }
+
+        return updated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            running = false;
+            writesPending.signalAll();
+            durable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        for (JournalSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private long appendLocked(JournalRecord record) {
+        if (nextSlot == currentSegment.capacity()) {
+            currentSegment = JournalSegment.open(directory,
+                    currentSegment.baseSequence() + currentSegment.capacity(), segmentCapacity);
+            segments.add(currentSegment);
+            nextSlot = 0;
+        }
+
+        currentSegment.write(nextSlot++, record);
+        dirtySegments.add(currentSegment);
+        index(record);
+
+        appendedSequence++;
+        writesPending.signal();
+        return appendedSequence;
+    }
+
+    private void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (flushFailure != null) {
+                    throw new IllegalStateException("Не удалось сбросить журнал транзакций на диск", flushFailure);
+                }
+
+                if (!running) {
+                    throw new IllegalStateException("Журнал транзакций закрыт");
+                }
+
+                durable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание сброса журнала транзакций прервано", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            List<JournalSegment> toForce;
+
+            lock.lock();
+            try {
+                while (running && appendedSequence == durableSequence) {
+                    writesPending.awaitUninterruptibly();
+                }
+
+                if (appendedSequence == durableSequence) {
+                    return;
+                }
+
+                target = appendedSequence;
+                toForce = new ArrayList<>(dirtySegments);
+                dirtySegments.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            RuntimeException failure = null;
+
+            try {
+                toForce.forEach(JournalSegment::force);
+            } catch (RuntimeException e) {
+                log.error("Ошибка сброса журнала транзакций на диск", e);
+                failure = e;
+            }
+
+            lock.lock();
+            try {
+                if (failure == null) {
+                    durableSequence = target;
+                } else {
+                    flushFailure = failure;
+                    running = false;
+                }
+
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            if (failure != null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Сегменты декодируются параллельно, а применяются к индексам строго по порядку: так последняя запись каждой
+     * транзакции определяется так же, как при последовательном чтении.
+     */
+    private void replay() {
+        List<Path> files;
+
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(file -> file.getFileName().toString().matches("segment-\\d{20}\\.journal"))
+                    .sorted(Comparator.comparingLong(JournalSegment::parseBaseSequence))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (Path file : files) {
+            segments.add(JournalSegment.open(directory, JournalSegment.parseBaseSequence(file), segmentCapacity));
+        }
+
+        if (segments.isEmpty()) {
+            currentSegment = JournalSegment.open(directory, 0, segmentCapacity);
+            segments.add(currentSegment);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, replayThreads));
+        int lastCount = 0;
+
+        try {
+            List<Future<List<JournalRecord>>> decoded = new ArrayList<>(segments.size());
+
+            for (JournalSegment segment : segments) {
+                decoded.add(executor.submit(segment::readAll));
+            }
+
+            for (int i = 0; i < decoded.size(); i++) {
+                List<JournalRecord> records = decoded.get(i).get();
+                records.forEach(this::index);
+                lastCount = records.size();
+
+                if (i < decoded.size() - 1 && records.size() < segmentCapacity) {
+                    log.warn("Сегмент журнала {} содержит {} записей из {}", segments.get(i).path(),
+                            records.size(), segmentCapacity);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Восстановление журнала транзакций прервано", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Не удалось восстановить журнал транзакций", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+
+        currentSegment = segments.get(segments.size() - 1);
+        nextSlot = lastCount;
+        currentSegment.clearFrom(nextSlot);
+        currentSegment.force();
+
+        log.info("Журнал транзакций восстановлен: {} транзакций в {} сегментах", latest.size(), segments.size());
+    }
+
+    private void index(JournalRecord record) {
+        if (latest.put(record.id(), record) == null) {
+            bySender.computeIfAbsent(record.senderId(), id -> new IdLog()).add(record.id());
+            byRecipient.computeIfAbsent(record.recipientId(), id -> new IdLog()).add(record.id());
+        }
+    }
+
+    private List<JournalRecord> resolve(IdLog ids) {
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+
+        UUID[] snapshot = ids.snapshot();
+        List<JournalRecord> records = new ArrayList<>(snapshot.length);
+
+        for (UUID id : snapshot) {
+            records.add(latest.get(id));
+        }
+
+        return records;
+    }
+
+    /**
+     * Список идентификаторов только на дозапись. Дописывает только владелец блокировки журнала, читатели получают
+     * согласованный снимок без блокировок: массив публикуется раньше увеличенного размера.
+     */
+    private static final class IdLog {
+        private volatile UUID[] ids = new UUID[8];
+        private volatile int size;
+
+        void add(UUID id) {
+            UUID[] current = ids;
+
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                ids = current;
+            }
+
+            current[size] = id;
+            size = size + 1;
+        }
+
+        UUID[] snapshot() {
+            int count = size;
+            return Arrays.copyOf(ids, count);
+        }
+    }
+}
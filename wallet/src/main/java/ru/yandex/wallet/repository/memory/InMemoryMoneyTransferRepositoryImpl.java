@@ -0,0 +1,190 @@
+package ru.yandex.wallet.repository.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.repository.MoneyTransferRepository;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Движение денежных средств в памяти (профиль in-memory). Перевод не берет блокировок: списание выполняется
+ * сравнением с обменом только при достаточном балансе, зачисление - атомарным прибавлением, после чего транзакция
+ * дозаписывается сразу в итоговом статусе. Сумма балансов сохраняется при любом чередовании переводов, но между
+ * списанием и зачислением она на мгновение меньше, чем до и после перевода.
+ * <p>
+ * Пакетное подтверждение выполняется под блокировкой донора: статусы его транзакций проверяются и меняются без
+ * вмешательства конкурирующих подтверждений и отклонений, а при недостатке средств ничего не меняется.
+ */
+@Repository
+@Profile("in-memory")
+@RequiredArgsConstructor
+public class InMemoryMoneyTransferRepositoryImpl implements MoneyTransferRepository {
+    private final PlayerTable players;
+    private final TransactionTable transactions;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Идентификаторы транзакций генерируются сервисом (UUIDv7), поэтому повтор проверяется до движения денег, а
+     * одновременная вставка одинаковых идентификаторов не рассматривается.
+     *
+     * @throws DuplicateKeyException если транзакция с таким идентификатором уже есть, как при нарушении первичного
+     *                               ключа в БД
+     */
+    @Override
+    public Player transfer(MoneyTransferRequest request) {
+        String senderLogin = request.getMoneyFrom();
+        String recipientLogin = request.getMoneyTo();
+        int sender = players.indexOfLogin(senderLogin);
+
+        if (sender < 0) {
+            throw new NoSuchPlayerException(
+                    String.format("Пользователь с логином login=%s не существует", senderLogin));
+        }
+
+        int recipient = players.indexOfLogin(recipientLogin);
+
+        if (recipient < 0 || recipient == sender) {
+            throw new NoSuchPlayerException(
+                    String.format("Пользователь с логином login=%s не существует", recipientLogin));
+        }
+
+        if (transactions.indexOf(request.getId()) >= 0) {
+            throw new DuplicateKeyException(String.format("Транзакция с id=%s уже существует", request.getId()));
+        }
+
+        long amount = MinorUnits.of(request.getAmount());
+        long balance = players.debit(sender, amount);
+
+        if (balance >= 0) {
+            players.credit(recipient, amount);
+        }
+
+        transactions.append(request.getId(), sender, recipient, amount,
+                TransactionTable.toMicros(TransactionIds.creationTimeOrNow(request.getId())),
+                balance >= 0 ? TransferRequestStatus.APPROVED : TransferRequestStatus.FAILED);
+
+        if (balance < 0) {
+            throw new DeficientBalanceException(
+                    String.format("Не хватает деньги на балансе игрока с id=%d", sender + 1)
+            );
+        }
+
+        eventPublisher.publishEvent(new BalanceChangedEvent(List.of(senderLogin, recipientLogin)));
+
+        return Player.builder()
+                .id(sender + 1L)
+                .username(players.username(sender))
+                .login(senderLogin)
+                .balance(MinorUnits.toDecimal(balance))
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<TransactionOutcome> approvePendingTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int donor = players.indexOfLogin(donorLogin);
+        Map<UUID, TransferRequestStatus> donorStatuses = new HashMap<>();
+        Set<UUID> approvedIds = new LinkedHashSet<>();
+        Set<String> participants = new TreeSet<>();
+
+        if (donor >= 0) {
+            Lock donorLock = transactions.senderLock(donor);
+
+            donorLock.lock();
+            try {
+                approveLocked(donor, ids, donorStatuses, approvedIds, participants);
+            } finally {
+                donorLock.unlock();
+            }
+        }
+
+        if (!approvedIds.isEmpty()) {
+            participants.add(donorLogin);
+            eventPublisher.publishEvent(new BalanceChangedEvent(participants));
+        }
+
+        List<TransactionOutcome> outcomes = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            TransferRequestStatus status = donorStatuses.get(id);
+
+            if (status == null) {
+                outcomes.add(new TransactionOutcome(id, null, false));
+            } else if (approvedIds.contains(id)) {
+                outcomes.add(new TransactionOutcome(id, TransferRequestStatus.APPROVED, true));
+            } else {
+                outcomes.add(new TransactionOutcome(id, status, false));
+            }
+        }
+
+        return outcomes;
+    }
+
+    /**
+     * Отобрать ожидающие транзакции донора, однократно списать их общую сумму и зачислить деньги получателям
+     *
+     * @throws DeficientBalanceException если на балансе донора недостаточно средств; статусы и балансы не меняются
+     */
+    private void approveLocked(int donor, Collection<UUID> ids, Map<UUID, TransferRequestStatus> donorStatuses,
+                               Set<UUID> approvedIds, Set<String> participants) {
+        Map<Integer, Long> credits = new HashMap<>();
+        List<Integer> approved = new ArrayList<>();
+        long total = 0;
+
+        for (UUID id : ids) {
+            int index = transactions.indexOf(id);
+
+            if (index < 0 || transactions.sender(index) != donor || donorStatuses.containsKey(id)) {
+                continue;
+            }
+
+            TransferRequestStatus status = transactions.status(index);
+            donorStatuses.put(id, status);
+
+            if (status == TransferRequestStatus.PENDING) {
+                credits.merge(transactions.recipient(index), transactions.amount(index), Long::sum);
+                total += transactions.amount(index);
+                approved.add(index);
+            }
+        }
+
+        if (approved.isEmpty()) {
+            return;
+        }
+
+        if (players.debit(donor, total) < 0) {
+            throw new DeficientBalanceException(
+                    String.format("Не хватает деньги на балансе игрока с login=%s", players.login(donor))
+            );
+        }
+
+        for (int index : approved) {
+            transactions.compareAndSetStatus(index, TransferRequestStatus.PENDING, TransferRequestStatus.APPROVED);
+            approvedIds.add(transactions.id(index));
+        }
+
+        credits.forEach((recipient, amount) -> {
+            players.credit(recipient, amount);
+            participants.add(players.login(recipient));
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package ru.yandex.wallet.repository.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.repository.PlayerCrudRepository;
+
+import java.math.BigDecimal;
+
+/**
+ * Репозиторий игроков в памяти (профиль in-memory). Контракт и исключения совпадают с реализацией на БД; игрок, на
+ * которого ссылаются транзакции, не удаляется, как и при внешнем ключе в БД.
+ */
+@Repository
+@Profile("in-memory")
+@RequiredArgsConstructor
+public class InMemoryPlayerCrudRepositoryImpl implements PlayerCrudRepository {
+    private final PlayerTable players;
+    private final TransactionTable transactions;
+
+    @Override
+    public Player create(Player player) {
+        int index = players.create(player.getUsername(), player.getLogin(), player.getPassword());
+
+        player.setId(index + 1L);
+        player.setBalance(BigDecimal.ZERO);
+
+        return player;
+    }
+
+    @Override
+    public void delete(Long id) {
+        int index = players.indexOfId(id);
+
+        if (index >= 0) {
+            transactions.removePlayer(index);
+        }
+    }
+
+    @Override
+    public Player getById(Long id) {
+        Player player = toPlayer(players.indexOfId(id));
+
+        if (player == null) {
+            throw new NoSuchPlayerException(String.format("Пользователь с id=%d не существует", id));
+        }
+
+        return player;
+    }
+
+    @Override
+    public Player getByLogin(String login) {
+        Player player = toPlayer(players.indexOfLogin(login));
+
+        if (player == null) {
+            throw new NoSuchPlayerException(String.format("Пользователь с логином login=%s не существует", login));
+        }
+
+        return player;
+    }
+
+    @Override
+    public Player getByUsername(String playerName) {
+        Player player = toPlayer(players.indexOfUsername(playerName));
+
+        if (player == null) {
+            throw new NoSuchPlayerException(
+                    String.format("Пользователь с именем username=%s не существует", playerName));
+        }
+
+        return player;
+    }
+
+    @Override
+    public Player setBalance(String login, BigDecimal newBalance) {
+        int index = players.indexOfLogin(login);
+
+        if (index >= 0) {
+            players.setBalance(index, MinorUnits.of(newBalance));
+        }
+
+        return getByLogin(login);
+    }
+
+    /**
+     * @return игрок либо null, если игрока нет или он удален
+     */
+    private Player toPlayer(int index) {
+        String login = players.login(index);
+
+        if (login == null) {
+            return null;
+        }
+
+        return Player.builder()
+                .id(index + 1L)
+                .login(login)
+                .password(players.password(index))
+                .username(players.username(index))
+                .balance(MinorUnits.toDecimal(players.balance(index)))
+                .build();
+    }
+}
@@ -0,0 +1,372 @@
+package ru.yandex.wallet.repository.memory;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.exception.exceptions.NoSuchTransactionException;
+import ru.yandex.wallet.exception.exceptions.TransactionAlreadyExistsException;
+import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
+import ru.yandex.wallet.repository.TransactionCrudRepository;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Репозиторий транзакций в памяти (профиль in-memory). Контракт, исключения и порядок выдачи совпадают с реализацией
+ * на БД: списки - по возрастанию (created_at, id), страницы истории - по убыванию.
+ */
+@Repository
+@Profile("in-memory")
+@RequiredArgsConstructor
+public class InMemoryTransactionCrudRepositoryImpl implements TransactionCrudRepository {
+    private final PlayerTable players;
+    private final TransactionTable transactions;
+
+    @Override
+    public Transaction create(MoneyTransferRequest request) {
+        if (transactions.indexOf(request.getId()) >= 0) {
+            throw alreadyExists(request.getId());
+        }
+
+        LocalDateTime createdAt = TransactionIds.creationTimeOrNow(request.getId());
+        int index = transactions.append(request.getId(),
+                players.indexOfLogin(request.getMoneyFrom()), players.indexOfLogin(request.getMoneyTo()),
+                MinorUnits.of(request.getAmount()), TransactionTable.toMicros(createdAt),
+                TransferRequestStatus.PENDING);
+
+        if (index < 0) {
+            throw alreadyExists(request.getId());
+        }
+
+        return Transaction.builder()
+                .id(request.getId())
+                .status(TransferRequestStatus.PENDING)
+                .sender(request.getMoneyFrom())
+                .recipient(request.getMoneyTo())
+                .amount(request.getAmount())
+                .createdAt(createdAt)
+                .build();
+    }
+
+    @Override
+    public Transaction getById(UUID id) {
+        return toTransaction(require(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Transaction> getTransactionsBySenderAndRecipientAndStatus(String sender,
+                                                                                String recipient,
+                                                                                TransferRequestStatus status) {
+        int senderIndex = sender == null ? -1 : players.indexOfLogin(sender);
+        int recipientIndex = recipient == null ? -1 : players.indexOfLogin(recipient);
+
+        if ((sender != null && senderIndex < 0) || (recipient != null && recipientIndex < 0)) {
+            return new ArrayList<>();
+        }
+
+        List<Integer> matching = new ArrayList<>();
+
+        if (sender != null || recipient != null) {
+            IndexList.Snapshot snapshot = sender != null
+                    ? transactions.bySender(senderIndex)
+                    : transactions.byRecipient(recipientIndex);
+
+            for (int i = 0; i < snapshot.size(); i++) {
+                int index = snapshot.items()[i];
+
+                if ((recipient == null || transactions.recipient(index) == recipientIndex)
+                        && (status == null || transactions.status(index) == status)) {
+                    matching.add(index);
+                }
+            }
+        } else {
+            int size = transactions.size();
+
+            for (int index = 0; index < size; index++) {
+                if (status == null || transactions.status(index) == status) {
+                    matching.add(index);
+                }
+            }
+        }
+
+        matching.sort(transactions::compare);
+
+        List<Transaction> result = new ArrayList<>(matching.size());
+        matching.forEach(index -> result.add(toTransaction(index)));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Transaction> getDebitingTransactions(String login) {
+        return getTransactionsBySenderAndRecipientAndStatus(login, null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Transaction> getCreditingTransactions(String login) {
+        return getTransactionsBySenderAndRecipientAndStatus(null, login, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> getDebitingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        int player = players.indexOfLogin(login);
+
+        if (player < 0) {
+            return Collections.emptyList();
+        }
+
+        return page(cursor, limit, -1, transactions.bySender(player));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> getCreditingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        int player = players.indexOfLogin(login);
+
+        if (player < 0) {
+            return Collections.emptyList();
+        }
+
+        return page(cursor, limit, -1, transactions.byRecipient(player));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Переводы самому себе попадают в страницу один раз, из списка отправителя.
+     */
+    @Override
+    public List<Transaction> getTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        int player = players.indexOfLogin(login);
+
+        if (player < 0) {
+            return Collections.emptyList();
+        }
+
+        return page(cursor, limit, player, transactions.bySender(player), transactions.byRecipient(player));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction approveTransaction(String donorUsername, UUID id) {
+        return changeStatus(donorUsername, id, TransferRequestStatus.APPROVED,
+                "Вы не можете подтвердить чужую транзакцию!",
+                "Только транзакции в режиме подтверждения могут быть одобрены");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction declineTransaction(String donorUsername, UUID id) {
+        return changeStatus(donorUsername, id, TransferRequestStatus.DECLINED,
+                "Вы не можете отклонить чужую транзакцию!",
+                "Только транзакции в режиме подтверждения могут быть отклонены");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<TransactionOutcome> declineTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int donor = players.indexOfLogin(donorLogin);
+        Map<UUID, Integer> donorTransactions = new HashMap<>();
+        Set<UUID> declined = new HashSet<>();
+
+        if (donor >= 0) {
+            Lock donorLock = transactions.senderLock(donor);
+
+            donorLock.lock();
+            try {
+                for (UUID id : ids) {
+                    int index = transactions.indexOf(id);
+
+                    if (index >= 0 && transactions.sender(index) == donor) {
+                        donorTransactions.put(id, index);
+
+                        if (transactions.compareAndSetStatus(index, TransferRequestStatus.PENDING,
+                                TransferRequestStatus.DECLINED)) {
+                            declined.add(id);
+                        }
+                    }
+                }
+            } finally {
+                donorLock.unlock();
+            }
+        }
+
+        List<TransactionOutcome> outcomes = new ArrayList<>(ids.size());
+
+        for (UUID id : ids) {
+            Integer index = donorTransactions.get(id);
+
+            if (index == null) {
+                outcomes.add(new TransactionOutcome(id, null, false));
+            } else if (declined.contains(id)) {
+                outcomes.add(new TransactionOutcome(id, TransferRequestStatus.DECLINED, true));
+            } else {
+                outcomes.add(new TransactionOutcome(id, transactions.status(index), false));
+            }
+        }
+
+        return outcomes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction setFailed(UUID id) {
+        int index = require(id);
+        Lock senderLock = transactions.senderLock(transactions.sender(index));
+
+        senderLock.lock();
+        try {
+            transactions.setStatus(index, TransferRequestStatus.FAILED);
+        } finally {
+            senderLock.unlock();
+        }
+
+        return toTransaction(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Значение поддерживается счетчиком при смене статусов.
+     */
+    @Override
+    public long countPending() {
+        return transactions.countPending();
+    }
+
+    /**
+     * Изменить статус ожидающей транзакции донора. Проверка и изменение выполняются под блокировкой донора, поэтому
+     * не пересекаются с пакетным подтверждением его транзакций.
+     */
+    private Transaction changeStatus(String donorLogin, UUID id, TransferRequestStatus newStatus,
+                                     String foreignMessage, String statusMessage) {
+        int index = require(id);
+        int donor = transactions.sender(index);
+
+        if (!players.login(donor).equals(donorLogin))
+            throw new TransactionStatusException(foreignMessage);
+
+        Lock donorLock = transactions.senderLock(donor);
+
+        donorLock.lock();
+        try {
+            if (!transactions.compareAndSetStatus(index, TransferRequestStatus.PENDING, newStatus))
+                throw new TransactionStatusException(statusMessage);
+        } finally {
+            donorLock.unlock();
+        }
+
+        return toTransaction(index);
+    }
+
+    /**
+     * Страница по убыванию (created_at, id) после курсора. Списки упорядочены по дозаписи, что лишь приблизительно
+     * совпадает с порядком времени создания, поэтому они обходятся с конца с кучей ограниченного размера. Обход
+     * списка останавливается, как только максимум времени создания по его оставшемуся префиксу меньше наименьшей
+     * записи заполненной кучи: обычно просматривается лишь немногим больше limit записей.
+     *
+     * @param player игрок, чьи переводы самому себе пропускаются во втором списке, либо -1
+     */
+    private List<Transaction> page(TransactionCursor cursor, int limit, int player, IndexList.Snapshot... lists) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        long cursorCreatedAt = cursor == null ? 0 : TransactionTable.toMicros(cursor.getCreatedAt());
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, transactions::compare);
+
+        for (int list = 0; list < lists.length; list++) {
+            IndexList.Snapshot snapshot = lists[list];
+            boolean skipSelfTransfers = list > 0 && player >= 0;
+
+            for (int i = snapshot.size() - 1; i >= 0; i--) {
+                if (top.size() == limit
+                        && snapshot.maxCreatedAt()[i] < transactions.createdAt(top.peek())) {
+                    break;
+                }
+
+                int index = snapshot.items()[i];
+
+                if (skipSelfTransfers && transactions.sender(index) == player) {
+                    continue;
+                }
+
+                if (cursor != null && transactions.compare(index, cursorCreatedAt, cursor.getId()) >= 0) {
+                    continue;
+                }
+
+                top.add(index);
+
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<Integer> page = new ArrayList<>(top);
+        page.sort((left, right) -> transactions.compare(right, left));
+
+        List<Transaction> result = new ArrayList<>(page.size());
+        page.forEach(index -> result.add(toTransaction(index)));
+        return result;
+    }
+
+    private int require(UUID id) {
+        int index = transactions.indexOf(id);
+
+        if (index < 0) {
+            throw new NoSuchTransactionException(
+                    String.format("Не существует транзакции с id=%s", id)
+            );
+        }
+
+        return index;
+    }
+
+    private Transaction toTransaction(int index) {
+        return Transaction.builder()
+                .id(transactions.id(index))
+                .status(transactions.status(index))
+                .sender(players.login(transactions.sender(index)))
+                .recipient(players.login(transactions.recipient(index)))
+                .amount(MinorUnits.toDecimal(transactions.amount(index)))
+                .createdAt(TransactionTable.toLocalDateTime(transactions.createdAt(index)))
+                .build();
+    }
+
+    private static TransactionAlreadyExistsException alreadyExists(UUID id) {
+        return new TransactionAlreadyExistsException(String.format("Транзакция с id=%s уже существует", id));
+    }
+}
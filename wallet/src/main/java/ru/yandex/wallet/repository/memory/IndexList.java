@@ -0,0 +1,54 @@
+package ru.yandex.wallet.repository.memory;
+
+import java.util.Arrays;
+
+/**
+ * Номера транзакций игрока в порядке дозаписи. Добавление выполняется под внешней блокировкой, чтение - без
+ * блокировок по снимку: размер публикуется после записи элемента, а при росте массивы копируются и заменяются
+ * целиком, поэтому префикс снимка всегда заполнен. Вместе с номером хранится максимум времени создания по префиксу
+ * списка: по нему обход с конца останавливается, когда более ранние записи уже не могут попасть на страницу.
+ */
+final class IndexList {
+    static final Snapshot EMPTY = new Snapshot(new int[0], new long[0], 0);
+
+    private volatile Storage storage = new Storage(new int[4], new long[4]);
+    private volatile int size;
+
+    /**
+     * @param items          номера транзакций
+     * @param maxCreatedAt   максимум времени создания (в микросекундах) по элементам с 0 по i включительно
+     * @param size           число элементов снимка
+     */
+    record Snapshot(int[] items, long[] maxCreatedAt, int size) {
+    }
+
+    private record Storage(int[] items, long[] maxCreatedAt) {
+    }
+
+    void add(int item, long createdAtMicros) {
+        int index = size;
+        Storage current = storage;
+
+        if (index == current.items().length) {
+            current = new Storage(Arrays.copyOf(current.items(), index * 2),
+                    Arrays.copyOf(current.maxCreatedAt(), index * 2));
+            storage = current;
+        }
+
+        current.items()[index] = item;
+        current.maxCreatedAt()[index] = index == 0
+                ? createdAtMicros
+                : Math.max(current.maxCreatedAt()[index - 1], createdAtMicros);
+        size = index + 1;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    Snapshot snapshot() {
+        int currentSize = size;
+        Storage current = storage;
+        return new Snapshot(current.items(), current.maxCreatedAt(), currentSize);
+    }
+}
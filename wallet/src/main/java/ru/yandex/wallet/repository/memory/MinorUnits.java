@@ -0,0 +1,35 @@
+package ru.yandex.wallet.repository.memory;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Перевод сумм в целые тысячные доли и обратно. Точность и округление совпадают со столбцами numeric(15,3) в БД.
+ */
+final class MinorUnits {
+    static final int SCALE = 3;
+    private static final int PRECISION = 15;
+
+    private MinorUnits() {
+    }
+
+    /**
+     * @throws DataIntegrityViolationException если сумма не помещается в numeric(15,3)
+     */
+    static long of(BigDecimal amount) {
+        BigDecimal scaled = amount.setScale(SCALE, RoundingMode.HALF_UP);
+
+        if (scaled.precision() > PRECISION) {
+            throw new DataIntegrityViolationException(
+                    String.format("Сумма %s не помещается в numeric(%d,%d)", amount, PRECISION, SCALE));
+        }
+
+        return scaled.unscaledValue().longValueExact();
+    }
+
+    static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
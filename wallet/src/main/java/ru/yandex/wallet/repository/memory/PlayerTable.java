@@ -0,0 +1,199 @@
+package ru.yandex.wallet.repository.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.wallet.exception.exceptions.PlayerAlreadyExistsException;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Игроки в памяти (профиль in-memory): плотные массивы по номеру игрока (id - 1), разбитые на страницы, которые не
+ * перемещаются при росте. Балансы хранятся в тысячных долях в {@link AtomicLongArray} и изменяются без блокировок
+ * сравнением с обменом. Логины и имена отображаются в номера хеш-таблицами с открытой адресацией.
+ * <p>
+ * Создание и удаление игроков выполняются под блокировкой; поля игрока записываются до публикации логина, поэтому
+ * читатель, нашедший игрока по логину или номеру, видит его целиком. Удаленный игрок отличается пустым логином,
+ * номера игроков не переиспользуются.
+ */
+@Component
+@Profile("in-memory")
+public class PlayerTable {
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final StringIndex byLogin = new StringIndex(PAGE_SIZE);
+    private final StringIndex byUsername = new StringIndex(PAGE_SIZE);
+
+    private volatile Page[] pages = new Page[0];
+    private volatile int size;
+
+    private static final class Page {
+        final String[] usernames = new String[PAGE_SIZE];
+        final byte[][] passwords = new byte[PAGE_SIZE][];
+        final AtomicReferenceArray<String> logins = new AtomicReferenceArray<>(PAGE_SIZE);
+        final AtomicLongArray balances = new AtomicLongArray(PAGE_SIZE);
+    }
+
+    /**
+     * Создать игрока с нулевым балансом
+     *
+     * @return номер игрока
+     * @throws PlayerAlreadyExistsException если логин или имя заняты
+     */
+    public int create(String username, String login, byte[] password) {
+        lock.lock();
+        try {
+            if (byLogin.get(login) >= 0) {
+                throw new PlayerAlreadyExistsException(
+                        String.format("Пользователь с таким логином login=%s уже существует", login)
+                );
+            }
+
+            if (byUsername.get(username) >= 0) {
+                throw new PlayerAlreadyExistsException(
+                        String.format("Пользователь с таким именем username=%s уже существует", username)
+                );
+            }
+
+            int index = size;
+            int pageIndex = index >>> PAGE_SHIFT;
+
+            if (pageIndex == pages.length) {
+                Page[] grown = Arrays.copyOf(pages, pageIndex + 1);
+                grown[pageIndex] = new Page();
+                pages = grown;
+            }
+
+            Page page = pages[pageIndex];
+            int offset = index & PAGE_MASK;
+            page.usernames[offset] = username;
+            page.passwords[offset] = password;
+            page.balances.set(offset, 0);
+            page.logins.set(offset, login);
+
+            byLogin.put(login, index);
+            byUsername.put(username, index);
+            size = index + 1;
+
+            return index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удалить игрока; отсутствующий игрок игнорируется
+     */
+    public void remove(int index) {
+        lock.lock();
+        try {
+            String login = login(index);
+
+            if (login == null) {
+                return;
+            }
+
+            byLogin.remove(login);
+            byUsername.remove(username(index));
+            page(index).logins.set(index & PAGE_MASK, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return номер игрока либо -1, если игрока нет
+     */
+    public int indexOfLogin(String login) {
+        return byLogin.get(login);
+    }
+
+    /**
+     * @return номер игрока либо -1, если игрока нет
+     */
+    public int indexOfUsername(String username) {
+        return byUsername.get(username);
+    }
+
+    /**
+     * Номер игрока по id либо -1, если игрока нет
+     */
+    public int indexOfId(Long id) {
+        if (id == null || id < 1 || id > size) {
+            return -1;
+        }
+
+        int index = (int) (id - 1);
+        return login(index) == null ? -1 : index;
+    }
+
+    public boolean exists(int index) {
+        return login(index) != null;
+    }
+
+    /**
+     * @return логин игрока либо null, если игрока нет
+     */
+    public String login(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+
+        return page(index).logins.get(index & PAGE_MASK);
+    }
+
+    public String username(int index) {
+        return page(index).usernames[index & PAGE_MASK];
+    }
+
+    /**
+     * Копия хеша пароля
+     */
+    public byte[] password(int index) {
+        byte[] password = page(index).passwords[index & PAGE_MASK];
+        return password == null ? null : password.clone();
+    }
+
+    public long balance(int index) {
+        return page(index).balances.get(index & PAGE_MASK);
+    }
+
+    public void setBalance(int index, long balance) {
+        page(index).balances.set(index & PAGE_MASK, balance);
+    }
+
+    /**
+     * Списать сумму, только если баланс не меньше нее
+     *
+     * @return баланс после списания либо -1, если средств недостаточно
+     */
+    public long debit(int index, long amount) {
+        AtomicLongArray balances = page(index).balances;
+        int offset = index & PAGE_MASK;
+
+        while (true) {
+            long balance = balances.get(offset);
+
+            if (balance < amount) {
+                return -1;
+            }
+
+            if (balances.compareAndSet(offset, balance, balance - amount)) {
+                return balance - amount;
+            }
+        }
+    }
+
+    public void credit(int index, long amount) {
+        page(index).balances.addAndGet(index & PAGE_MASK, amount);
+    }
+
+    private Page page(int index) {
+        return pages[index >>> PAGE_SHIFT];
+    }
+}
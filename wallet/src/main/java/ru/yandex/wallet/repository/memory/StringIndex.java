@@ -0,0 +1,127 @@
+package ru.yandex.wallet.repository.memory;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Хеш-таблица с открытой адресацией (линейное пробирование) из строки в номер. Изменения выполняются под внешней
+ * блокировкой, чтение - без блокировок: номер записывается раньше ключа, а ключ публикуется volatile-записью.
+ * Удаленный ключ заменяется надгробием; ячейка с надгробием не переиспользуется до перестроения таблицы, поэтому
+ * читатель не получит номер, записанный для другого ключа. Перестроенная таблица публикуется целиком.
+ */
+final class StringIndex {
+    private static final String TOMBSTONE = new String("");
+
+    private volatile Table table;
+    private int occupied;
+
+    private record Table(AtomicReferenceArray<String> keys, int[] values, int mask) {
+        Table(int capacity) {
+            this(new AtomicReferenceArray<>(capacity), new int[capacity], capacity - 1);
+        }
+    }
+
+    StringIndex(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return номер либо -1, если ключа нет
+     */
+    int get(String key) {
+        Table current = table;
+
+        for (int slot = hash(key) & current.mask(); ; slot = (slot + 1) & current.mask()) {
+            String candidate = current.keys().get(slot);
+
+            if (candidate == null) {
+                return -1;
+            }
+
+            if (candidate != TOMBSTONE && candidate.equals(key)) {
+                return current.values()[slot];
+            }
+        }
+    }
+
+    /**
+     * Добавить отсутствующий ключ; вызывается под внешней блокировкой
+     */
+    void put(String key, int value) {
+        if ((occupied + 1) * 2 > table.values().length) {
+            rebuild();
+        }
+
+        insert(table, key, value);
+        occupied++;
+    }
+
+    /**
+     * Удалить ключ; вызывается под внешней блокировкой
+     */
+    void remove(String key) {
+        Table current = table;
+
+        for (int slot = hash(key) & current.mask(); ; slot = (slot + 1) & current.mask()) {
+            String candidate = current.keys().get(slot);
+
+            if (candidate == null) {
+                return;
+            }
+
+            if (candidate != TOMBSTONE && candidate.equals(key)) {
+                current.keys().set(slot, TOMBSTONE);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Перестроить таблицу без надгробий с запасом на вдвое большее число ключей
+     */
+    private void rebuild() {
+        Table current = table;
+        int live = 0;
+
+        for (int slot = 0; slot < current.values().length; slot++) {
+            String key = current.keys().get(slot);
+            if (key != null && key != TOMBSTONE) {
+                live++;
+            }
+        }
+
+        Table rebuilt = new Table(capacityFor(2 * (live + 1)));
+
+        for (int slot = 0; slot < current.values().length; slot++) {
+            String key = current.keys().get(slot);
+            if (key != null && key != TOMBSTONE) {
+                insert(rebuilt, key, current.values()[slot]);
+            }
+        }
+
+        table = rebuilt;
+        occupied = live;
+    }
+
+    private static void insert(Table target, String key, int value) {
+        int slot = hash(key) & target.mask();
+
+        while (target.keys().get(slot) != null) {
+            slot = (slot + 1) & target.mask();
+        }
+
+        target.values()[slot] = value;
+        target.keys().set(slot, key);
+    }
+
+    /**
+     * Наименьшая степень двойки, при которой таблица заполнена не более чем наполовину
+     */
+    private static int capacityFor(int expectedSize) {
+        return Math.max(16, Integer.highestOneBit(Math.max(1, 2 * expectedSize - 1)) << 1);
+    }
+
+    private static int hash(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,397 @@
+package ru.yandex.wallet.repository.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Транзакции в памяти (профиль in-memory): массивы только на дозапись, разбитые на блоки, которые не перемещаются при
+ * росте. Отправитель и получатель хранятся номерами из {@link PlayerTable}, суммы - в тысячных долях, время
+ * создания - в микросекундах UTC. Статусы упакованы по два бита на транзакцию (статусов четыре) и меняются сравнением
+ * с обменом слова. Идентификаторы отображаются в номера хеш-таблицей с открытой адресацией, для каждого игрока
+ * ведутся списки номеров его транзакций как отправителя и как получателя.
+ * <p>
+ * Дозапись выполняется под одной блокировкой, чтение - без блокировок: поля транзакции записываются до публикации ее
+ * номера в индексах. Смена статуса выполняется под блокировкой отправителя (по полосам), если вместе со статусом
+ * меняются балансы.
+ */
+@Component
+@Profile("in-memory")
+public class TransactionTable {
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int SENDER_LOCK_STRIPES = 64;
+    private static final TransferRequestStatus[] STATUSES = TransferRequestStatus.values();
+    private static final LocalDateTime EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    private final PlayerTable players;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Lock[] senderLocks = new Lock[SENDER_LOCK_STRIPES];
+    private final LongAdder pending = new LongAdder();
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+    /**
+     * Номер транзакции + 1 по хешу идентификатора, 0 - пустая ячейка
+     */
+    private volatile AtomicIntegerArray idSlots = new AtomicIntegerArray(CHUNK_SIZE);
+    private volatile AtomicReferenceArray<IndexList> bySender = new AtomicReferenceArray<>(0);
+    private volatile AtomicReferenceArray<IndexList> byRecipient = new AtomicReferenceArray<>(0);
+
+    private static final class Chunk {
+        final long[] idHigh = new long[CHUNK_SIZE];
+        final long[] idLow = new long[CHUNK_SIZE];
+        final int[] senders = new int[CHUNK_SIZE];
+        final int[] recipients = new int[CHUNK_SIZE];
+        final long[] amounts = new long[CHUNK_SIZE];
+        final long[] createdAt = new long[CHUNK_SIZE];
+        final AtomicLongArray statuses = new AtomicLongArray(CHUNK_SIZE >>> 5);
+    }
+
+    public TransactionTable(PlayerTable players) {
+        this.players = players;
+
+        for (int i = 0; i < SENDER_LOCK_STRIPES; i++) {
+            senderLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Дозаписать транзакцию
+     *
+     * @return номер транзакции либо -1, если транзакция с таким идентификатором уже есть
+     * @throws DataIntegrityViolationException если отправителя или получателя нет (внешний ключ в БД)
+     */
+    public int append(UUID id, int sender, int recipient, long amount, long createdAtMicros,
+                      TransferRequestStatus status) {
+        appendLock.lock();
+        try {
+            if (indexOf(id) >= 0) {
+                return -1;
+            }
+
+            if (!players.exists(sender) || !players.exists(recipient)) {
+                throw new DataIntegrityViolationException(
+                        String.format("Отправитель или получатель транзакции с id=%s не существует", id));
+            }
+
+            int index = size;
+            int chunkIndex = index >>> CHUNK_SHIFT;
+
+            if (chunkIndex == chunks.length) {
+                Chunk[] grown = Arrays.copyOf(chunks, chunkIndex + 1);
+                grown[chunkIndex] = new Chunk();
+                chunks = grown;
+            }
+
+            Chunk chunk = chunks[chunkIndex];
+            int offset = index & CHUNK_MASK;
+            chunk.idHigh[offset] = id.getMostSignificantBits();
+            chunk.idLow[offset] = id.getLeastSignificantBits();
+            chunk.senders[offset] = sender;
+            chunk.recipients[offset] = recipient;
+            chunk.amounts[offset] = amount;
+            chunk.createdAt[offset] = createdAtMicros;
+            writeStatus(index, status);
+
+            if (status == TransferRequestStatus.PENDING) {
+                pending.increment();
+            }
+
+            putId(index);
+            bySender = withList(bySender, sender);
+            bySender.get(sender).add(index, createdAtMicros);
+            byRecipient = withList(byRecipient, recipient);
+            byRecipient.get(recipient).add(index, createdAtMicros);
+            size = index + 1;
+
+            return index;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Удалить игрока, если на него не ссылается ни одна транзакция. Выполняется под блокировкой дозаписи, поэтому не
+     * пересекается с появлением новых транзакций игрока.
+     *
+     * @throws DataIntegrityViolationException если у игрока есть транзакции (внешний ключ в БД)
+     */
+    public void removePlayer(int player) {
+        appendLock.lock();
+        try {
+            if (!isEmpty(bySender, player) || !isEmpty(byRecipient, player)) {
+                throw new DataIntegrityViolationException(
+                        String.format("На игрока с id=%d ссылаются транзакции", player + 1));
+            }
+
+            players.remove(player);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return номер транзакции либо -1, если транзакции нет
+     */
+    public int indexOf(UUID id) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        AtomicIntegerArray slots = idSlots;
+        int mask = slots.length() - 1;
+
+        for (int slot = hash(high, low) & mask; ; slot = (slot + 1) & mask) {
+            int value = slots.get(slot);
+
+            if (value == 0) {
+                return -1;
+            }
+
+            Chunk chunk = chunk(value - 1);
+            int offset = (value - 1) & CHUNK_MASK;
+
+            if (chunk.idHigh[offset] == high && chunk.idLow[offset] == low) {
+                return value - 1;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public UUID id(int index) {
+        Chunk chunk = chunk(index);
+        int offset = index & CHUNK_MASK;
+        return new UUID(chunk.idHigh[offset], chunk.idLow[offset]);
+    }
+
+    public int sender(int index) {
+        return chunk(index).senders[index & CHUNK_MASK];
+    }
+
+    public int recipient(int index) {
+        return chunk(index).recipients[index & CHUNK_MASK];
+    }
+
+    public long amount(int index) {
+        return chunk(index).amounts[index & CHUNK_MASK];
+    }
+
+    public long createdAt(int index) {
+        return chunk(index).createdAt[index & CHUNK_MASK];
+    }
+
+    public TransferRequestStatus status(int index) {
+        long word = chunk(index).statuses.get((index & CHUNK_MASK) >>> 5);
+        return STATUSES[(int) (word >>> statusShift(index)) & 3];
+    }
+
+    /**
+     * Сменить статус, если текущий равен ожидаемому
+     */
+    public boolean compareAndSetStatus(int index, TransferRequestStatus expected, TransferRequestStatus next) {
+        AtomicLongArray statuses = chunk(index).statuses;
+        int word = (index & CHUNK_MASK) >>> 5;
+        int shift = statusShift(index);
+
+        while (true) {
+            long current = statuses.get(word);
+
+            if ((int) (current >>> shift & 3) != expected.ordinal()) {
+                return false;
+            }
+
+            long updated = current & ~(3L << shift) | (long) next.ordinal() << shift;
+
+            if (statuses.compareAndSet(word, current, updated)) {
+                countPending(expected, next);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Установить статус независимо от текущего
+     *
+     * @return предыдущий статус
+     */
+    public TransferRequestStatus setStatus(int index, TransferRequestStatus next) {
+        TransferRequestStatus previous = writeStatus(index, next);
+        countPending(previous, next);
+        return previous;
+    }
+
+    /**
+     * Номера транзакций игрока-отправителя в порядке дозаписи
+     */
+    public IndexList.Snapshot bySender(int player) {
+        return snapshot(bySender, player);
+    }
+
+    /**
+     * Номера транзакций игрока-получателя в порядке дозаписи
+     */
+    public IndexList.Snapshot byRecipient(int player) {
+        return snapshot(byRecipient, player);
+    }
+
+    /**
+     * Блокировка смены статусов транзакций отправителя (по полосам). Нужна, когда проверка статусов и изменение
+     * балансов должны выполняться без вмешательства конкурирующих подтверждений и отклонений.
+     */
+    public Lock senderLock(int player) {
+        return senderLocks[Math.floorMod(player, SENDER_LOCK_STRIPES)];
+    }
+
+    public long countPending() {
+        return pending.sum();
+    }
+
+    /**
+     * Порядок (created_at, id); идентификаторы сравниваются как беззнаковые, как uuid в PostgreSQL
+     */
+    public int compare(int left, int right) {
+        return compare(left, createdAt(right), id(right));
+    }
+
+    /**
+     * Сравнить транзакцию с позицией (created_at, id)
+     */
+    public int compare(int index, long createdAtMicros, UUID id) {
+        int result = Long.compare(createdAt(index), createdAtMicros);
+
+        if (result != 0) {
+            return result;
+        }
+
+        Chunk chunk = chunk(index);
+        int offset = index & CHUNK_MASK;
+        result = Long.compareUnsigned(chunk.idHigh[offset], id.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(chunk.idLow[offset], id.getLeastSignificantBits());
+    }
+
+    public static long toMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(EPOCH, time);
+    }
+
+    public static LocalDateTime toLocalDateTime(long micros) {
+        return EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    private TransferRequestStatus writeStatus(int index, TransferRequestStatus next) {
+        AtomicLongArray statuses = chunk(index).statuses;
+        int word = (index & CHUNK_MASK) >>> 5;
+        int shift = statusShift(index);
+
+        while (true) {
+            long current = statuses.get(word);
+            long updated = current & ~(3L << shift) | (long) next.ordinal() << shift;
+
+            if (statuses.compareAndSet(word, current, updated)) {
+                return STATUSES[(int) (current >>> shift) & 3];
+            }
+        }
+    }
+
+    private void countPending(TransferRequestStatus previous, TransferRequestStatus next) {
+        if (previous == TransferRequestStatus.PENDING && next != TransferRequestStatus.PENDING) {
+            pending.decrement();
+        } else if (previous != TransferRequestStatus.PENDING && next == TransferRequestStatus.PENDING) {
+            pending.increment();
+        }
+    }
+
+    /**
+     * Добавить номер в таблицу идентификаторов; при заполнении больше чем наполовину таблица удваивается и
+     * публикуется целиком
+     */
+    private void putId(int index) {
+        AtomicIntegerArray slots = idSlots;
+
+        if ((index + 1) * 2 > slots.length()) {
+            AtomicIntegerArray grown = new AtomicIntegerArray(slots.length() * 2);
+
+            for (int i = 0; i < index; i++) {
+                insertId(grown, i);
+            }
+
+            insertId(grown, index);
+            idSlots = grown;
+        } else {
+            insertId(slots, index);
+        }
+    }
+
+    private void insertId(AtomicIntegerArray slots, int index) {
+        Chunk chunk = chunk(index);
+        int offset = index & CHUNK_MASK;
+        int mask = slots.length() - 1;
+        int slot = hash(chunk.idHigh[offset], chunk.idLow[offset]) & mask;
+
+        while (slots.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        slots.set(slot, index + 1);
+    }
+
+    /**
+     * Массив списков, в котором есть список игрока; при необходимости массив расширяется и возвращается новый
+     */
+    private static AtomicReferenceArray<IndexList> withList(AtomicReferenceArray<IndexList> lists, int player) {
+        if (player >= lists.length()) {
+            AtomicReferenceArray<IndexList> grown =
+                    new AtomicReferenceArray<>(Math.max(player + 1, lists.length() * 2));
+
+            for (int i = 0; i < lists.length(); i++) {
+                grown.set(i, lists.get(i));
+            }
+
+            lists = grown;
+        }
+
+        if (lists.get(player) == null) {
+            lists.set(player, new IndexList());
+        }
+
+        return lists;
+    }
+
+    private static IndexList.Snapshot snapshot(AtomicReferenceArray<IndexList> lists, int player) {
+        IndexList list = player >= 0 && player < lists.length() ? lists.get(player) : null;
+        return list == null ? IndexList.EMPTY : list.snapshot();
+    }
+
+    private static boolean isEmpty(AtomicReferenceArray<IndexList> lists, int player) {
+        IndexList list = player < lists.length() ? lists.get(player) : null;
+        return list == null || list.isEmpty();
+    }
+
+    private Chunk chunk(int index) {
+        return chunks[index >>> CHUNK_SHIFT];
+    }
+
+    private static int statusShift(int index) {
+        return (index & 31) << 1;
+    }
+
+    private static int hash(long high, long low) {
+        long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.wallet.repository.sharded;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import ru.yandex.wallet.repository.sharded.ShardRouter.Shard;
+import ru.yandex.wallet.repository.sharded.TransferDecisionLog.Decision;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Восстановление веток двухфазной фиксации, оставшихся подготовленными дольше inDoubtAfter: ветка фиксируется, если
+ * координатор записал решение о фиксации, и отменяется в остальных случаях. Порог защищает ветки переводов, которые
+ * координатор еще выполняет. Заодно удаляются старые решения по уже завершенным транзакциям - только если удалось
+ * просмотреть все шарды: на недоступном шарде может оставаться ветка, которой решение о фиксации еще понадобится.
+ */
+@Slf4j
+public class InDoubtTransferRecovery {
+    private static final String IN_DOUBT_QUERY = "SELECT gid FROM pg_prepared_xacts " +
+            "WHERE database = current_database() AND gid LIKE '" + ShardTransactionCoordinator.GID_PREFIX + "%' " +
+            "AND prepared < now() - ? * interval '1 millisecond'";
+
+    private final ShardRouter shardRouter;
+    private final TransferDecisionLog decisionLog;
+    private final Duration inDoubtAfter;
+    private final Duration decisionRetention;
+
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder rolledBack = new LongAdder();
+
+    /**
+     * Ветки, завершенные восстановлением
+     */
+    public record Stats(long committed, long rolledBack) {
+    }
+
+    public InDoubtTransferRecovery(ShardRouter shardRouter, TransferDecisionLog decisionLog, Duration inDoubtAfter,
+                                   Duration decisionRetention) {
+        this.shardRouter = shardRouter;
+        this.decisionLog = decisionLog;
+        this.inDoubtAfter = inDoubtAfter;
+        this.decisionRetention = decisionRetention;
+    }
+
+    public void recover() {
+        List<String> unfinished = new ArrayList<>();
+        boolean allShardsListed = true;
+
+        for (Shard shard : shardRouter.shards()) {
+            List<String> inDoubt;
+
+            try {
+                inDoubt = shard.jdbcTemplate().queryForList(IN_DOUBT_QUERY, String.class, inDoubtAfter.toMillis());
+            } catch (DataAccessException e) {
+                log.warn("Не удалось получить подготовленные транзакции шарда {}: {}", shard.index(), e.getMessage());
+                allShardsListed = false;
+                continue;
+            }
+
+            for (String gid : inDoubt) {
+                try {
+                    Decision decision = decisionLog.decide(gid);
+
+                    if (decision == Decision.COMMIT) {
+                        shard.jdbcTemplate().execute("COMMIT PREPARED '" + gid + "'");
+                        committed.increment();
+                    } else {
+                        shard.jdbcTemplate().execute("ROLLBACK PREPARED '" + gid + "'");
+                        rolledBack.increment();
+                    }
+                    log.info("Транзакция {} на шарде {} завершена восстановлением: {}", gid, shard.index(), decision);
+                } catch (DataAccessException e) {
+                    unfinished.add(gid);
+                    log.warn("Не удалось завершить транзакцию {} на шарде {}: {}", gid, shard.index(),
+                            e.getMessage());
+                }
+            }
+        }
+
+        if (allShardsListed) {
+            decisionLog.forgetOlderThan(decisionRetention, unfinished);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(committed.sum(), rolledBack.sum());
+    }
+}
@@ -0,0 +1,122 @@
+package ru.yandex.wallet.repository.sharded;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Размещение данных по шардам - отдельным базам PostgreSQL с одинаковой схемой. Шард игрока определяется хешем
+ * логина: первые 32 бита MD5 по модулю числа шардов. Та же функция есть в БД (wallet_shard_of), ею миграция шарда
+ * оставляет на шарде только его строки. Идентификаторы игроков выдаются так, что остаток от деления id на число
+ * шардов равен номеру шарда.
+ * <p>
+ * Транзакции хранятся на шарде отправителя. Если получатель на другом шарде, на его шарде хранится строка индекса
+ * transaction_index, по которой находится транзакция. Число шардов задается при первой миграции и после нее не
+ * меняется.
+ */
+public class ShardRouter implements AutoCloseable {
+    public static final String SHARD_CHANGELOG = "classpath:db/changelog/shard-changelog.xml";
+
+    private final List<Shard> shards;
+
+    /**
+     * @param index        номер шарда
+     * @param dataSource   источник соединений шарда
+     * @param jdbcTemplate шаблон поверх источника соединений шарда
+     */
+    public record Shard(int index, DataSource dataSource, JdbcTemplate jdbcTemplate) {
+    }
+
+    public ShardRouter(List<DataSource> dataSources) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("Не задан ни один шард");
+        }
+
+        this.shards = new ArrayList<>(dataSources.size());
+        for (int i = 0; i < dataSources.size(); i++) {
+            shards.add(new Shard(i, dataSources.get(i), new JdbcTemplate(dataSources.get(i))));
+        }
+    }
+
+    public int count() {
+        return shards.size();
+    }
+
+    public List<Shard> shards() {
+        return shards;
+    }
+
+    public Shard shardOf(String login) {
+        return shards.get(shardIndex(login, shards.size()));
+    }
+
+    public Shard shardOfPlayer(long id) {
+        return shards.get(Math.floorMod(id, shards.size()));
+    }
+
+    /**
+     * Номер шарда игрока, совпадает с wallet_shard_of(login, count) в БД
+     */
+    public static int shardIndex(String login, int count) {
+        byte[] digest;
+
+        try {
+            digest = MessageDigest.getInstance("MD5").digest(login.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        long hash = (digest[0] & 0xFFL) << 24 | (digest[1] & 0xFFL) << 16 | (digest[2] & 0xFFL) << 8
+                | digest[3] & 0xFFL;
+        return (int) (hash % count);
+    }
+
+    /**
+     * Применить миграции шарда ко всем шардам. Номер шарда и их число передаются в миграции параметрами.
+     */
+    public void migrate(ResourceLoader resourceLoader, String defaultSchema, String liquibaseSchema) {
+        for (Shard shard : shards) {
+            migrate(shard.dataSource(), SHARD_CHANGELOG,
+                    Map.of("shard.index", String.valueOf(shard.index()), "shard.count", String.valueOf(count())),
+                    resourceLoader, defaultSchema, liquibaseSchema);
+        }
+    }
+
+    public static void migrate(DataSource dataSource, String changeLog, Map<String, String> parameters,
+                               ResourceLoader resourceLoader, String defaultSchema, String liquibaseSchema) {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(changeLog);
+        liquibase.setChangeLogParameters(parameters);
+        liquibase.setResourceLoader(resourceLoader);
+        liquibase.setDefaultSchema(defaultSchema);
+        liquibase.setLiquibaseSchema(liquibaseSchema);
+
+        try {
+            liquibase.afterPropertiesSet();
+        } catch (LiquibaseException e) {
+            throw new IllegalStateException(String.format("Не удалось применить миграции %s", changeLog), e);
+        }
+    }
+
+    /**
+     * Пулы шардов создаются вместе с маршрутизатором и закрываются им
+     */
+    @Override
+    public void close() throws Exception {
+        for (Shard shard : shards) {
+            if (shard.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
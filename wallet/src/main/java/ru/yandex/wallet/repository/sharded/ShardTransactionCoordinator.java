@@ -0,0 +1,133 @@
+package ru.yandex.wallet.repository.sharded;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import ru.yandex.wallet.repository.sharded.ShardRouter.Shard;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Выполнение изменения, затрагивающего один или несколько шардов. Изменение на одном шарде фиксируется обычной
+ * транзакцией БД. Для нескольких шардов используется двухфазная фиксация PostgreSQL: ветки выполняются в порядке
+ * номеров шардов, поэтому встречные переводы не блокируют друг друга взаимно, и подготавливаются через
+ * PREPARE TRANSACTION. Затем решение записывается в {@link TransferDecisionLog}, и только после этого ветки
+ * фиксируются COMMIT PREPARED. Ветки, оставшиеся подготовленными после сбоя координатора или шарда, завершает
+ * {@link InDoubtTransferRecovery}.
+ * <p>
+ * На всех шардах должен быть задан max_prepared_transactions больше нуля.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ShardTransactionCoordinator {
+    public static final String GID_PREFIX = "wallet-";
+
+    private final TransferDecisionLog decisionLog;
+
+    /**
+     * Работа на одном шарде. Шаблон привязан к соединению ветки, все его запросы выполняются в ее транзакции.
+     */
+    public record Branch(Shard shard, Consumer<JdbcTemplate> work) {
+    }
+
+    /**
+     * Выполнить ветки атомарно. Исключение из ветки отменяет все ветки и пробрасывается вызывающему.
+     *
+     * @param id     идентификатор изменения, из него строится идентификатор глобальной транзакции
+     * @param branches не больше одной ветки на шард
+     */
+    public void execute(UUID id, Collection<Branch> branches) {
+        List<Branch> ordered = new ArrayList<>(branches);
+        ordered.sort(Comparator.comparingInt(branch -> branch.shard().index()));
+
+        if (ordered.size() == 1) {
+            run(ordered.get(0), null);
+            return;
+        }
+
+        String gid = GID_PREFIX + id;
+        List<Shard> prepared = new ArrayList<>(ordered.size());
+
+        try {
+            for (Branch branch : ordered) {
+                run(branch, gid);
+                prepared.add(branch.shard());
+            }
+        } catch (RuntimeException e) {
+            prepared.forEach(shard -> finish(shard, "ROLLBACK PREPARED", gid));
+            throw e;
+        }
+
+        // Ошибка записи решения оставляет подготовленные ветки восстановлению: решение могло быть записано
+        if (!decisionLog.commit(gid)) {
+            prepared.forEach(shard -> finish(shard, "ROLLBACK PREPARED", gid));
+            throw new TransientDataAccessResourceException(
+                    String.format("Транзакция %s отменена восстановлением до записи решения", gid));
+        }
+
+        boolean completed = true;
+        for (Shard shard : prepared) {
+            completed &= finish(shard, "COMMIT PREPARED", gid);
+        }
+
+        if (completed) {
+            decisionLog.forget(gid);
+        }
+    }
+
+    /**
+     * Выполнить ветку и подготовить ее под идентификатором gid либо, если gid не задан, зафиксировать
+     */
+    private void run(Branch branch, String gid) {
+        branch.shard().jdbcTemplate().execute((ConnectionCallback<Void>) con -> {
+            con.setAutoCommit(false);
+
+            try {
+                branch.work().accept(new JdbcTemplate(new SingleConnectionDataSource(con, true)));
+
+                if (gid == null) {
+                    con.commit();
+                } else {
+                    execute(con, "PREPARE TRANSACTION '" + gid + "'");
+                }
+            } catch (RuntimeException | SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Завершить подготовленную ветку. Неудача не прерывает завершение остальных веток: ветку завершит восстановление.
+     */
+    private boolean finish(Shard shard, String command, String gid) {
+        try {
+            shard.jdbcTemplate().execute(command + " '" + gid + "'");
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Не удалось выполнить {} {} на шарде {}: {}", command, gid, shard.index(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static void execute(Connection con, String sql) throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package ru.yandex.wallet.repository.sharded;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.repository.MoneyTransferRepository;
+import ru.yandex.wallet.repository.jdbcimpl.PGJDBCMoneyTransferRepositoryImpl;
+import ru.yandex.wallet.repository.sharded.ShardRouter.Shard;
+import ru.yandex.wallet.repository.sharded.ShardTransactionCoordinator.Branch;
+import ru.yandex.wallet.util.TransactionIds;
+import ru.yandex.wallet.util.TransactionIds.CreationRange;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Переводы между игроками на шардах. Перевод внутри одного шарда выполняется одним запросом, как в
+ * {@link PGJDBCMoneyTransferRepositoryImpl}. Перевод между шардами выполняется двухфазной фиксацией: ветка шарда
+ * отправителя списывает деньги и записывает транзакцию, ветка шарда получателя зачисляет деньги и записывает строку
+ * индекса.
+ */
+@Repository
+@Profile("sharded")
+public class ShardedMoneyTransferRepositoryImpl implements MoneyTransferRepository {
+
+    /**
+     * Списание только при достаточном балансе с возвратом игрока после списания
+     */
+    private static final String DEBIT_RETURNING_QUERY = "UPDATE players SET balance = balance - ? " +
+            "WHERE login = ? AND balance >= ? RETURNING id, username, login, balance";
+
+    /**
+     * Выборка транзакций донора из пакета без блокировки: по ней определяются шарды получателей до начала веток
+     */
+    private static final String DONOR_TRANSACTIONS_QUERY =
+            "SELECT id, status, sender, recipient, amount FROM transactions WHERE id = ANY(?) AND sender = ?%s";
+
+    private static final String CREATION_RANGE_CONDITION = " AND created_at >= ? AND created_at < ?";
+
+    /**
+     * Число попыток подтверждения пакета, который изменился между чтением и блокировкой
+     */
+    private static final int APPROVAL_ATTEMPTS = 3;
+
+    private final ShardRouter shardRouter;
+    private final ShardTransactionCoordinator coordinator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Переводы внутри шарда, по экземпляру на шард
+     */
+    private final List<PGJDBCMoneyTransferRepositoryImpl> localTransfers;
+
+    private final RowMapper<Player> playerRowMapper = (rs, rowNum) -> Player.builder()
+            .id(rs.getLong("id"))
+            .username(rs.getString("username"))
+            .login(rs.getString("login"))
+            .balance(rs.getBigDecimal("balance"))
+            .build();
+
+    private final RowMapper<Transaction> transactionRowMapper = (rs, rowNum) -> Transaction.builder()
+            .id(rs.getObject("id", UUID.class))
+            .status(TransferRequestStatus.valueOf(rs.getString("status")))
+            .sender(rs.getString("sender"))
+            .recipient(rs.getString("recipient"))
+            .amount(rs.getBigDecimal("amount"))
+            .build();
+
+    public ShardedMoneyTransferRepositoryImpl(ShardRouter shardRouter, ShardTransactionCoordinator coordinator,
+                                              ApplicationEventPublisher eventPublisher) {
+        this.shardRouter = shardRouter;
+        this.coordinator = coordinator;
+        this.eventPublisher = eventPublisher;
+        this.localTransfers = shardRouter.shards().stream()
+                .map(shard -> new PGJDBCMoneyTransferRepositoryImpl(shard.jdbcTemplate(), eventPublisher))
+                .toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * При недостатке средств на другом шарде транзакция FAILED записывается отдельной двухфазной фиксацией после
+     * отмены перевода.
+     */
+    @Override
+    public Player transfer(MoneyTransferRequest request) {
+        String sender = request.getMoneyFrom();
+        String recipient = request.getMoneyTo();
+        Shard senderShard = shardRouter.shardOf(sender);
+        Shard recipientShard = shardRouter.shardOf(recipient);
+
+        if (senderShard.index() == recipientShard.index()) {
+            return localTransfers.get(senderShard.index()).transfer(request);
+        }
+
+        Transaction transaction = Transaction.builder()
+                .id(request.getId())
+                .status(TransferRequestStatus.APPROVED)
+                .sender(sender)
+                .recipient(recipient)
+                .amount(request.getAmount())
+                .createdAt(TransactionIds.creationTimeOrNow(request.getId()))
+                .build();
+        AtomicReference<Player> debited = new AtomicReference<>();
+
+        try {
+            coordinator.execute(request.getId(), List.of(
+                    new Branch(senderShard, shardTemplate -> {
+                        debited.set(debit(shardTemplate, sender, request.getAmount()));
+                        ShardedTransactionCrudRepositoryImpl.insert(shardTemplate, transaction);
+                    }),
+                    new Branch(recipientShard, shardTemplate -> {
+                        credit(shardTemplate, recipient, request.getAmount());
+                        ShardedTransactionCrudRepositoryImpl.insertIndex(shardTemplate, transaction);
+                    })));
+        } catch (DeficientBalanceException e) {
+            // Отдельная глобальная транзакция: восстановление могло уже записать отмену для ветки перевода
+            transaction.setStatus(TransferRequestStatus.FAILED);
+            coordinator.execute(TransactionIds.newId(),
+                    ShardedTransactionCrudRepositoryImpl.recordBranches(shardRouter, transaction));
+            throw e;
+        }
+
+        eventPublisher.publishEvent(new BalanceChangedEvent(List.of(sender, recipient)));
+        return debited.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Транзакции донора хранятся на его шарде. Ветка шарда донора блокирует транзакции и строки участников, списывает
+     * общую сумму и подтверждает транзакции; ветки остальных шардов зачисляют деньги своим получателям. Шарды
+     * получателей определяются чтением пакета до начала веток: если пакет успел измениться, подтверждение
+     * повторяется.
+     */
+    @Override
+    public Collection<TransactionOutcome> approvePendingTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return approve(donorLogin, ids);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == APPROVAL_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Collection<TransactionOutcome> approve(String donorLogin, Collection<UUID> ids) {
+        Shard donorShard = shardRouter.shardOf(donorLogin);
+        CreationRange range = TransactionIds.creationRange(ids);
+
+        Map<UUID, Transaction> donorTransactions = new HashMap<>();
+        donorShard.jdbcTemplate().query(donorTransactions(DONOR_TRANSACTIONS_QUERY, donorLogin, ids, range),
+                transactionRowMapper).forEach(transaction -> donorTransactions.put(transaction.getId(), transaction));
+
+        // Зачисления суммируются по получателю и группируются по шардам, TreeMap задает порядок обновления строк
+        Map<Integer, Map<String, BigDecimal>> creditsByShard = new TreeMap<>();
+        Set<UUID> approvedIds = new LinkedHashSet<>();
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (Transaction transaction : donorTransactions.values()) {
+            if (transaction.getStatus() == TransferRequestStatus.PENDING) {
+                int recipientShard = shardRouter.shardOf(transaction.getRecipient()).index();
+                creditsByShard.computeIfAbsent(recipientShard, index -> new TreeMap<>())
+                        .merge(transaction.getRecipient(), transaction.getAmount(), BigDecimal::add);
+                total = total.add(transaction.getAmount());
+                approvedIds.add(transaction.getId());
+            }
+        }
+
+        if (!approvedIds.isEmpty()) {
+            applyApproval(donorShard, donorLogin, creditsByShard, total, approvedIds, range);
+        }
+
+        List<TransactionOutcome> outcomes = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Transaction transaction = donorTransactions.get(id);
+
+            if (transaction == null) {
+                outcomes.add(new TransactionOutcome(id, null, false));
+            } else if (approvedIds.contains(id)) {
+                outcomes.add(new TransactionOutcome(id, TransferRequestStatus.APPROVED, true));
+            } else {
+                outcomes.add(new TransactionOutcome(id, transaction.getStatus(), false));
+            }
+        }
+
+        return outcomes;
+    }
+
+    private void applyApproval(Shard donorShard, String donorLogin,
+                               Map<Integer, Map<String, BigDecimal>> creditsByShard, BigDecimal total,
+                               Set<UUID> approvedIds, CreationRange range) {
+        Map<String, BigDecimal> localCredits = creditsByShard.getOrDefault(donorShard.index(), Collections.emptyMap());
+        List<Branch> branches = new ArrayList<>(creditsByShard.size() + 1);
+
+        branches.add(new Branch(donorShard, shardTemplate -> {
+            PreparedStatementCreator lockTransactions = donorTransactions(
+                    PGJDBCMoneyTransferRepositoryImpl.LOCK_DONOR_TRANSACTIONS_QUERY, donorLogin, approvedIds, range);
+            Set<UUID> pendingIds = new HashSet<>();
+            shardTemplate.query(lockTransactions, transactionRowMapper).stream()
+                    .filter(transaction -> transaction.getStatus() == TransferRequestStatus.PENDING)
+                    .forEach(transaction -> pendingIds.add(transaction.getId()));
+
+            if (!pendingIds.equals(approvedIds)) {
+                throw new ConcurrencyFailureException(
+                        String.format("Транзакции игрока с login=%s изменились во время подтверждения", donorLogin));
+            }
+
+            Set<String> participants = new TreeSet<>(localCredits.keySet());
+            participants.add(donorLogin);
+            lockPlayers(shardTemplate, participants);
+
+            if (shardTemplate.update(PGJDBCMoneyTransferRepositoryImpl.DEBIT_QUERY, total, donorLogin, total) == 0) {
+                throw new DeficientBalanceException(
+                        String.format("Не хватает деньги на балансе игрока с login=%s", donorLogin)
+                );
+            }
+
+            credit(shardTemplate, localCredits);
+            shardTemplate.update(approveQuery(approvedIds, range));
+        }));
+
+        creditsByShard.forEach((index, credits) -> {
+            if (index != donorShard.index()) {
+                branches.add(new Branch(shardRouter.shards().get(index), shardTemplate -> {
+                    lockPlayers(shardTemplate, credits.keySet());
+                    credit(shardTemplate, credits);
+                }));
+            }
+        });
+
+        coordinator.execute(TransactionIds.newId(), branches);
+
+        Set<String> participants = new TreeSet<>();
+        participants.add(donorLogin);
+        creditsByShard.values().forEach(credits -> participants.addAll(credits.keySet()));
+        eventPublisher.publishEvent(new BalanceChangedEvent(participants));
+    }
+
+    /**
+     * Списать деньги при достаточном балансе
+     *
+     * @return игрок с балансом после списания
+     * @throws NoSuchPlayerException      если игрок не существует
+     * @throws DeficientBalanceException если на балансе недостаточно средств
+     */
+    private Player debit(JdbcTemplate shardTemplate, String login, BigDecimal amount) {
+        List<Player> debited = shardTemplate.query(DEBIT_RETURNING_QUERY, playerRowMapper, amount, login, amount);
+
+        if (!debited.isEmpty()) {
+            return debited.get(0);
+        }
+
+        List<Long> ids = shardTemplate.queryForList("SELECT id FROM players WHERE login = ?", Long.class, login);
+
+        if (ids.isEmpty()) {
+            throw new NoSuchPlayerException(String.format("Пользователь с логином login=%s не существует", login));
+        }
+
+        throw new DeficientBalanceException(String.format("Не хватает деньги на балансе игрока с id=%d", ids.get(0)));
+    }
+
+    /**
+     * @throws NoSuchPlayerException если игрок не существует: внешнего ключа на получателя у шарда нет
+     */
+    private void credit(JdbcTemplate shardTemplate, String login, BigDecimal amount) {
+        if (shardTemplate.update(PGJDBCMoneyTransferRepositoryImpl.CREDIT_QUERY, amount, login) == 0) {
+            throw new NoSuchPlayerException(String.format("Пользователь с логином login=%s не существует", login));
+        }
+    }
+
+    private void credit(JdbcTemplate shardTemplate, Map<String, BigDecimal> credits) {
+        List<Object[]> creditArgs = new ArrayList<>(credits.size());
+        credits.forEach((recipient, amount) -> creditArgs.add(new Object[]{amount, recipient}));
+
+        int[] updated = shardTemplate.batchUpdate(PGJDBCMoneyTransferRepositoryImpl.CREDIT_QUERY, creditArgs);
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new NoSuchPlayerException(String.format("Пользователь с логином login=%s не существует",
+                        creditArgs.get(i)[1]));
+            }
+        }
+    }
+
+    private static void lockPlayers(JdbcTemplate shardTemplate, Collection<String> logins) {
+        PreparedStatementCreator lockPlayers = con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(
+                    PGJDBCMoneyTransferRepositoryImpl.LOCK_PLAYERS_QUERY);
+            preparedStatement.setArray(1, con.createArrayOf("varchar", logins.toArray()));
+            return preparedStatement;
+        };
+        shardTemplate.query(lockPlayers, (rs, rowNum) -> rs.getString("login"));
+    }
+
+    private static PreparedStatementCreator donorTransactions(String query, String donorLogin, Collection<UUID> ids,
+                                                              CreationRange range) {
+        return con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(
+                    String.format(query, range == null ? "" : CREATION_RANGE_CONDITION));
+            preparedStatement.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            preparedStatement.setString(2, donorLogin);
+            setCreationRange(preparedStatement, 3, range);
+            return preparedStatement;
+        };
+    }
+
+    private static PreparedStatementCreator approveQuery(Set<UUID> approvedIds, CreationRange range) {
+        return con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(String.format(
+                    PGJDBCMoneyTransferRepositoryImpl.APPROVE_QUERY, range == null ? "" : CREATION_RANGE_CONDITION));
+            preparedStatement.setString(1, TransferRequestStatus.APPROVED.name());
+            preparedStatement.setArray(2, con.createArrayOf("uuid", approvedIds.toArray()));
+            setCreationRange(preparedStatement, 3, range);
+            return preparedStatement;
+        };
+    }
+
+    private static void setCreationRange(PreparedStatement preparedStatement, int columnIndex, CreationRange range)
+            throws SQLException {
+        if (range != null) {
+            preparedStatement.setObject(columnIndex, range.from());
+            preparedStatement.setObject(columnIndex + 1, range.to());
+        }
+    }
+}
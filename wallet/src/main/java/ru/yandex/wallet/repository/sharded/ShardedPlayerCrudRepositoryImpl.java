@@ -0,0 +1,134 @@
+package ru.yandex.wallet.repository.sharded;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.exception.exceptions.PlayerAlreadyExistsException;
+import ru.yandex.wallet.repository.PlayerCrudRepository;
+import ru.yandex.wallet.repository.sharded.ShardRouter.Shard;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Репозиторий игроков, распределенных по шардам хешем логина. Поиск по логину и идентификатору обращается к одному
+ * шарду, поиск по имени и проверка уникальности имени при регистрации - ко всем.
+ */
+@Repository
+@Profile("sharded")
+@Qualifier("playerStorage")
+@RequiredArgsConstructor
+public class ShardedPlayerCrudRepositoryImpl implements PlayerCrudRepository {
+
+    private final ShardRouter shardRouter;
+
+    private RowMapper<Player> playerRowMapper = (rs, rowNum) -> Player.builder()
+            .id(rs.getLong("id"))
+            .login(rs.getString("login"))
+            .password(rs.getBytes("password"))
+            .username(rs.getString("username"))
+            .balance(rs.getBigDecimal("balance"))
+            .build();
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Последовательность идентификаторов шарда выдает только числа, остаток от деления которых на число шардов равен
+     * номеру шарда.
+     */
+    @Override
+    public Player create(Player player) {
+        checkPlayerExists(player);
+
+        Shard shard = shardRouter.shardOf(player.getLogin());
+        String creationQuery = "INSERT INTO players (id, username, login, password, balance) VALUES (?,?,?,?,?)";
+
+        long nextId = shard.jdbcTemplate().queryForObject("SELECT nextval('player_id_sequence')", Long.class);
+        player.setId(nextId);
+        player.setBalance(BigDecimal.ZERO);
+
+        shard.jdbcTemplate().update(creationQuery, nextId, player.getUsername(), player.getLogin(),
+                player.getPassword(), player.getBalance());
+
+        return player;
+    }
+
+    @Override
+    public void delete(Long id) {
+        shardRouter.shardOfPlayer(id).jdbcTemplate().update("DELETE FROM players WHERE id = ?", id);
+    }
+
+    @Override
+    public Player getById(Long id) {
+        try {
+            return shardRouter.shardOfPlayer(id).jdbcTemplate()
+                    .queryForObject("SELECT * FROM players WHERE id = ?", playerRowMapper, id);
+        } catch (EmptyResultDataAccessException e) {
+            throw new NoSuchPlayerException(String.format("Пользователь с id=%d не существует", id));
+        }
+    }
+
+    @Override
+    public Player getByLogin(String login) {
+        try {
+            return shardRouter.shardOf(login).jdbcTemplate()
+                    .queryForObject("SELECT * FROM players WHERE login = ?", playerRowMapper, login);
+        } catch (EmptyResultDataAccessException e) {
+            throw new NoSuchPlayerException(String.format("Пользователь с логином login=%s не существует", login));
+        }
+    }
+
+    @Override
+    public Player getByUsername(String username) {
+        for (Shard shard : shardRouter.shards()) {
+            List<Player> players = shard.jdbcTemplate()
+                    .query("SELECT * FROM players WHERE username = ?", playerRowMapper, username);
+
+            if (!players.isEmpty()) {
+                return players.get(0);
+            }
+        }
+
+        throw new NoSuchPlayerException(String.format("Пользователь с именем username=%s не существует", username));
+    }
+
+    @Override
+    public Player setBalance(String login, BigDecimal newBalance) {
+        shardRouter.shardOf(login).jdbcTemplate()
+                .update("UPDATE players SET balance = ? WHERE login = ?", newBalance, login);
+        return getByLogin(login);
+    }
+
+    /**
+     * Логин уникален на своем шарде и проверяется ограничением БД; имя проверяется на всех шардах, одновременная
+     * регистрация одного имени на разных шардах не исключается.
+     *
+     * @throws PlayerAlreadyExistsException
+     */
+    private void checkPlayerExists(Player player) {
+        Boolean loginTaken = shardRouter.shardOf(player.getLogin()).jdbcTemplate().queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM players WHERE login = ?)", Boolean.class, player.getLogin());
+
+        if (Boolean.TRUE.equals(loginTaken)) {
+            throw new PlayerAlreadyExistsException(
+                    String.format("Пользователь с таким логином login=%s уже существует", player.getLogin())
+            );
+        }
+
+        for (Shard shard : shardRouter.shards()) {
+            Boolean usernameTaken = shard.jdbcTemplate().queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM players WHERE username = ?)", Boolean.class, player.getUsername());
+
+            if (Boolean.TRUE.equals(usernameTaken)) {
+                throw new PlayerAlreadyExistsException(
+                        String.format("Пользователь с таким именем username=%s уже существует", player.getUsername())
+                );
+            }
+        }
+    }
+}
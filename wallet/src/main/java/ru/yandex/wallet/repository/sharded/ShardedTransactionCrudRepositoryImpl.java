@@ -0,0 +1,529 @@
+package ru.yandex.wallet.repository.sharded;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.exception.exceptions.NoSuchTransactionException;
+import ru.yandex.wallet.exception.exceptions.TransactionAlreadyExistsException;
+import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
+import ru.yandex.wallet.repository.TransactionCrudRepository;
+import ru.yandex.wallet.repository.jdbcimpl.PGJDBCTransactionCrudRepositoryImpl;
+import ru.yandex.wallet.repository.jdbcimpl.TransactionQueries;
+import ru.yandex.wallet.repository.sharded.ShardRouter.Shard;
+import ru.yandex.wallet.repository.sharded.ShardTransactionCoordinator.Branch;
+import ru.yandex.wallet.util.TransactionIds;
+import ru.yandex.wallet.util.TransactionIds.CreationRange;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Репозиторий транзакций, распределенных по шардам. Транзакция хранится на шарде отправителя; если получатель на
+ * другом шарде, там же создается строка transaction_index. Запросы по отправителю обращаются к одному шарду, запросы
+ * по получателю - к его шарду и к шардам отправителей из индекса, результаты объединяются в порядке (created_at, id).
+ */
+@Repository
+@Profile("sharded")
+@RequiredArgsConstructor
+public class ShardedTransactionCrudRepositoryImpl implements TransactionCrudRepository {
+
+    public static final String INSERT_QUERY = "INSERT INTO transactions (id, status, sender, recipient, amount, " +
+            "created_at) VALUES (?,?,?,?,?,?)";
+
+    public static final String INSERT_INDEX_QUERY =
+            "INSERT INTO transaction_index (id, sender, recipient, created_at) VALUES (?,?,?,?)";
+
+    private static final String TRANSACTION_COLUMNS = "id, status, sender, recipient, amount, created_at";
+
+    private static final String CREATION_RANGE_CONDITION = " AND created_at >= ? AND created_at < ?";
+
+    /**
+     * Страница индекса транзакций получателя с других шардов. Обслуживается индексом (recipient, created_at, id).
+     */
+    private static final String INDEX_PAGE_QUERY = "SELECT id, sender FROM transaction_index WHERE recipient = ?%s " +
+            "ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    private static final String INDEX_KEYSET_CONDITION = " AND (created_at, id) < (?, ?)";
+
+    /**
+     * Порядок (created_at, id); идентификаторы сравниваются как беззнаковые, как uuid в PostgreSQL
+     */
+    static final Comparator<Transaction> CREATION_ORDER = Comparator
+            .comparing(Transaction::getCreatedAt)
+            .thenComparing(Transaction::getId, ShardedTransactionCrudRepositoryImpl::compareIds);
+
+    private final ShardRouter shardRouter;
+    private final ShardTransactionCoordinator coordinator;
+
+    private RowMapper<Transaction> transactionRowMapper = (rs, rowNum) -> Transaction.builder()
+            .id(rs.getObject("id", UUID.class))
+            .status(TransferRequestStatus.valueOf(rs.getString("status")))
+            .sender(rs.getString("sender"))
+            .recipient(rs.getString("recipient"))
+            .amount(rs.getBigDecimal("amount"))
+            .createdAt(rs.getObject("created_at", LocalDateTime.class))
+            .build();
+
+    /**
+     * Транзакция и шард, на котором она хранится
+     */
+    private record Located(Shard shard, Transaction transaction) {
+    }
+
+    private record IndexEntry(UUID id, String sender) {
+    }
+
+    /**
+     * Записать транзакцию на шарде отправителя
+     */
+    public static void insert(JdbcTemplate shardTemplate, Transaction transaction) {
+        shardTemplate.update(INSERT_QUERY, transaction.getId(), transaction.getStatus().name(),
+                transaction.getSender(), transaction.getRecipient(), transaction.getAmount(),
+                transaction.getCreatedAt());
+    }
+
+    /**
+     * Записать строку индекса на шарде получателя
+     */
+    public static void insertIndex(JdbcTemplate shardTemplate, Transaction transaction) {
+        shardTemplate.update(INSERT_INDEX_QUERY, transaction.getId(), transaction.getSender(),
+                transaction.getRecipient(), transaction.getCreatedAt());
+    }
+
+    /**
+     * Ветки записи транзакции: строка транзакции на шарде отправителя и, если получатель на другом шарде, строка
+     * индекса на шарде получателя
+     */
+    public static List<Branch> recordBranches(ShardRouter shardRouter, Transaction transaction) {
+        Shard senderShard = shardRouter.shardOf(transaction.getSender());
+        Shard recipientShard = shardRouter.shardOf(transaction.getRecipient());
+
+        if (senderShard.index() == recipientShard.index()) {
+            return List.of(new Branch(senderShard, shardTemplate -> insert(shardTemplate, transaction)));
+        }
+
+        return List.of(new Branch(senderShard, shardTemplate -> insert(shardTemplate, transaction)),
+                new Branch(recipientShard, shardTemplate -> insertIndex(shardTemplate, transaction)));
+    }
+
+    @Override
+    public Transaction create(MoneyTransferRequest request) {
+        checkTransactionExists(request);
+
+        Transaction transaction = Transaction.builder()
+                .id(request.getId())
+                .status(TransferRequestStatus.PENDING)
+                .sender(request.getMoneyFrom())
+                .recipient(request.getMoneyTo())
+                .amount(request.getAmount())
+                .createdAt(TransactionIds.creationTimeOrNow(request.getId()))
+                .build();
+
+        coordinator.execute(request.getId(), recordBranches(shardRouter, transaction));
+        return transaction;
+    }
+
+    @Override
+    public Transaction getById(UUID id) {
+        return locate(id).transaction();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Если отправитель не задан, а получатель задан, опрашиваются шард получателя и шарды отправителей из его
+     * индекса; если не задан ни один - все шарды.
+     */
+    @Override
+    public Collection<Transaction> getTransactionsBySenderAndRecipientAndStatus(String sender,
+                                                                                String recipient,
+                                                                                TransferRequestStatus status) {
+        String selectQuery = TransactionQueries.buildDynamicQuery(sender, recipient, status);
+
+        List<Object> args = new ArrayList<>(2);
+        if (sender != null) {
+            args.add(sender);
+        }
+        if (recipient != null) {
+            args.add(recipient);
+        }
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (Shard shard : shardsFor(sender, recipient)) {
+            transactions.addAll(shard.jdbcTemplate().query(selectQuery, transactionRowMapper, args.toArray()));
+        }
+
+        transactions.sort(CREATION_ORDER);
+        return transactions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Transaction> getDebitingTransactions(String login) {
+        return getTransactionsBySenderAndRecipientAndStatus(login, null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Transaction> getCreditingTransactions(String login) {
+        return getTransactionsBySenderAndRecipientAndStatus(null, login, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> getDebitingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        return getPageByColumn(shardRouter.shardOf(login), "sender", login, cursor, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Страница собирается из переводов с шарда получателя и переводов с других шардов, найденных по индексу; каждая
+     * часть ограничена limit строками.
+     */
+    @Override
+    public List<Transaction> getCreditingTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        Shard shard = shardRouter.shardOf(login);
+
+        List<Transaction> page = new ArrayList<>(getPageByColumn(shard, "recipient", login, cursor, limit));
+        page.addAll(getIndexedPage(shard, login, cursor, limit));
+        return newestFirst(page, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> getTransactionsPage(String login, TransactionCursor cursor, int limit) {
+        Shard shard = shardRouter.shardOf(login);
+        String selectQuery = TransactionQueries.buildCombinedPageQuery(cursor != null);
+
+        List<Object> args = new ArrayList<>();
+        args.add(login);
+        addKeysetArgs(args, cursor);
+        args.add(limit);
+        args.add(login);
+        args.add(login);
+        addKeysetArgs(args, cursor);
+        args.add(limit);
+        args.add(limit);
+
+        List<Transaction> page = new ArrayList<>(
+                shard.jdbcTemplate().query(selectQuery, transactionRowMapper, args.toArray()));
+        page.addAll(getIndexedPage(shard, login, cursor, limit));
+        return newestFirst(page, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction approveTransaction(String donorUsername, UUID id) {
+        Located located = locate(id);
+        Transaction transaction = located.transaction();
+
+        if (!transaction.getSender().equals(donorUsername))
+            throw new TransactionStatusException("Вы не можете подтвердить чужую транзакцию!");
+
+        if (!transaction.getStatus().equals(TransferRequestStatus.PENDING))
+            throw new TransactionStatusException("Только транзакции в режиме подтверждения могут быть одобрены");
+
+        setStatus(located, TransferRequestStatus.APPROVED);
+        return transaction;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction declineTransaction(String donorUsername, UUID id) {
+        Located located = locate(id);
+        Transaction transaction = located.transaction();
+
+        if (!transaction.getSender().equals(donorUsername))
+            throw new TransactionStatusException("Вы не можете отклонить чужую транзакцию!");
+
+        if (!transaction.getStatus().equals(TransferRequestStatus.PENDING))
+            throw new TransactionStatusException("Только транзакции в режиме подтверждения могут быть отклонены");
+
+        setStatus(located, TransferRequestStatus.DECLINED);
+        return transaction;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Все транзакции донора хранятся на его шарде, поэтому пакет отклоняется одним запросом к нему.
+     */
+    @Override
+    public Collection<TransactionOutcome> declineTransactions(String donorLogin, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        CreationRange range = TransactionIds.creationRange(ids);
+        String declineQuery = String.format(PGJDBCTransactionCrudRepositoryImpl.DECLINE_QUERY,
+                creationRangeCondition(range));
+
+        PreparedStatementCreator psc = con -> {
+            Array idArray = con.createArrayOf("uuid", ids.toArray());
+            PreparedStatement preparedStatement = con.prepareStatement(declineQuery);
+            int columnIndex = 1;
+
+            preparedStatement.setArray(columnIndex++, idArray);
+            preparedStatement.setString(columnIndex++, donorLogin);
+            columnIndex = setCreationRange(preparedStatement, columnIndex, range);
+            preparedStatement.setArray(columnIndex++, idArray);
+            preparedStatement.setString(columnIndex++, donorLogin);
+            setCreationRange(preparedStatement, columnIndex, range);
+
+            return preparedStatement;
+        };
+
+        return shardRouter.shardOf(donorLogin).jdbcTemplate().query(psc, (rs, rowNum) -> {
+            String status = rs.getString("status");
+            return new TransactionOutcome(rs.getObject("id", UUID.class),
+                    status == null ? null : TransferRequestStatus.valueOf(status),
+                    rs.getBoolean("applied"));
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Transaction setFailed(UUID id) {
+        Located located = locate(id);
+        setStatus(located, TransferRequestStatus.FAILED);
+        return located.transaction();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long countPending() {
+        long count = 0;
+
+        for (Shard shard : shardRouter.shards()) {
+            Long shardCount = shard.jdbcTemplate().queryForObject(
+                    "SELECT count(*) FROM transactions WHERE status = 'PENDING'", Long.class);
+            count += shardCount == null ? 0 : shardCount;
+        }
+
+        return count;
+    }
+
+    /**
+     * Найти транзакцию по идентификатору. Шард отправителя по идентификатору неизвестен, поэтому опрашиваются все
+     * шарды, поиск в каждом ограничен диапазоном времени создания.
+     *
+     * @throws NoSuchTransactionException
+     */
+    private Located locate(UUID id) {
+        CreationRange range = TransactionIds.creationRange(List.of(id));
+        String selectQuery = "SELECT " + TRANSACTION_COLUMNS + " FROM transactions WHERE id = ?"
+                + creationRangeCondition(range);
+
+        for (Shard shard : shardRouter.shards()) {
+            List<Transaction> transactions = shard.jdbcTemplate()
+                    .query(selectQuery, transactionRowMapper, withCreationRange(range, id));
+
+            if (!transactions.isEmpty()) {
+                return new Located(shard, transactions.get(0));
+            }
+        }
+
+        throw new NoSuchTransactionException(String.format("Не существует транзакции с id=%s", id));
+    }
+
+    private void setStatus(Located located, TransferRequestStatus status) {
+        UUID id = located.transaction().getId();
+        CreationRange range = TransactionIds.creationRange(List.of(id));
+        String updateQuery = "UPDATE transactions SET status = ? WHERE id = ?" + creationRangeCondition(range);
+
+        located.shard().jdbcTemplate().update(updateQuery, withCreationRange(range, status.name(), id));
+        located.transaction().setStatus(status);
+    }
+
+    /**
+     * Идентификаторы транзакций уникальны глобально (UUIDv7), проверяется только шард отправителя.
+     *
+     * @throws TransactionAlreadyExistsException
+     */
+    private void checkTransactionExists(MoneyTransferRequest request) {
+        CreationRange range = TransactionIds.creationRange(List.of(request.getId()));
+        String checkQuery = "SELECT EXISTS (SELECT 1 FROM transactions WHERE id = ?" + creationRangeCondition(range)
+                + ")";
+
+        Boolean exists = shardRouter.shardOf(request.getMoneyFrom()).jdbcTemplate()
+                .queryForObject(checkQuery, Boolean.class, withCreationRange(range, request.getId()));
+
+        if (Boolean.TRUE.equals(exists)) {
+            throw new TransactionAlreadyExistsException(
+                    String.format("Транзакция с id=%s уже существует", request.getId())
+            );
+        }
+    }
+
+    /**
+     * Шарды, на которых могут быть транзакции с заданными отправителем и получателем
+     */
+    private Collection<Shard> shardsFor(String sender, String recipient) {
+        if (sender != null) {
+            return List.of(shardRouter.shardOf(sender));
+        }
+
+        if (recipient == null) {
+            return shardRouter.shards();
+        }
+
+        Shard recipientShard = shardRouter.shardOf(recipient);
+        Map<Integer, Shard> shards = new LinkedHashMap<>();
+        shards.put(recipientShard.index(), recipientShard);
+
+        recipientShard.jdbcTemplate()
+                .queryForList("SELECT DISTINCT sender FROM transaction_index WHERE recipient = ?", String.class,
+                        recipient)
+                .forEach(indexedSender -> {
+                    Shard senderShard = shardRouter.shardOf(indexedSender);
+                    shards.putIfAbsent(senderShard.index(), senderShard);
+                });
+
+        return shards.values();
+    }
+
+    /**
+     * Страница транзакций по одному столбцу (отправитель или получатель) на одном шарде
+     *
+     * @param column столбец фильтрации, только из фиксированного набора значений
+     */
+    private List<Transaction> getPageByColumn(Shard shard, String column, String login, TransactionCursor cursor,
+                                              int limit) {
+        String selectQuery = TransactionQueries.buildPageQuery(column, cursor != null);
+
+        List<Object> args = new ArrayList<>();
+        args.add(login);
+        addKeysetArgs(args, cursor);
+        args.add(limit);
+
+        return shard.jdbcTemplate().query(selectQuery, transactionRowMapper, args.toArray());
+    }
+
+    /**
+     * Страница переводов получателю с других шардов: идентификаторы берутся из индекса на шарде получателя, сами
+     * транзакции читаются с шардов отправителей одним запросом на шард
+     */
+    private List<Transaction> getIndexedPage(Shard shard, String login, TransactionCursor cursor, int limit) {
+        List<Object> args = new ArrayList<>(4);
+        args.add(login);
+        if (cursor != null) {
+            args.add(cursor.getCreatedAt());
+            args.add(cursor.getId());
+        }
+        args.add(limit);
+
+        List<IndexEntry> entries = shard.jdbcTemplate().query(
+                String.format(INDEX_PAGE_QUERY, cursor != null ? INDEX_KEYSET_CONDITION : ""),
+                (rs, rowNum) -> new IndexEntry(rs.getObject("id", UUID.class), rs.getString("sender")),
+                args.toArray());
+
+        Map<Integer, Set<UUID>> idsByShard = new LinkedHashMap<>();
+        for (IndexEntry entry : entries) {
+            idsByShard.computeIfAbsent(shardRouter.shardOf(entry.sender()).index(), index -> new LinkedHashSet<>())
+                    .add(entry.id());
+        }
+
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+        idsByShard.forEach((index, ids) ->
+                transactions.addAll(getByIds(shardRouter.shards().get(index), ids)));
+        return transactions;
+    }
+
+    private List<Transaction> getByIds(Shard shard, Collection<UUID> ids) {
+        CreationRange range = TransactionIds.creationRange(ids);
+        String selectQuery = "SELECT " + TRANSACTION_COLUMNS + " FROM transactions WHERE id = ANY(?)"
+                + creationRangeCondition(range);
+
+        PreparedStatementCreator psc = con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(selectQuery);
+            preparedStatement.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            setCreationRange(preparedStatement, 2, range);
+            return preparedStatement;
+        };
+
+        return shard.jdbcTemplate().query(psc, transactionRowMapper);
+    }
+
+    private static List<Transaction> newestFirst(List<Transaction> transactions, int limit) {
+        transactions.sort(CREATION_ORDER.reversed());
+        return transactions.size() > limit ? new ArrayList<>(transactions.subList(0, limit)) : transactions;
+    }
+
+    private void addKeysetArgs(List<Object> args, TransactionCursor cursor) {
+        if (cursor != null) {
+            args.add(cursor.getCreatedAt());
+            args.add(cursor.getCreatedAt());
+            args.add(cursor.getId());
+        }
+    }
+
+    private static String creationRangeCondition(CreationRange range) {
+        return range == null ? "" : CREATION_RANGE_CONDITION;
+    }
+
+    private static Object[] withCreationRange(CreationRange range, Object... args) {
+        if (range == null) {
+            return args;
+        }
+
+        Object[] result = Arrays.copyOf(args, args.length + 2);
+        result[args.length] = range.from();
+        result[args.length + 1] = range.to();
+        return result;
+    }
+
+    private static int setCreationRange(PreparedStatement preparedStatement, int columnIndex, CreationRange range)
+            throws SQLException {
+        if (range == null) {
+            return columnIndex;
+        }
+
+        preparedStatement.setObject(columnIndex++, range.from());
+        preparedStatement.setObject(columnIndex++, range.to());
+        return columnIndex;
+    }
+
+    private static int compareIds(UUID left, UUID right) {
+        int result = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return result != 0 ? result
+                : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    }
+}
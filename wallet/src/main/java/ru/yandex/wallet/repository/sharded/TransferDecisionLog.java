@@ -0,0 +1,73 @@
+package ru.yandex.wallet.repository.sharded;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Журнал решений двухфазной фиксации на сервере-координаторе (основной источник соединений приложения, не шард).
+ * Координатор записывает решение о фиксации после подготовки всех веток и до COMMIT PREPARED; восстановление,
+ * не нашедшее решения, записывает отмену. Первичный ключ по идентификатору глобальной транзакции гарантирует, что
+ * решение принимается ровно одно: запись, проигравшая гонку, не вставляется.
+ */
+@RequiredArgsConstructor
+public class TransferDecisionLog {
+    private static final String DECIDE_QUERY =
+            "INSERT INTO transfer_decisions (gid, decision) VALUES (?, ?) ON CONFLICT (gid) DO NOTHING";
+
+    private static final String DECISION_QUERY = "SELECT decision FROM transfer_decisions WHERE gid = ?";
+
+    private static final String FORGET_QUERY =
+            "DELETE FROM transfer_decisions WHERE decided_at < now() - ? * interval '1 millisecond' " +
+                    "AND gid <> ALL(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public enum Decision {
+        COMMIT, ABORT
+    }
+
+    /**
+     * Записать решение о фиксации
+     *
+     * @return false, если восстановление уже отменило транзакцию
+     */
+    public boolean commit(String gid) {
+        return jdbcTemplate.update(DECIDE_QUERY, gid, Decision.COMMIT.name()) == 1;
+    }
+
+    /**
+     * Решение для подготовленной ветки, найденной восстановлением. Если координатор решения не записал, записывается
+     * отмена.
+     */
+    public Decision decide(String gid) {
+        jdbcTemplate.update(DECIDE_QUERY, gid, Decision.ABORT.name());
+        return Decision.valueOf(jdbcTemplate.queryForObject(DECISION_QUERY, String.class, gid));
+    }
+
+    /**
+     * Удалить решение после фиксации всех веток
+     */
+    public void forget(String gid) {
+        jdbcTemplate.update("DELETE FROM transfer_decisions WHERE gid = ?", gid);
+    }
+
+    /**
+     * Удалить решения старше retention, кроме решений по транзакциям, ветки которых еще не завершены
+     *
+     * @return число удаленных решений
+     */
+    public int forgetOlderThan(Duration retention, Collection<String> inDoubt) {
+        PreparedStatementCreator forget = con -> {
+            PreparedStatement preparedStatement = con.prepareStatement(FORGET_QUERY);
+            preparedStatement.setLong(1, retention.toMillis());
+            preparedStatement.setArray(2, con.createArrayOf("varchar", inDoubt.toArray()));
+            return preparedStatement;
+        };
+        return jdbcTemplate.update(forget);
+    }
+}
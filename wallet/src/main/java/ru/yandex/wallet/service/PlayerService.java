@@ -6,6 +6,8 @@ import model.dto.out.BalanceDto;
 import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
 import ru.yandex.wallet.domain.dto.MoneyTransferResponse;
 import ru.yandex.wallet.domain.dto.TransactionDto;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.domain.dto.TransactionPageDto;
 import ru.yandex.wallet.exception.exceptions.BadCredentialsException;
 
 import java.util.Collection;
@@ -59,14 +61,23 @@ public interface PlayerService {
     Collection<MoneyTransferRequest> getPendingMoneyRequests(String login);
 
     /**
-     * Подтвердить запрос на перевод денежной суммы игроку
+     * Подтвердить запросы на перевод денежных сумм игрокам. Запросы подтверждаются все вместе: если на балансе не
+     * хватает средств на их общую сумму, не подтверждается ни один.
      *
-     * @param donorUsername       отправитель
+     * @param donorLogin       логин отправителя
      * @param transactionsList объект, содержащий коллекцию id транзакций в строковом представлении
+     * @return результат обработки по каждой валидной транзакции
      */
-    Collection<MoneyTransferResponse> approvePendingMoneyRequest(String donorUsername, TransactionsListDto transactionsList);
+    Collection<TransactionOutcome> approvePendingMoneyRequest(String donorLogin, TransactionsListDto transactionsList);
 
-    void declinePendingRequest(String donorUsername, TransactionsListDto transactionsList);
+    /**
+     * Отклонить запросы на перевод денежных сумм игрокам
+     *
+     * @param donorLogin       логин отправителя
+     * @param transactionsList объект, содержащий коллекцию id транзакций в строковом представлении
+     * @return результат обработки по каждой валидной транзакции
+     */
+    Collection<TransactionOutcome> declinePendingRequest(String donorLogin, TransactionsListDto transactionsList);
 
     /**
      * Получить историю транзакций пользователя
@@ -74,4 +85,13 @@ public interface PlayerService {
      * @param action действия пользователя (списание или зачисление)
      */
     Collection<TransactionDto> getHistory(String login, PlayerAction action);
+
+    /**
+     * Получить страницу истории транзакций пользователя, от новых к старым
+     *
+     * @param action действия пользователя (списание или зачисление), если null - то все транзакции
+     * @param cursor курсор из предыдущей страницы, если null - то первая страница
+     * @param limit  размер страницы, если null - то размер по умолчанию
+     */
+    TransactionPageDto getHistoryPage(String login, PlayerAction action, String cursor, Integer limit);
 }
@@ -11,4 +11,9 @@ public interface PlayerSessionService {
     UUID open(AuthenticatedPlayerDto authentication);
 
     void close(UUID id);
+
+    /**
+     * Число открытых сессий
+     */
+    long count();
 }
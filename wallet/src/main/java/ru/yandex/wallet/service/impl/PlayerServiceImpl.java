@@ -7,6 +7,7 @@ import model.dto.out.BalanceDto;
 import org.springframework.stereotype.Service;
 import ru.yandex.wallet.domain.Player;
 import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
 import ru.yandex.wallet.domain.TransferRequestStatus;
 import ru.yandex.wallet.domain.dto.*;
 import ru.yandex.wallet.domain.mapper.MoneyTransferMapper;
@@ -15,22 +16,29 @@ import ru.yandex.wallet.domain.mapper.TransactionMapper;
 import ru.yandex.wallet.exception.exceptions.BadCredentialsException;
 import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
 import ru.yandex.wallet.exception.exceptions.PlayerAlreadyExistsException;
+import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
+import ru.yandex.wallet.metrics.WalletMetrics;
+import ru.yandex.wallet.repository.MoneyTransferRepository;
 import ru.yandex.wallet.repository.PlayerCrudRepository;
 import ru.yandex.wallet.repository.TransactionCrudRepository;
 import ru.yandex.wallet.service.PlayerAction;
 import ru.yandex.wallet.service.PlayerService;
+import ru.yandex.wallet.util.PasswordHashes;
+import ru.yandex.wallet.util.TransactionIds;
 
-import java.math.BigDecimal;
-import java.security.MessageDigest;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PlayerServiceImpl implements PlayerService {
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final PlayerCrudRepository playerRepository;
     private final TransactionCrudRepository transactionRepository;
-    private final MessageDigest messageDigest;
+    private final MoneyTransferRepository moneyTransferRepository;
+    private final WalletMetrics walletMetrics;
 
     private PlayerMapper playerMapper = PlayerMapper.INSTANCE;
     private TransactionMapper transactionMapper = TransactionMapper.INSTANCE;
@@ -43,7 +51,7 @@ public class PlayerServiceImpl implements PlayerService {
     public AuthenticatedPlayerDto authenticate(UnsecuredAuthenticationRequestDto unsecuredAuthenticationRequest)
             throws BadCredentialsException {
         Player player = playerRepository.getByLogin(unsecuredAuthenticationRequest.getLogin());
-        byte[] hashedPassword = messageDigest.digest(unsecuredAuthenticationRequest.getPassword().getBytes());
+        byte[] hashedPassword = PasswordHashes.hash(unsecuredAuthenticationRequest.getPassword());
 
         if (!Arrays.equals(player.getPassword(), hashedPassword)) {
             throw new BadCredentialsException("Некорректный пароль");
@@ -61,7 +69,7 @@ public class PlayerServiceImpl implements PlayerService {
             Player newPlayer = Player.builder()
                     .username(playerCreationRequest.getUsername())
                     .login(playerCreationRequest.getLogin())
-                    .password(messageDigest.digest(playerCreationRequest.getPassword().getBytes()))
+                    .password(PasswordHashes.hash(playerCreationRequest.getPassword()))
                     .build();
 
             Player player = playerRepository.create(newPlayer);
@@ -86,17 +94,29 @@ public class PlayerServiceImpl implements PlayerService {
      */
     @Override
     public BalanceDto transferMoneyTo(String sender, PlayerTransferMoneyRequestDto moneyRequest) {
-        Player receiver = playerRepository.getByLogin(moneyRequest.getRecipient());
-        UUID transactionId = UUID.randomUUID();
+        if (sender.equals(moneyRequest.getRecipient())) {
+            throw new TransactionStatusException("Нельзя перевести деньги самому себе");
+        }
+
+        if (moneyRequest.getAmount() <= 0) {
+            throw new TransactionStatusException("Сумма перевода должна быть положительной");
+        }
+
+        UUID transactionId = TransactionIds.newId();
 
         MoneyTransferRequest moneyTransferRequest =
                 moneyTransferMapper.toMoneyTransferRequest(transactionId, sender, moneyRequest);
-        Transaction transaction = transactionRepository.create(moneyTransferRequest);
+        Player senderAfterTransfer;
 
-        MoneyTransferResponse moneyTransferResponse =
-                transferMoneyBetweenAccounts(transaction, moneyTransferRequest);
+        try {
+            senderAfterTransfer = moneyTransferRepository.transfer(moneyTransferRequest);
+        } catch (DeficientBalanceException e) {
+            walletMetrics.transferFailed();
+            throw e;
+        }
+        walletMetrics.transferApproved();
 
-        return moneyTransferMapper.toBalanceDto(moneyTransferResponse);
+        return playerMapper.toBalanceDto(senderAfterTransfer);
     }
 
     /**
@@ -106,11 +126,12 @@ public class PlayerServiceImpl implements PlayerService {
     public MoneyTransferResponse requestMoneyFrom(String requesterLogin, PlayerRequestMoneyDto requestMoneyDto) {
         Player requester = playerRepository.getByLogin(requesterLogin);
         Player donor = playerRepository.getByLogin(requestMoneyDto.getDonor());
-        UUID transactionId = UUID.randomUUID();
+        UUID transactionId = TransactionIds.newId();
 
         MoneyTransferRequest moneyTransferRequest =
                 moneyTransferMapper.toMoneyTransferRequest(transactionId, requesterLogin, requestMoneyDto);
         Transaction transaction = transactionRepository.create(moneyTransferRequest);
+        walletMetrics.moneyRequested();
 
         return new MoneyTransferResponse(
                 playerMapper.toAuthenticatedPlayerDto(requester),
@@ -136,30 +157,37 @@ public class PlayerServiceImpl implements PlayerService {
      * {@inheritDoc}
      */
     @Override
-    public Collection<MoneyTransferResponse> approvePendingMoneyRequest(String donorUsername, TransactionsListDto transactionsList) {
+    public Collection<TransactionOutcome> approvePendingMoneyRequest(String donorLogin,
+                                                                     TransactionsListDto transactionsList) {
         List<UUID> validIds = extractValidUUIDs(transactionsList.getIds());
-        List<MoneyTransferResponse> moneyTransferResponseList = new ArrayList<>();
 
-        for (UUID transactionId : validIds) {
-            Transaction transaction = transactionRepository.approveTransaction(donorUsername, transactionId);
-            MoneyTransferResponse moneyTransferResponse = transferMoneyBetweenAccounts(transaction,
-                    transactionMapper.toMoneyTransferRequest(transaction));
-            moneyTransferResponseList.add(moneyTransferResponse);
+        if (validIds.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        return moneyTransferResponseList;
+        Collection<TransactionOutcome> outcomes =
+                moneyTransferRepository.approvePendingTransactions(donorLogin, validIds);
+        walletMetrics.approveBatch(validIds.size(), outcomes);
+
+        return outcomes;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void declinePendingRequest(String donorUsername, TransactionsListDto transactionsList) {
+    public Collection<TransactionOutcome> declinePendingRequest(String donorLogin,
+                                                                TransactionsListDto transactionsList) {
         List<UUID> validIds = extractValidUUIDs(transactionsList.getIds());
 
-        for (UUID transactionId : validIds) {
-            transactionRepository.declineTransaction(donorUsername, transactionId);
+        if (validIds.isEmpty()) {
+            return Collections.emptyList();
         }
+
+        Collection<TransactionOutcome> outcomes = transactionRepository.declineTransactions(donorLogin, validIds);
+        walletMetrics.declineBatch(validIds.size(), outcomes);
+
+        return outcomes;
     }
 
     /**
@@ -194,38 +222,41 @@ public class PlayerServiceImpl implements PlayerService {
     }
 
     /**
-     * Метод, отвественный за перевод денег между двумя пользователями
-     *
-     * @param transaction          открытая транзакция
-     * @param moneyTransferRequest обертка над запросом денежных средств
+     * {@inheritDoc}
+     * <p>
+     * Из БД запрашивается на одну транзакцию больше размера страницы: по ее наличию определяется, есть ли следующая
+     * страница.
      */
-    private MoneyTransferResponse transferMoneyBetweenAccounts(Transaction transaction,
-                                                               MoneyTransferRequest moneyTransferRequest) {
-        Player sender = playerRepository.getByLogin(moneyTransferRequest.getMoneyFrom());
-        Player recipient = playerRepository.getByLogin(moneyTransferRequest.getMoneyTo());
-
-        BigDecimal balanceAfterMoneyWithdrawal = sender.getBalance().subtract(moneyTransferRequest.getAmount());
-
-        if (balanceAfterMoneyWithdrawal.signum() < 0) {
-            transactionRepository.setFailed(transaction.getId());
-            transaction.setStatus(TransferRequestStatus.FAILED);
-            throw new DeficientBalanceException(
-                    String.format("Не хватает деньги на балансе игрока с id=%d", sender.getId())
-            );
+    @Override
+    public TransactionPageDto getHistoryPage(String login, PlayerAction action, String cursor, Integer limit) {
+        int pageSize = limit == null
+                ? DEFAULT_HISTORY_PAGE_SIZE
+                : Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        TransactionCursor after = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+
+        List<Transaction> transactions;
+
+        if (action == null) {
+            transactions = transactionRepository.getTransactionsPage(login, after, pageSize + 1);
+        } else {
+            transactions = switch (action) {
+                case DEBIT -> transactionRepository.getDebitingTransactionsPage(login, after, pageSize + 1);
+                case CREDIT -> transactionRepository.getCreditingTransactionsPage(login, after, pageSize + 1);
+            };
         }
 
-        sender = playerRepository.setBalance(sender.getLogin(), balanceAfterMoneyWithdrawal);
-        recipient = playerRepository.setBalance(recipient.getLogin(),
-                recipient.getBalance().add(moneyTransferRequest.getAmount()));
+        String nextCursor = null;
 
-        transaction.setStatus(TransferRequestStatus.APPROVED);
-        Transaction approvedTransaction =
-                transactionRepository.approveTransaction(sender.getLogin(), transaction.getId());
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            nextCursor = TransactionCursor.of(transactions.get(pageSize - 1)).encode();
+        }
 
-        return new MoneyTransferResponse(
-                playerMapper.toAuthenticatedPlayerDto(sender),
-                transactionMapper.toTransactionDto(approvedTransaction)
-        );
+        List<TransactionDto> items = transactions.stream()
+                .map(transactionMapper::toTransactionDto)
+                .collect(Collectors.toList());
+
+        return new TransactionPageDto(items, nextCursor);
     }
 
     /**
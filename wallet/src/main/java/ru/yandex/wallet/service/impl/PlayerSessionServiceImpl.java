@@ -1,22 +1,25 @@
 package ru.yandex.wallet.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import model.dto.out.AuthenticatedPlayerDto;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import ru.yandex.wallet.exception.exceptions.UnauthorizedOperationException;
 import ru.yandex.wallet.service.PlayerSessionService;
+import ru.yandex.wallet.service.session.SessionStore;
 
-import java.util.Map;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PlayerSessionServiceImpl implements PlayerSessionService {
-    private final Map<UUID, AuthenticatedPlayerDto> authentications;
+    private final SessionStore sessionStore;
 
     @Override
     public boolean exists(UUID id) throws UnauthorizedOperationException {
-        if (authentications.get(id) != null) {
+        if (sessionStore.touch(id)) {
             return true;
         } else {
             throw new UnauthorizedOperationException("Unauthorized access");
@@ -26,12 +29,29 @@ public class PlayerSessionServiceImpl implements PlayerSessionService {
     @Override
     public UUID open(AuthenticatedPlayerDto authentication) {
         UUID authenticationId = UUID.randomUUID();
-        authentications.put(authenticationId, authentication);
+        sessionStore.put(authenticationId, authentication.getId());
         return authenticationId;
     }
 
     @Override
     public void close(UUID id) {
-        authentications.remove(id);
+        sessionStore.remove(id);
+    }
+
+    @Override
+    public long count() {
+        return sessionStore.stats().live();
+    }
+
+    /**
+     * Освобождение памяти истекших сессий
+     */
+    @Scheduled(fixedDelayString = "${wallet.sessions.tick-millis:1000}")
+    public void expireSessions() {
+        int expired = sessionStore.expire();
+
+        if (expired > 0) {
+            log.debug("Удалено истекших сессий: {}", expired);
+        }
     }
 }
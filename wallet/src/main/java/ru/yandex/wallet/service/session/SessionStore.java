@@ -0,0 +1,469 @@
+package ru.yandex.wallet.service.session;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Хранилище пользовательских сессий с ограничением размера и временем жизни.
+ * <p>
+ * Сессии распределены по сегментам с собственной блокировкой. Каждый сегмент - таблица с открытой адресацией
+ * (линейное пробирование, удаление сдвигом назад) в параллельных массивах: две половины UUID, id игрока, время
+ * создания и последнего обращения. Объекты на сессию не создаются, ключ не упаковывается.
+ * <p>
+ * Сессия истекает при бездействии дольше idleTimeout либо через absoluteTimeout после создания. Просроченная сессия
+ * не считается существующей сразу, а память освобождает хешированное колесо таймеров: при открытии сессия ставится
+ * в ячейку колеса по сроку истечения, при срабатывании ячейки срок пересчитывается с учетом последнего обращения, и
+ * сессия либо удаляется, либо переставляется дальше. Обращения колесо не трогают.
+ * <p>
+ * При заполнении сегмента вытесняется сессия с самым давним обращением из небольшой случайной выборки.
+ */
+public class SessionStore {
+    private static final int STRIPES = 64;
+    private static final int STRIPE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+    private static final int EVICTION_SAMPLE = 8;
+    private static final int WHEEL_SIZE = 4096;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+    private final long idleMillis;
+    private final long absoluteMillis;
+    private final long tickMillis;
+    private final LongSupplier clock;
+
+    private final ReentrantLock advanceLock = new ReentrantLock();
+    private volatile long processedTick;
+
+    private final LongAdder live = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder expiredIdle = new LongAdder();
+    private final LongAdder expiredAbsolute = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Статистика хранилища с момента создания
+     */
+    public record Stats(long live, long opened, long closed, long expiredIdle, long expiredAbsolute, long evicted) {
+    }
+
+    /**
+     * @param maximumSize     максимальное число сессий
+     * @param idleTimeout     время жизни сессии без обращений
+     * @param absoluteTimeout время жизни сессии с момента создания
+     * @param tick            шаг колеса таймеров, точность освобождения памяти
+     * @param clock           источник текущего времени в миллисекундах
+     */
+    public SessionStore(int maximumSize, Duration idleTimeout, Duration absoluteTimeout, Duration tick,
+                        LongSupplier clock) {
+        this.idleMillis = idleTimeout.toMillis();
+        this.absoluteMillis = absoluteTimeout.toMillis();
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.clock = clock;
+        this.processedTick = Math.floorDiv(clock.getAsLong(), tickMillis);
+
+        int stripeCapacity = Math.max(1, (maximumSize + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Сохранить новую сессию
+     *
+     * @param id       идентификатор сессии, старшая половина не должна быть нулевой (верно для UUID версий 1-8)
+     * @param playerId идентификатор игрока
+     */
+    public void put(UUID id, long playerId) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+
+        if (msb == 0) {
+            throw new IllegalArgumentException(String.format("Некорректный идентификатор сессии id=%s", id));
+        }
+
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripeFor(hash);
+        long now = clock.getAsLong();
+
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(msb, lsb, hash);
+
+            if (slot < 0) {
+                if (stripe.size >= stripe.capacity) {
+                    stripe.evictSample();
+                    evicted.increment();
+                    live.decrement();
+                }
+
+                slot = stripe.insert(msb, lsb, hash);
+                live.increment();
+            }
+
+            stripe.playerIds[slot] = playerId;
+            stripe.createdAt[slot] = now;
+            stripe.accessedAt[slot] = now;
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        opened.increment();
+        schedule(msb, lsb, now + Math.min(idleMillis, absoluteMillis));
+    }
+
+    /**
+     * Отметить обращение к сессии
+     *
+     * @return false, если сессии нет или она истекла
+     */
+    public boolean touch(UUID id) {
+        return access(id, true) != null;
+    }
+
+    /**
+     * Идентификатор игрока сессии без отметки обращения
+     */
+    public OptionalLong playerId(UUID id) {
+        Long playerId = access(id, false);
+        return playerId == null ? OptionalLong.empty() : OptionalLong.of(playerId);
+    }
+
+    /**
+     * Закрыть сессию
+     *
+     * @return false, если сессии не было
+     */
+    public boolean remove(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripeFor(hash);
+
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(msb, lsb, hash);
+
+            if (slot < 0) {
+                return false;
+            }
+
+            stripe.delete(slot);
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        live.decrement();
+        closed.increment();
+        return true;
+    }
+
+    /**
+     * Провернуть колесо таймеров до текущего времени и удалить истекшие сессии. Вызывается периодически одним
+     * потоком; параллельный вызов, пока предыдущий не завершился, ничего не делает.
+     *
+     * @return число удаленных сессий
+     */
+    public int expire() {
+        if (!advanceLock.tryLock()) {
+            return 0;
+        }
+
+        try {
+            long now = clock.getAsLong();
+            long targetTick = Math.floorDiv(now, tickMillis);
+            long fromTick = Math.max(processedTick + 1, targetTick - WHEEL_SIZE + 1);
+            int expired = 0;
+
+            for (long tick = fromTick; tick <= targetTick; tick++) {
+                processedTick = tick;
+                Bucket bucket = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+
+                long[] keys = bucket.drain();
+                for (int i = 0; i < keys.length; i += 2) {
+                    expired += expireOrReschedule(keys[i], keys[i + 1], now);
+                }
+            }
+
+            return expired;
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(live.sum(), opened.sum(), closed.sum(), expiredIdle.sum(), expiredAbsolute.sum(),
+                evicted.sum());
+    }
+
+    /**
+     * @return id игрока либо null, если сессии нет или она истекла
+     */
+    private Long access(UUID id, boolean touch) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+
+        if (msb == 0) {
+            return null;
+        }
+
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripeFor(hash);
+        long now = clock.getAsLong();
+
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(msb, lsb, hash);
+
+            if (slot < 0) {
+                return null;
+            }
+
+            if (expireIfDue(stripe, slot, now)) {
+                return null;
+            }
+
+            if (touch) {
+                stripe.accessedAt[slot] = now;
+            }
+
+            return stripe.playerIds[slot];
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private int expireOrReschedule(long msb, long lsb, long now) {
+        long hash = hash(msb, lsb);
+        Stripe stripe = stripeFor(hash);
+        long deadline;
+
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(msb, lsb, hash);
+
+            if (slot < 0) {
+                return 0;
+            }
+
+            if (expireIfDue(stripe, slot, now)) {
+                return 1;
+            }
+
+            deadline = deadline(stripe, slot);
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        schedule(msb, lsb, deadline);
+        return 0;
+    }
+
+    /**
+     * Удалить сессию, если ее срок истек. Вызывается под блокировкой сегмента.
+     */
+    private boolean expireIfDue(Stripe stripe, int slot, long now) {
+        long idleDeadline = stripe.accessedAt[slot] + idleMillis;
+        long absoluteDeadline = stripe.createdAt[slot] + absoluteMillis;
+
+        if (now < Math.min(idleDeadline, absoluteDeadline)) {
+            return false;
+        }
+
+        stripe.delete(slot);
+        live.decrement();
+
+        if (absoluteDeadline <= idleDeadline) {
+            expiredAbsolute.increment();
+        } else {
+            expiredIdle.increment();
+        }
+
+        return true;
+    }
+
+    private long deadline(Stripe stripe, int slot) {
+        return Math.min(stripe.accessedAt[slot] + idleMillis, stripe.createdAt[slot] + absoluteMillis);
+    }
+
+    /**
+     * Поставить сессию в ячейку колеса по сроку истечения. Срок дальше оборота колеса ограничивается последней
+     * ячейкой оборота, при ее срабатывании сессия будет переставлена снова.
+     */
+    private void schedule(long msb, long lsb, long deadline) {
+        long current = processedTick;
+        long tick = Math.floorDiv(deadline + tickMillis - 1, tickMillis);
+        tick = Math.min(Math.max(tick, current + 1), current + WHEEL_SIZE);
+
+        wheel[(int) (tick & (WHEEL_SIZE - 1))].add(msb, lsb);
+    }
+
+    private Stripe stripeFor(long hash) {
+        return stripes[(int) (hash >>> STRIPE_SHIFT)];
+    }
+
+    private static long hash(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 29);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Сегмент хранилища. Пустая ячейка - нулевая старшая половина ключа. Заполненность не превышает половины
+     * таблицы, поэтому пробирование всегда находит пустую ячейку.
+     */
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final int capacity;
+        final int mask;
+        final long[] msbs;
+        final long[] lsbs;
+        final long[] playerIds;
+        final long[] createdAt;
+        final long[] accessedAt;
+        int size;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+
+            int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            this.mask = tableSize - 1;
+            this.msbs = new long[tableSize];
+            this.lsbs = new long[tableSize];
+            this.playerIds = new long[tableSize];
+            this.createdAt = new long[tableSize];
+            this.accessedAt = new long[tableSize];
+        }
+
+        int find(long msb, long lsb, long hash) {
+            for (int slot = (int) hash & mask; msbs[slot] != 0; slot = (slot + 1) & mask) {
+                if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                    return slot;
+                }
+            }
+
+            return -1;
+        }
+
+        int insert(long msb, long lsb, long hash) {
+            int slot = (int) hash & mask;
+
+            while (msbs[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            msbs[slot] = msb;
+            lsbs[slot] = lsb;
+            size++;
+            return slot;
+        }
+
+        /**
+         * Удаление сдвигом назад: следующие записи цепочки, чья домашняя ячейка не лежит между освобожденной ячейкой
+         * и их текущей позицией, переносятся в освобожденную ячейку. Маркеры удаления не нужны.
+         */
+        void delete(int slot) {
+            int free = slot;
+            int next = slot;
+
+            while (true) {
+                next = (next + 1) & mask;
+
+                if (msbs[next] == 0) {
+                    break;
+                }
+
+                int home = (int) hash(msbs[next], lsbs[next]) & mask;
+                boolean homeBetween = free <= next
+                        ? free < home && home <= next
+                        : free < home || home <= next;
+
+                if (!homeBetween) {
+                    msbs[free] = msbs[next];
+                    lsbs[free] = lsbs[next];
+                    playerIds[free] = playerIds[next];
+                    createdAt[free] = createdAt[next];
+                    accessedAt[free] = accessedAt[next];
+                    free = next;
+                }
+            }
+
+            msbs[free] = 0;
+            lsbs[free] = 0;
+            size--;
+        }
+
+        /**
+         * Вытеснить сессию с самым давним обращением среди нескольких заполненных ячеек, начиная со случайной
+         */
+        void evictSample() {
+            int slot = ThreadLocalRandom.current().nextInt(mask + 1);
+            int victim = -1;
+
+            for (int seen = 0, scanned = 0; seen < EVICTION_SAMPLE && scanned <= mask; scanned++) {
+                if (msbs[slot] != 0) {
+                    if (victim < 0 || accessedAt[slot] < accessedAt[victim]) {
+                        victim = slot;
+                    }
+                    seen++;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            delete(victim);
+        }
+    }
+
+    /**
+     * Ячейка колеса таймеров: пары половин UUID сессий, срок которых нужно проверить
+     */
+    private static final class Bucket {
+        private static final long[] EMPTY = new long[0];
+
+        final ReentrantLock lock = new ReentrantLock();
+        long[] keys = EMPTY;
+        int size;
+
+        void add(long msb, long lsb) {
+            lock.lock();
+            try {
+                if (size + 2 > keys.length) {
+                    long[] grown = new long[Math.max(16, keys.length * 2)];
+                    System.arraycopy(keys, 0, grown, 0, size);
+                    keys = grown;
+                }
+
+                keys[size++] = msb;
+                keys[size++] = lsb;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long[] drain() {
+            lock.lock();
+            try {
+                long[] drained = size == keys.length ? keys : Arrays.copyOf(keys, size);
+                keys = EMPTY;
+                size = 0;
+                return drained;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -5,15 +5,19 @@ import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import ru.yandex.wallet.in.UnpackedJwtClaims;
 
 import java.security.Key;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
  * Утилитарный класс для работы с JWT
  */
 public class JwtUtils {
+    private static final Map<String, Key> signingKeys = new ConcurrentHashMap<>();
+
     public static <T> T extractClaim(String token, Function<Claims, T> mapper, String secret) {
         Claims claims = extractClaims(token, secret);
         return mapper.apply(claims);
@@ -35,6 +39,15 @@ public class JwtUtils {
         return extractClaims(token, secret) != null;
     }
 
+    /**
+     * Проверяет токен и извлекает данные пользователя за один разбор
+     *
+     * @param token токен, закодированный в HS256
+     */
+    public static UnpackedJwtClaims unpackClaims(String token, String secret) {
+        return JwtVerifier.unpack(extractClaims(token, secret));
+    }
+
     /**
      * Извлекает Claims из данного токена
      *
@@ -49,8 +62,14 @@ public class JwtUtils {
                 .getBody();
     }
 
-    private static Key getSigningKey(String secret) {
-        byte[] encodedSecretArray = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(encodedSecretArray);
+    /**
+     * Ключ подписи по секрету в Base64. Ключи кешируются: секрет приложения один, декодировать его на каждый
+     * токен незачем.
+     */
+    static Key getSigningKey(String secret) {
+        return signingKeys.computeIfAbsent(secret, encodedSecret -> {
+            byte[] encodedSecretArray = Decoders.BASE64.decode(encodedSecret);
+            return Keys.hmacShaKeyFor(encodedSecretArray);
+        });
     }
 }
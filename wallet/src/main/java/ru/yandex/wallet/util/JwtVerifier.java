@@ -0,0 +1,117 @@
+package ru.yandex.wallet.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import ru.yandex.wallet.in.UnpackedJwtClaims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Проверка JWT с однократным разбором токена. Парсер и ключ подписи создаются один раз. Успешно проверенные токены
+ * кешируются в таблице с прямым отображением по хешу токена, так что повторный токен проверяется без вычисления HMAC.
+ * Попадание в кеш подтверждается сравнением токена целиком за постоянное время, поэтому подобрать токен с тем же
+ * хешем бесполезно, а время сравнения не раскрывает закешированный токен.
+ */
+public class JwtVerifier {
+    private final JwtParser parser;
+    private final AtomicReferenceArray<VerifiedToken> cache;
+    private final int mask;
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Статистика кеша проверенных токенов
+     */
+    public record Stats(long hits, long misses) {
+    }
+
+    private record VerifiedToken(byte[] token, UnpackedJwtClaims claims, long expiresAt) {
+    }
+
+    /**
+     * @param secret    секрет подписи HS256 в Base64
+     * @param cacheSize размер кеша проверенных токенов, округляется вверх до степени двойки; 0 отключает кеш
+     */
+    public JwtVerifier(String secret, int cacheSize) {
+        this(secret, cacheSize, System::currentTimeMillis);
+    }
+
+    JwtVerifier(String secret, int cacheSize, LongSupplier clock) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(JwtUtils.getSigningKey(secret))
+                .build();
+        this.clock = clock;
+
+        int tableSize = cacheSize <= 0 ? 0 : Integer.highestOneBit(Math.max(1, cacheSize - 1)) << 1;
+        this.cache = new AtomicReferenceArray<>(tableSize);
+        this.mask = tableSize - 1;
+    }
+
+    /**
+     * Проверить подпись токена и извлечь данные пользователя
+     *
+     * @param token токен без префикса "Bearer "
+     * @throws io.jsonwebtoken.JwtException если токен некорректен, подпись неверна или срок токена истек
+     */
+    public UnpackedJwtClaims verify(String token) {
+        if (mask < 0) {
+            return unpack(parser.parseClaimsJws(token).getBody());
+        }
+
+        byte[] tokenBytes = token.getBytes(StandardCharsets.US_ASCII);
+        int slot = (int) hash(tokenBytes) & mask;
+        VerifiedToken cached = cache.get(slot);
+
+        if (cached != null && MessageDigest.isEqual(cached.token(), tokenBytes)
+                && clock.getAsLong() < cached.expiresAt()) {
+            hits.increment();
+            return cached.claims();
+        }
+
+        misses.increment();
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        UnpackedJwtClaims unpacked = unpack(claims);
+
+        Date expiration = claims.getExpiration();
+        cache.set(slot, new VerifiedToken(tokenBytes, unpacked,
+                expiration == null ? Long.MAX_VALUE : expiration.getTime()));
+
+        return unpacked;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum());
+    }
+
+    static UnpackedJwtClaims unpack(Claims claims) {
+        return new UnpackedJwtClaims(
+                ((Number) claims.get("id")).longValue(),
+                claims.get("login", String.class),
+                claims.get("username", String.class),
+                UUID.fromString(claims.get("session-id", String.class))
+        );
+    }
+
+    /**
+     * FNV-1a: только для выбора ячейки кеша
+     */
+    private static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (byte b : bytes) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        return hash ^ (hash >>> 32);
+    }
+}
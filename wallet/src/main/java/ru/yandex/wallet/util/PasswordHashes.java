@@ -0,0 +1,22 @@
+package ru.yandex.wallet.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Утилитарный класс для хеширования паролей игроков. MessageDigest хранит состояние между вызовами и не
+ * потокобезопасен, поэтому экземпляр создается на каждый вызов.
+ */
+public class PasswordHashes {
+
+    /**
+     * MD5-хеш пароля в том виде, в котором он хранится в players.password
+     */
+    public static byte[] hash(String password) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(password.getBytes());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ru.yandex.wallet.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Утилитарный класс для идентификаторов транзакций. Идентификаторы генерируются в формате UUIDv7: старшие 48 бит
+ * содержат время создания в миллисекундах. Время создания транзакции (created_at, ключ секционирования таблицы
+ * транзакций) всегда записывается равным этому времени, поэтому по идентификатору можно ограничить диапазон
+ * created_at и дать планировщику отсечь лишние секции.
+ */
+public class TransactionIds {
+    private static final int UUID_V7 = 7;
+
+    /**
+     * Диапазон времени создания [from, to) для набора идентификаторов
+     */
+    public record CreationRange(LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Сгенерировать новый идентификатор транзакции (UUIDv7)
+     */
+    public static UUID newId() {
+        return newId(System.currentTimeMillis());
+    }
+
+    static UUID newId(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long msb = (epochMillis << 16) | ((long) UUID_V7 << 12) | random.nextInt(1 << 12);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Время создания транзакции, зашитое в идентификатор
+     *
+     * @return время в UTC с точностью до миллисекунды либо null, если идентификатор не является UUIDv7
+     */
+    public static LocalDateTime creationTime(UUID id) {
+        if (id.version() != UUID_V7) {
+            return null;
+        }
+
+        long epochMillis = id.getMostSignificantBits() >>> 16;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    /**
+     * Время создания для записи в created_at: время из идентификатора либо текущее время в UTC для идентификаторов,
+     * созданных не этим классом
+     */
+    public static LocalDateTime creationTimeOrNow(UUID id) {
+        LocalDateTime creationTime = creationTime(id);
+        return creationTime == null ? LocalDateTime.now(ZoneOffset.UTC) : creationTime;
+    }
+
+    /**
+     * Диапазон времени создания, покрывающий все идентификаторы
+     *
+     * @return диапазон либо null, если хотя бы один идентификатор не является UUIDv7 и ограничить поиск нельзя
+     */
+    public static CreationRange creationRange(Collection<UUID> ids) {
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+
+        for (UUID id : ids) {
+            LocalDateTime creationTime = creationTime(id);
+
+            if (creationTime == null) {
+                return null;
+            }
+
+            if (from == null || creationTime.isBefore(from)) {
+                from = creationTime;
+            }
+
+            if (to == null || creationTime.isAfter(to)) {
+                to = creationTime;
+            }
+        }
+
+        return from == null ? null : new CreationRange(from, to.plusNanos(1_000_000));
+    }
+}
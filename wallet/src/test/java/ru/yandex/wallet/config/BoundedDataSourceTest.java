@@ -0,0 +1,86 @@
+package ru.yandex.wallet.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Bounded data source test")
+class BoundedDataSourceTest {
+    private final DataSource target = mock(DataSource.class);
+
+    @DisplayName("Should release permit once when connection is closed")
+    @Test
+    void shouldReleasePermitOnClose() throws SQLException {
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+        BoundedDataSource dataSource = new BoundedDataSource(target, 1, Duration.ofMillis(10));
+
+        Connection connection = dataSource.getConnection();
+        assertThat(((ConnectionProxy) connection).getTargetConnection()).isSameAs(pooled);
+        assertThat(dataSource.stats().inUse()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+        verify(pooled, times(2)).close();
+        assertThat(dataSource.stats()).isEqualTo(new BoundedDataSource.Stats(1, 0, 0, 0, 0));
+    }
+
+    @DisplayName("Should time out when all permits are held and release permit if pool fails")
+    @Test
+    void shouldTimeOutAndReleaseOnFailure() throws SQLException {
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        BoundedDataSource dataSource = new BoundedDataSource(target, 1, Duration.ofMillis(10));
+
+        Connection held = dataSource.getConnection();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        held.close();
+
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+        assertThat(dataSource.stats()).isEqualTo(new BoundedDataSource.Stats(1, 0, 0, 1, 1));
+    }
+
+    @DisplayName("Should hand permit to waiting thread when connection is closed")
+    @Test
+    void shouldQueueWaitersUntilRelease() throws Exception {
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        BoundedDataSource dataSource = new BoundedDataSource(target, 1, Duration.ofSeconds(10));
+        Connection held = dataSource.getConnection();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return dataSource.getConnection();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+
+            while (dataSource.stats().waiting() == 0) {
+                Thread.onSpinWait();
+            }
+            assertThat(waiter).isNotDone();
+
+            held.close();
+            waiter.get(5, TimeUnit.SECONDS).close();
+        }
+        assertThat(dataSource.stats().waited()).isEqualTo(1);
+        assertThat(dataSource.stats().inUse()).isZero();
+    }
+}
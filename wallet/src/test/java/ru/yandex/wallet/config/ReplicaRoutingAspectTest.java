@@ -0,0 +1,96 @@
+package ru.yandex.wallet.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.repository.PlayerCrudRepository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Replica routing aspect test")
+class ReplicaRoutingAspectTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final PrimaryPins pins = new PrimaryPins(100, Duration.ofSeconds(5), nanoTime::get);
+    private final PlayerCrudRepository playerRepository = mock(PlayerCrudRepository.class);
+    private final ReplicaRoutingAspect aspect = new ReplicaRoutingAspect(pins, playerRepository);
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replica));
+
+    private final ProceedingJoinPoint pjp = mock(ProceedingJoinPoint.class);
+
+    ReplicaRoutingAspectTest() throws Throwable {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(pjp.proceed()).then(invocation -> dataSource.getConnection());
+    }
+
+    @DisplayName("Should read from replica until player moves money and from primary within the window")
+    @Test
+    void shouldPinPlayerAfterWrite() throws Throwable {
+        assertThat(aspect.readMethod(pjp, "admin")).isSameAs(replicaConnection);
+
+        aspect.writeMethod("admin");
+        assertThat(aspect.readMethod(pjp, "admin")).isSameAs(primaryConnection);
+        assertThat(aspect.readMethod(pjp, "user")).isSameAs(replicaConnection);
+
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(aspect.readMethod(pjp, "admin")).isSameAs(replicaConnection);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @DisplayName("Should pin transfer participants and resolve balance reads by player id")
+    @Test
+    void shouldPinParticipantsForBalance() throws Throwable {
+        when(playerRepository.getById(2L))
+                .thenReturn(new Player(2L, "user", "user", new byte[0], BigDecimal.ONE));
+        assertThat(aspect.balanceMethod(pjp, 2L)).isSameAs(replicaConnection);
+
+        pins.onBalanceChanged(new BalanceChangedEvent(List.of("admin", "user")));
+        assertThat(aspect.balanceMethod(pjp, 2L)).isSameAs(primaryConnection);
+        assertThat(pins.isPinned("admin")).isTrue();
+    }
+
+    @DisplayName("Should keep pins above the sweep threshold until the window ends")
+    @Test
+    void shouldNotEvictPinsBeforeWindowEnds() {
+        PrimaryPins smallPins = new PrimaryPins(2, Duration.ofSeconds(5), nanoTime::get);
+
+        for (int i = 0; i < 10; i++) {
+            smallPins.pin("player" + i);
+        }
+        assertThat(smallPins.isPinned("player0")).isTrue();
+        assertThat(smallPins.size()).isEqualTo(10);
+
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        smallPins.pin("admin");
+        assertThat(smallPins.size()).isEqualTo(1);
+        assertThat(smallPins.isPinned("player9")).isFalse();
+        assertThat(smallPins.isPinned("admin")).isTrue();
+    }
+
+    @DisplayName("Should restore routing when operation fails")
+    @Test
+    void shouldRestoreRouteOnFailure() throws Throwable {
+        when(pjp.proceed()).thenThrow(new SQLException("replica failed"));
+
+        assertThatThrownBy(() -> aspect.readMethod(pjp, "admin")).isInstanceOf(SQLException.class);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.wallet.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Replica routing data source test")
+class ReplicaRoutingDataSourceTest {
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource first = mock(DataSource.class);
+    private final DataSource second = mock(DataSource.class);
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+
+    private final ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(first, second));
+
+    ReplicaRoutingDataSourceTest() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+    }
+
+    @AfterEach
+    void resetRoute() {
+        ReplicaRoutingDataSource.route(false);
+    }
+
+    @DisplayName("Should send writes to primary and reads to replicas in turn")
+    @Test
+    void shouldRouteReadsRoundRobin() throws SQLException {
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+
+        boolean previous = ReplicaRoutingDataSource.route(true);
+        assertThat(previous).isFalse();
+        assertThat(dataSource.getConnection()).isSameAs(firstConnection);
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.getConnection()).isSameAs(firstConnection);
+
+        assertThat(ReplicaRoutingDataSource.route(previous)).isTrue();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(dataSource.stats()).isEqualTo(new ReplicaRoutingDataSource.Stats(2, 2, 3, 0, 0));
+    }
+
+    @DisplayName("Should skip failed replica until health check and fall back to primary when none is healthy")
+    @Test
+    void shouldFailOverAndRecover() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaRoutingDataSource.route(true);
+
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.stats()).isEqualTo(new ReplicaRoutingDataSource.Stats(2, 1, 2, 0, 1));
+
+        when(secondConnection.isValid(anyInt())).thenReturn(false);
+        dataSource.checkHealth(Duration.ofSeconds(1));
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(dataSource.stats()).isEqualTo(new ReplicaRoutingDataSource.Stats(2, 0, 2, 1, 1));
+
+        doReturn(firstConnection).when(first).getConnection();
+        when(firstConnection.isValid(anyInt())).thenReturn(true);
+        dataSource.checkHealth(Duration.ofSeconds(1));
+        assertThat(dataSource.getConnection()).isSameAs(firstConnection);
+        assertThat(dataSource.stats().healthy()).isEqualTo(1);
+    }
+}
@@ -15,7 +15,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.yandex.wallet.config.ApplicationConfiguration;
 import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
-import ru.yandex.wallet.domain.dto.MoneyTransferResponse;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
 import ru.yandex.wallet.in.controller.MoneyRequestController;
 import ru.yandex.wallet.service.PlayerService;
 import ru.yandex.wallet.service.PlayerSessionService;
@@ -29,6 +30,7 @@ import java.util.UUID;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -160,18 +162,21 @@ public class MoneyRequestControllerTest {
 
         when(mockPlayerSessionService.exists(any()))
                 .thenReturn(true);
+        UUID approvedId = UUID.fromString(stringIds.get(0));
         when(mockPlayerService.approvePendingMoneyRequest(any(), any()))
-                .thenReturn(List.of(new MoneyTransferResponse(null, null)));
-
+                .thenReturn(List.of(new TransactionOutcome(approvedId, TransferRequestStatus.APPROVED, true)));
 
         mvc.perform(post("/player-management/money-request/approve")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsBytes(transactionsListDto))
                         .header("Authorization", "Bearer " + validJwtToken))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].id", is(approvedId.toString())))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")));
 
         verify(mockPlayerSessionService).exists(any());
-        verify(mockPlayerService).approvePendingMoneyRequest(any(), any());
+        verify(mockPlayerService).approvePendingMoneyRequest(eq("admin"), any());
     }
 
     @Test
@@ -182,16 +187,23 @@ public class MoneyRequestControllerTest {
 
         when(mockPlayerSessionService.exists(any()))
                 .thenReturn(true);
-        doNothing().when(mockPlayerService).declinePendingRequest(any(), any());
+        UUID declinedId = UUID.fromString(stringIds.get(0));
+        UUID rejectedId = UUID.fromString(stringIds.get(1));
+        when(mockPlayerService.declinePendingRequest(any(), any()))
+                .thenReturn(List.of(new TransactionOutcome(declinedId, TransferRequestStatus.DECLINED, true),
+                        new TransactionOutcome(rejectedId, null, false)));
 
         mvc.perform(post("/player-management/money-request/decline")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsBytes(transactionsListDto))
                         .header("Authorization", "Bearer " + validJwtToken))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("DECLINED")))
+                .andExpect(jsonPath("$[1].applied", is(false)));
 
         verify(mockPlayerSessionService).exists(any());
-        verify(mockPlayerService).declinePendingRequest(any(), any());
+        verify(mockPlayerService).declinePendingRequest(eq("admin"), any());
     }
 
     private String generateValidTestToken() {
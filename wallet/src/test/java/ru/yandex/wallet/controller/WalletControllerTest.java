@@ -15,6 +15,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.yandex.wallet.config.ApplicationConfiguration;
 import ru.yandex.wallet.domain.TransferRequestStatus;
 import ru.yandex.wallet.domain.dto.TransactionDto;
+import ru.yandex.wallet.domain.dto.TransactionPageDto;
 import ru.yandex.wallet.in.controller.WalletController;
 import ru.yandex.wallet.service.PlayerAction;
 import ru.yandex.wallet.service.PlayerService;
@@ -182,6 +183,33 @@ public class WalletControllerTest {
         verify(mockPlayerSessionService).exists(any());
     }
 
+    @DisplayName("Should return history page with next cursor when token is valid")
+    @Test
+    public void shouldReturnHistoryPageWhenTokenIsValid() throws Exception {
+        TransactionDto expectedTransaction = new TransactionDto(UUID.randomUUID(),
+                TransferRequestStatus.APPROVED, "sender", "recipient", BigDecimal.ONE);
+        String login = (String) JwtUtils.extractClaim(validJwtToken, claims -> claims.get("login"), secret);
+
+        when(mockPlayerSessionService.exists(any()))
+                .thenReturn(true);
+        when(mockPlayerService.getHistoryPage(login, PlayerAction.DEBIT, "cursor", 1))
+                .thenReturn(new TransactionPageDto(List.of(expectedTransaction), "next-cursor"));
+
+        mvc.perform(get("/player-management/wallet/history/page")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .queryParam("action", "DEBIT")
+                        .queryParam("cursor", "cursor")
+                        .queryParam("limit", "1")
+                        .header("Authorization", "Bearer " + validJwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(1)))
+                .andExpect(jsonPath("$.items[0].id", is(expectedTransaction.getId().toString())))
+                .andExpect(jsonPath("$.nextCursor", is("next-cursor")));
+
+        verify(mockPlayerSessionService).exists(any());
+        verify(mockPlayerService).getHistoryPage(login, PlayerAction.DEBIT, "cursor", 1);
+    }
+
     private String generateValidTestToken() {
         Map<String, Object> claims = Map.of("id", 1L,
                 "login", "admin",
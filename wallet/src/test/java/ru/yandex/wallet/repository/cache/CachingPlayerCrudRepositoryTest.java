@@ -0,0 +1,147 @@
+package ru.yandex.wallet.repository.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.repository.PlayerCrudRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Caching player repository test")
+class CachingPlayerCrudRepositoryTest {
+
+    private PlayerCrudRepository mockPlayerCrudRepository;
+    private CachingPlayerCrudRepository playerRepository;
+    private final AtomicLong clock = new AtomicLong();
+
+    @BeforeEach
+    public void init() {
+        mockPlayerCrudRepository = Mockito.mock(PlayerCrudRepository.class);
+        playerRepository = new CachingPlayerCrudRepository(mockPlayerCrudRepository, 32,
+                Duration.ofMinutes(10), Duration.ofSeconds(2), clock::get);
+
+        when(mockPlayerCrudRepository.getByLogin("admin")).thenReturn(player(1L, "admin", "5"));
+        when(mockPlayerCrudRepository.getById(1L)).thenReturn(player(1L, "admin", "5"));
+    }
+
+    @DisplayName("Should serve repeated lookups by login and id from cache")
+    @Test
+    void shouldCacheLookupsByLoginAndId() {
+        playerRepository.getByLogin("admin");
+        Player byLogin = playerRepository.getByLogin("admin");
+        Player byId = playerRepository.getById(1L);
+
+        assertThat(byLogin.getBalance()).isEqualByComparingTo("5");
+        assertThat(byId.getLogin()).isEqualTo("admin");
+        verify(mockPlayerCrudRepository, times(1)).getByLogin("admin");
+        verify(mockPlayerCrudRepository, never()).getById(any());
+        assertThat(playerRepository.stats().get("identity-by-login").hits()).isEqualTo(1);
+    }
+
+    @DisplayName("Should reload only balance after balance ttl expires")
+    @Test
+    void shouldExpireBalanceIndependentlyOfIdentity() {
+        playerRepository.getById(1L);
+        clock.addAndGet(Duration.ofSeconds(3).toNanos());
+
+        when(mockPlayerCrudRepository.getByLogin("admin")).thenReturn(player(1L, "admin", "7"));
+        Player player = playerRepository.getById(1L);
+
+        assertThat(player.getBalance()).isEqualByComparingTo("7");
+        verify(mockPlayerCrudRepository, times(1)).getById(1L);
+        verify(mockPlayerCrudRepository, times(1)).getByLogin("admin");
+    }
+
+    @DisplayName("Should invalidate cached balances on balance change event and setBalance")
+    @Test
+    void shouldInvalidateBalanceOnChange() {
+        playerRepository.getByLogin("admin");
+
+        when(mockPlayerCrudRepository.getByLogin("admin")).thenReturn(player(1L, "admin", "3"));
+        playerRepository.onBalanceChanged(new BalanceChangedEvent(List.of("admin", "user")));
+        assertThat(playerRepository.getByLogin("admin").getBalance()).isEqualByComparingTo("3");
+
+        when(mockPlayerCrudRepository.setBalance("admin", BigDecimal.TEN)).thenReturn(player(1L, "admin", "10"));
+        playerRepository.setBalance("admin", BigDecimal.TEN);
+        assertThat(playerRepository.getByLogin("admin").getBalance()).isEqualByComparingTo("10");
+        verify(mockPlayerCrudRepository, times(2)).getByLogin("admin");
+    }
+
+    @DisplayName("Should forget deleted player")
+    @Test
+    void shouldInvalidateOnDelete() {
+        playerRepository.getByLogin("admin");
+        playerRepository.delete(1L);
+        playerRepository.getByLogin("admin");
+
+        verify(mockPlayerCrudRepository).delete(1L);
+        verify(mockPlayerCrudRepository, times(2)).getByLogin("admin");
+    }
+
+    @DisplayName("Should evict least recently used entries when cache is full")
+    @Test
+    void shouldEvictWhenFull() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<>(16, Duration.ofMinutes(1), clock::get);
+
+        for (int i = 0; i < 64; i++) {
+            cache.put(i, "value" + i, cache.version(i));
+        }
+
+        ExpiringCache.Stats stats = cache.stats();
+        assertThat(stats.size()).isEqualTo(16);
+        assertThat(stats.evictions()).isEqualTo(48);
+    }
+
+    @DisplayName("Should not cache value loaded before concurrent invalidation")
+    @Test
+    void shouldSkipStaleLoad() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(16, Duration.ofMinutes(1), clock::get);
+
+        long version = cache.version("admin");
+        cache.invalidate("admin");
+        cache.put("admin", "stale", version);
+
+        assertThat(cache.get("admin")).isNull();
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @DisplayName("Should cache value loaded during invalidation of another key")
+    @Test
+    void shouldKeepLoadOfOtherKey() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(16, Duration.ofMinutes(1), clock::get);
+
+        long version = cache.version("admin");
+        cache.invalidate("user");
+        cache.put("admin", "fresh", version);
+
+        assertThat(cache.get("admin")).isEqualTo("fresh");
+        assertThat(cache.stats().size()).isEqualTo(1);
+    }
+
+    @DisplayName("Should not cache stale value after invalidation mark expires")
+    @Test
+    void shouldSkipStaleLoadAfterMarkExpires() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(16, Duration.ofMinutes(1), clock::get);
+
+        long version = cache.version("admin");
+        cache.invalidate("admin");
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        cache.get("admin");
+        cache.put("admin", "stale", version);
+
+        assertThat(cache.get("admin")).isNull();
+    }
+
+    private static Player player(Long id, String login, String balance) {
+        return new Player(id, login, login, new byte[]{1}, new BigDecimal(balance));
+    }
+}
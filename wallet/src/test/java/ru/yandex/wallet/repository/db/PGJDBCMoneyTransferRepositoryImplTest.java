@@ -0,0 +1,163 @@
+package ru.yandex.wallet.repository.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.repository.jdbcimpl.PGJDBCMoneyTransferRepositoryImpl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Postgres Money Transfer Repository test")
+@Transactional
+@Testcontainers
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("test")
+class PGJDBCMoneyTransferRepositoryImplTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private PGJDBCMoneyTransferRepositoryImpl moneyTransferRepository;
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+
+    @Container
+    protected static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.0");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    public void initRepository() {
+        moneyTransferRepository = new PGJDBCMoneyTransferRepositoryImpl(jdbcTemplate, publishedEvents::add);
+    }
+
+    @DisplayName("Should move money and record approved transaction in one statement")
+    @Test
+    public void shouldTransferMoneyWhenBalanceIsSufficient() {
+        UUID transactionId = UUID.randomUUID();
+
+        Player admin = moneyTransferRepository.transfer(
+                new MoneyTransferRequest(transactionId, "admin", "user", BigDecimal.valueOf(2)));
+
+        assertThat(admin.getLogin()).isEqualTo("admin");
+        assertThat(admin.getBalance()).isEqualByComparingTo("3");
+        assertThat(balanceOf("user")).isEqualByComparingTo("12");
+        assertThat(statusOf(transactionId)).isEqualTo("APPROVED");
+        assertThat(publishedEvents).containsExactly(new BalanceChangedEvent(List.of("admin", "user")));
+    }
+
+    @DisplayName("Should keep balances and record failed transaction when balance is deficient")
+    @Test
+    public void shouldFailTransactionWhenBalanceIsDeficient() {
+        UUID transactionId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> moneyTransferRepository.transfer(
+                new MoneyTransferRequest(transactionId, "admin", "user", BigDecimal.valueOf(6))))
+                .isInstanceOf(DeficientBalanceException.class);
+
+        assertThat(balanceOf("admin")).isEqualByComparingTo("5");
+        assertThat(balanceOf("user")).isEqualByComparingTo("10");
+        assertThat(statusOf(transactionId)).isEqualTo("FAILED");
+    }
+
+    @DisplayName("Should fail without side effects when recipient does not exist")
+    @Test
+    public void shouldThrowExceptionWhenRecipientDoesNotExist() {
+        UUID transactionId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> moneyTransferRepository.transfer(
+                new MoneyTransferRequest(transactionId, "admin", "no-op", BigDecimal.ONE)))
+                .isInstanceOf(NoSuchPlayerException.class);
+
+        assertThat(balanceOf("admin")).isEqualByComparingTo("5");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE id = ?",
+                Integer.class, transactionId)).isZero();
+    }
+
+    @DisplayName("Should fail when sender does not exist")
+    @Test
+    public void shouldThrowExceptionWhenSenderDoesNotExist() {
+        assertThatThrownBy(() -> moneyTransferRepository.transfer(
+                new MoneyTransferRequest(UUID.randomUUID(), "no-op", "user", BigDecimal.ONE)))
+                .isInstanceOf(NoSuchPlayerException.class);
+    }
+
+    @DisplayName("Should approve pending transactions in batch and report per id outcome")
+    @Test
+    public void shouldApprovePendingTransactionsInBatch() {
+        UUID pendingId = UUID.fromString("7b65505d-f04f-4b4d-a179-8277c288081a");
+        UUID approvedId = UUID.fromString("dd49e541-45af-47ff-827c-b4f8f828857b");
+        UUID foreignId = UUID.fromString("e97668d0-96a0-47bc-9202-fc04982a0b5e");
+        UUID missingId = UUID.randomUUID();
+
+        List<TransactionOutcome> outcomes = new ArrayList<>(moneyTransferRepository.approvePendingTransactions("admin",
+                List.of(pendingId, approvedId, foreignId, missingId)));
+
+        assertThat(outcomes).containsExactly(
+                new TransactionOutcome(pendingId, TransferRequestStatus.APPROVED, true),
+                new TransactionOutcome(approvedId, TransferRequestStatus.APPROVED, false),
+                new TransactionOutcome(foreignId, null, false),
+                new TransactionOutcome(missingId, null, false));
+        assertThat(balanceOf("admin")).isEqualByComparingTo("3");
+        assertThat(balanceOf("user")).isEqualByComparingTo("12");
+        assertThat(statusOf(pendingId)).isEqualTo("APPROVED");
+        assertThat(statusOf(foreignId)).isEqualTo("PENDING");
+    }
+
+    @DisplayName("Should approve nothing when donor cannot cover total amount of the batch")
+    @Test
+    public void shouldApproveNothingWhenBalanceIsDeficientForBatch() {
+        UUID firstId = UUID.fromString("7b65505d-f04f-4b4d-a179-8277c288081a");
+        UUID secondId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO transactions (id, status, sender, recipient, amount) VALUES (?,?,?,?,?)",
+                secondId, TransferRequestStatus.PENDING.name(), "admin", "user", BigDecimal.valueOf(4));
+
+        assertThatThrownBy(() -> moneyTransferRepository.approvePendingTransactions("admin",
+                List.of(firstId, secondId)))
+                .isInstanceOf(DeficientBalanceException.class);
+
+        assertThat(balanceOf("admin")).isEqualByComparingTo("5");
+        assertThat(balanceOf("user")).isEqualByComparingTo("10");
+        assertThat(statusOf(firstId)).isEqualTo("PENDING");
+        assertThat(statusOf(secondId)).isEqualTo("PENDING");
+    }
+
+    private BigDecimal balanceOf(String login) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM players WHERE login = ?", BigDecimal.class, login);
+    }
+
+    private String statusOf(UUID transactionId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM transactions WHERE id = ?", String.class,
+                transactionId);
+    }
+}
@@ -17,11 +17,19 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
 import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
 import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
 import ru.yandex.wallet.repository.jdbcimpl.PGJDBCTransactionCrudRepositoryImpl;
+import ru.yandex.wallet.util.TransactionIds;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -159,6 +167,75 @@ class PGJDBCTransactionCrudRepositoryImplTest {
                 .isInstanceOf(TransactionStatusException.class);
     }
 
+    @DisplayName("Should decline only pending transactions of the donor in one statement")
+    @Test
+    public void shouldDeclinePendingTransactionsInBatch() {
+        UUID missingId = UUID.randomUUID();
+
+        List<TransactionOutcome> outcomes = new ArrayList<>(transactionRepository.declineTransactions("admin",
+                List.of(transactionIdFromAdminToUserPending, transactionIdFromAdminToUserApproved,
+                        transactionIdFromUserToAdmin, missingId)));
+
+        assertThat(outcomes).containsExactly(
+                new TransactionOutcome(transactionIdFromAdminToUserPending, TransferRequestStatus.DECLINED, true),
+                new TransactionOutcome(transactionIdFromAdminToUserApproved, TransferRequestStatus.APPROVED, false),
+                new TransactionOutcome(transactionIdFromUserToAdmin, null, false),
+                new TransactionOutcome(missingId, null, false));
+        assertThat(transactionRepository.getById(transactionIdFromAdminToUserPending).getStatus())
+                .isEqualTo(TransferRequestStatus.DECLINED);
+        assertThat(transactionRepository.getById(transactionIdFromUserToAdmin).getStatus())
+                .isEqualTo(TransferRequestStatus.PENDING);
+    }
+
+    @DisplayName("Should page through combined history by keyset without gaps or duplicates")
+    @Test
+    public void shouldPageThroughHistoryByKeyset() {
+        jdbcTemplate.update("DELETE FROM transactions");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<UUID> expectedOrder = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            UUID id = UUID.randomUUID();
+            boolean debit = i % 2 == 0;
+            jdbcTemplate.update("INSERT INTO transactions (id, status, sender, recipient, amount, created_at) " +
+                            "VALUES (?,?,?,?,?,?)", id, TransferRequestStatus.APPROVED.name(),
+                    debit ? "admin" : "user", debit ? "user" : "admin", BigDecimal.ONE, start.plusMinutes(i));
+            expectedOrder.add(0, id);
+        }
+
+        List<UUID> pagedIds = new ArrayList<>();
+        TransactionCursor cursor = null;
+        List<Transaction> page;
+
+        do {
+            page = transactionRepository.getTransactionsPage("admin", cursor, 2);
+            page.forEach(transaction -> pagedIds.add(transaction.getId()));
+            cursor = page.isEmpty() ? null : TransactionCursor.of(page.get(page.size() - 1));
+        } while (page.size() == 2);
+
+        assertThat(pagedIds).containsExactlyElementsOf(expectedOrder);
+        assertThat(transactionRepository.getDebitingTransactionsPage("admin", null, 10)).hasSize(3);
+        assertThat(transactionRepository.getCreditingTransactionsPage("admin", null, 10)).hasSize(2);
+        assertThat(transactionRepository.getDebitingTransactionsPage("admin",
+                TransactionCursor.of(transactionRepository.getById(expectedOrder.get(0))), 10)).hasSize(2);
+    }
+
+    @DisplayName("Should store creation time of time-ordered id and find transaction by it")
+    @Test
+    public void shouldFindTransactionWithTimeOrderedId() {
+        UUID id = TransactionIds.newId();
+
+        Transaction created = transactionRepository.create(
+                new MoneyTransferRequest(id, "admin", "user", BigDecimal.ONE));
+        Transaction found = transactionRepository.getById(id);
+        Transaction approved = transactionRepository.approveTransaction("admin", id);
+
+        assertThat(created.getCreatedAt()).isEqualTo(TransactionIds.creationTime(id));
+        assertThat(found.getCreatedAt()).isEqualTo(created.getCreatedAt());
+        assertThat(approved.getStatus()).isEqualTo(TransferRequestStatus.APPROVED);
+        assertThat(transactionRepository.getById(id).getStatus()).isEqualTo(TransferRequestStatus.APPROVED);
+    }
+
     @DisplayName("Should fail transaction")
     @Test
     public void shouldFailTransaction() {
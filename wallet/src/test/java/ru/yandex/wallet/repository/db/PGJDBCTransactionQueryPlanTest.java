@@ -0,0 +1,134 @@
+package ru.yandex.wallet.repository.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.wallet.repository.jdbcimpl.TransactionQueries.*;
+
+/**
+ * Проверка планов выполнения запросов к таблице транзакций. Последовательное сканирование запрещается для текущей
+ * транзакции: если для формы запроса нет подходящего индекса, планировщик все равно выберет Seq Scan. Таблица
+ * секционирована, в плане видны индексы секций: PostgreSQL называет их по секции и столбцам индекса, например
+ * transactions_default_sender_created_at_id_idx для transactions_sender_created_at_idx (sender, created_at, id).
+ */
+@DisplayName("Postgres Transaction query plans test")
+@Transactional
+@Testcontainers
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("test")
+class PGJDBCTransactionQueryPlanTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Суффиксы имен индексов секций по столбцам индексов таблицы transactions
+     */
+    private static final String SENDER_KEYSET = "_sender_created_at_id_idx";
+    private static final String RECIPIENT_KEYSET = "_recipient_created_at_id_idx";
+    private static final String SENDER_STATUS = "_sender_status_created_at_idx";
+    private static final String PENDING_SENDER = "_sender_created_at_idx";
+
+    private static final Pattern INDEX_IN_PLAN =
+            Pattern.compile("(?:Index(?: Only)? Scan(?: Backward)? using|Bitmap Index Scan on) (\\S+)");
+
+    @Container
+    protected static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.0");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    public void disableSequentialScan() {
+        jdbcTemplate.execute("ANALYZE transactions");
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @DisplayName("Pending inbox of the donor should use the pending or sender status index")
+    @Test
+    public void pendingInboxShouldUseIndex() {
+        assertUsesIndexes(buildDynamicQuery("admin", null, TransferRequestStatus.PENDING), List.of("admin"),
+                PENDING_SENDER, SENDER_STATUS);
+    }
+
+    @DisplayName("Debit and credit history should use sender and recipient indexes")
+    @Test
+    public void debitAndCreditHistoryShouldUseIndex() {
+        assertUsesIndexes(buildDynamicQuery("admin", null, null), List.of("admin"), SENDER_KEYSET, SENDER_STATUS);
+        assertUsesIndexes(buildDynamicQuery(null, "admin", null), List.of("admin"), RECIPIENT_KEYSET);
+    }
+
+    @DisplayName("Transactions between two players with status should use a sender index")
+    @Test
+    public void transactionsBetweenPlayersShouldUseIndex() {
+        assertUsesIndexes(buildDynamicQuery("admin", "user", TransferRequestStatus.APPROVED), List.of("admin", "user"),
+                SENDER_STATUS, SENDER_KEYSET);
+    }
+
+    @DisplayName("History pages should use keyset indexes of sender and recipient")
+    @Test
+    public void historyPagesShouldUseIndex() {
+        LocalDateTime createdAt = LocalDateTime.now(ZoneOffset.UTC);
+        UUID id = UUID.randomUUID();
+
+        assertUsesIndexes(buildPageQuery("sender", false), List.of("admin", 20), SENDER_KEYSET);
+        assertUsesIndexes(buildPageQuery("recipient", true), List.of("admin", createdAt, createdAt, id, 20),
+                RECIPIENT_KEYSET);
+
+        List<String> combined = indexesInPlan(buildCombinedPageQuery(true), List.of("admin", createdAt, createdAt, id,
+                20, "admin", "admin", createdAt, createdAt, id, 20, 20));
+        assertThat(combined).allMatch(index -> index.endsWith(SENDER_KEYSET) || index.endsWith(RECIPIENT_KEYSET));
+        assertThat(combined).anyMatch(index -> index.endsWith(SENDER_KEYSET));
+        assertThat(combined).anyMatch(index -> index.endsWith(RECIPIENT_KEYSET));
+    }
+
+    /**
+     * Проверить, что план читает таблицу только через индексы с заданными суффиксами имен
+     */
+    private void assertUsesIndexes(String query, List<Object> args, String... expectedSuffixes) {
+        List<String> indexes = indexesInPlan(query, args);
+
+        assertThat(indexes).isNotEmpty();
+        assertThat(indexes).allMatch(index -> Arrays.stream(expectedSuffixes).anyMatch(index::endsWith));
+    }
+
+    private List<String> indexesInPlan(String query, List<Object> args) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class, args.toArray()));
+        assertThat(plan).doesNotContain("Seq Scan");
+
+        List<String> indexes = new ArrayList<>();
+        Matcher matcher = INDEX_IN_PLAN.matcher(plan);
+        while (matcher.find()) {
+            indexes.add(matcher.group(1));
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.yandex.wallet.repository.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.repository.jdbcimpl.TransactionPartitionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Transaction partition manager test")
+@Transactional
+@Testcontainers
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionPartitionManagerTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionPartitionManager partitionManager;
+
+    @Container
+    protected static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.0");
+
+    @DynamicPropertySource
+    static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    public void initPartitionManager() {
+        partitionManager = new TransactionPartitionManager(jdbcTemplate);
+    }
+
+    @DisplayName("Should create missing monthly partitions ahead and skip existing ones")
+    @Test
+    public void shouldCreateUpcomingPartitions() {
+        List<String> created = partitionManager.ensurePartitions(YearMonth.of(2040, 11), 2);
+        List<String> createdAgain = partitionManager.ensurePartitions(YearMonth.of(2040, 11), 2);
+
+        assertThat(created).containsExactly("transactions_p204011", "transactions_p204012", "transactions_p204101");
+        assertThat(createdAgain).isEmpty();
+
+        UUID id = UUID.randomUUID();
+        insertTransaction(id, LocalDateTime.of(2040, 12, 31, 23, 59));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transactions_p204012 WHERE id = ?",
+                Integer.class, id)).isOne();
+    }
+
+    @DisplayName("Should not create partition for month that already has rows in default partition")
+    @Test
+    public void shouldSkipMonthWithRowsInDefaultPartition() {
+        UUID id = UUID.randomUUID();
+        insertTransaction(id, LocalDateTime.of(2045, 3, 15, 12, 0));
+
+        List<String> created = partitionManager.ensurePartitions(YearMonth.of(2045, 3), 1);
+
+        assertThat(created).containsExactly("transactions_p204504");
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('transactions_p204503') IS NOT NULL",
+                Boolean.class)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transactions_default WHERE id = ?",
+                Integer.class, id)).isOne();
+    }
+
+    @DisplayName("Should detach partitions past retention and move them to archive schema")
+    @Test
+    public void shouldArchiveExpiredPartitions() {
+        partitionManager.ensurePartitions(YearMonth.of(2001, 1), 1);
+        UUID id = UUID.randomUUID();
+        insertTransaction(id, LocalDateTime.of(2001, 1, 10, 12, 0));
+
+        List<String> archived = partitionManager.archivePartitionsBefore(YearMonth.of(2001, 2), "archive");
+
+        assertThat(archived).containsExactly("transactions_p200101");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE id = ?",
+                Integer.class, id)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM archive.transactions_p200101 WHERE id = ?",
+                Integer.class, id)).isOne();
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('transactions_p200102') IS NOT NULL",
+                Boolean.class)).isTrue();
+    }
+
+    @DisplayName("Should reject archive schema that is not a plain identifier")
+    @Test
+    public void shouldRejectInvalidArchiveSchema() {
+        assertThatThrownBy(() -> partitionManager.archivePartitionsBefore(YearMonth.of(2001, 1), "archive; DROP"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void insertTransaction(UUID id, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO transactions (id, status, sender, recipient, amount, created_at) " +
+                        "VALUES (?,?,?,?,?,?)", id, TransferRequestStatus.APPROVED.name(), "admin", "user",
+                BigDecimal.ONE, createdAt);
+    }
+}
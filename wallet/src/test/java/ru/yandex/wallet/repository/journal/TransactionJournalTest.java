@@ -0,0 +1,120 @@
+package ru.yandex.wallet.repository.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Transaction journal test")
+class TransactionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @DisplayName("Should restore latest statuses and indexes after reopening")
+    @Test
+    void shouldReplayJournalAfterReopen() throws IOException {
+        JournalRecord first = record(1L, 2L, "1.5");
+        JournalRecord second = record(2L, 1L, "0.25");
+
+        try (TransactionJournal journal = open(4)) {
+            assertThat(journal.appendNew(first)).isTrue();
+            assertThat(journal.appendNew(second)).isTrue();
+            assertThat(journal.appendNew(first)).isFalse();
+
+            Set<UUID> approved = journal.compareAndSetStatus(List.of(first.id(), second.id()),
+                    record -> record.senderId() == 1L, TransferRequestStatus.APPROVED);
+
+            assertThat(approved).containsExactly(first.id());
+        }
+
+        try (TransactionJournal journal = open(4)) {
+            assertThat(journal.get(first.id()).status()).isEqualTo(TransferRequestStatus.APPROVED);
+            assertThat(journal.get(first.id()).amount()).isEqualByComparingTo("1.5");
+            assertThat(journal.get(second.id()).status()).isEqualTo(TransferRequestStatus.PENDING);
+            assertThat(journal.bySender(1L)).extracting(JournalRecord::id).containsExactly(first.id());
+            assertThat(journal.byRecipient(1L)).extracting(JournalRecord::id).containsExactly(second.id());
+        }
+    }
+
+    @DisplayName("Should roll over to new segments and replay them in order")
+    @Test
+    void shouldRollSegments() throws IOException {
+        UUID id = TransactionIds.newId();
+
+        try (TransactionJournal journal = open(2)) {
+            journal.appendNew(JournalRecord.of(id, TransferRequestStatus.PENDING, 1L, 2L, BigDecimal.ONE,
+                    LocalDateTime.of(2024, 1, 1, 0, 0)));
+
+            for (TransferRequestStatus status : List.of(TransferRequestStatus.DECLINED,
+                    TransferRequestStatus.FAILED, TransferRequestStatus.APPROVED, TransferRequestStatus.PENDING)) {
+                journal.compareAndSetStatus(List.of(id), record -> true, status);
+            }
+        }
+
+        try (var files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(3);
+        }
+
+        try (TransactionJournal journal = open(2)) {
+            assertThat(journal.get(id).status()).isEqualTo(TransferRequestStatus.PENDING);
+            assertThat(journal.get(id).createdAt()).isEqualTo(LocalDateTime.of(2024, 1, 1, 0, 0));
+            assertThat(journal.bySender(1L)).hasSize(1);
+        }
+    }
+
+    @DisplayName("Should ignore torn record at the tail and overwrite it on next append")
+    @Test
+    void shouldIgnoreTornTail() throws IOException {
+        JournalRecord first = record(1L, 2L, "3");
+        JournalRecord second = record(1L, 2L, "4");
+
+        try (TransactionJournal journal = open(8)) {
+            journal.appendNew(first);
+        }
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(JournalSegment.fileName(0)),
+                StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(JournalRecord.SIZE);
+            second.writeTo(torn, 0);
+            torn.putInt(60, torn.getInt(60) ^ 1);
+            channel.write(torn, JournalRecord.SIZE);
+        }
+
+        try (TransactionJournal journal = open(8)) {
+            assertThat(journal.get(second.id())).isNull();
+            assertThat(journal.appendNew(second)).isTrue();
+        }
+
+        try (TransactionJournal journal = open(8)) {
+            assertThat(journal.bySender(1L)).extracting(JournalRecord::id).containsExactly(first.id(), second.id());
+        }
+    }
+
+    private TransactionJournal open(int segmentCapacity) {
+        TransactionJournal journal = new TransactionJournal(directory, segmentCapacity, 2);
+        journal.start();
+        return journal;
+    }
+
+    private static JournalRecord record(long senderId, long recipientId, String amount) {
+        UUID id = TransactionIds.newId();
+        return JournalRecord.of(id, TransferRequestStatus.PENDING, senderId, recipientId, new BigDecimal(amount),
+                TransactionIds.creationTime(id));
+    }
+}
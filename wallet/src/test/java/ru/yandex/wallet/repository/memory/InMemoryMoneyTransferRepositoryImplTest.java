@@ -0,0 +1,170 @@
+package ru.yandex.wallet.repository.memory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("In-memory Money Transfer Repository test")
+class InMemoryMoneyTransferRepositoryImplTest {
+    private final List<Object> publishedEvents = new CopyOnWriteArrayList<>();
+
+    private InMemoryPlayerCrudRepositoryImpl playerRepository;
+    private InMemoryTransactionCrudRepositoryImpl transactionRepository;
+    private InMemoryMoneyTransferRepositoryImpl moneyTransferRepository;
+
+    @BeforeEach
+    public void initRepositories() {
+        PlayerTable players = new PlayerTable();
+        TransactionTable transactions = new TransactionTable(players);
+
+        playerRepository = new InMemoryPlayerCrudRepositoryImpl(players, transactions);
+        transactionRepository = new InMemoryTransactionCrudRepositoryImpl(players, transactions);
+        moneyTransferRepository = new InMemoryMoneyTransferRepositoryImpl(players, transactions,
+                publishedEvents::add);
+
+        createPlayer("admin", "5");
+        createPlayer("user", "10");
+    }
+
+    @DisplayName("Should move money and record approved transaction")
+    @Test
+    public void shouldTransferMoneyWhenBalanceIsSufficient() {
+        UUID transactionId = TransactionIds.newId();
+
+        Player admin = moneyTransferRepository.transfer(
+                new MoneyTransferRequest(transactionId, "admin", "user", BigDecimal.valueOf(2)));
+
+        assertThat(admin.getLogin()).isEqualTo("admin");
+        assertThat(admin.getBalance()).isEqualByComparingTo("3");
+        assertThat(playerRepository.getByLogin("user").getBalance()).isEqualByComparingTo("12");
+        assertThat(transactionRepository.getById(transactionId).getStatus()).isEqualTo(TransferRequestStatus.APPROVED);
+        assertThat(publishedEvents).containsExactly(new BalanceChangedEvent(List.of("admin", "user")));
+    }
+
+    @DisplayName("Should keep balances and record failed transaction when balance is deficient")
+    @Test
+    public void shouldFailTransferWhenBalanceIsDeficient() {
+        UUID transactionId = TransactionIds.newId();
+
+        assertThatThrownBy(() -> moneyTransferRepository.transfer(
+                new MoneyTransferRequest(transactionId, "admin", "user", BigDecimal.valueOf(6))))
+                .isInstanceOf(DeficientBalanceException.class);
+        assertThatThrownBy(() -> moneyTransferRepository.transfer(
+                new MoneyTransferRequest(TransactionIds.newId(), "admin", "nobody", BigDecimal.ONE)))
+                .isInstanceOf(NoSuchPlayerException.class);
+
+        assertThat(playerRepository.getByLogin("admin").getBalance()).isEqualByComparingTo("5");
+        assertThat(transactionRepository.getById(transactionId).getStatus()).isEqualTo(TransferRequestStatus.FAILED);
+        assertThat(publishedEvents).isEmpty();
+    }
+
+    @DisplayName("Should approve nothing when donor cannot cover the whole batch")
+    @Test
+    public void shouldApproveBatchAtomically() {
+        UUID first = requestMoney("admin", "user", "3");
+        UUID second = requestMoney("admin", "user", "3");
+
+        assertThatThrownBy(() -> moneyTransferRepository.approvePendingTransactions("admin", List.of(first, second)))
+                .isInstanceOf(DeficientBalanceException.class);
+        assertThat(transactionRepository.getById(first).getStatus()).isEqualTo(TransferRequestStatus.PENDING);
+        assertThat(playerRepository.getByLogin("admin").getBalance()).isEqualByComparingTo("5");
+
+        UUID unknown = UUID.randomUUID();
+        assertThat(moneyTransferRepository.approvePendingTransactions("admin", List.of(first, unknown)))
+                .containsExactly(new TransactionOutcome(first, TransferRequestStatus.APPROVED, true),
+                        new TransactionOutcome(unknown, null, false));
+        assertThat(playerRepository.getByLogin("admin").getBalance()).isEqualByComparingTo("2");
+        assertThat(playerRepository.getByLogin("user").getBalance()).isEqualByComparingTo("13");
+        assertThat(transactionRepository.countPending()).isEqualTo(1);
+    }
+
+    @DisplayName("Should preserve total balance under concurrent transfers, approvals and declines")
+    @Test
+    public void shouldPreserveTotalBalanceUnderConcurrency() throws Exception {
+        int playerCount = 50;
+        for (int i = 0; i < playerCount; i++) {
+            createPlayer("player" + i, "100");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                for (int i = 0; i < 5_000; i++) {
+                    String sender = "player" + random.nextInt(playerCount);
+                    String recipient = "player" + random.nextInt(playerCount);
+                    BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(20));
+
+                    try {
+                        if (sender.equals(recipient)) {
+                            List<UUID> pending = transactionRepository
+                                    .getTransactionsBySenderAndRecipientAndStatus(sender, null,
+                                            TransferRequestStatus.PENDING)
+                                    .stream().limit(3).map(Transaction::getId).toList();
+
+                            if (random.nextBoolean()) {
+                                moneyTransferRepository.approvePendingTransactions(sender, pending);
+                            } else {
+                                transactionRepository.declineTransactions(sender, pending);
+                            }
+                        } else if (random.nextInt(4) == 0) {
+                            requestMoney(sender, recipient, amount.toPlainString());
+                        } else {
+                            moneyTransferRepository.transfer(
+                                    new MoneyTransferRequest(TransactionIds.newId(), sender, recipient, amount));
+                        }
+                    } catch (DeficientBalanceException e) {
+                    }
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < playerCount; i++) {
+            BigDecimal balance = playerRepository.getByLogin("player" + i).getBalance();
+            assertThat(balance).isNotNegative();
+            total = total.add(balance);
+        }
+
+        assertThat(total).isEqualByComparingTo(BigDecimal.valueOf(100L * playerCount));
+        assertThat(transactionRepository.countPending()).isEqualTo(transactionRepository
+                .getTransactionsBySenderAndRecipientAndStatus(null, null, TransferRequestStatus.PENDING).size());
+    }
+
+    private void createPlayer(String login, String balance) {
+        playerRepository.create(Player.builder().login(login).username(login).password(new byte[]{1}).build());
+        playerRepository.setBalance(login, new BigDecimal(balance));
+    }
+
+    private UUID requestMoney(String donor, String requester, String amount) {
+        UUID id = TransactionIds.newId();
+        transactionRepository.create(new MoneyTransferRequest(id, donor, requester, new BigDecimal(amount)));
+        return id;
+    }
+}
@@ -0,0 +1,136 @@
+package ru.yandex.wallet.repository.memory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.exception.exceptions.NoSuchPlayerException;
+import ru.yandex.wallet.exception.exceptions.NoSuchTransactionException;
+import ru.yandex.wallet.exception.exceptions.PlayerAlreadyExistsException;
+import ru.yandex.wallet.exception.exceptions.TransactionAlreadyExistsException;
+import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("In-memory Transaction Repository test")
+class InMemoryTransactionCrudRepositoryImplTest {
+    private InMemoryPlayerCrudRepositoryImpl playerRepository;
+    private InMemoryTransactionCrudRepositoryImpl transactionRepository;
+
+    @BeforeEach
+    public void initRepositories() {
+        PlayerTable players = new PlayerTable();
+        TransactionTable transactions = new TransactionTable(players);
+
+        playerRepository = new InMemoryPlayerCrudRepositoryImpl(players, transactions);
+        transactionRepository = new InMemoryTransactionCrudRepositoryImpl(players, transactions);
+
+        for (String login : List.of("admin", "user", "guest")) {
+            playerRepository.create(Player.builder().login(login).username(login).password(new byte[]{1}).build());
+        }
+    }
+
+    @DisplayName("Should keep player and transaction contracts of the database implementation")
+    @Test
+    public void shouldKeepRepositoryContracts() {
+        assertThat(playerRepository.getByLogin("user").getId()).isEqualTo(2L);
+        assertThat(playerRepository.setBalance("user", new BigDecimal("1.0005")).getBalance())
+                .isEqualTo(new BigDecimal("1.001"));
+        assertThatThrownBy(() -> playerRepository.create(
+                Player.builder().login("user").username("other").build()))
+                .isInstanceOf(PlayerAlreadyExistsException.class);
+        assertThatThrownBy(() -> playerRepository.getById(42L)).isInstanceOf(NoSuchPlayerException.class);
+
+        UUID id = create("admin", "user", 1);
+        assertThatThrownBy(() -> transactionRepository.create(
+                new MoneyTransferRequest(id, "admin", "user", BigDecimal.ONE)))
+                .isInstanceOf(TransactionAlreadyExistsException.class);
+        assertThatThrownBy(() -> transactionRepository.getById(UUID.randomUUID()))
+                .isInstanceOf(NoSuchTransactionException.class);
+        assertThatThrownBy(() -> transactionRepository.approveTransaction("user", id))
+                .isInstanceOf(TransactionStatusException.class);
+        assertThatThrownBy(() -> playerRepository.delete(1L))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(transactionRepository.approveTransaction("admin", id).getStatus())
+                .isEqualTo(TransferRequestStatus.APPROVED);
+        assertThatThrownBy(() -> transactionRepository.declineTransaction("admin", id))
+                .isInstanceOf(TransactionStatusException.class);
+        assertThat(transactionRepository.setFailed(id).getStatus()).isEqualTo(TransferRequestStatus.FAILED);
+    }
+
+    @DisplayName("Should decline only pending transactions of the donor and count pending ones")
+    @Test
+    public void shouldDeclinePendingTransactionsInBatch() {
+        UUID pending = create("admin", "user", 1);
+        UUID approved = create("admin", "user", 2);
+        UUID foreign = create("user", "admin", 3);
+        transactionRepository.approveTransaction("admin", approved);
+
+        assertThat(transactionRepository.countPending()).isEqualTo(2);
+        assertThat(transactionRepository.declineTransactions("admin", List.of(pending, approved, foreign)))
+                .containsExactly(new TransactionOutcome(pending, TransferRequestStatus.DECLINED, true),
+                        new TransactionOutcome(approved, TransferRequestStatus.APPROVED, false),
+                        new TransactionOutcome(foreign, null, false));
+        assertThat(transactionRepository.countPending()).isEqualTo(1);
+    }
+
+    @DisplayName("Should page through combined history by keyset without gaps or duplicates")
+    @Test
+    public void shouldPageThroughHistoryByKeyset() {
+        long start = System.currentTimeMillis();
+        List<UUID> expected = new ArrayList<>();
+
+        // Транзакции добавляются не в порядке времени создания, как при одновременных запросах
+        for (int i = 0; i < 30; i++) {
+            long createdAt = start + (i % 2 == 0 ? i : i - 5);
+            UUID id = new UUID(createdAt << 16 | 0x7000 | i, 0x8000000000000000L | i);
+            String sender = i % 3 == 0 ? "user" : "admin";
+            String recipient = i % 3 == 1 ? "user" : i % 3 == 2 ? "guest" : "admin";
+
+            transactionRepository.create(new MoneyTransferRequest(id, sender, recipient, BigDecimal.ONE));
+
+            if (!recipient.equals("guest")) {
+                expected.add(id);
+            }
+        }
+
+        // Для UUIDv7 беззнаковый порядок идентификаторов совпадает с порядком (created_at, id)
+        expected.sort((left, right) -> Long.compareUnsigned(right.getMostSignificantBits(),
+                left.getMostSignificantBits()));
+
+        List<UUID> paged = new ArrayList<>();
+        TransactionCursor cursor = null;
+
+        while (true) {
+            List<Transaction> page = transactionRepository.getTransactionsPage("user", cursor, 4);
+            page.forEach(transaction -> paged.add(transaction.getId()));
+
+            if (page.size() < 4) {
+                break;
+            }
+            cursor = TransactionCursor.of(page.get(3));
+        }
+
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    private UUID create(String sender, String recipient, int amount) {
+        UUID id = TransactionIds.newId();
+        transactionRepository.create(new MoneyTransferRequest(id, sender, recipient, BigDecimal.valueOf(amount)));
+        return id;
+    }
+}
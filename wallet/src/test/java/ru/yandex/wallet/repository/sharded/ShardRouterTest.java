@@ -0,0 +1,37 @@
+package ru.yandex.wallet.repository.sharded;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Shard router test")
+class ShardRouterTest {
+
+    @DisplayName("Should place players by first 32 bits of login MD5 like wallet_shard_of")
+    @Test
+    void shouldPlacePlayersByLoginHash() {
+        assertThat(ShardRouter.shardIndex("admin", 2)).isEqualTo(1);
+        assertThat(ShardRouter.shardIndex("user", 2)).isEqualTo(1);
+        assertThat(ShardRouter.shardIndex("alice", 2)).isZero();
+        assertThat(ShardRouter.shardIndex("bob", 2)).isZero();
+        assertThat(ShardRouter.shardIndex("admin", 3)).isZero();
+        assertThat(ShardRouter.shardIndex("user", 3)).isEqualTo(2);
+        assertThat(ShardRouter.shardIndex("dave", 3)).isEqualTo(1);
+    }
+
+    @DisplayName("Should route player id to shard equal to id modulo shard count")
+    @Test
+    void shouldRoutePlayerIdByRemainder() {
+        ShardRouter router = new ShardRouter(List.of(new SingleConnectionDataSource(), new SingleConnectionDataSource(),
+                new SingleConnectionDataSource()));
+
+        assertThat(router.shardOfPlayer(3).index()).isZero();
+        assertThat(router.shardOfPlayer(7).index()).isEqualTo(1);
+        assertThat(router.shardOfPlayer(11).index()).isEqualTo(2);
+        assertThat(router.shardOf("user").index()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,217 @@
+package ru.yandex.wallet.repository.sharded;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.yandex.wallet.domain.Player;
+import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransferRequestStatus;
+import ru.yandex.wallet.domain.dto.MoneyTransferRequest;
+import ru.yandex.wallet.domain.dto.TransactionOutcome;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
+import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.util.TransactionIds;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Sharded money transfer repository test")
+@Testcontainers
+class ShardedMoneyTransferRepositoryImplTest {
+
+    @Container
+    protected static PostgreSQLContainer<?> firstShard = new PostgreSQLContainer<>("postgres:16.0")
+            .withCommand("postgres", "-c", "max_prepared_transactions=10");
+
+    @Container
+    protected static PostgreSQLContainer<?> secondShard = new PostgreSQLContainer<>("postgres:16.0")
+            .withCommand("postgres", "-c", "max_prepared_transactions=10");
+
+    private static ShardRouter shardRouter;
+    private static TransferDecisionLog decisionLog;
+
+    private ShardedPlayerCrudRepositoryImpl playerRepository;
+    private ShardedTransactionCrudRepositoryImpl transactionRepository;
+    private ShardedMoneyTransferRepositoryImpl moneyTransferRepository;
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+
+    /**
+     * Два шарда: admin и user попадают на шард 1, alice - на шард 0. Журнал решений хранится на первом шарде.
+     */
+    @BeforeAll
+    static void migrateShards() {
+        shardRouter = new ShardRouter(List.of(dataSource(firstShard), dataSource(secondShard)));
+        shardRouter.migrate(new DefaultResourceLoader(), "public", "public");
+
+        ShardRouter.migrate(shardRouter.shards().get(0).dataSource(),
+                "classpath:db/changelog/v4-sharding/002-transfer-decisions.xml", Map.of(), new DefaultResourceLoader(),
+                "public", "public");
+        decisionLog = new TransferDecisionLog(shardRouter.shards().get(0).jdbcTemplate());
+
+        new ShardedPlayerCrudRepositoryImpl(shardRouter)
+                .create(Player.builder().username("alice").login("alice").password(new byte[]{1}).build());
+    }
+
+    @AfterAll
+    static void closeRouter() throws Exception {
+        shardRouter.close();
+    }
+
+    @BeforeEach
+    public void initRepositories() {
+        ShardTransactionCoordinator coordinator = new ShardTransactionCoordinator(decisionLog);
+        playerRepository = new ShardedPlayerCrudRepositoryImpl(shardRouter);
+        transactionRepository = new ShardedTransactionCrudRepositoryImpl(shardRouter, coordinator);
+        moneyTransferRepository = new ShardedMoneyTransferRepositoryImpl(shardRouter, coordinator,
+                publishedEvents::add);
+    }
+
+    @DisplayName("Should keep only own players on each shard with ids matching the shard")
+    @Test
+    public void shouldSplitPlayersBetweenShards() {
+        Player admin = playerRepository.getByLogin("admin");
+        Player alice = playerRepository.getByLogin("alice");
+
+        assertThat(admin.getId() % 2).isEqualTo(1);
+        assertThat(alice.getId() % 2).isZero();
+        assertThat(playerRepository.getById(alice.getId()).getLogin()).isEqualTo("alice");
+        assertThat(count(0, "SELECT count(*) FROM players WHERE login = 'admin'")).isZero();
+        assertThat(count(1, "SELECT count(*) FROM players WHERE login = 'alice'")).isZero();
+    }
+
+    @DisplayName("Should move money between shards with two-phase commit and index the transaction")
+    @Test
+    public void shouldTransferMoneyAcrossShards() {
+        BigDecimal adminBalance = playerRepository.getByLogin("admin").getBalance();
+        BigDecimal aliceBalance = playerRepository.getByLogin("alice").getBalance();
+        UUID transactionId = TransactionIds.newId();
+
+        Player admin = moneyTransferRepository.transfer(
+                new MoneyTransferRequest(transactionId, "admin", "alice", BigDecimal.ONE));
+
+        assertThat(admin.getBalance()).isEqualByComparingTo(adminBalance.subtract(BigDecimal.ONE));
+        assertThat(playerRepository.getByLogin("alice").getBalance())
+                .isEqualByComparingTo(aliceBalance.add(BigDecimal.ONE));
+        assertThat(transactionRepository.getById(transactionId).getStatus()).isEqualTo(TransferRequestStatus.APPROVED);
+        assertThat(transactionRepository.getCreditingTransactionsPage("alice", null, 10))
+                .extracting(Transaction::getId).contains(transactionId);
+        assertThat(count(0, "SELECT count(*) FROM pg_prepared_xacts")).isZero();
+        assertThat(count(1, "SELECT count(*) FROM pg_prepared_xacts")).isZero();
+        assertThat(publishedEvents).containsExactly(new BalanceChangedEvent(List.of("admin", "alice")));
+    }
+
+    @DisplayName("Should roll back both shards and record failed transaction when balance is deficient")
+    @Test
+    public void shouldRollBackCrossShardTransferWhenBalanceIsDeficient() {
+        BigDecimal adminBalance = playerRepository.getByLogin("admin").getBalance();
+        BigDecimal aliceBalance = playerRepository.getByLogin("alice").getBalance();
+        UUID transactionId = TransactionIds.newId();
+
+        assertThatThrownBy(() -> moneyTransferRepository.transfer(
+                new MoneyTransferRequest(transactionId, "admin", "alice", BigDecimal.valueOf(1000))))
+                .isInstanceOf(DeficientBalanceException.class);
+
+        assertThat(playerRepository.getByLogin("admin").getBalance()).isEqualByComparingTo(adminBalance);
+        assertThat(playerRepository.getByLogin("alice").getBalance()).isEqualByComparingTo(aliceBalance);
+        assertThat(transactionRepository.getById(transactionId).getStatus()).isEqualTo(TransferRequestStatus.FAILED);
+        assertThat(publishedEvents).isEmpty();
+    }
+
+    @DisplayName("Should approve pending requests of the donor crediting recipients on other shards")
+    @Test
+    public void shouldApprovePendingTransactionsAcrossShards() {
+        BigDecimal aliceBalance = playerRepository.getByLogin("alice").getBalance();
+        UUID pendingId = TransactionIds.newId();
+        transactionRepository.create(new MoneyTransferRequest(pendingId, "admin", "alice", BigDecimal.ONE));
+
+        List<TransactionOutcome> outcomes = new ArrayList<>(
+                moneyTransferRepository.approvePendingTransactions("admin", List.of(pendingId)));
+
+        assertThat(outcomes).containsExactly(new TransactionOutcome(pendingId, TransferRequestStatus.APPROVED, true));
+        assertThat(playerRepository.getByLogin("alice").getBalance())
+                .isEqualByComparingTo(aliceBalance.add(BigDecimal.ONE));
+        assertThat(transactionRepository.getById(pendingId).getStatus()).isEqualTo(TransferRequestStatus.APPROVED);
+    }
+
+    @DisplayName("Should commit in-doubt branch with recorded decision and roll back branch without one")
+    @Test
+    public void shouldResolveInDoubtBranches() {
+        InDoubtTransferRecovery recovery = new InDoubtTransferRecovery(shardRouter, decisionLog, Duration.ZERO,
+                Duration.ofHours(1));
+        UUID committedId = TransactionIds.newId();
+        UUID abortedId = TransactionIds.newId();
+
+        prepareIndexRow(committedId);
+        prepareIndexRow(abortedId);
+        decisionLog.commit(ShardTransactionCoordinator.GID_PREFIX + committedId);
+
+        recovery.recover();
+
+        assertThat(count(0, "SELECT count(*) FROM pg_prepared_xacts")).isZero();
+        assertThat(count(0, "SELECT count(*) FROM transaction_index WHERE id = '" + committedId + "'")).isOne();
+        assertThat(count(0, "SELECT count(*) FROM transaction_index WHERE id = '" + abortedId + "'")).isZero();
+        assertThat(recovery.stats()).isEqualTo(new InDoubtTransferRecovery.Stats(1, 1));
+    }
+
+    @DisplayName("Should keep commit decisions while a shard cannot be listed")
+    @Test
+    public void shouldKeepDecisionsWhenShardIsUnavailable() {
+        ShardRouter partialRouter = new ShardRouter(List.of(dataSource(firstShard),
+                new DriverManagerDataSource("jdbc:postgresql://localhost:1/unavailable", "wallet", "wallet")));
+        InDoubtTransferRecovery recovery = new InDoubtTransferRecovery(partialRouter, decisionLog, Duration.ZERO,
+                Duration.ZERO);
+        UUID committedId = TransactionIds.newId();
+        String gid = ShardTransactionCoordinator.GID_PREFIX + committedId;
+
+        prepareIndexRow(committedId);
+        decisionLog.commit(gid);
+
+        recovery.recover();
+
+        assertThat(count(0, "SELECT count(*) FROM transaction_index WHERE id = '" + committedId + "'")).isOne();
+        assertThat(count(0, "SELECT count(*) FROM transfer_decisions WHERE gid = '" + gid + "'")).isOne();
+        assertThat(recovery.stats()).isEqualTo(new InDoubtTransferRecovery.Stats(1, 0));
+    }
+
+    /**
+     * Подготовить на шарде 0 ветку, которую координатор не завершил
+     */
+    private void prepareIndexRow(UUID id) {
+        shardRouter.shards().get(0).jdbcTemplate().execute((ConnectionCallback<Void>) con -> {
+            con.setAutoCommit(false);
+            try (Statement statement = con.createStatement()) {
+                statement.execute("INSERT INTO transaction_index (id, sender, recipient, created_at) VALUES ('" + id
+                        + "', 'admin', 'alice', now() AT TIME ZONE 'UTC')");
+                statement.execute("PREPARE TRANSACTION '" + ShardTransactionCoordinator.GID_PREFIX + id + "'");
+            } finally {
+                con.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    private long count(int shard, String query) {
+        return shardRouter.shards().get(shard).jdbcTemplate().queryForObject(query, Long.class);
+    }
+
+    private static DriverManagerDataSource dataSource(PostgreSQLContainer<?> postgres) {
+        return new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
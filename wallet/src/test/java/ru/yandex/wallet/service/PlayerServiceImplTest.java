@@ -8,18 +8,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import ru.yandex.metrics.registry.MetricsRegistry;
 import ru.yandex.wallet.domain.Player;
 import ru.yandex.wallet.domain.Transaction;
+import ru.yandex.wallet.domain.TransactionCursor;
 import ru.yandex.wallet.domain.TransferRequestStatus;
 import ru.yandex.wallet.domain.dto.*;
+import ru.yandex.wallet.domain.event.BalanceChangedEvent;
 import ru.yandex.wallet.exception.exceptions.BadCredentialsException;
 import ru.yandex.wallet.exception.exceptions.DeficientBalanceException;
+import ru.yandex.wallet.exception.exceptions.InvalidCursorException;
+import ru.yandex.wallet.exception.exceptions.TransactionStatusException;
+import ru.yandex.wallet.metrics.WalletMetrics;
+import ru.yandex.wallet.repository.MoneyTransferRepository;
 import ru.yandex.wallet.repository.PlayerCrudRepository;
 import ru.yandex.wallet.repository.TransactionCrudRepository;
+import ru.yandex.wallet.repository.cache.CachingPlayerCrudRepository;
 import ru.yandex.wallet.service.impl.PlayerServiceImpl;
 
 import java.math.BigDecimal;
 import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -28,7 +38,10 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @DisplayName("Player service test")
@@ -37,15 +50,20 @@ class PlayerServiceImplTest {
     private PlayerService playerService;
     private PlayerCrudRepository mockPlayerCrudRepository;
     private TransactionCrudRepository mockTransactionCrudRepository;
+    private MoneyTransferRepository mockMoneyTransferRepository;
     private static MessageDigest messageDigest;
+    private MetricsRegistry metricsRegistry;
 
     @SneakyThrows
     @BeforeEach
     public void init() {
         mockPlayerCrudRepository = Mockito.mock(PlayerCrudRepository.class);
         mockTransactionCrudRepository = Mockito.mock(TransactionCrudRepository.class);
+        mockMoneyTransferRepository = Mockito.mock(MoneyTransferRepository.class);
         messageDigest = MessageDigest.getInstance("MD5");
-        playerService = new PlayerServiceImpl(mockPlayerCrudRepository, mockTransactionCrudRepository, messageDigest);
+        metricsRegistry = new MetricsRegistry();
+        playerService = new PlayerServiceImpl(mockPlayerCrudRepository, mockTransactionCrudRepository,
+                mockMoneyTransferRepository, new WalletMetrics(metricsRegistry));
     }
 
     @DisplayName("Authenticates player when credentials are correct")
@@ -138,104 +156,89 @@ class PlayerServiceImplTest {
     @DisplayName("Should transfer money when player has enough on their balance")
     @Test
     void shouldTransferMoneyWhenBalanceIsProficient() {
-        UUID transactionId = UUID.randomUUID();
-        MoneyTransferRequest moneyTransferRequest = new MoneyTransferRequest(transactionId,
-                "admin", "user", BigDecimal.ONE);
-        Transaction transaction = new Transaction(transactionId, TransferRequestStatus.PENDING,
-                moneyTransferRequest.getMoneyFrom(), moneyTransferRequest.getMoneyTo(),
-                moneyTransferRequest.getAmount());
         PlayerTransferMoneyRequestDto playerTransferMoneyRequestDto =
                 new PlayerTransferMoneyRequestDto("user", 1.0);
 
-        Player admin = Player.builder()
+        Player adminAfterTransfer = Player.builder()
+                .id(1L)
                 .username("admin")
                 .login("admin")
-                .password("admin".getBytes())
-                .balance(BigDecimal.TEN)
+                .balance(BigDecimal.valueOf(9))
                 .build();
 
-        Player user = Player.builder()
-                .username("user")
-                .login("user")
-                .password("user".getBytes())
-                .balance(BigDecimal.ZERO)
-                .build();
-
-        BigDecimal balanceAfterWithdrawal = admin.getBalance().subtract(moneyTransferRequest.getAmount());
-
-        when(mockPlayerCrudRepository.getByLogin("admin"))
-                .thenReturn(admin);
-        when(mockPlayerCrudRepository.getByLogin("user"))
-                .thenReturn(user);
+        when(mockMoneyTransferRepository.transfer(any()))
+                .thenReturn(adminAfterTransfer);
 
-        when(mockTransactionCrudRepository.create(any()))
-                .thenReturn(transaction);
+        BalanceDto balanceDto = playerService.transferMoneyTo("admin", playerTransferMoneyRequestDto);
 
-        when(mockTransactionCrudRepository.approveTransaction(admin.getLogin(), transactionId))
-                .thenAnswer((invocation) -> {
-                    transaction.setStatus(TransferRequestStatus.APPROVED);
-                    return transaction;
-                });
-        when(mockPlayerCrudRepository.setBalance(any(), any()))
-                .thenAnswer(invocationOnMock -> {
-                    Player newAdmin = Player.builder()
-                            .username(admin.getUsername())
-                            .login(admin.getLogin())
-                            .password(admin.getPassword())
-                            .balance(admin.getBalance().subtract(moneyTransferRequest.getAmount()))
-                            .build();
-                    return newAdmin;
-                });
+        assertThat(balanceDto.getId()).isEqualTo(adminAfterTransfer.getId());
+        assertThat(balanceDto.getBalance()).isEqualTo(adminAfterTransfer.getBalance());
+        assertThat(metricsRegistry.scrape()).contains("wallet_transfers_total{outcome=\"APPROVED\"} 1");
 
-        BalanceDto balanceDto = playerService.transferMoneyTo("admin", playerTransferMoneyRequestDto);
+        verify(mockMoneyTransferRepository).transfer(argThat(request ->
+                request.getMoneyFrom().equals("admin")
+                        && request.getMoneyTo().equals("user")
+                        && request.getAmount().compareTo(BigDecimal.ONE) == 0
+                        && request.getId() != null));
+        verifyNoInteractions(mockPlayerCrudRepository, mockTransactionCrudRepository);
+    }
 
-        assertThat(balanceDto.getBalance())
-                .isEqualTo(balanceAfterWithdrawal);
-        assertThat(transaction.getStatus()).isEqualTo(TransferRequestStatus.APPROVED);
+    @DisplayName("Should report balance changed by transfer when player authenticates from identity cache")
+    @Test
+    void shouldAuthenticateWithBalanceAfterTransfer() throws Exception {
+        CachingPlayerCrudRepository cachingRepository = new CachingPlayerCrudRepository(mockPlayerCrudRepository, 32,
+                Duration.ofMinutes(10), Duration.ofMinutes(10));
+        PlayerService cachedPlayerService = new PlayerServiceImpl(cachingRepository, mockTransactionCrudRepository,
+                mockMoneyTransferRepository, new WalletMetrics(metricsRegistry));
+        UnsecuredAuthenticationRequestDto authenticationRequestDto
+                = new UnsecuredAuthenticationRequestDto("admin", "password");
+        byte[] password = messageDigest.digest(authenticationRequestDto.getPassword().getBytes());
 
-        verify(mockPlayerCrudRepository, times(3)).getByLogin(any());
-        verify(mockTransactionCrudRepository).create(any());
+        when(mockPlayerCrudRepository.getByLogin("admin"))
+                .thenReturn(new Player(1L, "admin", "admin", password, BigDecimal.TEN));
+        assertThat(cachedPlayerService.authenticate(authenticationRequestDto).getBalance())
+                .isEqualByComparingTo(BigDecimal.TEN);
+
+        Player adminAfterTransfer = new Player(1L, "admin", "admin", password, BigDecimal.valueOf(9));
+        when(mockMoneyTransferRepository.transfer(any())).thenAnswer(invocation -> {
+            when(mockPlayerCrudRepository.getByLogin("admin")).thenReturn(adminAfterTransfer);
+            cachingRepository.onBalanceChanged(new BalanceChangedEvent(List.of("admin", "user")));
+            return adminAfterTransfer;
+        });
+        cachedPlayerService.transferMoneyTo("admin", new PlayerTransferMoneyRequestDto("user", 1.0));
+
+        assertThat(cachedPlayerService.authenticate(authenticationRequestDto).getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf(9));
+        verify(mockPlayerCrudRepository, times(2)).getByLogin("admin");
     }
 
     @DisplayName("Should throw an error when transferring money from deficient account")
     @Test
     void shouldNotTransferMoneyWhenBalanceIsDeficient() {
-        UUID transactionId = UUID.randomUUID();
-        MoneyTransferRequest moneyTransferRequest = new MoneyTransferRequest(transactionId,
-                "admin", "user", BigDecimal.ONE);
-        Transaction transaction = new Transaction(transactionId, TransferRequestStatus.PENDING,
-                moneyTransferRequest.getMoneyFrom(), moneyTransferRequest.getMoneyTo(),
-                moneyTransferRequest.getAmount());
         PlayerTransferMoneyRequestDto playerTransferMoneyRequestDto
                 = new PlayerTransferMoneyRequestDto("user", 1.0);
 
-        Player admin = Player.builder()
-                .username("admin")
-                .login("admin")
-                .password("admin".getBytes())
-                .balance(BigDecimal.ZERO)
-                .build();
-
-        Player user = Player.builder()
-                .username("user")
-                .login("user")
-                .password("user".getBytes())
-                .balance(BigDecimal.ZERO)
-                .build();
+        when(mockMoneyTransferRepository.transfer(any()))
+                .thenThrow(new DeficientBalanceException("deficient"));
 
-        when(mockPlayerCrudRepository.getByLogin("admin"))
-                .thenReturn(admin);
-        when(mockPlayerCrudRepository.getByLogin("user"))
-                .thenReturn(user);
-        when(mockTransactionCrudRepository.create(any()))
-                .thenReturn(transaction);
-
-        assertThatThrownBy(() -> playerService.transferMoneyTo(admin.getLogin(), playerTransferMoneyRequestDto))
+        assertThatThrownBy(() -> playerService.transferMoneyTo("admin", playerTransferMoneyRequestDto))
                 .isInstanceOf(DeficientBalanceException.class);
-        assertThat(transaction.getStatus()).isEqualTo(TransferRequestStatus.FAILED);
 
-        verify(mockPlayerCrudRepository, times(3)).getByLogin(any());
-        verify(mockTransactionCrudRepository).create(any());
+        verify(mockMoneyTransferRepository).transfer(any());
+        assertThat(metricsRegistry.scrape()).contains("wallet_transfers_total{outcome=\"FAILED\"} 1");
+    }
+
+    @DisplayName("Should reject transfers to self and non-positive amounts")
+    @Test
+    void shouldRejectSelfTransferAndNonPositiveAmount() {
+        assertThatThrownBy(() -> playerService.transferMoneyTo("admin",
+                new PlayerTransferMoneyRequestDto("admin", 1.0)))
+                .isInstanceOf(TransactionStatusException.class);
+        assertThatThrownBy(() -> playerService.transferMoneyTo("admin",
+                new PlayerTransferMoneyRequestDto("user", -1.0)))
+                .isInstanceOf(TransactionStatusException.class);
+
+        verifyNoInteractions(mockMoneyTransferRepository);
     }
 
     @DisplayName("Should get correct response on money request")
@@ -282,28 +285,33 @@ class PlayerServiceImplTest {
     @Test
     @DisplayName("Should approve correct transaction and ignore incorrect transaction when passed as string")
     void shouldApproveCorrectTrannsactionAndIgnoreIncorrectTransactionList() {
+        UUID validId = UUID.randomUUID();
         List<String> mixedIdsList = new ArrayList<>();
         mixedIdsList.add("12345-3213123-incorrect");
-        mixedIdsList.add(UUID.randomUUID().toString());
+        mixedIdsList.add(validId.toString());
         TransactionsListDto transactionsListDto = new TransactionsListDto(mixedIdsList);
 
-        Transaction transaction = new Transaction(UUID.randomUUID(), TransferRequestStatus.PENDING,
-                "sender", "recipient", BigDecimal.ONE);
-        when(mockTransactionCrudRepository.approveTransaction(any(), any()))
-                .thenReturn(transaction);
+        when(mockMoneyTransferRepository.approvePendingTransactions(any(), any()))
+                .thenReturn(List.of(new TransactionOutcome(validId, TransferRequestStatus.APPROVED, true)));
 
-        Player sender = new Player(1L, "username", "login", "password".getBytes(), BigDecimal.ONE);
-        Player recipient = new Player(2L, "username", "login", "password".getBytes(), BigDecimal.ONE);
+        Collection<TransactionOutcome> response
+                = playerService.approvePendingMoneyRequest("donor", transactionsListDto);
+
+        assertThat(response.size()).isEqualTo(1);
+        verify(mockMoneyTransferRepository).approvePendingTransactions(eq("donor"), eq(List.of(validId)));
+        verifyNoInteractions(mockPlayerCrudRepository, mockTransactionCrudRepository);
+    }
 
-        when(mockPlayerCrudRepository.getByLogin(any()))
-                .thenReturn(sender);
-        when(mockPlayerCrudRepository.setBalance(any(), any()))
-                .thenReturn(recipient);
+    @Test
+    @DisplayName("Should not touch repositories when no valid transaction id is passed")
+    void shouldSkipApprovalWhenNoValidIds() {
+        TransactionsListDto transactionsListDto = new TransactionsListDto(List.of("12345-3213123-incorrect"));
 
-        Collection<MoneyTransferResponse> response
+        Collection<TransactionOutcome> response
                 = playerService.approvePendingMoneyRequest("donor", transactionsListDto);
 
-        assertThat(response.size()).isEqualTo(1);
+        assertThat(response).isEmpty();
+        verifyNoInteractions(mockMoneyTransferRepository);
     }
 
     @Test
@@ -315,14 +323,14 @@ class PlayerServiceImplTest {
         mixedIdsList.add(UUID.randomUUID().toString());
         TransactionsListDto transactionsListDto = new TransactionsListDto(mixedIdsList);
 
-        Transaction declinedTransaction = new Transaction(null, null, null, null, null);
-        when(mockTransactionCrudRepository.declineTransaction(any(), any()))
-                .thenReturn(declinedTransaction);
+        when(mockTransactionCrudRepository.declineTransactions(any(), any()))
+                .thenReturn(List.of());
 
         playerService.declinePendingRequest("donor", transactionsListDto);
 
-        verify(mockTransactionCrudRepository, times(mixedIdsList.size() - 1))
-                .declineTransaction(any(), any());
+        verify(mockTransactionCrudRepository).declineTransactions(eq("donor"),
+                argThat(ids -> ids.size() == mixedIdsList.size() - 1));
+        verify(mockTransactionCrudRepository, never()).declineTransaction(any(), any());
     }
 
     @Test
@@ -343,4 +351,57 @@ class PlayerServiceImplTest {
         Collection<TransactionDto> response = playerService.getHistory("admin", null);
         assertThat(response.size()).isEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should return page with cursor of its last item when more transactions exist")
+    void shouldReturnHistoryPageWithNextCursor() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Transaction newest = new Transaction(UUID.randomUUID(), TransferRequestStatus.APPROVED,
+                "admin", "user", BigDecimal.ONE, now);
+        Transaction older = new Transaction(UUID.randomUUID(), TransferRequestStatus.APPROVED,
+                "user", "admin", BigDecimal.TEN, now.minusMinutes(1));
+        Transaction oldest = new Transaction(UUID.randomUUID(), TransferRequestStatus.PENDING,
+                "admin", "user", BigDecimal.TEN, now.minusMinutes(2));
+
+        when(mockTransactionCrudRepository.getTransactionsPage("admin", null, 3))
+                .thenReturn(List.of(newest, older, oldest));
+
+        TransactionPageDto page = playerService.getHistoryPage("admin", null, null, 2);
+
+        assertThat(page.getItems()).extracting(TransactionDto::getId).containsExactly(newest.getId(), older.getId());
+        assertThat(TransactionCursor.decode(page.getNextCursor())).isEqualTo(TransactionCursor.of(older));
+    }
+
+    @Test
+    @DisplayName("Should pass decoded cursor to repository and return last page without cursor")
+    void shouldReturnLastHistoryPageWithoutCursor() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000),
+                UUID.randomUUID());
+        Transaction transaction = new Transaction(UUID.randomUUID(), TransferRequestStatus.APPROVED,
+                "user", "admin", BigDecimal.ONE, cursor.getCreatedAt().minusSeconds(1));
+
+        when(mockTransactionCrudRepository.getCreditingTransactionsPage("admin", cursor, 21))
+                .thenReturn(List.of(transaction));
+
+        TransactionPageDto page = playerService.getHistoryPage("admin", PlayerAction.CREDIT, cursor.encode(), null);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+        verify(mockTransactionCrudRepository, never()).getTransactionsPage(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should clamp page size and reject malformed cursor")
+    void shouldClampPageSizeAndRejectMalformedCursor() {
+        when(mockTransactionCrudRepository.getDebitingTransactionsPage(any(), any(), anyInt()))
+                .thenReturn(List.of());
+
+        playerService.getHistoryPage("admin", PlayerAction.DEBIT, null, 10_000);
+        playerService.getHistoryPage("admin", PlayerAction.DEBIT, null, -5);
+
+        verify(mockTransactionCrudRepository).getDebitingTransactionsPage("admin", null, 101);
+        verify(mockTransactionCrudRepository).getDebitingTransactionsPage("admin", null, 2);
+        assertThatThrownBy(() -> playerService.getHistoryPage("admin", null, "not-a-cursor", null))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
@@ -6,11 +6,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import ru.yandex.wallet.exception.exceptions.UnauthorizedOperationException;
 import ru.yandex.wallet.service.impl.PlayerSessionServiceImpl;
+import ru.yandex.wallet.service.session.SessionStore;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -18,15 +19,17 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 @DisplayName("Player Session Service Test")
 public class PlayerSessionServiceTest {
     private PlayerSessionService playerSessionService;
-    private Map<UUID, AuthenticatedPlayerDto> authentications;
+    private SessionStore sessionStore;
+    private final AtomicLong clock = new AtomicLong();
     private UUID existingId;
 
     @BeforeEach
     public void init() {
         existingId = UUID.randomUUID();
-        authentications = new HashMap<>();
-        authentications.put(existingId, new AuthenticatedPlayerDto(null, null, null, null));
-        playerSessionService = new PlayerSessionServiceImpl(authentications);
+        sessionStore = new SessionStore(16, Duration.ofMinutes(30), Duration.ofHours(12), Duration.ofSeconds(1),
+                clock::get);
+        sessionStore.put(existingId, 1L);
+        playerSessionService = new PlayerSessionServiceImpl(sessionStore);
     }
 
     @Test
@@ -49,12 +52,22 @@ public class PlayerSessionServiceTest {
                 = new AuthenticatedPlayerDto(1L, "login", "username", BigDecimal.ONE);
         UUID id = playerSessionService.open(dto);
         assertThat(id).isNotNull();
+        assertThat(sessionStore.playerId(id)).hasValue(1L);
     }
 
     @Test
     @DisplayName("Should close existing session")
     public void shouldCloseExistingSession() {
         playerSessionService.close(existingId);
-        assertThat(authentications).isEmpty();
+        assertThat(sessionStore.stats().live()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject session after idle timeout")
+    public void shouldRejectIdleSession() {
+        clock.addAndGet(Duration.ofMinutes(31).toMillis());
+
+        assertThatThrownBy(() -> playerSessionService.exists(existingId))
+                .isInstanceOf(UnauthorizedOperationException.class);
     }
 }
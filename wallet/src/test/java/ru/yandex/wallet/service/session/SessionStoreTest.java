@@ -0,0 +1,84 @@
+package ru.yandex.wallet.service.session;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Session store test")
+class SessionStoreTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    @DisplayName("Should keep touched session alive and expire idle one on wheel tick")
+    @Test
+    void shouldExpireIdleSessions() {
+        SessionStore store = store(1024, Duration.ofSeconds(10), Duration.ofHours(1));
+        UUID active = UUID.randomUUID();
+        UUID idle = UUID.randomUUID();
+
+        store.put(active, 1L);
+        store.put(idle, 2L);
+
+        for (int i = 0; i < 4; i++) {
+            clock.addAndGet(4_000);
+            assertThat(store.touch(active)).isTrue();
+            store.expire();
+        }
+
+        assertThat(store.touch(idle)).isFalse();
+        assertThat(store.touch(active)).isTrue();
+        assertThat(store.stats().live()).isEqualTo(1);
+        assertThat(store.stats().expiredIdle()).isEqualTo(1);
+    }
+
+    @DisplayName("Should expire session after absolute timeout regardless of activity")
+    @Test
+    void shouldExpireAfterAbsoluteTimeout() {
+        SessionStore store = store(1024, Duration.ofSeconds(10), Duration.ofSeconds(30));
+        UUID id = UUID.randomUUID();
+        store.put(id, 1L);
+
+        for (int i = 0; i < 8; i++) {
+            clock.addAndGet(5_000);
+            store.touch(id);
+            store.expire();
+        }
+
+        assertThat(store.playerId(id)).isEmpty();
+        assertThat(store.stats().expiredAbsolute()).isEqualTo(1);
+        assertThat(store.stats().live()).isZero();
+    }
+
+    @DisplayName("Should evict sessions when full and keep lookups consistent after deletions")
+    @Test
+    void shouldEvictWhenFull() {
+        SessionStore store = store(64, Duration.ofMinutes(30), Duration.ofHours(12));
+        List<UUID> ids = new ArrayList<>();
+
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = UUID.randomUUID();
+            store.put(id, i);
+            ids.add(id);
+        }
+
+        SessionStore.Stats stats = store.stats();
+        assertThat(stats.live()).isLessThanOrEqualTo(64);
+        assertThat(stats.evicted()).isEqualTo(1_000 - stats.live());
+
+        long alive = ids.stream().filter(id -> store.playerId(id).isPresent()).count();
+        assertThat(alive).isEqualTo(stats.live());
+
+        ids.forEach(store::remove);
+        assertThat(store.stats().live()).isZero();
+    }
+
+    private SessionStore store(int maximumSize, Duration idleTimeout, Duration absoluteTimeout) {
+        return new SessionStore(maximumSize, idleTimeout, absoluteTimeout, Duration.ofSeconds(1), clock::get);
+    }
+}
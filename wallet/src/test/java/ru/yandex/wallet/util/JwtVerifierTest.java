@@ -0,0 +1,80 @@
+package ru.yandex.wallet.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.wallet.in.UnpackedJwtClaims;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Jwt verifier test")
+class JwtVerifierTest {
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private final JwtVerifier verifier = new JwtVerifier(SECRET, 16, clock::get);
+
+    @DisplayName("Should unpack claims and serve repeated token from cache")
+    @Test
+    void shouldCacheVerifiedToken() {
+        UUID sessionId = UUID.randomUUID();
+        String token = token(sessionId, null);
+
+        UnpackedJwtClaims first = verifier.verify(token);
+        UnpackedJwtClaims second = verifier.verify(token);
+
+        assertThat(first).isEqualTo(new UnpackedJwtClaims(1L, "admin", "username", sessionId));
+        assertThat(second).isSameAs(first);
+        assertThat(verifier.stats()).isEqualTo(new JwtVerifier.Stats(1, 1));
+        assertThat(JwtUtils.unpackClaims(token, SECRET)).isEqualTo(first);
+    }
+
+    @DisplayName("Should reject token with tampered signature even if original is cached")
+    @Test
+    void shouldRejectTamperedToken() {
+        String token = token(UUID.randomUUID(), null);
+        verifier.verify(token);
+
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A')
+                + token.charAt(token.length() - 1);
+
+        assertThatThrownBy(() -> verifier.verify(tampered)).isInstanceOf(SignatureException.class);
+    }
+
+    @DisplayName("Should verify token again once cached entry passes expiration")
+    @Test
+    void shouldHonorExpiration() {
+        long expiresAt = clock.get() + 60_000;
+        String token = token(UUID.randomUUID(), expiresAt);
+
+        verifier.verify(token);
+        clock.set(expiresAt + 1);
+        verifier.verify(token);
+
+        assertThat(verifier.stats().misses()).isEqualTo(2);
+        assertThatThrownBy(() -> verifier.verify(token(UUID.randomUUID(), System.currentTimeMillis() - 60_000)))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    private static String token(UUID sessionId, Long expiresAt) {
+        Map<String, Object> claims = new HashMap<>(Map.of("id", 1L,
+                "login", "admin",
+                "username", "username",
+                "session-id", sessionId));
+
+        if (expiresAt != null) {
+            claims.put("exp", expiresAt / 1000);
+        }
+
+        return JwtUtils.generateToken(SECRET, claims);
+    }
+}
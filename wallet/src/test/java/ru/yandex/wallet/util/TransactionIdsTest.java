@@ -0,0 +1,49 @@
+package ru.yandex.wallet.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Transaction ids test")
+class TransactionIdsTest {
+
+    @DisplayName("Should generate time-ordered UUIDv7 with recoverable creation time")
+    @Test
+    void shouldGenerateUuidV7WithCreationTime() {
+        long epochMillis = LocalDateTime.of(2024, 3, 15, 10, 30, 0, 123_000_000).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+        UUID first = TransactionIds.newId(epochMillis);
+        UUID second = TransactionIds.newId(epochMillis + 1);
+
+        assertThat(first.version()).isEqualTo(7);
+        assertThat(first.variant()).isEqualTo(2);
+        assertThat(TransactionIds.creationTime(first)).isEqualTo(LocalDateTime.of(2024, 3, 15, 10, 30, 0, 123_000_000));
+        assertThat(first.toString()).isLessThan(second.toString());
+    }
+
+    @DisplayName("Should not derive creation range when any id is not UUIDv7")
+    @Test
+    void shouldReturnNoRangeForRandomIds() {
+        assertThat(TransactionIds.creationTime(UUID.randomUUID())).isNull();
+        assertThat(TransactionIds.creationRange(List.of(TransactionIds.newId(), UUID.randomUUID()))).isNull();
+        assertThat(TransactionIds.creationRange(List.of())).isNull();
+    }
+
+    @DisplayName("Should cover all ids with half-open creation range")
+    @Test
+    void shouldCoverAllIdsWithCreationRange() {
+        UUID older = TransactionIds.newId(1_000L);
+        UUID newer = TransactionIds.newId(5_000L);
+
+        TransactionIds.CreationRange range = TransactionIds.creationRange(List.of(newer, older));
+
+        assertThat(range.from()).isEqualTo(TransactionIds.creationTime(older));
+        assertThat(range.to()).isEqualTo(TransactionIds.creationTime(newer).plusNanos(1_000_000));
+    }
+}